@@ -1,5 +1,6 @@
 package io.cryptobot;
 
+import io.cryptobot.configs.executor.ExecutorModeListener;
 import io.github.cdimascio.dotenv.Dotenv;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -17,7 +18,9 @@ public class FuturesBotApplication {
         dotenv.entries().forEach(entry ->
                 System.setProperty(entry.getKey(), entry.getValue())
         );
-        SpringApplication.run(FuturesBotApplication.class, args);
+        SpringApplication app = new SpringApplication(FuturesBotApplication.class);
+        app.addListeners(new ExecutorModeListener());
+        app.run(args);
     }
 
 }
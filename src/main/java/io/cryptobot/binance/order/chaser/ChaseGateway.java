@@ -0,0 +1,31 @@
+package io.cryptobot.binance.order.chaser;
+
+import io.cryptobot.binance.order.enums.OrderSide;
+import io.cryptobot.binance.order.model.Order;
+
+import java.math.BigDecimal;
+
+/**
+ * Операции биржи и рыночных данных, которые нужны {@link LimitOrderChaser}. Все вызовы синхронные
+ * и выполняются только в потоках планировщика догонялки. Ошибки не бросаются — возвращается null.
+ */
+public interface ChaseGateway {
+
+    /** Последняя цена символа (якорь для контроля дрейфа). */
+    BigDecimal lastPrice(String symbol);
+
+    /** Maker-цена из стакана: для BUY bid на levels уровней ниже, для SELL ask на levels выше. */
+    BigDecimal makerPrice(String symbol, OrderSide side, int levels);
+
+    /** Post-only лимитный ордер; id выставленного ордера или null. */
+    Long placeLimit(String symbol, Double quantity, OrderSide side, BigDecimal price);
+
+    /** Отмена ордера; состояние ордера после отмены (с исполненным объёмом) или null, если отменить не удалось. */
+    Order cancel(String symbol, Long orderId);
+
+    /** Текущее состояние ордера на бирже или null. */
+    Order query(String symbol, Long orderId);
+
+    /** Рыночный ордер на остаток. */
+    Order market(String symbol, Double quantity, OrderSide side);
+}
@@ -0,0 +1,52 @@
+package io.cryptobot.binance.order.chaser;
+
+import io.cryptobot.binance.order.enums.OrderSide;
+import io.cryptobot.binance.order.model.Order;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Состояние одной догонялки. Все поля, кроме anchor и marketQueued, меняются только под lock
+ * в потоках планировщика; anchor читается потоком цен для проверки дрейфа.
+ */
+final class LimitChase {
+    final String symbol;
+    final OrderSide side;
+    final BigDecimal amount;
+    final CompletableFuture<Order> future = new CompletableFuture<>();
+    final ReentrantLock lock = new ReentrantLock();
+    /** Переход на рынок уже поставлен в очередь — следующие тики его не дублируют. */
+    final AtomicBoolean marketQueued = new AtomicBoolean();
+
+    volatile double anchor = Double.NaN;
+
+    Long orderId;
+    /** Исполнено по уже отменённым лимиткам. */
+    BigDecimal filledBefore = BigDecimal.ZERO;
+    /** Исполнено по текущей лимитке (по частичным исполнениям из стрима). */
+    BigDecimal filledCurrent = BigDecimal.ZERO;
+    Order last;
+    boolean done;
+    ScheduledFuture<?> repriceTimer;
+    ScheduledFuture<?> deadlineTimer;
+
+    LimitChase(String symbol, OrderSide side, BigDecimal amount) {
+        this.symbol = symbol;
+        this.side = side;
+        this.amount = amount;
+    }
+
+    BigDecimal remaining() {
+        return amount.subtract(filledBefore).subtract(filledCurrent).max(BigDecimal.ZERO);
+    }
+
+    /** Дрейф цены от якоря в процентах достиг порога. */
+    boolean drifted(double price, double thresholdPct) {
+        double a = anchor;
+        return a > 0 && Math.abs(price - a) * 100.0 / a >= thresholdPct;
+    }
+}
@@ -0,0 +1,342 @@
+package io.cryptobot.binance.order.chaser;
+
+import io.cryptobot.binance.order.enums.OrderSide;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.model.Order;
+import io.cryptobot.configs.executor.BlockingExecutors;
+import io.cryptobot.market_data.price.PriceListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Догоняющий maker-ордер: лимитка на N_TICKS от лучшей цены, перевыставление каждые REPRICE_AFTER_MS
+ * или после отмены биржей, переход на рынок при дрейфе цены от якоря ≥ DRIFT_PCT или по истечении MAX_TIME_MS.
+ * <p>
+ * Вместо цикла со sleep и опросом REST каждая догонялка — машина состояний, которую двигают события:
+ * ORDER_TRADE_UPDATE ({@link #onOrderUpdate}), изменение цены/вершины стакана ({@link #onPrice}) и таймеры.
+ * Таймеры ведёт один поток планировщика, шаги с REST-вызовами выполняются в небольшом пуле
+ * {@link BlockingExecutors} (поток на шаг в режиме виртуальных потоков); поток вызывающего не блокируется.
+ */
+@Slf4j
+public class LimitOrderChaser implements PriceListener {
+    public static final int N_TICKS = 5;
+    public static final double DRIFT_PCT = 0.1;           // 0.1%
+    public static final long REPRICE_AFTER_MS = 5_000L;
+    public static final long MAX_TIME_MS = 30_000L;
+    private static final int THREADS = 2;
+    /** Сколько последних конечных обновлений помнить: GTX-отказ или быстрое исполнение приходит раньше ответа REST. */
+    private static final int RECENT_CAPACITY = 1_024;
+
+    private final ChaseGateway gateway;
+    private final long repriceAfterMs;
+    private final long maxTimeMs;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService workers;
+
+    private final ConcurrentHashMap<Long, LimitChase> byOrderId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<LimitChase>> bySymbol = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CompletableFuture<Order>, LimitChase> byFuture = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Order> recent = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> recentIds = new ConcurrentLinkedQueue<>();
+
+    public LimitOrderChaser(ChaseGateway gateway) {
+        this(gateway, REPRICE_AFTER_MS, MAX_TIME_MS);
+    }
+
+    LimitOrderChaser(ChaseGateway gateway, long repriceAfterMs, long maxTimeMs) {
+        this.gateway = gateway;
+        this.repriceAfterMs = repriceAfterMs;
+        this.maxTimeMs = maxTimeMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "order-chaser-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.workers = BlockingExecutors.newExecutor("order-chaser", THREADS);
+    }
+
+    /**
+     * Запускает догонялку. Future завершается итоговым ордером (исполненная лимитка, последняя лимитка
+     * или рыночный ордер на остаток) либо null, если выставить ордер не удалось.
+     */
+    public CompletableFuture<Order> chase(String symbol, Double amount, OrderSide side) {
+        LimitChase c = new LimitChase(symbol.toUpperCase(), side, BigDecimal.valueOf(amount));
+        byFuture.put(c.future, c);
+        if (!execute(() -> start(c))) {
+            finish(c, null);
+        }
+        return c.future;
+    }
+
+    /**
+     * Результат догонялки больше не ждут: future отменяется, текущая лимитка снимается, на рынок не выходим.
+     * Очередной шаг догонялки увидит отмену и выполнит снятие вместо своего действия.
+     */
+    public void abort(CompletableFuture<Order> future) {
+        LimitChase c = byFuture.get(future);
+        future.cancel(false);
+        if (c != null && !execute(() -> step(c, () -> {
+        }))) {
+            log.warn("⚠️ Chaser stopped, aborted chase {} left as is", c.symbol);
+        }
+    }
+
+    /**
+     * Обновление ордера из user data stream; чужие ордера игнорируются. Конечное обновление запоминается
+     * до проверки byOrderId, а attach проверяет его после регистрации — так событие не теряется,
+     * даже если пришло раньше ответа на выставление.
+     */
+    public void onOrderUpdate(Order update) {
+        if (update == null || update.getOrderId() == null) return;
+        if (isFinal(update)) remember(update);
+        LimitChase c = byOrderId.get(update.getOrderId());
+        if (c != null) {
+            execute(() -> step(c, () -> applyUpdate(c, update)));
+        }
+    }
+
+    @Override
+    public void onPrice(String symbol, double price) {
+        Set<LimitChase> chases = bySymbol.get(symbol);
+        if (chases == null || chases.isEmpty()) return;
+        for (LimitChase c : chases) {
+            if (c.drifted(price, DRIFT_PCT) && c.marketQueued.compareAndSet(false, true)) {
+                execute(() -> step(c, () -> {
+                    log.warn("⚠️ Price drift ≥ {}% for {} (anchor={}, price={}), switching to market",
+                            DRIFT_PCT, c.symbol, c.anchor, price);
+                    toMarket(c);
+                }));
+            }
+        }
+    }
+
+    public int activeChases() {
+        return byOrderId.size();
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+        for (LimitChase c : byOrderId.values()) {
+            log.warn("⚠️ Chaser stopped, limit order {} {} left as is", c.symbol, c.orderId);
+        }
+        byFuture.keySet().forEach(f -> f.complete(null));
+        byOrderId.clear();
+        bySymbol.clear();
+        byFuture.clear();
+    }
+
+    private void start(LimitChase c) {
+        step(c, () -> {
+            log.info("🚀 Starting limit chase: symbol={}, amount={}, side={}", c.symbol, c.amount, c.side);
+            BigDecimal anchor = gateway.lastPrice(c.symbol);
+            if (anchor == null) {
+                log.error("❌ No price for {}, limit chase aborted", c.symbol);
+                finish(c, null);
+                return;
+            }
+            BigDecimal price = gateway.makerPrice(c.symbol, c.side, N_TICKS);
+            Long orderId = price != null ? gateway.placeLimit(c.symbol, c.amount.doubleValue(), c.side, price) : null;
+            if (orderId == null) {
+                log.error("❌ Failed to place limit order: symbol={}, price={}", c.symbol, price);
+                finish(c, null);
+                return;
+            }
+            log.info("✅ Limit order placed: orderId={}, price={}, anchor={}", orderId, price, anchor);
+
+            c.anchor = anchor.doubleValue();
+            bySymbol.computeIfAbsent(c.symbol, k -> ConcurrentHashMap.newKeySet()).add(c);
+            attach(c, orderId);
+            c.repriceTimer = schedule(() -> step(c, () -> reprice(c, "timer", null)), repriceAfterMs);
+            c.deadlineTimer = schedule(() -> step(c, () -> {
+                log.warn("⏰ Limit chase timeout ({}ms) for {}, switching to market", maxTimeMs, c.symbol);
+                toMarket(c);
+            }), maxTimeMs);
+        });
+    }
+
+    private void applyUpdate(LimitChase c, Order update) {
+        if (!update.getOrderId().equals(c.orderId)) return; // ордер уже заменён
+        OrderStatus status = update.getOrderStatus();
+        if (status == OrderStatus.FILLED) {
+            log.info("🎉 Limit order filled: orderId={}", update.getOrderId());
+            finish(c, update);
+        } else if (status == null || status == OrderStatus.NEW) {
+            // PARTIALLY_FILLED не маппится в enum — берём накопленный объём
+            if (update.getCumulativeFilledQty() != null) {
+                c.filledCurrent = c.filledCurrent.max(update.getCumulativeFilledQty());
+            }
+        } else {
+            reprice(c, "status " + status, update); // биржа сама сняла ордер (GTX/истёк)
+        }
+    }
+
+    /** Отменяет текущую лимитку и ставит новую по свежей цене стакана; при неудаче — рынок. */
+    private void reprice(LimitChase c, String reason, Order known) {
+        BigDecimal remaining = cancelCurrent(c, known);
+        if (c.done) return;
+        if (remaining.signum() <= 0) {
+            log.info("✅ Limit chase completed (remaining <= 0): {}", c.last);
+            finish(c, c.last);
+            return;
+        }
+
+        BigDecimal price = gateway.makerPrice(c.symbol, c.side, N_TICKS);
+        Long orderId = price != null ? gateway.placeLimit(c.symbol, remaining.doubleValue(), c.side, price) : null;
+        if (orderId == null) {
+            log.error("❌ Failed to place new limit order, switching to market order");
+            finish(c, gateway.market(c.symbol, remaining.doubleValue(), c.side));
+            return;
+        }
+        log.info("🔄 Repriced ({}): orderId={}, price={}, remaining={}", reason, orderId, price, remaining);
+
+        BigDecimal tick = gateway.lastPrice(c.symbol);
+        if (tick != null) c.anchor = tick.doubleValue();
+        attach(c, orderId);
+        if (c.repriceTimer != null) c.repriceTimer.cancel(false);
+        c.repriceTimer = schedule(() -> step(c, () -> reprice(c, "timer", null)), repriceAfterMs);
+    }
+
+    private void toMarket(LimitChase c) {
+        BigDecimal remaining = cancelCurrent(c, null);
+        if (c.done) return;
+        if (remaining.signum() > 0) {
+            log.info("🔄 Creating market order for remaining amount: {}", remaining);
+            finish(c, gateway.market(c.symbol, remaining.doubleValue(), c.side));
+        } else {
+            finish(c, c.last);
+        }
+    }
+
+    /**
+     * Снимает текущую лимитку и возвращает неисполненный остаток. Если отменить не удалось, потому что
+     * ордер успел исполниться, догонялка завершается этим ордером. known — уже известное конечное
+     * состояние ордера из стрима, тогда отменять нечего.
+     */
+    private BigDecimal cancelCurrent(LimitChase c, Order known) {
+        Long orderId = c.orderId;
+        if (orderId == null) return c.remaining();
+        detach(c);
+
+        Order state = known != null ? known : gateway.cancel(c.symbol, orderId);
+        if (state == null) {
+            state = gateway.query(c.symbol, orderId);
+        }
+        if (state != null) {
+            c.last = state;
+            if (state.getOrderStatus() == OrderStatus.FILLED) {
+                log.info("🎉 Limit order {} filled before cancel", orderId);
+                finish(c, state);
+                return BigDecimal.ZERO;
+            }
+            if (state.getCumulativeFilledQty() != null) {
+                c.filledCurrent = c.filledCurrent.max(state.getCumulativeFilledQty());
+            }
+        }
+        c.filledBefore = c.filledBefore.add(c.filledCurrent);
+        c.filledCurrent = BigDecimal.ZERO;
+        return c.remaining();
+    }
+
+    private void attach(LimitChase c, Long orderId) {
+        c.orderId = orderId;
+        byOrderId.put(orderId, c);
+        Order early = recent.remove(orderId);
+        if (early != null) {
+            // повтор безопасен: applyUpdate сверяет orderId, завершённая догонялка шаги пропускает
+            execute(() -> step(c, () -> applyUpdate(c, early)));
+        }
+    }
+
+    private void remember(Order update) {
+        recent.put(update.getOrderId(), update);
+        recentIds.add(update.getOrderId());
+        while (recentIds.size() > RECENT_CAPACITY) {
+            Long old = recentIds.poll();
+            if (old != null) recent.remove(old);
+        }
+    }
+
+    private static boolean isFinal(Order order) {
+        OrderStatus status = order.getOrderStatus();
+        return status != null && status != OrderStatus.NEW;
+    }
+
+    private void detach(LimitChase c) {
+        if (c.orderId != null) byOrderId.remove(c.orderId, c);
+        c.orderId = null;
+    }
+
+    private void finish(LimitChase c, Order result) {
+        c.done = true;
+        detach(c);
+        if (c.repriceTimer != null) c.repriceTimer.cancel(false);
+        if (c.deadlineTimer != null) c.deadlineTimer.cancel(false);
+        Set<LimitChase> chases = bySymbol.get(c.symbol);
+        if (chases != null) chases.remove(c);
+        byFuture.remove(c.future);
+        c.future.complete(result);
+    }
+
+    /** Снятие по abort: исполненное до отмены вызывающий уже не получит — фиксируем в логе. */
+    private void cancelAborted(LimitChase c) {
+        Long orderId = c.orderId;
+        cancelCurrent(c, null);
+        if (c.done) {
+            log.error("❌ Limit order {} {} filled before abort, position is not tracked", c.symbol, orderId);
+            return;
+        }
+        BigDecimal filled = c.amount.subtract(c.remaining());
+        if (filled.signum() > 0) {
+            log.error("❌ Aborted limit chase {} {} had already filled {} (last order {}), position is not tracked",
+                    c.symbol, c.side, filled, orderId);
+        } else {
+            log.warn("⚠️ Limit chase {} {} aborted, order {} cancelled", c.symbol, c.side, orderId);
+        }
+        finish(c, null);
+    }
+
+    /** Шаг машины состояний: под замком догонялки, завершённые пропускаются, ошибка завершает догонялку с null. */
+    private void step(LimitChase c, Runnable action) {
+        c.lock.lock();
+        try {
+            if (c.done) return;
+            if (c.future.isCancelled()) {
+                cancelAborted(c);
+                return;
+            }
+            action.run();
+        } catch (Exception e) {
+            log.error("❌ Limit chase error: symbol={}, orderId={}", c.symbol, c.orderId, e);
+            if (c.orderId != null) gateway.cancel(c.symbol, c.orderId);
+            finish(c, null);
+        } finally {
+            c.lock.unlock();
+        }
+    }
+
+    /** Таймер только передаёт шаг в пул: поток планировщика не ждёт REST. */
+    private ScheduledFuture<?> schedule(Runnable task, long delayMs) {
+        return scheduler.schedule(() -> execute(task), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean execute(Runnable task) {
+        try {
+            workers.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false; // остановлены
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package io.cryptobot.binance.order.dao;
+
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.model.Order;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Последнее известное состояние ордеров — путь чтения вместо {@code findById} на каждый вызов.
+ * <p>
+ * Наполняется ответами REST (создание, лимитки, закрытие) и обновлениями из ORDER_TRADE_UPDATE.
+ * Ключ — примитивный orderId в открытой адресации: без боксинга Long и узлов на запись.
+ * Таблица разбита на STRIPES полос со своим локом, поток стрима и читатели почти не пересекаются.
+ * <p>
+ * Ордер в конечном статусе живёт ещё TERMINAL_GRACE_MS (его дочитывают после ожидания исполнения),
+ * затем его выметает фоновая чистка. Размер ограничен MAX_ORDERS: при переполнении полосы
+ * первыми вытесняются исполненные/отменённые ордера, потом самые давние активные.
+ */
+@Slf4j
+@Component
+public class OrderCache {
+    static final int MAX_ORDERS = 16_384;
+    static final long TERMINAL_GRACE_MS = 60_000;
+    private static final long SWEEP_INTERVAL_MS = 5_000;
+    private static final int STRIPE_BITS = 4;
+    private static final long ACTIVE = Long.MAX_VALUE;
+
+    private final Stripe[] stripes;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "order-cache-sweeper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public OrderCache() {
+        this(MAX_ORDERS);
+    }
+
+    OrderCache(int maxOrders) {
+        int count = 1 << STRIPE_BITS;
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(Math.max(1, maxOrders / count));
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                int removed = sweep(System.currentTimeMillis());
+                if (removed > 0) log.debug("🧹 Order cache: {} terminal orders evicted, {} cached", removed, size());
+            } catch (Exception e) {
+                log.error("❌ Order cache sweep failed: {}", e.getMessage(), e);
+            }
+        }, SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Запомнить состояние ордера. Ответ REST может прийти позже события стрима,
+     * поэтому конечный статус не затирается активным.
+     */
+    public void put(Order order) {
+        if (order == null || order.getOrderId() == null) return;
+        long id = order.getOrderId();
+        long h = mix(id);
+        Stripe s = stripes[(int) (h >>> (64 - STRIPE_BITS))];
+        s.lock.lock();
+        try {
+            s.put(id, (int) h, order, System.currentTimeMillis());
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /** Закэшированный ордер или null. */
+    public Order get(long orderId) {
+        long h = mix(orderId);
+        Stripe s = stripes[(int) (h >>> (64 - STRIPE_BITS))];
+        s.lock.lock();
+        try {
+            int slot = s.find(orderId, (int) h);
+            return slot >= 0 ? s.orders[slot] : null;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    public int size() {
+        int n = 0;
+        for (Stripe s : stripes) {
+            s.lock.lock();
+            try {
+                n += s.size;
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        return n;
+    }
+
+    /** Убирает конечные ордера, чей срок вышел к nowMs; возвращает их число. */
+    int sweep(long nowMs) {
+        int removed = 0;
+        for (Stripe s : stripes) {
+            s.lock.lock();
+            try {
+                removed += s.sweep(nowMs);
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    static boolean isTerminal(Order order) {
+        OrderStatus status = order.getOrderStatus();
+        return status != null && status != OrderStatus.NEW;
+    }
+
+    /** Перемешивание murmur3: старшие биты выбирают полосу, младшие — слот. */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /** Открытая адресация с линейным пробированием; все методы — под lock. */
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final int limit;
+        final int mask;
+        final long[] keys;
+        final Order[] orders;      // null — свободный слот
+        final long[] expiresAt;    // ACTIVE, пока ордер не в конечном статусе
+        final long[] touchedAt;
+        int size;
+
+        Stripe(int limit) {
+            this.limit = limit;
+            int cap = Integer.highestOneBit(limit * 2 - 1) << 1;
+            this.mask = cap - 1;
+            this.keys = new long[cap];
+            this.orders = new Order[cap];
+            this.expiresAt = new long[cap];
+            this.touchedAt = new long[cap];
+        }
+
+        int find(long key, int h) {
+            for (int i = h & mask; orders[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) return i;
+            }
+            return -1;
+        }
+
+        void put(long key, int h, Order order, long nowMs) {
+            boolean terminal = isTerminal(order);
+            int slot = find(key, h);
+            if (slot >= 0) {
+                if (!terminal && expiresAt[slot] != ACTIVE) return; // запоздавший ответ REST
+                if (terminal && expiresAt[slot] != ACTIVE) {
+                    orders[slot] = order; // срок отсчитывается от первого конечного статуса
+                    return;
+                }
+            } else {
+                if (size >= limit) evictOne(nowMs);
+                slot = h & mask;
+                while (orders[slot] != null) slot = (slot + 1) & mask;
+                keys[slot] = key;
+                size++;
+            }
+            orders[slot] = order;
+            expiresAt[slot] = terminal ? nowMs + TERMINAL_GRACE_MS : ACTIVE;
+            touchedAt[slot] = nowMs;
+        }
+
+        int sweep(long nowMs) {
+            int removed = 0;
+            for (int i = 0; i <= mask; ) {
+                if (orders[i] != null && expiresAt[i] <= nowMs) {
+                    removeAt(i); // на место i мог сдвинуться следующий — проверяем слот ещё раз
+                    removed++;
+                } else {
+                    i++;
+                }
+            }
+            return removed;
+        }
+
+        /** Переполнение: сначала просроченные, иначе конечный с ближайшим сроком, иначе самый давний активный. */
+        private void evictOne(long nowMs) {
+            if (sweep(nowMs) > 0) return;
+            int victim = -1;
+            for (int i = 0; i <= mask; i++) {
+                if (orders[i] == null) continue;
+                if (victim < 0 || expiresAt[i] < expiresAt[victim]
+                        || (expiresAt[i] == expiresAt[victim] && touchedAt[i] < touchedAt[victim])) {
+                    victim = i;
+                }
+            }
+            if (victim >= 0) removeAt(victim);
+        }
+
+        /** Удаление со сдвигом назад: цепочки пробирования остаются непрерывными без надгробий. */
+        private void removeAt(int slot) {
+            int gap = slot;
+            for (int i = (slot + 1) & mask; orders[i] != null; i = (i + 1) & mask) {
+                int home = (int) mix(keys[i]) & mask;
+                if (((i - home) & mask) >= ((i - gap) & mask)) {
+                    keys[gap] = keys[i];
+                    orders[gap] = orders[i];
+                    expiresAt[gap] = expiresAt[i];
+                    touchedAt[gap] = touchedAt[i];
+                    gap = i;
+                }
+            }
+            orders[gap] = null;
+            size--;
+        }
+    }
+}
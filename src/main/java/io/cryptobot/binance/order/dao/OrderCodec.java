@@ -0,0 +1,116 @@
+package io.cryptobot.binance.order.dao;
+
+import io.cryptobot.binance.order.enums.OrderSide;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.enums.OrderType;
+import io.cryptobot.binance.order.model.Order;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import static io.cryptobot.configs.mongo.BsonFields.*;
+
+/**
+ * Ручное преобразование {@link Order} в документ и обратно вместо маппинга через рефлексию.
+ * Имена полей те же, что писал маппинг Spring Data, суммы — Decimal128.
+ */
+public final class OrderCodec {
+
+    private OrderCodec() {
+    }
+
+    public static Document encode(Order o) {
+        Document d = new Document();
+        put(d, "_id", o.getOrderId());
+        put(d, "symbol", o.getSymbol());
+        put(d, "clientOrderId", o.getClientOrderId());
+        put(d, "side", name(o.getSide()));
+        put(d, "orderType", name(o.getOrderType()));
+        put(d, "timeInForce", o.getTimeInForce());
+        put(d, "quantity", decimal(o.getQuantity()));
+        put(d, "price", decimal(o.getPrice()));
+        put(d, "averagePrice", decimal(o.getAveragePrice()));
+        put(d, "stopPrice", decimal(o.getStopPrice()));
+        put(d, "executionType", o.getExecutionType());
+        put(d, "orderStatus", name(o.getOrderStatus()));
+        put(d, "lastFilledQty", decimal(o.getLastFilledQty()));
+        put(d, "cumulativeFilledQty", decimal(o.getCumulativeFilledQty()));
+        put(d, "lastFilledPrice", decimal(o.getLastFilledPrice()));
+        put(d, "commission", decimal(o.getCommission()));
+        put(d, "commissionAsset", o.getCommissionAsset());
+        d.put("tradeTime", o.getTradeTime());
+        d.put("tradeId", o.getTradeId());
+        d.put("buyerIsMaker", o.isBuyerIsMaker());
+        d.put("reduceOnly", o.isReduceOnly());
+        put(d, "workingType", o.getWorkingType());
+        put(d, "originalType", o.getOriginalType());
+        put(d, "positionSide", o.getPositionSide());
+        d.put("closePosition", o.isClosePosition());
+        put(d, "realizedPnl", decimal(o.getRealizedPnl()));
+        d.put("isPositionPnl", o.isPositionPnl());
+        d.put("sideEffectType", o.getSideEffectType());
+        d.put("stopStatus", o.getStopStatus());
+        put(d, "originalResponseType", o.getOriginalResponseType());
+        put(d, "positionMode", o.getPositionMode());
+        d.put("goodTillDate", o.getGoodTillDate());
+        return d;
+    }
+
+    public static Order decode(Document d) {
+        return Order.builder()
+                .orderId(getLong(d, "_id"))
+                .symbol(d.getString("symbol"))
+                .clientOrderId(d.getString("clientOrderId"))
+                .side(getEnum(d, "side", OrderSide.class))
+                .orderType(getEnum(d, "orderType", OrderType.class))
+                .timeInForce(d.getString("timeInForce"))
+                .quantity(getDecimal(d, "quantity"))
+                .price(getDecimal(d, "price"))
+                .averagePrice(getDecimal(d, "averagePrice"))
+                .stopPrice(getDecimal(d, "stopPrice"))
+                .executionType(d.getString("executionType"))
+                .orderStatus(getEnum(d, "orderStatus", OrderStatus.class))
+                .lastFilledQty(getDecimal(d, "lastFilledQty"))
+                .cumulativeFilledQty(getDecimal(d, "cumulativeFilledQty"))
+                .lastFilledPrice(getDecimal(d, "lastFilledPrice"))
+                .commission(getDecimal(d, "commission"))
+                .commissionAsset(d.getString("commissionAsset"))
+                .tradeTime(getLong(d, "tradeTime", 0L))
+                .tradeId(getLong(d, "tradeId", 0L))
+                .buyerIsMaker(getBoolean(d, "buyerIsMaker", false))
+                .reduceOnly(getBoolean(d, "reduceOnly", false))
+                .workingType(d.getString("workingType"))
+                .originalType(d.getString("originalType"))
+                .positionSide(d.getString("positionSide"))
+                .closePosition(getBoolean(d, "closePosition", false))
+                .realizedPnl(getDecimal(d, "realizedPnl"))
+                .isPositionPnl(getBoolean(d, "isPositionPnl", false))
+                .sideEffectType(getInt(d, "sideEffectType", 0))
+                .stopStatus(getInt(d, "stopStatus", 0))
+                .originalResponseType(d.getString("originalResponseType"))
+                .positionMode(d.getString("positionMode"))
+                .goodTillDate(getLong(d, "goodTillDate", 0L))
+                .build();
+    }
+
+    @WritingConverter
+    public enum Writer implements Converter<Order, Document> {
+        INSTANCE;
+
+        @Override
+        public Document convert(Order source) {
+            return encode(source);
+        }
+    }
+
+    @ReadingConverter
+    public enum Reader implements Converter<Document, Order> {
+        INSTANCE;
+
+        @Override
+        public Order convert(Document source) {
+            return decode(source);
+        }
+    }
+}
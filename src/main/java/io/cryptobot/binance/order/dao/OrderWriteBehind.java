@@ -0,0 +1,143 @@
+package io.cryptobot.binance.order.dao;
+
+import io.cryptobot.binance.order.model.Order;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Отложенная запись обновлений ордеров из ORDER_TRADE_UPDATE.
+ * <p>
+ * Обновления склеиваются по orderId в памяти. Слияние {@code OrderHelper.mergeAndDetectChanges} переносит
+ * все поля, поэтому документ после серии обновлений равен последнему из них — его и храним.
+ * Раз в FLUSH_INTERVAL_MS или при FLUSH_BATCH ожидающих ордерах накопленное пишется одним bulkWrite.
+ * Как и раньше, обновляются только уже сохранённые ордера: если документа ещё нет (стрим обогнал
+ * сохранение ответа REST), обновление ждёт до MAX_PENDING_AGE_MS и затем отбрасывается.
+ * Пока обновление не записано, читатели получают его из памяти.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderWriteBehind {
+    static final int FLUSH_BATCH = 256;
+    static final long FLUSH_INTERVAL_MS = 200;
+    static final long MAX_PENDING_AGE_MS = 5_000;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ConcurrentHashMap<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "order-write-behind");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Последнее обновление ордера и время первого незаписанного — для отсечки по возрасту. */
+    private record Pending(Order order, long sinceMs) {
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushSafely, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Ставит обновление в очередь на запись; не блокирует вызывающий поток. */
+    public void enqueue(Order update) {
+        long now = System.currentTimeMillis();
+        pending.merge(update.getOrderId(), new Pending(update, now), (old, cur) -> new Pending(cur.order(), old.sinceMs()));
+        if (pending.size() >= FLUSH_BATCH && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushRequested.set(false);
+                    flushSafely();
+                });
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false); // остановлены, запишем при shutdown
+            }
+        }
+    }
+
+    /** Ещё не записанная версия ордера или null. */
+    public Order get(Long orderId) {
+        if (orderId == null) return null;
+        Pending p = pending.get(orderId);
+        return p != null ? p.order() : null;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private void flushSafely() {
+        try {
+            flush(System.currentTimeMillis());
+        } catch (Exception e) {
+            log.error("❌ Order write-behind flush failed, {} orders kept for retry: {}", pending.size(), e.getMessage(), e);
+        }
+    }
+
+    /** Выполняется только потоком записи (или при остановке, когда он уже завершён). */
+    void flush(long nowMs) {
+        if (pending.isEmpty()) return;
+        Map<Long, Pending> batch = new HashMap<>(pending);
+
+        Query existingQuery = Query.query(Criteria.where("_id").in(batch.keySet()));
+        existingQuery.fields().include("_id");
+        Set<Long> existing = new HashSet<>();
+        for (Order o : mongoTemplate.find(existingQuery, Order.class)) {
+            existing.add(o.getOrderId());
+        }
+
+        BulkOperations bulk = null;
+        List<Map.Entry<Long, Pending>> written = new ArrayList<>();
+        for (Map.Entry<Long, Pending> e : batch.entrySet()) {
+            if (existing.contains(e.getKey())) {
+                if (bulk == null) bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+                bulk.replaceOne(Query.query(Criteria.where("_id").is(e.getKey())), e.getValue().order());
+                written.add(e);
+            } else if (nowMs - e.getValue().sinceMs() > MAX_PENDING_AGE_MS) {
+                log.warn("⚠️ Order with ID {} still not found after {} ms, giving up", e.getKey(), nowMs - e.getValue().sinceMs());
+                pending.remove(e.getKey(), e.getValue());
+            }
+        }
+        if (bulk == null) return;
+
+        bulk.execute();
+        // новое обновление, пришедшее во время записи, остаётся в очереди
+        for (Map.Entry<Long, Pending> e : written) {
+            pending.remove(e.getKey(), e.getValue());
+        }
+        log.debug("💾 Flushed {} order updates, {} pending", written.size(), pending.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushSafely();
+    }
+}
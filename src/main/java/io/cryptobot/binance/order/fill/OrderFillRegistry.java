@@ -0,0 +1,22 @@
+package io.cryptobot.binance.order.fill;
+
+import io.cryptobot.binance.order.model.Order;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ожидание исполнения ордера по событиям user data stream вместо опроса Mongo.
+ */
+public interface OrderFillRegistry {
+
+    /**
+     * Future завершается ордером в конечном статусе (FILLED, CANCELED, EXPIRED, REJECTED), как только придёт
+     * ORDER_TRADE_UPDATE. Если события нет за timeoutMs — статус запрашивается у Binance; null, если ордер
+     * так и не дошёл до конечного статуса. К моменту завершения ордер уже передан в OrderService.updateOrder
+     * и виден через getOrder (в Mongo он попадает с отложенной записью).
+     */
+    CompletableFuture<Order> awaitFill(Order order, long timeoutMs);
+
+    /** Обновление из ORDER_TRADE_UPDATE — вызывается после OrderService.updateOrder. */
+    void onOrderUpdate(Order update);
+}
@@ -0,0 +1,115 @@
+package io.cryptobot.binance.order.fill;
+
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.model.Order;
+import io.cryptobot.binance.order.service.OrderService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderFillRegistryImpl implements OrderFillRegistry {
+    /** Сколько последних конечных обновлений помнить: событие часто приходит раньше, чем начали ждать. */
+    private static final int RECENT_CAPACITY = 1_024;
+
+    private final OrderService orderService;
+
+    private final ConcurrentHashMap<Long, CompletableFuture<Order>> waiting = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Order> recent = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> recentIds = new ConcurrentLinkedQueue<>();
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "order-fill-timeout");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Override
+    public CompletableFuture<Order> awaitFill(Order order, long timeoutMs) {
+        if (order == null || order.getOrderId() == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Long orderId = order.getOrderId();
+        if (isFinal(order)) {
+            return CompletableFuture.completedFuture(order);
+        }
+
+        CompletableFuture<Order> created = new CompletableFuture<>();
+        CompletableFuture<Order> existing = waiting.putIfAbsent(orderId, created);
+        CompletableFuture<Order> future = existing != null ? existing : created;
+        if (existing == null) {
+            created.whenComplete((o, e) -> waiting.remove(orderId, created));
+            try {
+                ScheduledFuture<?> timeout = timer.schedule(() -> fallback(order, created), timeoutMs, TimeUnit.MILLISECONDS);
+                created.whenComplete((o, e) -> timeout.cancel(false));
+            } catch (RejectedExecutionException e) {
+                created.complete(null); // остановлены
+            }
+        }
+
+        // событие могло прийти до регистрации
+        Order early = recent.get(orderId);
+        if (early != null) {
+            future.complete(early);
+        }
+        return future;
+    }
+
+    @Override
+    public void onOrderUpdate(Order update) {
+        if (update == null || update.getOrderId() == null || !isFinal(update)) return;
+
+        recent.put(update.getOrderId(), update);
+        recentIds.add(update.getOrderId());
+        while (recentIds.size() > RECENT_CAPACITY) {
+            Long old = recentIds.poll();
+            if (old != null) recent.remove(old);
+        }
+
+        CompletableFuture<Order> future = waiting.get(update.getOrderId());
+        if (future != null && future.complete(update)) {
+            log.debug("Order {} reached {} via user data stream", update.getOrderId(), update.getOrderStatus());
+        }
+    }
+
+    /** Событие не пришло вовремя — спрашиваем Binance напрямую и сохраняем ответ, как сделал бы стрим. */
+    private void fallback(Order order, CompletableFuture<Order> future) {
+        if (future.isDone()) return;
+        Order result = null;
+        try {
+            Order rest = orderService.getOrderFromBinance(order.getOrderId(), order.getSymbol());
+            if (rest != null && isFinal(rest)) {
+                orderService.updateOrder(rest);
+                result = rest;
+            }
+            log.warn("⚠️ No stream update for order {} in time, REST status: {}",
+                    order.getOrderId(), rest == null ? null : rest.getOrderStatus());
+        } catch (Exception e) {
+            log.warn("⚠️ REST fallback failed for order {}: {}", order.getOrderId(), e.getMessage());
+        }
+        future.complete(result);
+    }
+
+    private static boolean isFinal(Order order) {
+        OrderStatus status = order.getOrderStatus();
+        return status != null && status != OrderStatus.NEW;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        waiting.values().forEach(f -> f.complete(null));
+    }
+}
@@ -95,7 +95,7 @@ public class OrderMapper {
         }
     }
 
-    private static OrderSide parseOrderSide(String raw) {
+    public static OrderSide parseOrderSide(String raw) {
         if (raw == null) return null;
         try {
             return OrderSide.valueOf(raw.toUpperCase());
@@ -104,7 +104,7 @@ public class OrderMapper {
         }
     }
 
-    private static OrderStatus parseOrderStatus(String raw) {
+    public static OrderStatus parseOrderStatus(String raw) {
         if (raw == null) return null;
         try {
             return OrderStatus.valueOf(raw.toUpperCase());
@@ -113,7 +113,7 @@ public class OrderMapper {
         }
     }
 
-    private static OrderType parseOrderType(String raw) {
+    public static OrderType parseOrderType(String raw) {
         if (raw == null) return null;
         try {
             return OrderType.valueOf(raw.toUpperCase());
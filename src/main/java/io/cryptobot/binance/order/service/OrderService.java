@@ -7,6 +7,7 @@ import io.cryptobot.binance.trade.session.model.TradeOrder;
 import io.cryptobot.binance.trade.trade_plan.model.SizeModel;
 
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
 
 public interface OrderService {
     void updateOrder(Order updatedOrder);
@@ -15,6 +16,12 @@ public interface OrderService {
 
     Order createLimitOrElseMarket(String symbol, Double amount, OrderSide side, SizeModel sizes);
 
+    /**
+     * Maker-ордер с догонянием цены и переходом на рынок; не блокирует вызывающий поток.
+     * Future завершается итоговым ордером или null, если ордер выставить не удалось.
+     */
+    CompletableFuture<Order> createLimitOrElseMarketAsync(String symbol, Double amount, OrderSide side, SizeModel sizes);
+
     Order closeOrder(Order order);
 
     Order closeOrder(BigDecimal count, OrderSide closingSide, String symbol, TradingDirection direction);
@@ -3,7 +3,11 @@ package io.cryptobot.binance.order.service;
 import com.binance.connector.futures.client.impl.UMFuturesClientImpl;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cryptobot.binance.order.chaser.ChaseGateway;
+import io.cryptobot.binance.order.chaser.LimitOrderChaser;
+import io.cryptobot.binance.order.dao.OrderCache;
 import io.cryptobot.binance.order.dao.OrderRepository;
+import io.cryptobot.binance.order.dao.OrderWriteBehind;
 import io.cryptobot.binance.order.enums.OrderSide;
 import io.cryptobot.binance.order.enums.OrderStatus;
 import io.cryptobot.binance.order.mapper.OrderMapper;
@@ -12,7 +16,9 @@ import io.cryptobot.binance.trade.session.enums.TradingDirection;
 import io.cryptobot.binance.trade.session.model.TradeOrder;
 import io.cryptobot.binance.trade.trade_plan.model.SizeModel;
 import io.cryptobot.market_data.depth.DepthService;
-import io.cryptobot.market_data.ticker24h.Ticker24hService;
+import io.cryptobot.market_data.price.PriceFeed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -22,19 +28,37 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.LinkedHashMap;
-
-import io.cryptobot.helpers.OrderHelper;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
+    private final OrderWriteBehind writeBehind;
+    private final OrderCache orderCache;
     private final ObjectMapper objectMapper;
-    private final Ticker24hService ticker24hService;
+    private final PriceFeed priceFeed;
     private final DepthService depthService;
     private final UMFuturesClientImpl client;
 
+    // Сверх MAX_TIME_MS догонялке нужно время на отмену и рыночный ордер на остаток
+    private static final long CHASE_GRACE_MS = 15_000L;
+    private final LimitOrderChaser chaser = new LimitOrderChaser(new ChaserGateway());
+
+    @PostConstruct
+    public void startChaser() {
+        priceFeed.addListener(chaser);
+    }
+
+    @PreDestroy
+    public void stopChaser() {
+        priceFeed.removeListener(chaser);
+        chaser.shutdown();
+    }
+
     //    @Scheduled(initialDelay = 30_000)
     @Transactional
     public void init() {
@@ -86,61 +110,19 @@ public class OrderServiceImpl implements OrderService {
 
     }
 
+    /**
+     * Обновление из ORDER_TRADE_UPDATE: в кэш и догонялке — сразу, в Mongo — через {@link OrderWriteBehind},
+     * который склеивает частые обновления одного ордера и пишет их пачкой. Поток стрима не ждёт БД.
+     */
     @Override
-    @Transactional
     public void updateOrder(Order updatedOrder) {
         if (updatedOrder == null || updatedOrder.getOrderId() == null) {
             log.warn("⚠️ Updated order or orderId is null, skipping");
             return;
         }
-
-        final int maxRetries = 5;
-        long delayMs = 100;
-        int attempt = 0;
-
-        while (attempt < maxRetries) {
-            attempt++;
-            try {
-                Order existingOrder = orderRepository.findById(updatedOrder.getOrderId()).orElse(null);
-                if (existingOrder == null) {
-                    log.debug("Order {} not found in DB (attempt {}/{})", updatedOrder.getOrderId(), attempt, maxRetries);
-                    if (attempt >= maxRetries) {
-                        log.warn("⚠️ Order with ID {} still not found after {} attempts, giving up", updatedOrder.getOrderId(), attempt);
-                        return;
-                    }
-                    Thread.sleep(delayMs);
-                    delayMs = Math.min(1600, delayMs * 2);
-                    continue;
-                }
-
-                StringBuilder changes = new StringBuilder();
-                boolean changed = OrderHelper.mergeAndDetectChanges(existingOrder, updatedOrder, changes);
-
-                if (changed) {
-                    log.debug("🔄 Updating order {}: {}", existingOrder.getOrderId(), changes);
-                    log.debug("Before saving: cumulativeFilledQty={}, realizedPnl={}", existingOrder.getCumulativeFilledQty(), existingOrder.getRealizedPnl());
-                    orderRepository.save(existingOrder);
-                } else {
-                    log.debug("✅ Order {} already up to date.", existingOrder.getOrderId());
-                }
-                return;
-
-            } catch (Exception e) {
-                log.error("❌ Error updating order (attempt {}/{}): {}", attempt, maxRetries, e.getMessage(), e);
-                if (attempt >= maxRetries) {
-                    log.error("💥 Order update failed after {} attempts.", maxRetries);
-                    return;
-                }
-                try {
-                    Thread.sleep(Math.min(3200, delayMs));
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    log.warn("Interrupted while backing off", ie);
-                    return;
-                }
-                delayMs *= 2;
-            }
-        }
+        orderCache.put(updatedOrder);
+        chaser.onOrderUpdate(updatedOrder);
+        writeBehind.enqueue(updatedOrder);
     }
 
     @Override
@@ -180,7 +162,7 @@ public class OrderServiceImpl implements OrderService {
                 order.getOrderId(), order.getOrderStatus(), 
                 order.getCumulativeFilledQty(), order.getAveragePrice());
             
-            orderRepository.save(order);
+            saveAndCache(order);
             return order;
 
         } catch (Exception e) {
@@ -192,143 +174,30 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional
     public Order createLimitOrElseMarket(String symbol, Double amount, OrderSide side, SizeModel sizes) {
-        // локальные пороги
-        final int N_TICKS = 5;
-        final BigDecimal DRIFT_PCT = new BigDecimal("0.1");   // 0.1%
-        final long REPRICE_AFTER_MS = 5_000L;
-        final long MAX_TIME_MS = 30_000L;
-        final int POLL_MS = 1_000;
-
+        CompletableFuture<Order> future = createLimitOrElseMarketAsync(symbol, amount, side, sizes);
         try {
-            log.info("🚀 Starting createLimitOrElseMarket: symbol={}, amount={}, side={}", symbol, amount, side);
-            
-            final long tStart = System.currentTimeMillis();
-            BigDecimal anchor = ticker24hService.getPrice(symbol); // last tick price
-            log.info("📊 Initial anchor price: {} for symbol: {}", anchor, symbol);
-
-            // limit price from depth
-            BigDecimal limitPrice = (side == OrderSide.BUY)
-                    ? depthService.getBidPriceBelow(symbol, N_TICKS)   // maker BUY: bid или ниже
-                    : depthService.getAskPriceAbove(symbol, N_TICKS);  // maker SELL: ask или выше
-            
-            log.info("💰 Calculated limit price: {} (side={}, N_TICKS={})", limitPrice, side, N_TICKS);
-
-            Long orderId = placeLimit(symbol, amount, side, limitPrice);
-            if (orderId == null) {
-                log.error("❌ Failed to place limit order, returning null");
-                return null;
-            }
-            
-            log.info("✅ Limit order placed successfully: orderId={}, price={}", orderId, limitPrice);
-
-            long lastRepriceAt = System.currentTimeMillis();
-
-            while (System.currentTimeMillis() - tStart < MAX_TIME_MS) {
-                Thread.sleep(POLL_MS);
-
-                Order od = getOrderFromBinance(orderId, symbol);
-                if (od == null) {
-                    log.warn("⚠️ Could not retrieve order from Binance: orderId={}", orderId);
-                    continue;
-                }
-                
-                log.info("📋 Order status check: orderId={}, status={}, filled={}, remaining={}", 
-                    orderId, od.getOrderStatus(), 
-                    od.getCumulativeFilledQty() != null ? od.getCumulativeFilledQty() : "null",
-                    od.getCumulativeFilledQty() != null ? BigDecimal.valueOf(amount).subtract(od.getCumulativeFilledQty()) : "null");
-                
-                if (od.getOrderStatus() == OrderStatus.FILLED) {
-                    log.info("🎉 Order fully filled: orderId={}", orderId);
-                    return od;
-                }
-
-                BigDecimal filled = od.getCumulativeFilledQty() != null ? od.getCumulativeFilledQty() : BigDecimal.ZERO;
-                BigDecimal remaining = BigDecimal.valueOf(amount).subtract(filled).max(BigDecimal.ZERO);
-                if (remaining.compareTo(BigDecimal.ZERO) <= 0) {
-                    log.info("✅ Order completed (remaining <= 0): orderId={}, filled={}", orderId, filled);
-                    return od;
-                }
-
-                // if price > 0.1 -> market order
-                BigDecimal curTick = ticker24hService.getPrice(symbol);
-                log.info("📈 Current tick price: {}, anchor price: {}", curTick, anchor);
-                
-                if (anchor.signum() > 0) {
-                    BigDecimal driftPct = curTick.subtract(anchor).abs()
-                            .multiply(BigDecimal.valueOf(100))
-                            .divide(anchor, 8, RoundingMode.HALF_UP);
-                    
-                    log.info("📊 Price drift calculation: current={}, anchor={}, driftPct={}%, threshold={}%", 
-                        curTick, anchor, driftPct, DRIFT_PCT);
-                    
-                    if (driftPct.compareTo(DRIFT_PCT) >= 0) {
-                        log.warn("⚠️ Price drift exceeded threshold! Drift: {}% >= {}%, cancelling limit order and switching to market", 
-                            driftPct, DRIFT_PCT);
-                        cancelOrderSilently(symbol, orderId);
-                        log.info("🔄 Creating market order for remaining amount: {}", remaining);
-                        return createOrder(symbol, remaining.doubleValue(), side, true);
-                    }
-                }
-
-                // recreate order or if order is not filled
-                long timeSinceLastReprice = System.currentTimeMillis() - lastRepriceAt;
-                boolean shouldReprice = timeSinceLastReprice >= REPRICE_AFTER_MS
-                        || od.getOrderStatus() == OrderStatus.CANCELED
-                        || od.getOrderStatus() == OrderStatus.EXPIRED
-                        || od.getOrderStatus() == OrderStatus.REJECTED;
-                
-                if (shouldReprice) {
-                    log.info("🔄 Repricing order: timeSinceLastReprice={}ms, status={}, shouldReprice={}", 
-                        timeSinceLastReprice, od.getOrderStatus(), shouldReprice);
-                    
-                    cancelOrderSilently(symbol, orderId);
-
-                    BigDecimal newPrice = (side == OrderSide.BUY)
-                            ? depthService.getBidPriceBelow(symbol, N_TICKS)   // BUY → bidBelow (maker)
-                            : depthService.getAskPriceAbove(symbol, N_TICKS);  // SELL → askAbove (maker)
-
-                    
-                    log.info("💰 New limit price: {} (previous: {})", newPrice, limitPrice);
-
-                    orderId = placeLimit(symbol, remaining.doubleValue(), side, newPrice);
-                    if (orderId == null) {
-                        log.error("❌ Failed to place new limit order, switching to market order");
-                        return createOrder(symbol, remaining.doubleValue(), side, true);
-                    }
-                    
-                    log.info("✅ New limit order placed: orderId={}, price={}, remaining={}", orderId, newPrice, remaining);
-
-                    anchor = curTick;                 // new last tick
-                    lastRepriceAt = System.currentTimeMillis();
-                    log.info("📊 Updated anchor price: {}", anchor);
-                }
-            }
-
-            // timeout 30 sec, if we dont have limit filled - create market
-            log.warn("⏰ Timeout reached ({}ms), checking final order status", MAX_TIME_MS);
-            
-            Order last = getOrderFromBinance(orderId, symbol);
-            BigDecimal filled = last != null && last.getCumulativeFilledQty() != null ? last.getCumulativeFilledQty() : BigDecimal.ZERO;
-            BigDecimal remaining = BigDecimal.valueOf(amount).subtract(filled).max(BigDecimal.ZERO);
-            
-            log.info("📋 Final order status: orderId={}, filled={}, remaining={}", orderId, filled, remaining);
-            
-            cancelOrderSilently(symbol, orderId);
-            
-            if (remaining.compareTo(BigDecimal.ZERO) > 0) {
-                log.info("🔄 Creating final market order for remaining amount: {}", remaining);
-                return createOrder(symbol, remaining.doubleValue(), side, true);
-            } else {
-                log.info("✅ Order completed via timeout handling: {}", last);
-                return last;
-            }
-
+            return future.get(LimitOrderChaser.MAX_TIME_MS + CHASE_GRACE_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // вызывающий получит null («позиции нет») — догонялка не должна исполнить ордер после этого
+            log.error("❌ Limit chase did not finish in time, aborting: symbol={}, amount={}, side={}", symbol, amount, side);
+            chaser.abort(future);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("⚠️ Interrupted while waiting for limit chase: symbol={}, side={}", symbol, side);
+            chaser.abort(future);
+            return null;
         } catch (Exception e) {
             log.error("❌ createLimitOrElseMarket error: symbol={}, amount={}, side={}", symbol, amount, side, e);
             return null;
         }
     }
 
+    @Override
+    public CompletableFuture<Order> createLimitOrElseMarketAsync(String symbol, Double amount, OrderSide side, SizeModel sizes) {
+        return chaser.chase(symbol, amount, side);
+    }
+
     private BigDecimal buildPriceLimit(OrderSide side, BigDecimal tickSize, BigDecimal price) {
         final BigDecimal OFFSET = new BigDecimal("0.001");
         BigDecimal shifted = (side == OrderSide.BUY)
@@ -382,7 +251,7 @@ public class OrderServiceImpl implements OrderService {
 
             JsonNode node = objectMapper.readTree(response);
             Order closed = OrderMapper.fromRest(node);
-            orderRepository.save(closed);
+            saveAndCache(closed);
             log.info("Mapped and saved closed order: {}", closed);
             return closed;
 
@@ -421,7 +290,7 @@ public class OrderServiceImpl implements OrderService {
 
             JsonNode node = objectMapper.readTree(response);
             Order closed = OrderMapper.fromRest(node);
-            orderRepository.save(closed);
+            saveAndCache(closed);
             return closed;
 
         } catch (Exception e) {
@@ -471,7 +340,7 @@ public class OrderServiceImpl implements OrderService {
 
             JsonNode node = objectMapper.readTree(response);
             Order closed = OrderMapper.fromRest(node);
-            orderRepository.save(closed);
+            saveAndCache(closed);
             log.info("Mapped and saved closed order: {}", closed);
             return closed;
 
@@ -492,7 +361,13 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional
     public Order getOrder(Long idOrder) {
-        return orderRepository.findById(idOrder).orElse(null);
+        Order cached = idOrder != null ? orderCache.get(idOrder) : null;
+        if (cached != null) return cached;
+        Order pendingOrder = writeBehind.get(idOrder); // свежее, чем в БД, пока не записано
+        if (pendingOrder != null) return pendingOrder;
+        Order stored = orderRepository.findById(idOrder).orElse(null);
+        orderCache.put(stored);
+        return stored;
     }
 
     @Override
@@ -540,7 +415,7 @@ public class OrderServiceImpl implements OrderService {
 
                 String res = client.account().newOrder(p);
                 Order order = OrderMapper.fromRest(objectMapper.readTree(res));
-                orderRepository.save(order);
+                saveAndCache(order);
                 return order.getOrderId();
             } catch (com.binance.connector.futures.client.exceptions.BinanceClientException e) {
                 if (e.getMessage() != null && e.getMessage().contains("\"code\":-5022")) {
@@ -559,7 +434,13 @@ public class OrderServiceImpl implements OrderService {
     }
 
 
-    private void cancelOrderSilently(String symbol, Long orderId) {
+    /** Ответ REST — в Mongo и сразу в кэш, чтобы ожидающие исполнения читали его без запроса к БД. */
+    private void saveAndCache(Order order) {
+        orderRepository.save(order);
+        orderCache.put(order);
+    }
+
+    private Order cancelOrderSilently(String symbol, Long orderId) {
         try {
             log.info("🚫 Cancelling order: symbol={}, orderId={}", symbol, orderId);
             
@@ -568,11 +449,53 @@ public class OrderServiceImpl implements OrderService {
             p.put("orderId", orderId);
             
             log.info("📤 Sending cancel order request: {}", p);
-            client.account().cancelOrder(p);
+            String res = client.account().cancelOrder(p);
             
             log.info("✅ Order cancelled successfully: symbol={}, orderId={}", symbol, orderId);
+            return OrderMapper.fromRest(objectMapper.readTree(res));
         } catch (Exception e) {
             log.warn("⚠️ cancelOrderSilently warning: symbol={}, orderId={}, error={}", symbol, orderId, e.getMessage());
+            return null;
+        }
+    }
+
+    /** Биржевые операции для догонялки: те же REST-вызовы, что и у остального сервиса. */
+    private class ChaserGateway implements ChaseGateway {
+        @Override
+        public BigDecimal lastPrice(String symbol) {
+            return priceFeed.getPrice(symbol);
+        }
+
+        @Override
+        public BigDecimal makerPrice(String symbol, OrderSide side, int levels) {
+            return (side == OrderSide.BUY)
+                    ? depthService.getBidPriceBelow(symbol, levels)   // maker BUY: bid или ниже
+                    : depthService.getAskPriceAbove(symbol, levels);  // maker SELL: ask или выше
+        }
+
+        @Override
+        public Long placeLimit(String symbol, Double quantity, OrderSide side, BigDecimal price) {
+            try {
+                return OrderServiceImpl.this.placeLimit(symbol, quantity, side, price);
+            } catch (Exception e) {
+                log.error("❌ Failed to place limit order: symbol={}, price={}, error={}", symbol, price, e.getMessage());
+                return null;
+            }
+        }
+
+        @Override
+        public Order cancel(String symbol, Long orderId) {
+            return cancelOrderSilently(symbol, orderId);
+        }
+
+        @Override
+        public Order query(String symbol, Long orderId) {
+            return getOrderFromBinance(orderId, symbol);
+        }
+
+        @Override
+        public Order market(String symbol, Double quantity, OrderSide side) {
+            return createOrder(symbol, quantity, side, true);
         }
     }
-}
\ No newline at end of file
+}
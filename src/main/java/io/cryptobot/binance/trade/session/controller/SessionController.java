@@ -1,13 +1,14 @@
 package io.cryptobot.binance.trade.session.controller;
 
 import io.cryptobot.binance.trade.session.dto.PnlResultDto;
-import io.cryptobot.binance.trade.session.dto.SessionAllDto;
 import io.cryptobot.binance.trade.session.dto.SessionDto;
+import io.cryptobot.binance.trade.session.dto.SessionPageDto;
 import io.cryptobot.binance.trade.session.enums.SessionStatus;
 import io.cryptobot.binance.trade.session.enums.TradingDirection;
 import io.cryptobot.binance.trade.session.model.TradeOrder;
 import io.cryptobot.binance.trade.session.service.get.TradeSessionGetService;
 import io.cryptobot.binance.trade.session.service.handle_work.SessionHandleActionsService;
+import io.cryptobot.binance.trade.session.service.pnl.PnlRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -25,11 +26,16 @@ import java.util.List;
 public class SessionController {
     private final TradeSessionGetService sessionGetService;
     private final SessionHandleActionsService handleActionsService;
+    private final PnlRollupService pnlRollupService;
 
+    private static final String DEFAULT_PAGE_SIZE = "50";
+
+    // списки — постранично, новые первыми; nextCursor из ответа передаётся в cursor за следующей страницей
     @GetMapping("/all")
     @ResponseStatus(HttpStatus.OK)
-    public List<SessionAllDto> getAll() {
-        return sessionGetService.getAll();
+    public SessionPageDto getAll(@RequestParam(required = false) String cursor,
+                                 @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return sessionGetService.getAll(cursor, limit);
     }
 
     @GetMapping("/{idSession}")
@@ -40,14 +46,18 @@ public class SessionController {
 
     @GetMapping("/plan/{plan}")
     @ResponseStatus(HttpStatus.OK)
-    public List<SessionAllDto> getAllByPlan(@PathVariable String plan) {
-        return sessionGetService.getAllByPlan(plan);
+    public SessionPageDto getAllByPlan(@PathVariable String plan,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return sessionGetService.getAllByPlan(plan, cursor, limit);
     }
 
     @GetMapping("/status/{status}")
     @ResponseStatus(HttpStatus.OK)
-    public List<SessionAllDto> getAllByStatus(@PathVariable SessionStatus status) {
-        return sessionGetService.getAllByStatus(status);
+    public SessionPageDto getAllByStatus(@PathVariable SessionStatus status,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return sessionGetService.getAllByStatus(status, cursor, limit);
     }
 
     @GetMapping("/pnl/all")
@@ -85,6 +95,13 @@ public class SessionController {
         return sessionGetService.calcPnlByTimeRangeAndSymbol(from, to, symbol);
     }
 
+    // пересборка PnL-корзин по истории сессий
+    @PutMapping("/pnl/rebuild")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void rebuildPnl() {
+        pnlRollupService.rebuild();
+    }
+
     //handle actions
     @PutMapping("/{idSession}/close-all")
     @ResponseStatus(HttpStatus.OK)
@@ -0,0 +1,7 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.trade.session.model.ArchivedSession;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ArchivedSessionRepository extends MongoRepository<ArchivedSession, String>, ArchivedSessionRepositoryCustom {
+}
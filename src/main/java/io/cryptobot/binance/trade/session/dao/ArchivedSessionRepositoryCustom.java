@@ -0,0 +1,23 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.trade.session.dto.SessionAllDto;
+import io.cryptobot.binance.trade.session.model.ArchivedSession;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Чтение архива теми же запросами, что и рабочей коллекции; в архиве только COMPLETED сессии.
+ */
+public interface ArchivedSessionRepositoryCustom {
+
+    /** Записывает сессии одним bulkWrite; повторная запись той же сессии её заменяет. */
+    void upsertAll(List<ArchivedSession> sessions);
+
+    /** Как {@link TradeSessionRepositoryCustom#findSummaries}, без фильтра статуса. */
+    List<SessionAllDto> findSummaries(String tradePlan, SessionCursor after, int limit);
+
+    /** Как {@link TradeSessionRepositoryCustom#findCompletedPnl}. */
+    List<TradeSession> findCompletedPnl(String tradePlan, LocalDateTime from, boolean fromInclusive, LocalDateTime to);
+}
@@ -0,0 +1,46 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.trade.session.dto.SessionAllDto;
+import io.cryptobot.binance.trade.session.model.ArchivedSession;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Реализация {@link ArchivedSessionRepositoryCustom} на MongoTemplate.
+ * Сводные поля архива называются как в trade-session, поэтому запросы общие с {@link TradeSessionRepositoryImpl}.
+ */
+@RequiredArgsConstructor
+public class ArchivedSessionRepositoryImpl implements ArchivedSessionRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void upsertAll(List<ArchivedSession> sessions) {
+        if (sessions.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ArchivedSession.class);
+        for (ArchivedSession session : sessions) {
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(session.getId())), session,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public List<SessionAllDto> findSummaries(String tradePlan, SessionCursor after, int limit) {
+        return mongoTemplate.find(TradeSessionRepositoryImpl.summaryQuery(tradePlan, null, after, limit), SessionAllDto.class,
+                mongoTemplate.getCollectionName(ArchivedSession.class));
+    }
+
+    @Override
+    public List<TradeSession> findCompletedPnl(String tradePlan, LocalDateTime from, boolean fromInclusive, LocalDateTime to) {
+        return mongoTemplate.find(TradeSessionRepositoryImpl.completedPnlQuery(tradePlan, from, fromInclusive, to), TradeSession.class,
+                mongoTemplate.getCollectionName(ArchivedSession.class));
+    }
+}
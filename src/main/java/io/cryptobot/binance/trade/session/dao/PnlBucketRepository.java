@@ -0,0 +1,7 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.trade.session.model.PnlBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface PnlBucketRepository extends MongoRepository<PnlBucket, String>, PnlBucketRepositoryCustom {
+}
@@ -0,0 +1,32 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.trade.session.enums.PnlGranularity;
+import io.cryptobot.binance.trade.session.model.PnlBucket;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PnlBucketRepositoryCustom {
+
+    /** Прибавляет одну завершённую сессию к корзине ($inc с upsert — корзина создаётся при первой сессии). */
+    void add(String tradePlan, PnlGranularity granularity, LocalDateTime bucketStart, BigDecimal pnl, BigDecimal commission);
+
+    /** Обратное к {@link #add}: вычитает сессию из корзины, если её учёт пришлось откатить. */
+    void subtract(String tradePlan, PnlGranularity granularity, LocalDateTime bucketStart, BigDecimal pnl, BigDecimal commission);
+
+    /**
+     * Корзины с началом в [from, to).
+     *
+     * @param tradePlan план или null для всех
+     * @param from      начало или null без ограничения
+     * @param to        конец (исключительно) или null без ограничения
+     */
+    List<PnlBucket> findBuckets(String tradePlan, PnlGranularity granularity, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Пересобирает корзины по всем COMPLETED сессиям одной агрегацией на сервере
+     * ($group по плану и $dateTrunc, затем $merge в коллекцию корзин). Старые корзины не удаляет.
+     */
+    void rebuildFromSessions();
+}
@@ -0,0 +1,117 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.trade.session.enums.PnlGranularity;
+import io.cryptobot.binance.trade.session.enums.SessionStatus;
+import io.cryptobot.binance.trade.session.model.ArchivedSession;
+import io.cryptobot.binance.trade.session.model.PnlBucket;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import io.cryptobot.configs.mongo.BsonFields;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Реализация {@link PnlBucketRepositoryCustom} на MongoTemplate.
+ * <p>
+ * LocalDateTime пишется в Mongo через зону JVM, поэтому и $dateTrunc при пересборке режет в той же зоне —
+ * иначе суточные корзины из агрегации и из {@link PnlGranularity#bucketStart} не совпали бы.
+ */
+@RequiredArgsConstructor
+public class PnlBucketRepositoryImpl implements PnlBucketRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void add(String tradePlan, PnlGranularity granularity, LocalDateTime bucketStart, BigDecimal pnl, BigDecimal commission) {
+        increment(tradePlan, granularity, bucketStart, nvl(pnl), nvl(commission), 1L);
+    }
+
+    @Override
+    public void subtract(String tradePlan, PnlGranularity granularity, LocalDateTime bucketStart, BigDecimal pnl, BigDecimal commission) {
+        increment(tradePlan, granularity, bucketStart, nvl(pnl).negate(), nvl(commission).negate(), -1L);
+    }
+
+    private void increment(String tradePlan, PnlGranularity granularity, LocalDateTime bucketStart,
+                           BigDecimal pnl, BigDecimal commission, long sessions) {
+        Query query = Query.query(Criteria.where("tradePlan").is(tradePlan)
+                .and("granularity").is(granularity)
+                .and("bucketStart").is(bucketStart));
+        Update update = new Update()
+                .inc("pnl", BsonFields.decimal(pnl))
+                .inc("commission", BsonFields.decimal(commission))
+                .inc("sessions", sessions);
+        mongoTemplate.upsert(query, update, PnlBucket.class);
+    }
+
+    @Override
+    public List<PnlBucket> findBuckets(String tradePlan, PnlGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        Criteria criteria = Criteria.where("granularity").is(granularity);
+        if (tradePlan != null) criteria.and("tradePlan").is(tradePlan);
+        if (from != null || to != null) {
+            Criteria start = criteria.and("bucketStart");
+            if (from != null) start.gte(from);
+            if (to != null) start.lt(to);
+        }
+        Query query = Query.query(criteria).with(Sort.by("bucketStart"));
+        return mongoTemplate.find(query, PnlBucket.class);
+    }
+
+    @Override
+    public void rebuildFromSessions() {
+        String sessions = mongoTemplate.getCollectionName(TradeSession.class);
+        String archive = mongoTemplate.getCollectionName(ArchivedSession.class);
+        String buckets = mongoTemplate.getCollectionName(PnlBucket.class);
+        for (PnlGranularity granularity : PnlGranularity.values()) {
+            mongoTemplate.aggregate(rebuildPipeline(granularity, archive, buckets), sessions, Document.class);
+        }
+    }
+
+    /** Рабочая коллекция и архив: в архиве те же поля сводки верхнего уровня. */
+    static Aggregation rebuildPipeline(PnlGranularity granularity, String archive, String buckets) {
+        Document completed = new Document("$match", new Document("status", SessionStatus.COMPLETED.name())
+                .append("createdTime", new Document("$ne", null)));
+        Document bucketStart = new Document("$dateTrunc", new Document("date", "$createdTime")
+                .append("unit", granularity.mongoUnit())
+                .append("timezone", ZoneId.systemDefault().getId()));
+
+        List<AggregationOperation> stages = List.of(
+                ctx -> completed,
+                ctx -> new Document("$unionWith", new Document("coll", archive).append("pipeline", List.of(completed))),
+                ctx -> new Document("$group", new Document("_id", new Document("tradePlan", "$tradePlan").append("bucketStart", bucketStart))
+                        .append("pnl", new Document("$sum", toDecimal("$pnl")))
+                        .append("commission", new Document("$sum", toDecimal("$totalCommission")))
+                        .append("sessions", new Document("$sum", 1L))),
+                ctx -> new Document("$project", new Document("_id", 0)
+                        .append("tradePlan", "$_id.tradePlan")
+                        .append("granularity", new Document("$literal", granularity.name()))
+                        .append("bucketStart", "$_id.bucketStart")
+                        .append("pnl", 1)
+                        .append("commission", 1)
+                        .append("sessions", 1)),
+                ctx -> new Document("$merge", new Document("into", buckets)
+                        .append("on", List.of("tradePlan", "granularity", "bucketStart"))
+                        .append("whenMatched", "replace")
+                        .append("whenNotMatched", "insert"))
+        );
+        return Aggregation.newAggregation(stages);
+    }
+
+    /** Сессии до миграции хранят BigDecimal строкой — $toDecimal понимает и строку, и Decimal128; пустое считаем нулём. */
+    private static Document toDecimal(String field) {
+        return new Document("$toDecimal", new Document("$ifNull", List.of(field, "0")));
+    }
+
+    private static BigDecimal nvl(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
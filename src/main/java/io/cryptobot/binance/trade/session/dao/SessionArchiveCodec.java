@@ -0,0 +1,87 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import com.mongodb.MongoClientSettings;
+import io.cryptobot.binance.trade.session.model.ArchivedSession;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Компактная запись сессии для архива: документ {@link TradeSessionCodec} в BSON, сжатый deflate.
+ * Ордера сессии однотипны (символ, enum-ы, имена полей), поэтому сжимаются в разы.
+ */
+public final class SessionArchiveCodec {
+    private static final Codec<Document> BSON = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+
+    private SessionArchiveCodec() {
+    }
+
+    public static ArchivedSession archive(TradeSession session, LocalDateTime archivedAt) {
+        return ArchivedSession.builder()
+                .id(session.getId())
+                .tradePlan(session.getTradePlan())
+                .status(session.getStatus())
+                .pnl(session.getPnl())
+                .totalCommission(session.getTotalCommission())
+                .pnlTotal(session.getPnlTotal())
+                .createdTime(session.getCreatedTime())
+                .lastModified(session.getLastModified())
+                .endTime(session.getEndTime())
+                .durationMinutes(session.getDurationMinutes())
+                .archivedAt(archivedAt)
+                .payload(deflate(new RawBsonDocument(TradeSessionCodec.encode(session), BSON).getByteBuffer().asNIO()))
+                .build();
+    }
+
+    public static TradeSession restore(ArchivedSession archived) {
+        Document doc = new RawBsonDocument(inflate(archived.getPayload())).decode(BSON);
+        return TradeSessionCodec.decode(doc);
+    }
+
+    static byte[] deflate(ByteBuffer bson) {
+        byte[] input = new byte[bson.remaining()];
+        bson.get(input);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 4 + 64);
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buf, 0, deflater.deflate(buf));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] inflate(byte[] payload) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 4);
+            byte[] buf = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buf);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated archived session payload");
+                }
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted archived session payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.trade.session.dto.SessionAllDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в выдаче сессий «новые первыми»: следующая страница начинается строго после
+ * (createdTime, id) последней отданной сессии. Клиенту уходит непрозрачной base64url-строкой.
+ */
+public record SessionCursor(LocalDateTime createdTime, String id) {
+    private static final char SEPARATOR = '|';
+
+    public static SessionCursor after(SessionAllDto last) {
+        return new SessionCursor(last.getCreatedTime(), last.getId());
+    }
+
+    public String encode() {
+        String raw = createdTime.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** null для пустого токена — первая страница. */
+    public static SessionCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(SEPARATOR);
+            if (sep <= 0 || sep == raw.length() - 1) throw new IllegalArgumentException("Invalid cursor");
+            return new SessionCursor(LocalDateTime.parse(raw.substring(0, sep)), raw.substring(sep + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
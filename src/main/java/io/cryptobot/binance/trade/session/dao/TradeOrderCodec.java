@@ -0,0 +1,109 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.order.enums.OrderPurpose;
+import io.cryptobot.binance.order.enums.OrderSide;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.enums.OrderType;
+import io.cryptobot.binance.trade.session.enums.SessionMode;
+import io.cryptobot.binance.trade.session.enums.TradingDirection;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.math.BigDecimal;
+
+import static io.cryptobot.configs.mongo.BsonFields.*;
+
+/**
+ * Ручное преобразование {@link TradeOrder} (элемент orders в сессии) в документ и обратно.
+ * Отсутствующие поля получают те же значения по умолчанию, что и у полей класса.
+ */
+public final class TradeOrderCodec {
+
+    private TradeOrderCodec() {
+    }
+
+    public static Document encode(TradeOrder o) {
+        Document d = new Document();
+        put(d, "orderId", o.getOrderId());
+        put(d, "creationContext", o.getCreationContext());
+        put(d, "purpose", name(o.getPurpose()));
+        put(d, "direction", name(o.getDirection()));
+        put(d, "symbol", o.getSymbol());
+        put(d, "side", name(o.getSide()));
+        put(d, "type", name(o.getType()));
+        put(d, "count", decimal(o.getCount()));
+        put(d, "price", decimal(o.getPrice()));
+        put(d, "amount", decimal(o.getAmount()));
+        put(d, "commission", decimal(o.getCommission()));
+        put(d, "commissionAsset", o.getCommissionAsset());
+        put(d, "status", name(o.getStatus()));
+        put(d, "pnl", decimal(o.getPnl()));
+        d.put("leverage", o.getLeverage());
+        put(d, "parentOrderId", o.getParentOrderId());
+        put(d, "relatedHedgeId", o.getRelatedHedgeId());
+        put(d, "modeAtCreation", name(o.getModeAtCreation()));
+        put(d, "orderTime", date(o.getOrderTime()));
+        put(d, "pnlHigh", decimal(o.getPnlHigh()));
+        put(d, "trailingActive", o.getTrailingActive());
+        put(d, "haveAveraging", o.getHaveAveraging());
+        put(d, "idAveragingOrder", o.getIdAveragingOrder());
+        put(d, "basePnl", decimal(o.getBasePnl()));
+        put(d, "maxChangePnl", decimal(o.getMaxChangePnl()));
+        return d;
+    }
+
+    public static TradeOrder decode(Document d) {
+        Boolean trailingActive = getBoolean(d, "trailingActive");
+        Boolean haveAveraging = getBoolean(d, "haveAveraging");
+        return TradeOrder.builder()
+                .orderId(getLong(d, "orderId"))
+                .creationContext(d.getString("creationContext"))
+                .purpose(getEnum(d, "purpose", OrderPurpose.class))
+                .direction(getEnum(d, "direction", TradingDirection.class))
+                .symbol(d.getString("symbol"))
+                .side(getEnum(d, "side", OrderSide.class))
+                .type(getEnum(d, "type", OrderType.class))
+                .count(getDecimal(d, "count"))
+                .price(getDecimal(d, "price"))
+                .amount(getDecimal(d, "amount", BigDecimal.ZERO))
+                .commission(getDecimal(d, "commission", BigDecimal.ZERO))
+                .commissionAsset(d.getString("commissionAsset"))
+                .status(getEnum(d, "status", OrderStatus.class))
+                .pnl(getDecimal(d, "pnl", BigDecimal.ZERO))
+                .leverage(getInt(d, "leverage", 0))
+                .parentOrderId(getLong(d, "parentOrderId"))
+                .relatedHedgeId(getLong(d, "relatedHedgeId"))
+                .modeAtCreation(getEnum(d, "modeAtCreation", SessionMode.class))
+                .orderTime(getDateTime(d, "orderTime"))
+                .pnlHigh(getDecimal(d, "pnlHigh", BigDecimal.ZERO))
+                .trailingActive(trailingActive != null ? trailingActive : false)
+                .haveAveraging(haveAveraging != null ? haveAveraging : false)
+                .idAveragingOrder(getLong(d, "idAveragingOrder"))
+                .basePnl(getDecimal(d, "basePnl"))
+                .maxChangePnl(getDecimal(d, "maxChangePnl"))
+                .build();
+    }
+
+    @WritingConverter
+    public enum Writer implements Converter<TradeOrder, Document> {
+        INSTANCE;
+
+        @Override
+        public Document convert(TradeOrder source) {
+            return encode(source);
+        }
+    }
+
+    @ReadingConverter
+    public enum Reader implements Converter<Document, TradeOrder> {
+        INSTANCE;
+
+        @Override
+        public TradeOrder convert(Document source) {
+            return decode(source);
+        }
+    }
+}
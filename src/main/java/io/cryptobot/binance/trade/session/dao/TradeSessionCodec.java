@@ -0,0 +1,119 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.trade.session.enums.SessionMode;
+import io.cryptobot.binance.trade.session.enums.SessionStatus;
+import io.cryptobot.binance.trade.session.enums.TradingDirection;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.cryptobot.configs.mongo.BsonFields.*;
+
+/**
+ * Ручное преобразование {@link TradeSession} в документ и обратно, ордера — через {@link TradeOrderCodec}.
+ * Читает и неполные документы (проекции): отсутствующие поля получают значения по умолчанию.
+ */
+public final class TradeSessionCodec {
+
+    private TradeSessionCodec() {
+    }
+
+    public static Document encode(TradeSession s) {
+        Document d = new Document();
+        put(d, "_id", id(s.getId()));
+        put(d, "tradePlan", s.getTradePlan());
+        put(d, "status", name(s.getStatus()));
+        put(d, "mainPosition", s.getMainPosition());
+        if (s.getOrders() != null) {
+            List<Document> orders = new ArrayList<>(s.getOrders().size());
+            for (TradeOrder order : s.getOrders()) {
+                orders.add(TradeOrderCodec.encode(order));
+            }
+            d.put("orders", orders);
+        }
+        put(d, "currentMode", name(s.getCurrentMode()));
+        put(d, "direction", name(s.getDirection()));
+        put(d, "pnl", decimal(s.getPnl()));
+        put(d, "totalCommission", decimal(s.getTotalCommission()));
+        put(d, "pnlTotal", decimal(s.getPnlTotal()));
+        put(d, "hedgeOpenCount", s.getHedgeOpenCount());
+        put(d, "hedgeCloseCount", s.getHedgeCloseCount());
+        put(d, "countAverageOrders", s.getCountAverageOrders());
+        put(d, "entryContext", s.getEntryContext());
+        d.put("activeLong", s.isActiveLong());
+        d.put("activeShort", s.isActiveShort());
+        d.put("activeAverageLong", s.isActiveAverageLong());
+        d.put("activeAverageShort", s.isActiveAverageShort());
+        d.put("processing", s.isProcessing());
+        put(d, "version", s.getVersion());
+        d.put("pnlRolledUp", s.isPnlRolledUp());
+        put(d, "createdTime", date(s.getCreatedTime()));
+        put(d, "lastModified", date(s.getLastModified()));
+        put(d, "endTime", date(s.getEndTime()));
+        put(d, "durationMinutes", s.getDurationMinutes());
+        return d;
+    }
+
+    public static TradeSession decode(Document d) {
+        List<TradeOrder> orders = new ArrayList<>();
+        if (d.get("orders") instanceof List<?> stored) {
+            for (Object o : stored) {
+                if (o instanceof Document od) orders.add(TradeOrderCodec.decode(od));
+            }
+        }
+        return TradeSession.builder()
+                .id(getId(d))
+                .tradePlan(d.getString("tradePlan"))
+                .status(getEnum(d, "status", SessionStatus.class))
+                .mainPosition(getLong(d, "mainPosition"))
+                .orders(orders)
+                .currentMode(getEnum(d, "currentMode", SessionMode.class))
+                .direction(getEnum(d, "direction", TradingDirection.class))
+                .pnl(getDecimal(d, "pnl", BigDecimal.ZERO))
+                .totalCommission(getDecimal(d, "totalCommission", BigDecimal.ZERO))
+                .pnlTotal(getDecimal(d, "pnlTotal", BigDecimal.ZERO))
+                .hedgeOpenCount(getInt(d, "hedgeOpenCount", 0))
+                .hedgeCloseCount(getInt(d, "hedgeCloseCount", 0))
+                .countAverageOrders(getInt(d, "countAverageOrders", 0))
+                .entryContext(d.getString("entryContext"))
+                .activeLong(getBoolean(d, "activeLong", false))
+                .activeShort(getBoolean(d, "activeShort", false))
+                .activeAverageLong(getBoolean(d, "activeAverageLong", false))
+                .activeAverageShort(getBoolean(d, "activeAverageShort", false))
+                .processing(getBoolean(d, "processing", false))
+                .version(getLong(d, "version"))
+                .pnlRolledUp(getBoolean(d, "pnlRolledUp", false))
+                .createdTime(getDateTime(d, "createdTime"))
+                .lastModified(getDateTime(d, "lastModified"))
+                .endTime(getDateTime(d, "endTime"))
+                .durationMinutes(getLong(d, "durationMinutes"))
+                .build();
+    }
+
+    @WritingConverter
+    public enum Writer implements Converter<TradeSession, Document> {
+        INSTANCE;
+
+        @Override
+        public Document convert(TradeSession source) {
+            return encode(source);
+        }
+    }
+
+    @ReadingConverter
+    public enum Reader implements Converter<Document, TradeSession> {
+        INSTANCE;
+
+        @Override
+        public TradeSession convert(Document source) {
+            return decode(source);
+        }
+    }
+}
@@ -7,7 +7,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import java.time.LocalDateTime;
 import java.util.List;
 
-public interface TradeSessionRepository extends MongoRepository<TradeSession, String> {
+public interface TradeSessionRepository extends MongoRepository<TradeSession, String>, TradeSessionRepositoryCustom {
     List<TradeSession> findAllByStatus(SessionStatus status);
 
     List<TradeSession> findAllByTradePlan(String tradePlan);
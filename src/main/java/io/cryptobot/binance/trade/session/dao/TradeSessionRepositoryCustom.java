@@ -0,0 +1,93 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.trade.session.dto.SessionAllDto;
+import io.cryptobot.binance.trade.session.enums.SessionStatus;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Точечные обновления сессии: массив ордеров и остальные поля не перечитываются и не перезаписываются.
+ */
+public interface TradeSessionRepositoryCustom {
+
+    /** Счётчики и итоги сессии до добавления ордера — от них считаются приращения для $inc. */
+    record Counters(int hedgeOpens, int hedgeCloses, int averageOpens,
+                    BigDecimal pnl, BigDecimal commission, BigDecimal pnlTotal) {
+        public static Counters of(TradeSession session) {
+            return new Counters(
+                    nz(session.getHedgeOpenCount()),
+                    nz(session.getHedgeCloseCount()),
+                    nz(session.getCountAverageOrders()),
+                    nz(session.getPnl()),
+                    nz(session.getTotalCommission()),
+                    nz(session.getPnlTotal()));
+        }
+
+        static int nz(Integer value) {
+            return value != null ? value : 0;
+        }
+
+        static BigDecimal nz(BigDecimal value) {
+            return value != null ? value : BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * Дописывает ордер ($push), прибавляет счётчики и итоги PnL/комиссии ($inc) и выставляет флаги ($set).
+     * Итоги, ещё записанные строкой (до миграции в Decimal128), выставляются через $set.
+     * session — состояние уже после {@link TradeSession#addOrder}; запись проходит, только если версия
+     * в БД равна session.getVersion() и ордера там ещё нет. При успехе версия session увеличивается.
+     *
+     * @return false, если сессию успели изменить или ордер уже записан — нужно перечитать и повторить
+     */
+    boolean appendOrder(TradeSession session, TradeOrder order, Counters before);
+
+    /**
+     * Записывает завершение сессии ($set статуса и времени), не трогая ордера.
+     *
+     * @return false, если сессии нет
+     */
+    boolean markCompleted(TradeSession session);
+
+    /**
+     * Страница сессий без ордеров, новые первыми. В документ лезут только поля {@link SessionAllDto}.
+     *
+     * @param tradePlan фильтр по плану или null
+     * @param status    фильтр по статусу или null
+     * @param after     позиция, после которой начинать, или null для первой страницы
+     */
+    List<SessionAllDto> findSummaries(String tradePlan, SessionStatus status, SessionCursor after, int limit);
+
+    /**
+     * Атомарно помечает завершённую сессию как учтённую в PnL-корзинах.
+     *
+     * @return true только для первого вызова по сессии — он и прибавляет её к корзинам
+     */
+    boolean claimPnlRollup(String id);
+
+    /** Снимает отметку claimPnlRollup, если сессию не удалось прибавить к корзинам, — её подберёт повтор. */
+    void releasePnlRollup(String id);
+
+    /** COMPLETED сессии, ещё не учтённые в корзинах (только поля, нужные корзинам). */
+    List<TradeSession> findPnlNotRolledUp(int limit);
+
+    /** Помечает все COMPLETED сессии учтёнными — перед пересборкой корзин. */
+    long markAllPnlRolledUp();
+
+    /**
+     * COMPLETED сессии с createdTime в (from, to), или в [from, to) при fromInclusive. Читаются только pnl и комиссия.
+     *
+     * @param tradePlan фильтр по плану или null
+     */
+    List<TradeSession> findCompletedPnl(String tradePlan, LocalDateTime from, boolean fromInclusive, LocalDateTime to);
+
+    /** Самые старые COMPLETED сессии, созданные и завершённые раньше cutoff, — кандидаты в архив. */
+    List<TradeSession> findArchivable(LocalDateTime cutoff, int limit);
+
+    /** Удаляет из рабочей коллекции перенесённые в архив сессии (только COMPLETED). */
+    long deleteArchived(List<String> ids);
+}
@@ -0,0 +1,217 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.trade.session.dto.SessionAllDto;
+import io.cryptobot.binance.trade.session.enums.SessionStatus;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static io.cryptobot.configs.mongo.BsonFields.decimal;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реализация {@link TradeSessionRepositoryCustom} на MongoTemplate.
+ * <p>
+ * Итоги PnL/комиссии прибавляются через $inc на разницу, которую дал ордер, в том же обновлении, что и $push:
+ * ордер и итоги меняются вместе или не меняются вовсе. Условие на версию отсекает обновление, посчитанное
+ * по устаревшему состоянию. $inc применим только к числу — документ, где итоги ещё строки (до миграции
+ * в Decimal128), обновляется вторым запросом с $set пересчитанных итогов.
+ */
+@RequiredArgsConstructor
+public class TradeSessionRepositoryImpl implements TradeSessionRepositoryCustom {
+    static final String[] SUMMARY_FIELDS = {
+            "tradePlan", "status", "pnl", "totalCommission", "pnlTotal",
+            "createdTime", "lastModified", "endTime", "durationMinutes"
+    };
+
+    static final String[] TOTAL_FIELDS = {"pnl", "totalCommission", "pnlTotal"};
+    private static final int BSON_DECIMAL128 = 19;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean appendOrder(TradeSession session, TradeOrder order, Counters before) {
+        Long expected = session.getVersion();
+        Counters after = Counters.of(session);
+
+        Update inc = orderUpdate(session, order, before, after);
+        incIfChanged(inc, "pnl", after.pnl().subtract(before.pnl()));
+        incIfChanged(inc, "totalCommission", after.commission().subtract(before.commission()));
+        incIfChanged(inc, "pnlTotal", after.pnlTotal().subtract(before.pnlTotal()));
+        if (mongoTemplate.updateFirst(appendQuery(session, order, numericTotals()), inc, TradeSession.class)
+                .getModifiedCount() == 0) {
+            // конфликт версии или итоги ещё строки — второй запрос найдёт документ только во втором случае
+            Update set = orderUpdate(session, order, before, after)
+                    .set("pnl", session.getPnl())
+                    .set("totalCommission", session.getTotalCommission())
+                    .set("pnlTotal", session.getPnlTotal());
+            Criteria legacy = new Criteria().norOperator(numericTotals());
+            if (mongoTemplate.updateFirst(appendQuery(session, order, legacy), set, TradeSession.class)
+                    .getModifiedCount() == 0) {
+                return false;
+            }
+        }
+        session.setVersion(expected != null ? expected + 1 : 1L);
+        return true;
+    }
+
+    private static Query appendQuery(TradeSession session, TradeOrder order, Criteria totals) {
+        return Query.query(Criteria.where("_id").is(session.getId())
+                .and("version").is(session.getVersion()) // null совпадает и с отсутствующим полем у старых документов
+                .and("orders.orderId").ne(order.getOrderId())
+                .andOperator(totals));
+    }
+
+    /** Все итоги — Decimal128 или ещё не записаны: к ним применим $inc. */
+    private static Criteria numericTotals() {
+        Criteria[] fields = new Criteria[TOTAL_FIELDS.length];
+        for (int i = 0; i < TOTAL_FIELDS.length; i++) {
+            fields[i] = new Criteria().orOperator(
+                    Criteria.where(TOTAL_FIELDS[i]).type(BSON_DECIMAL128),
+                    Criteria.where(TOTAL_FIELDS[i]).exists(false));
+        }
+        return new Criteria().andOperator(fields);
+    }
+
+    /** Всё, кроме итогов: ордер, флаги, счётчики и версия. */
+    private static Update orderUpdate(TradeSession session, TradeOrder order, Counters before, Counters after) {
+        Update update = new Update()
+                .push("orders", order)
+                .set("status", session.getStatus())
+                .set("currentMode", session.getCurrentMode())
+                .set("mainPosition", session.getMainPosition())
+                .set("activeLong", session.isActiveLong())
+                .set("activeShort", session.isActiveShort())
+                .set("activeAverageLong", session.isActiveAverageLong())
+                .set("activeAverageShort", session.isActiveAverageShort())
+                .set("lastModified", LocalDateTime.now())
+                .inc("version", 1);
+        incIfChanged(update, "hedgeOpenCount", after.hedgeOpens() - before.hedgeOpens());
+        incIfChanged(update, "hedgeCloseCount", after.hedgeCloses() - before.hedgeCloses());
+        incIfChanged(update, "countAverageOrders", after.averageOpens() - before.averageOpens());
+        if (session.getStatus() == SessionStatus.COMPLETED) {
+            update.set("endTime", session.getEndTime()).set("durationMinutes", session.getDurationMinutes());
+        }
+        return update;
+    }
+
+    @Override
+    public boolean markCompleted(TradeSession session) {
+        Query query = Query.query(Criteria.where("_id").is(session.getId()));
+        query.fields().include("version");
+        Update update = new Update()
+                .set("status", session.getStatus())
+                .set("endTime", session.getEndTime())
+                .set("durationMinutes", session.getDurationMinutes())
+                .set("lastModified", LocalDateTime.now())
+                .inc("version", 1);
+
+        TradeSession stored = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), TradeSession.class);
+        if (stored == null) return false;
+        session.setVersion(stored.getVersion());
+        return true;
+    }
+
+    @Override
+    public List<SessionAllDto> findSummaries(String tradePlan, SessionStatus status, SessionCursor after, int limit) {
+        return mongoTemplate.find(summaryQuery(tradePlan, status, after, limit), SessionAllDto.class,
+                mongoTemplate.getCollectionName(TradeSession.class));
+    }
+
+    /** Общий запрос страницы для рабочей коллекции и архива — поля и индексы у них одинаковые. */
+    static Query summaryQuery(String tradePlan, SessionStatus status, SessionCursor after, int limit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (tradePlan != null) filters.add(Criteria.where("tradePlan").is(tradePlan));
+        if (status != null) filters.add(Criteria.where("status").is(status));
+        if (after != null) {
+            filters.add(new Criteria().orOperator(
+                    Criteria.where("createdTime").lt(after.createdTime()),
+                    Criteria.where("createdTime").is(after.createdTime()).and("_id").lt(after.id())));
+        }
+
+        Query query = filters.isEmpty() ? new Query() : new Query(new Criteria().andOperator(filters));
+        query.with(Sort.by(Sort.Order.desc("createdTime"), Sort.Order.desc("_id"))).limit(limit);
+        query.fields().include(SUMMARY_FIELDS); // orders не читаются и не передаются
+        return query;
+    }
+
+    @Override
+    public boolean claimPnlRollup(String id) {
+        Query query = Query.query(Criteria.where("_id").is(id)
+                .and("status").is(SessionStatus.COMPLETED)
+                .and("pnlRolledUp").ne(true));
+        return mongoTemplate.updateFirst(query, new Update().set("pnlRolledUp", true), TradeSession.class)
+                .getModifiedCount() > 0;
+    }
+
+    @Override
+    public void releasePnlRollup(String id) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)), new Update().set("pnlRolledUp", false), TradeSession.class);
+    }
+
+    @Override
+    public List<TradeSession> findPnlNotRolledUp(int limit) {
+        Query query = Query.query(Criteria.where("status").is(SessionStatus.COMPLETED).and("pnlRolledUp").ne(true)).limit(limit);
+        query.fields().include("tradePlan", "createdTime", "pnl", "totalCommission");
+        return mongoTemplate.find(query, TradeSession.class);
+    }
+
+    @Override
+    public long markAllPnlRolledUp() {
+        Query query = Query.query(Criteria.where("status").is(SessionStatus.COMPLETED).and("pnlRolledUp").ne(true));
+        return mongoTemplate.updateMulti(query, new Update().set("pnlRolledUp", true), TradeSession.class)
+                .getModifiedCount();
+    }
+
+    @Override
+    public List<TradeSession> findCompletedPnl(String tradePlan, LocalDateTime from, boolean fromInclusive, LocalDateTime to) {
+        return mongoTemplate.find(completedPnlQuery(tradePlan, from, fromInclusive, to), TradeSession.class);
+    }
+
+    static Query completedPnlQuery(String tradePlan, LocalDateTime from, boolean fromInclusive, LocalDateTime to) {
+        Criteria created = Criteria.where("status").is(SessionStatus.COMPLETED).and("createdTime");
+        if (fromInclusive) created.gte(from);
+        else created.gt(from);
+        created.lt(to);
+        if (tradePlan != null) created.and("tradePlan").is(tradePlan);
+
+        Query query = Query.query(created);
+        query.fields().include("pnl", "totalCommission");
+        return query;
+    }
+
+    @Override
+    public List<TradeSession> findArchivable(LocalDateTime cutoff, int limit) {
+        // createdTime — по индексу status_created; endTime добивает сессии, закрытые недавно
+        Query query = Query.query(Criteria.where("status").is(SessionStatus.COMPLETED)
+                .and("createdTime").lt(cutoff)
+                .and("endTime").not().gte(cutoff));
+        query.with(Sort.by(Sort.Order.asc("createdTime"))).limit(limit);
+        return mongoTemplate.find(query, TradeSession.class);
+    }
+
+    @Override
+    public long deleteArchived(List<String> ids) {
+        Query query = Query.query(Criteria.where("_id").in(ids).and("status").is(SessionStatus.COMPLETED));
+        return mongoTemplate.remove(query, TradeSession.class).getDeletedCount();
+    }
+
+    private static void incIfChanged(Update update, String field, int delta) {
+        if (delta != 0) update.inc(field, delta);
+    }
+
+    private static void incIfChanged(Update update, String field, BigDecimal delta) {
+        if (delta.signum() != 0) update.inc(field, decimal(delta));
+    }
+}
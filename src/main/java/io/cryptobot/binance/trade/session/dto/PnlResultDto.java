@@ -14,4 +14,5 @@ public class PnlResultDto {
     private BigDecimal pnl;
     private BigDecimal pnlTotal;
     private BigDecimal commission;
+    private Long sessions; // число завершённых сессий в итоге
 }
@@ -0,0 +1,18 @@
+package io.cryptobot.binance.trade.session.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SessionPageDto { //page of sessions without orders
+    private List<SessionAllDto> items;
+    private String nextCursor; // null — последняя страница
+}
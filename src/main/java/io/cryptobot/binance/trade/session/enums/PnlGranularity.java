@@ -0,0 +1,25 @@
+package io.cryptobot.binance.trade.session.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum PnlGranularity {
+    HOUR(ChronoUnit.HOURS, "hour"),
+    DAY(ChronoUnit.DAYS, "day");
+
+    private final ChronoUnit unit;
+    private final String mongoUnit; // unit для $dateTrunc
+
+    PnlGranularity(ChronoUnit unit, String mongoUnit) {
+        this.unit = unit;
+        this.mongoUnit = mongoUnit;
+    }
+
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public String mongoUnit() {
+        return mongoUnit;
+    }
+}
@@ -0,0 +1,46 @@
+package io.cryptobot.binance.trade.session.model;
+
+import io.cryptobot.binance.trade.session.enums.SessionStatus;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Завершённая сессия в холодном архиве.
+ * <p>
+ * Поля для выборок (история, PnL) лежат как есть — с теми же именами, что в trade-session,
+ * а вся сессия с ордерами — сжатым BSON в payload (см. {@code SessionArchiveCodec}).
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = "payload")
+@Document(collection = "trade-session-archive")
+@CompoundIndexes({
+        @CompoundIndex(name = "plan_created", def = "{'tradePlan': 1, 'createdTime': -1, '_id': -1}"),
+        @CompoundIndex(name = "created", def = "{'createdTime': -1, '_id': -1}")
+})
+public class ArchivedSession {
+    @Id
+    private String id;
+    private String tradePlan;
+    private SessionStatus status;
+
+    private BigDecimal pnl;
+    private BigDecimal totalCommission;
+    private BigDecimal pnlTotal;
+
+    private LocalDateTime createdTime;
+    private LocalDateTime lastModified;
+    private LocalDateTime endTime;
+    private Long durationMinutes;
+    private LocalDateTime archivedAt;
+
+    private byte[] payload; // deflate(BSON сессии)
+}
@@ -0,0 +1,42 @@
+package io.cryptobot.binance.trade.session.model;
+
+import io.cryptobot.binance.trade.session.enums.PnlGranularity;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Итог завершённых сессий плана за час или сутки (по времени создания сессии).
+ * Суммы хранятся как Decimal128, а не строкой, — к ним применимы $inc и $sum.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Document(collection = "pnl-bucket")
+@CompoundIndexes({
+        // ключ корзины: по нему upsert при завершении сессии и $merge при пересборке
+        @CompoundIndex(name = "plan_granularity_start", def = "{'tradePlan': 1, 'granularity': 1, 'bucketStart': 1}", unique = true),
+        @CompoundIndex(name = "granularity_start", def = "{'granularity': 1, 'bucketStart': 1}")
+})
+public class PnlBucket {
+    @Id
+    private String id;
+    private String tradePlan;
+    private PnlGranularity granularity;
+    private LocalDateTime bucketStart;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal pnl;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal commission;
+    private long sessions;
+}
@@ -8,6 +8,9 @@ import io.cryptobot.binance.trade.session.enums.TradingDirection;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -21,6 +24,12 @@ import java.util.List;
 @AllArgsConstructor
 @ToString
 @Document(collection = "trade-session")
+// под запросы репозитория и постраничную выдачу: фильтр, затем новые первыми (createdTime, _id)
+@CompoundIndexes({
+        @CompoundIndex(name = "status_created", def = "{'status': 1, 'createdTime': -1, '_id': -1}"),
+        @CompoundIndex(name = "plan_created", def = "{'tradePlan': 1, 'createdTime': -1, '_id': -1}"),
+        @CompoundIndex(name = "created", def = "{'createdTime': -1, '_id': -1}")
+})
 public class TradeSession {
     @Id
     @Setter
@@ -60,6 +69,14 @@ public class TradeSession {
     @Setter
     private boolean processing = false;
 
+    // версия для точечных обновлений: каждая запись делает $inc, запись с устаревшей версией не проходит.
+    // Не @Version — у старых документов поля нет, и save() принял бы их за новые
+    @Setter
+    private Long version;
+
+    // сессия уже прибавлена к PnL-корзинам (pnl-bucket); ставится атомарно один раз после завершения
+    private boolean pnlRolledUp;
+
     // time points
     private LocalDateTime createdTime;
     @LastModifiedDate
@@ -67,6 +84,12 @@ public class TradeSession {
     private LocalDateTime endTime;
     private Long durationMinutes;
 
+    // индекс ордеров, в БД не пишется и строится заново после загрузки
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient TradeSessionIndex index;
+
     public void onCreate(String plan, TradingDirection direction, TradeOrder mainOrder, String context) {
         entryContext = context;
         tradePlan = plan;
@@ -191,39 +214,21 @@ public class TradeSession {
     }
 
     private void updateAmount() {
-        BigDecimal realizedPnl = BigDecimal.ZERO;
-        BigDecimal totalComm = BigDecimal.ZERO;
-        int hedgeOpens = 0;
-        int hedgeCloses = 0;
-        int averageOpens = 0;
-
-        for (TradeOrder o : orders) {
-            if (o.getStatus() == OrderStatus.FILLED) {
-                if (o.getPnl() != null) {
-                    realizedPnl = realizedPnl.add(o.getPnl());
-                }
-                if (o.getCommission() != null) {
-                    totalComm = totalComm.add(o.getCommission());
-                }
-
-                switch (o.getPurpose()) {
-                    case HEDGE_OPEN -> hedgeOpens++;
-                    case HEDGE_CLOSE -> hedgeCloses++;
-                    case AVERAGING_OPEN -> averageOpens++;
-                    default -> {
-                    }
-                }
-            }
-        }
-
-        this.pnl = realizedPnl;
-        this.totalCommission = totalComm;
-        this.hedgeOpenCount = hedgeOpens;
-        this.hedgeCloseCount = hedgeCloses;
-        this.countAverageOrders = averageOpens;
+        TradeSessionIndex idx = index();
+        this.pnl = idx.pnl();
+        this.totalCommission = idx.commission();
+        this.hedgeOpenCount = idx.hedgeOpens();
+        this.hedgeCloseCount = idx.hedgeCloses();
+        this.countAverageOrders = idx.averageOpens();
         this.pnlTotal = pnl.subtract(totalCommission);
     }
 
+    // синхронно: индекс может впервые строиться из потока мониторинга и из обработчика ордеров одновременно
+    private synchronized TradeSessionIndex index() {
+        index = TradeSessionIndex.sync(index, orders);
+        return index;
+    }
+
     public void changeMode(SessionMode newMode) {
         this.currentMode = newMode;
     }
@@ -238,10 +243,7 @@ public class TradeSession {
     // Методы для быстрого поиска ордеров
     public TradeOrder findOrderById(Long orderId) {
         if (orderId == null) return null;
-        return orders.stream()
-                .filter(o -> orderId.equals(o.getOrderId()))
-                .findFirst()
-                .orElse(null);
+        return index().byId(orderId);
     }
 
     public TradeOrder getMainOrder() {
@@ -249,11 +251,19 @@ public class TradeSession {
     }
 
     public TradeOrder getLastHedgeOrder() {
-        return orders.stream()
-                .filter(o -> OrderPurpose.HEDGE_OPEN.equals(o.getPurpose()))
-                .filter(o -> OrderStatus.FILLED.equals(o.getStatus()))
-                .max((o1, o2) -> o1.getOrderTime().compareTo(o2.getOrderTime()))
-                .orElse(null);
+        return index().lastHedgeOpen();
+    }
+
+    /** Ордера с parentOrderId = parentOrderId в порядке добавления. */
+    public List<TradeOrder> getChildOrders(Long parentOrderId) {
+        if (parentOrderId == null) return List.of();
+        return index().children(parentOrderId);
+    }
+
+    /** Ордера открытия (MAIN/HEDGE/AVERAGING_OPEN) в статусе FILLED или NEW, в порядке добавления. */
+    public List<TradeOrder> getOpenOrders(TradingDirection direction, OrderPurpose purpose) {
+        if (direction == null || purpose == null) return List.of();
+        return index().opens(direction, purpose);
     }
 
     public boolean isInScalpingMode() {
@@ -0,0 +1,142 @@
+package io.cryptobot.binance.trade.session.model;
+
+import io.cryptobot.binance.order.enums.OrderPurpose;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.trade.session.enums.TradingDirection;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Индекс ордеров сессии, который не сохраняется в Mongo: ордера по id, дочерние ордера по parentOrderId,
+ * ордера открытия (FILLED/NEW) по направлению и назначению, накопленные PnL/комиссия/счётчики.
+ * <p>
+ * Дополняется при каждом добавлении ордера, полностью перестраивается только если список ордеров
+ * подменили или изменили в обход сессии (загрузка из БД, билдер, прямой add в тестах).
+ * Поля ордера, по которым строится индекс (id, назначение, направление, статус, parent), после создания не меняются.
+ */
+final class TradeSessionIndex {
+    private final List<TradeOrder> source;
+    private int indexed;
+
+    private final Map<Long, TradeOrder> byId = new HashMap<>();
+    private final Map<Long, List<TradeOrder>> children = new HashMap<>();
+    private final Map<TradingDirection, Map<OrderPurpose, List<TradeOrder>>> opens = new EnumMap<>(TradingDirection.class);
+
+    private BigDecimal pnl = BigDecimal.ZERO;
+    private BigDecimal commission = BigDecimal.ZERO;
+    private int hedgeOpens;
+    private int hedgeCloses;
+    private int averageOpens;
+    private TradeOrder lastHedgeOpen;
+
+    private TradeSessionIndex(List<TradeOrder> source) {
+        this.source = source;
+    }
+
+    /** Индекс, актуальный для текущего списка ордеров: существующий, дополненный или построенный заново. */
+    static TradeSessionIndex sync(TradeSessionIndex index, List<TradeOrder> orders) {
+        if (index == null || index.source != orders || index.indexed > sizeOf(orders)) {
+            index = new TradeSessionIndex(orders);
+        }
+        int size = sizeOf(orders);
+        while (index.indexed < size) {
+            index.add(orders.get(index.indexed++));
+        }
+        return index;
+    }
+
+    private static int sizeOf(List<TradeOrder> orders) {
+        return orders == null ? 0 : orders.size();
+    }
+
+    private void add(TradeOrder o) {
+        if (o == null) return;
+        if (o.getOrderId() != null) {
+            byId.putIfAbsent(o.getOrderId(), o);
+        }
+        if (o.getParentOrderId() != null) {
+            children.computeIfAbsent(o.getParentOrderId(), k -> new ArrayList<>(2)).add(o);
+        }
+        OrderPurpose purpose = o.getPurpose();
+        if (purpose == null) return;
+
+        if (isOpenPurpose(purpose) && o.getDirection() != null
+                && (o.getStatus() == OrderStatus.FILLED || o.getStatus() == OrderStatus.NEW)) {
+            opens.computeIfAbsent(o.getDirection(), k -> new EnumMap<>(OrderPurpose.class))
+                    .computeIfAbsent(purpose, k -> new ArrayList<>())
+                    .add(o);
+        }
+
+        if (o.getStatus() != OrderStatus.FILLED) return;
+        if (o.getPnl() != null) pnl = pnl.add(o.getPnl());
+        if (o.getCommission() != null) commission = commission.add(o.getCommission());
+        switch (purpose) {
+            case HEDGE_OPEN -> {
+                hedgeOpens++;
+                if (isLater(o, lastHedgeOpen)) lastHedgeOpen = o;
+            }
+            case HEDGE_CLOSE -> hedgeCloses++;
+            case AVERAGING_OPEN -> averageOpens++;
+            default -> {
+            }
+        }
+    }
+
+    /** Как Stream.max по orderTime: при равном времени остаётся первый, ордер без времени — самый ранний. */
+    private static boolean isLater(TradeOrder o, TradeOrder current) {
+        if (current == null) return true;
+        if (o.getOrderTime() == null) return false;
+        return current.getOrderTime() == null || o.getOrderTime().isAfter(current.getOrderTime());
+    }
+
+    private static boolean isOpenPurpose(OrderPurpose purpose) {
+        return purpose == OrderPurpose.MAIN_OPEN
+                || purpose == OrderPurpose.HEDGE_OPEN
+                || purpose == OrderPurpose.AVERAGING_OPEN;
+    }
+
+    TradeOrder byId(Long orderId) {
+        return byId.get(orderId);
+    }
+
+    List<TradeOrder> children(Long parentOrderId) {
+        List<TradeOrder> list = children.get(parentOrderId);
+        return list == null ? List.of() : Collections.unmodifiableList(list);
+    }
+
+    List<TradeOrder> opens(TradingDirection direction, OrderPurpose purpose) {
+        Map<OrderPurpose, List<TradeOrder>> byPurpose = opens.get(direction);
+        List<TradeOrder> list = byPurpose == null ? null : byPurpose.get(purpose);
+        return list == null ? List.of() : Collections.unmodifiableList(list);
+    }
+
+    BigDecimal pnl() {
+        return pnl;
+    }
+
+    BigDecimal commission() {
+        return commission;
+    }
+
+    int hedgeOpens() {
+        return hedgeOpens;
+    }
+
+    int hedgeCloses() {
+        return hedgeCloses;
+    }
+
+    int averageOpens() {
+        return averageOpens;
+    }
+
+    TradeOrder lastHedgeOpen() {
+        return lastHedgeOpen;
+    }
+}
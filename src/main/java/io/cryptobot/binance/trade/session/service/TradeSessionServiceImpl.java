@@ -1,16 +1,19 @@
 package io.cryptobot.binance.trade.session.service;
 
 import io.cryptobot.binance.trade.session.dao.TradeSessionRepository;
+import io.cryptobot.binance.trade.session.dao.TradeSessionRepositoryCustom.Counters;
 import io.cryptobot.binance.trade.session.enums.SessionStatus;
 import io.cryptobot.binance.trade.session.enums.TradingDirection;
 import io.cryptobot.binance.trade.session.exceptions.TradeSessionNotFoundException;
 import io.cryptobot.binance.trade.session.model.TradeOrder;
 import io.cryptobot.binance.trade.session.model.TradeSession;
+import io.cryptobot.binance.trade.session.service.pnl.PnlRollupService;
 import io.cryptobot.binance.trade.trade_plan.service.update.TradePlanUpdateService;
 import io.cryptobot.utils.LockType;
 import io.cryptobot.utils.lock.single_lock.WithLock;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +25,9 @@ import java.util.List;
 public class TradeSessionServiceImpl implements TradeSessionService {
     private final TradePlanUpdateService tradePlanUpdateService;
     private final TradeSessionRepository repository;
+    private final PnlRollupService pnlRollupService;
+
+    private static final int MAX_APPEND_ATTEMPTS = 5;
 
     @Override
     @Transactional
@@ -57,35 +63,48 @@ public class TradeSessionServiceImpl implements TradeSessionService {
         return repository.findAll();
     }
 
+    /**
+     * Без лока сессии: ордер дописывается точечным обновлением с проверкой версии.
+     * Если сессию успели изменить, она перечитывается и ордер применяется заново.
+     */
     @Override
     @Transactional
-    @WithLock(registry = LockType.SESSION, keyParam = "idSession")
     public TradeSession addOrder(String idSession, TradeOrder order) {
         log.info("Adding order {} to session: {}", order.getOrderId(), idSession);
         //todo check asset commission - if not stable - convert
         // or after all when session closed
-        TradeSession session = getById(idSession);
-
-        if (order.getOrderId() == null) {
-            throw new IllegalArgumentException("Order ID cannot be null");
-        }
-
-        if (session.findOrderById(order.getOrderId()) != null) {
-            log.warn("Order {} already exists in session {}", order.getOrderId(), idSession);
-            return session;
+        for (int attempt = 1; ; attempt++) {
+            TradeSession session = getById(idSession);
+
+            if (order.getOrderId() == null) {
+                throw new IllegalArgumentException("Order ID cannot be null");
+            }
+
+            if (session.findOrderById(order.getOrderId()) != null) {
+                log.warn("Order {} already exists in session {}", order.getOrderId(), idSession);
+                return session;
+            }
+
+            Counters before = Counters.of(session);
+            session.addOrder(order);
+
+            if (repository.appendOrder(session, order, before)) {
+                log.info("Added order {} to session {}, new PnL: {}", order.getOrderId(), idSession, session.getPnl());
+
+                //open plan for analysis etc. todo one method
+                if (session.getStatus().equals(SessionStatus.COMPLETED)){
+                    tradePlanUpdateService.setActiveFalse(session.getTradePlan());
+                    tradePlanUpdateService.addProfit(session.getTradePlan(), session.getPnl().subtract(session.getTotalCommission()).stripTrailingZeros());
+                    pnlRollupService.onSessionCompleted(session);
+                }
+                return session;
+            }
+
+            if (attempt >= MAX_APPEND_ATTEMPTS) {
+                throw new OptimisticLockingFailureException("Session " + idSession + " keeps changing, order " + order.getOrderId() + " not added");
+            }
+            log.warn("⚠️ Session {} changed concurrently, retrying add of order {} ({}/{})", idSession, order.getOrderId(), attempt, MAX_APPEND_ATTEMPTS);
         }
-
-        session.addOrder(order);
-
-        TradeSession savedSession = repository.save(session);
-        log.info("Added order {} to session {}, new PnL: {}", order.getOrderId(), idSession, savedSession.getPnl());
-
-        //open plan for analysis etc. todo one method
-        if (savedSession.getStatus().equals(SessionStatus.COMPLETED)){
-            tradePlanUpdateService.setActiveFalse(savedSession.getTradePlan());
-            tradePlanUpdateService.addProfit(savedSession.getTradePlan(), savedSession.getPnl().subtract(savedSession.getTotalCommission()).stripTrailingZeros());
-        }
-        return savedSession;
     }
 
     @Override
@@ -103,10 +122,11 @@ public class TradeSessionServiceImpl implements TradeSessionService {
 
         session.completeSession();
 
-        TradeSession savedSession = repository.save(session);
-        log.info("Closed session: {}, final PnL: {}, duration: {} minutes", idSession, savedSession.getPnl(), savedSession.getDurationMinutes());
+        repository.markCompleted(session);
+        pnlRollupService.onSessionCompleted(session);
+        log.info("Closed session: {}, final PnL: {}, duration: {} minutes", idSession, session.getPnl(), session.getDurationMinutes());
 
-        tradePlanUpdateService.setActiveFalse(savedSession.getTradePlan());
-        return savedSession;
+        tradePlanUpdateService.setActiveFalse(session.getTradePlan());
+        return session;
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package io.cryptobot.binance.trade.session.service.archive;
+
+import io.cryptobot.binance.trade.session.dao.SessionCursor;
+import io.cryptobot.binance.trade.session.dto.SessionAllDto;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface SessionArchiveService {
+    void archiveOldSessions();
+
+    int archiveBatch(LocalDateTime cutoff);
+
+    Optional<TradeSession> findArchived(String idSession);
+
+    /** Страница сводок архива в порядке и с курсором рабочей коллекции. */
+    List<SessionAllDto> findSummaries(String tradePlan, SessionCursor after, int limit);
+}
@@ -0,0 +1,92 @@
+package io.cryptobot.binance.trade.session.service.archive;
+
+import io.cryptobot.binance.trade.session.dao.ArchivedSessionRepository;
+import io.cryptobot.binance.trade.session.dao.SessionArchiveCodec;
+import io.cryptobot.binance.trade.session.dao.SessionCursor;
+import io.cryptobot.binance.trade.session.dao.TradeSessionRepository;
+import io.cryptobot.binance.trade.session.dto.SessionAllDto;
+import io.cryptobot.binance.trade.session.model.ArchivedSession;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Перенос завершённых сессий старше session.archive.after-days из trade-session в trade-session-archive.
+ * <p>
+ * В рабочей коллекции остаются активные и недавние сессии — её индексы помещаются в память,
+ * а загрузка активных при старте мониторинга и выборки по статусу не проходят по истории.
+ * Пачка сначала записывается в архив (upsert), потом удаляется из рабочей коллекции: при сбое
+ * между шагами сессия временно есть в обеих, и чтение истории убирает дубль.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SessionArchiveServiceImpl implements SessionArchiveService {
+    private final TradeSessionRepository sessionRepository;
+    private final ArchivedSessionRepository archivedRepository;
+
+    static final int BATCH_SIZE = 200;
+    static final int MAX_BATCHES_PER_RUN = 50;
+
+    @Value("${session.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${session.archive.after-days:30}")
+    private int afterDays;
+
+    @Override
+    @Scheduled(initialDelay = 60_000, fixedDelay = 600_000)
+    public void archiveOldSessions() {
+        if (!enabled) return;
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+            long start = System.currentTimeMillis();
+            int total = 0;
+            for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+                int moved = archiveBatch(cutoff);
+                total += moved;
+                if (moved < BATCH_SIZE) break;
+            }
+            if (total > 0) {
+                log.info("🗄️ Archived {} completed sessions older than {} days in {} ms", total, afterDays, System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            log.error("❌ Session archiving failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int archiveBatch(LocalDateTime cutoff) {
+        List<TradeSession> old = sessionRepository.findArchivable(cutoff, BATCH_SIZE);
+        if (old.isEmpty()) return 0;
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedSession> archived = new ArrayList<>(old.size());
+        List<String> ids = new ArrayList<>(old.size());
+        for (TradeSession session : old) {
+            archived.add(SessionArchiveCodec.archive(session, now));
+            ids.add(session.getId());
+        }
+        archivedRepository.upsertAll(archived);
+        sessionRepository.deleteArchived(ids);
+        return old.size();
+    }
+
+    @Override
+    public Optional<TradeSession> findArchived(String idSession) {
+        return archivedRepository.findById(idSession).map(SessionArchiveCodec::restore);
+    }
+
+    @Override
+    public List<SessionAllDto> findSummaries(String tradePlan, SessionCursor after, int limit) {
+        return archivedRepository.findSummaries(tradePlan, after, limit);
+    }
+}
@@ -1,8 +1,8 @@
 package io.cryptobot.binance.trade.session.service.get;
 
 import io.cryptobot.binance.trade.session.dto.PnlResultDto;
-import io.cryptobot.binance.trade.session.dto.SessionAllDto;
 import io.cryptobot.binance.trade.session.dto.SessionDto;
+import io.cryptobot.binance.trade.session.dto.SessionPageDto;
 import io.cryptobot.binance.trade.session.enums.SessionStatus;
 import io.cryptobot.binance.trade.session.model.TradeOrder;
 
@@ -10,13 +10,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TradeSessionGetService {
-    List<SessionAllDto> getAll();
+    SessionPageDto getAll(String cursor, int limit);
 
     SessionDto getById(String idSession);
 
-    List<SessionAllDto> getAllByPlan(String plan);
+    SessionPageDto getAllByPlan(String plan, String cursor, int limit);
 
-    List<SessionAllDto> getAllByStatus(SessionStatus status);
+    SessionPageDto getAllByStatus(SessionStatus status, String cursor, int limit);
 
     List<TradeOrder> getOrders(String idSession);
 
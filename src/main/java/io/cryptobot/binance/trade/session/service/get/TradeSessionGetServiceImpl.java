@@ -1,23 +1,30 @@
 package io.cryptobot.binance.trade.session.service.get;
 
+import io.cryptobot.binance.trade.session.dao.SessionCursor;
 import io.cryptobot.binance.trade.session.dao.TradeSessionRepository;
 import io.cryptobot.binance.trade.session.dto.PnlResultDto;
 import io.cryptobot.binance.trade.session.dto.SessionAllDto;
 import io.cryptobot.binance.trade.session.dto.SessionDto;
+import io.cryptobot.binance.trade.session.dto.SessionPageDto;
 import io.cryptobot.binance.trade.session.enums.SessionStatus;
 import io.cryptobot.binance.trade.session.exceptions.TradeSessionNotFoundException;
 import io.cryptobot.binance.trade.session.model.TradeOrder;
 import io.cryptobot.binance.trade.session.model.TradeSession;
 import io.cryptobot.binance.trade.session.service.TradeSessionService;
+import io.cryptobot.binance.trade.session.service.archive.SessionArchiveService;
+import io.cryptobot.binance.trade.session.service.pnl.PnlRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -26,89 +33,111 @@ public class TradeSessionGetServiceImpl implements TradeSessionGetService {
     private final ModelMapper modelMapper;
     private final TradeSessionService tradeSessionService;
     private final TradeSessionRepository repository;
+    private final PnlRollupService pnlRollupService;
+    private final SessionArchiveService archiveService;
+
+    // тот же порядок, что у индексов обеих коллекций: createdTime desc, _id desc
+    private static final Comparator<SessionAllDto> NEWEST_FIRST = Comparator
+            .comparing(SessionAllDto::getCreatedTime, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(SessionAllDto::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    static final int MAX_PAGE_SIZE = 500;
 
     @Override
     @Transactional
-    public List<SessionAllDto> getAll() {
-        List<TradeSession> all = repository.findAll();
-        return all.stream()
-                .map(a -> modelMapper.map(a, SessionAllDto.class))
-                .toList();
+    public SessionPageDto getAll(String cursor, int limit) {
+        return page(null, null, cursor, limit);
     }
 
     @Override
     @Transactional
     public SessionDto getById(String idSession) {
-        TradeSession session = repository.findById(idSession).orElseThrow(TradeSessionNotFoundException::new);
+        TradeSession session = findSession(idSession);
         return modelMapper.map(session, SessionDto.class);
     }
 
     @Override
     @Transactional
-    public List<SessionAllDto> getAllByPlan(String plan) {
-        List<TradeSession> all = repository.findAllByTradePlan(plan);
-        return all.stream()
-                .map(a -> modelMapper.map(a, SessionAllDto.class))
-                .toList();
+    public SessionPageDto getAllByPlan(String plan, String cursor, int limit) {
+        return page(plan, null, cursor, limit);
     }
 
     @Override
     @Transactional
-    public List<SessionAllDto> getAllByStatus(SessionStatus status) {
-        List<TradeSession> all = repository.findAllByStatus(status);
-        return all.stream()
-                .map(a -> modelMapper.map(a, SessionAllDto.class))
-                .toList();
+    public SessionPageDto getAllByStatus(SessionStatus status, String cursor, int limit) {
+        return page(null, status, cursor, limit);
     }
 
     @Override
     @Transactional
     public List<TradeOrder> getOrders(String idSession) {
-        TradeSession session = repository.findById(idSession).orElseThrow(TradeSessionNotFoundException::new);
+        TradeSession session = findSession(idSession);
         return session.getOrders();
     }
 
+    // PnL — из корзин завершённых сессий (pnl-bucket), сессии целиком не читаются
     @Override
-    @Transactional
     public PnlResultDto calcPnlAll() {
-        List<TradeSession> all = repository.findAll();
-        return calcPnlModel(all);
+        return pnlRollupService.total(null);
     }
 
     @Override
-    @Transactional
     public PnlResultDto calcPnlByPlan(String plan) {
-        List<TradeSession> all = repository.findAllByTradePlan(plan);
-        return calcPnlModel(all);
+        return pnlRollupService.total(plan);
     }
 
     @Override
-    @Transactional
     public PnlResultDto calcPnlByTimeRange(LocalDateTime from, LocalDateTime to) {
-        List<TradeSession> sessions = repository.findAllByCreatedTimeBetween(from, to);
-        return calcPnlModel(sessions);
+        return pnlRollupService.range(from, to, null);
     }
 
     @Override
-    @Transactional
     public PnlResultDto calcPnlByTimeRangeAndSymbol(LocalDateTime from, LocalDateTime to, String symbol) {
-        List<TradeSession> sessions = repository.findAllByCreatedTimeBetweenAndTradePlan(from, to, symbol);
-        return calcPnlModel(sessions);
+        return pnlRollupService.range(from, to, symbol);
     }
 
-    private PnlResultDto calcPnlModel(List<TradeSession> all) {
-        BigDecimal pnl = BigDecimal.ZERO;
-        BigDecimal pnlTotal = BigDecimal.ZERO;
-        BigDecimal commission = BigDecimal.ZERO;
-        for (TradeSession session : all) {
-            pnl = pnl.add(session.getPnl());
-            pnlTotal = pnlTotal.add(session.getPnl().subtract(session.getTotalCommission()));
-            commission = commission.add(session.getTotalCommission());
+    /** Сначала рабочая коллекция, затем архив завершённых. */
+    private TradeSession findSession(String idSession) {
+        return repository.findById(idSession)
+                .or(() -> archiveService.findArchived(idSession))
+                .orElseThrow(TradeSessionNotFoundException::new);
+    }
+
+    /**
+     * Лишняя запись сверх limit показывает, что есть следующая страница.
+     * В архиве только COMPLETED: для них страница собирается из двух коллекций с одним курсором.
+     */
+    private SessionPageDto page(String plan, SessionStatus status, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        SessionCursor after = SessionCursor.decode(cursor);
+        List<SessionAllDto> items = repository.findSummaries(plan, status, after, size + 1);
+        if (status == null || status == SessionStatus.COMPLETED) {
+            items = merge(items, archiveService.findSummaries(plan, after, size + 1), size + 1);
+        }
+        String next = null;
+        if (items.size() > size) {
+            items = items.subList(0, size);
+            next = SessionCursor.after(items.get(size - 1)).encode();
         }
-        return PnlResultDto.builder()
-                .pnl(pnl)
-                .pnlTotal(pnlTotal)
-                .commission(commission)
+        return SessionPageDto.builder()
+                .items(items)
+                .nextCursor(next)
                 .build();
     }
-}
\ No newline at end of file
+
+    /** Слияние двух отсортированных страниц; сессия в момент переноса может оказаться в обеих. */
+    private static List<SessionAllDto> merge(List<SessionAllDto> hot, List<SessionAllDto> archived, int limit) {
+        if (archived.isEmpty()) return hot;
+        List<SessionAllDto> all = new ArrayList<>(hot.size() + archived.size());
+        all.addAll(hot);
+        all.addAll(archived);
+        all.sort(NEWEST_FIRST);
+        Set<String> seen = new HashSet<>();
+        List<SessionAllDto> result = new ArrayList<>(Math.min(limit, all.size()));
+        for (SessionAllDto item : all) {
+            if (result.size() == limit) break;
+            if (seen.add(item.getId())) result.add(item);
+        }
+        return result;
+    }
+}
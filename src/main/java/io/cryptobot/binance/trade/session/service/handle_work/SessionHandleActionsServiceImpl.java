@@ -6,6 +6,7 @@ import io.cryptobot.binance.trade.session.enums.SessionStatus;
 import io.cryptobot.binance.trade.session.enums.TradingDirection;
 import io.cryptobot.binance.trade.session.exceptions.TradeSessionNotFoundException;
 import io.cryptobot.binance.trade.session.model.TradeSession;
+import io.cryptobot.binance.trade.session.service.pnl.PnlRollupService;
 import io.cryptobot.binance.trade.trade_plan.service.update.TradePlanUpdateService;
 import io.cryptobot.binance.trading.monitoring.v3.MonitoringServiceV3;
 import io.cryptobot.binance.trading.monitoring.v3.help.MonitorHelper;
@@ -30,6 +31,7 @@ public class SessionHandleActionsServiceImpl implements SessionHandleActionsServ
     private final TradePlanUpdateService tradePlanUpdateService;
     private final TradingUpdatesService tradingUpdatesService;
     private final MonitorHelper monitorHelper;
+    private final PnlRollupService pnlRollupService;
 
     @Override
     @Transactional
@@ -98,7 +100,8 @@ public class SessionHandleActionsServiceImpl implements SessionHandleActionsServ
         session.completeSession();
         tradePlanUpdateService.setActiveFalse(session.getTradePlan());
         tradePlanUpdateService.addProfit(session.getTradePlan(), session.getPnl().subtract(session.getTotalCommission()).stripTrailingZeros());
-        repository.save(session);
+        repository.markCompleted(session);
+        pnlRollupService.onSessionCompleted(session);
 
         return modelMapper.map(session, SessionDto.class);
     }
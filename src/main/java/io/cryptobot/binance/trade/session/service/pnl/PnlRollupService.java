@@ -0,0 +1,16 @@
+package io.cryptobot.binance.trade.session.service.pnl;
+
+import io.cryptobot.binance.trade.session.dto.PnlResultDto;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+
+import java.time.LocalDateTime;
+
+public interface PnlRollupService {
+    void onSessionCompleted(TradeSession session);
+
+    PnlResultDto total(String tradePlan);
+
+    PnlResultDto range(LocalDateTime from, LocalDateTime to, String tradePlan);
+
+    void rebuild();
+}
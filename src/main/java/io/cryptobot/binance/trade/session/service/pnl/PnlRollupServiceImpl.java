@@ -0,0 +1,203 @@
+package io.cryptobot.binance.trade.session.service.pnl;
+
+import io.cryptobot.binance.trade.session.dao.ArchivedSessionRepository;
+import io.cryptobot.binance.trade.session.dao.PnlBucketRepository;
+import io.cryptobot.binance.trade.session.dao.TradeSessionRepository;
+import io.cryptobot.binance.trade.session.dto.PnlResultDto;
+import io.cryptobot.binance.trade.session.enums.PnlGranularity;
+import io.cryptobot.binance.trade.session.model.PnlBucket;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PnL по сессиям из почасовых и суточных корзин вместо чтения всех сессий.
+ * <p>
+ * Сессия попадает в корзины один раз при завершении (флаг pnlRolledUp ставится атомарно) —
+ * в корзины её createdTime, как и в прежних выборках по времени. Учитываются только COMPLETED сессии:
+ * у активных PnL ещё меняется. Если корзины обновить не удалось, прибавленное вычитается, флаг снимается
+ * и сессию подбирает периодический повтор.
+ * <p>
+ * Диапазон складывается из суточных корзин на целые сутки, почасовых на края суток и точечного
+ * чтения сессий (только pnl и комиссия) на неполные часы по краям — итог точный.
+ * Края читаются и из рабочей коллекции, и из архива; корзины переносом в архив не затрагиваются.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PnlRollupServiceImpl implements PnlRollupService {
+    private final PnlBucketRepository bucketRepository;
+    private final TradeSessionRepository sessionRepository;
+    private final ArchivedSessionRepository archiveRepository;
+
+    private static final int RETRY_BATCH = 500;
+
+    @Override
+    public void onSessionCompleted(TradeSession session) {
+        boolean claimed = false;
+        List<PnlGranularity> added = new ArrayList<>(PnlGranularity.values().length);
+        try {
+            if (!sessionRepository.claimPnlRollup(session.getId())) return; // уже учтена
+            claimed = true;
+            for (PnlGranularity granularity : PnlGranularity.values()) {
+                bucketRepository.add(session.getTradePlan(), granularity, granularity.bucketStart(session.getCreatedTime()),
+                        session.getPnl(), session.getTotalCommission());
+                added.add(granularity);
+            }
+        } catch (Exception e) {
+            // торговлю не останавливаем: откатываем частичный учёт, сессию подберёт retryNotRolledUp()
+            log.error("❌ Failed to add session {} to PnL buckets: {}", session.getId(), e.getMessage(), e);
+            if (claimed) release(session, added);
+        }
+    }
+
+    private void release(TradeSession session, List<PnlGranularity> added) {
+        try {
+            for (PnlGranularity granularity : added) {
+                bucketRepository.subtract(session.getTradePlan(), granularity, granularity.bucketStart(session.getCreatedTime()),
+                        session.getPnl(), session.getTotalCommission());
+            }
+            sessionRepository.releasePnlRollup(session.getId());
+        } catch (Exception e) {
+            log.error("❌ Failed to release PnL rollup of session {}, buckets need rebuild: {}", session.getId(), e.getMessage(), e);
+        }
+    }
+
+    /** Повтор для сессий, чей учёт откатили (или не успели учесть) — без ручной пересборки. */
+    @Scheduled(initialDelay = 120_000, fixedDelay = 300_000)
+    public void retryNotRolledUp() {
+        try {
+            List<TradeSession> pending = sessionRepository.findPnlNotRolledUp(RETRY_BATCH);
+            for (TradeSession session : pending) {
+                onSessionCompleted(session);
+            }
+            if (!pending.isEmpty()) log.info("📊 Retried PnL rollup for {} sessions", pending.size());
+        } catch (Exception e) {
+            log.error("❌ PnL rollup retry failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public PnlResultDto total(String tradePlan) {
+        Totals totals = new Totals();
+        totals.addBuckets(bucketRepository.findBuckets(tradePlan, PnlGranularity.DAY, null, null));
+        return totals.toDto();
+    }
+
+    /** Сессии с createdTime в (from, to) — границы как у прежнего findAllByCreatedTimeBetween. */
+    @Override
+    public PnlResultDto range(LocalDateTime from, LocalDateTime to, String tradePlan) {
+        Totals totals = new Totals();
+        if (!from.isBefore(to)) return totals.toDto();
+
+        LocalDateTime hourFrom = PnlGranularity.HOUR.bucketStart(from).plusHours(1);
+        LocalDateTime hourTo = PnlGranularity.HOUR.bucketStart(to);
+        if (!hourFrom.isBefore(hourTo)) {
+            // нет ни одного целого часа — корзины не помогут
+            addSessions(totals, tradePlan, from, false, to);
+            return totals.toDto();
+        }
+
+        addSessions(totals, tradePlan, from, false, hourFrom);
+        addSessions(totals, tradePlan, hourTo, true, to);
+
+        LocalDateTime dayFrom = PnlGranularity.DAY.bucketStart(hourFrom);
+        if (dayFrom.isBefore(hourFrom)) dayFrom = dayFrom.plusDays(1);
+        LocalDateTime dayTo = PnlGranularity.DAY.bucketStart(hourTo);
+        if (dayFrom.isBefore(dayTo)) {
+            totals.addBuckets(bucketRepository.findBuckets(tradePlan, PnlGranularity.HOUR, hourFrom, dayFrom));
+            totals.addBuckets(bucketRepository.findBuckets(tradePlan, PnlGranularity.DAY, dayFrom, dayTo));
+            totals.addBuckets(bucketRepository.findBuckets(tradePlan, PnlGranularity.HOUR, dayTo, hourTo));
+        } else {
+            totals.addBuckets(bucketRepository.findBuckets(tradePlan, PnlGranularity.HOUR, hourFrom, hourTo));
+        }
+        return totals.toDto();
+    }
+
+    /** Края диапазона читаются из обеих коллекций; сессия в момент переноса в архив учитывается один раз. */
+    private void addSessions(Totals totals, String tradePlan, LocalDateTime from, boolean fromInclusive, LocalDateTime to) {
+        List<TradeSession> hot = sessionRepository.findCompletedPnl(tradePlan, from, fromInclusive, to);
+        List<TradeSession> archived = archiveRepository.findCompletedPnl(tradePlan, from, fromInclusive, to);
+        if (archived.isEmpty()) {
+            totals.addSessions(hot);
+            return;
+        }
+        Map<String, TradeSession> unique = new LinkedHashMap<>();
+        for (TradeSession session : hot) unique.put(session.getId(), session);
+        for (TradeSession session : archived) unique.putIfAbsent(session.getId(), session);
+        totals.addSessions(unique.values());
+    }
+
+    /**
+     * Полная пересборка корзин по истории. Лучше запускать, когда сессии не закрываются:
+     * сессия, завершённая во время пересборки, может не попасть в корзины или попасть дважды.
+     */
+    @Override
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        long marked = sessionRepository.markAllPnlRolledUp();
+        bucketRepository.deleteAll();
+        bucketRepository.rebuildFromSessions();
+        log.info("📊 PnL buckets rebuilt: {} sessions newly marked, {} buckets, {} ms",
+                marked, bucketRepository.count(), System.currentTimeMillis() - start);
+    }
+
+    /** Разовое заполнение по истории при первом запуске с корзинами. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (bucketRepository.count() == 0) {
+                log.info("📊 PnL buckets are empty, backfilling from session history");
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("❌ PnL buckets backfill failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private static final class Totals {
+        BigDecimal pnl = BigDecimal.ZERO;
+        BigDecimal commission = BigDecimal.ZERO;
+        long sessions;
+
+        void addBuckets(List<PnlBucket> buckets) {
+            for (PnlBucket bucket : buckets) {
+                add(bucket.getPnl(), bucket.getCommission());
+                sessions += bucket.getSessions();
+            }
+        }
+
+        void addSessions(Collection<TradeSession> list) {
+            for (TradeSession session : list) {
+                add(session.getPnl(), session.getTotalCommission());
+                sessions++;
+            }
+        }
+
+        private void add(BigDecimal p, BigDecimal c) {
+            if (p != null) pnl = pnl.add(p);
+            if (c != null) commission = commission.add(c);
+        }
+
+        PnlResultDto toDto() {
+            return PnlResultDto.builder()
+                    .pnl(pnl)
+                    .pnlTotal(pnl.subtract(commission))
+                    .commission(commission)
+                    .sessions(sessions)
+                    .build();
+        }
+    }
+}
@@ -5,7 +5,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 
-public interface TradePlanRepository extends MongoRepository<TradePlan, String> {
+public interface TradePlanRepository extends MongoRepository<TradePlan, String>, TradePlanRepositoryCustom {
     List<TradePlan> findAllByActiveIsTrue();
 
     List<TradePlan> findAllByActiveIsFalse();
@@ -0,0 +1,19 @@
+package io.cryptobot.binance.trade.trade_plan.dao;
+
+import java.math.BigDecimal;
+
+/**
+ * Точечные обновления плана без чтения и перезаписи всего документа.
+ * Каждый метод возвращает false, если плана с таким символом нет.
+ */
+public interface TradePlanRepositoryCustom {
+
+    /** Прибавляет прибыль закрытой сессии к pnl плана. */
+    boolean addProfit(String symbol, BigDecimal profit);
+
+    /** Отмечает план занятым сессией sessionId. */
+    boolean markActive(String symbol, String sessionId);
+
+    /** Освобождает план: сессия завершена или отменена. */
+    boolean markInactive(String symbol);
+}
@@ -0,0 +1,84 @@
+package io.cryptobot.binance.trade.trade_plan.dao;
+
+import io.cryptobot.binance.trade.trade_plan.model.TradePlan;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static io.cryptobot.configs.mongo.BsonFields.decimal;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Реализация {@link TradePlanRepositoryCustom} на MongoTemplate: флаги — через $set,
+ * прибыль — через $inc.
+ * <p>
+ * $inc применим только к числу. pnl, ещё записанный строкой (до миграции в Decimal128), читается
+ * одним полем и записывается с условием «pnl не изменился»; при гонке попытка повторяется.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TradePlanRepositoryImpl implements TradePlanRepositoryCustom {
+    static final int MAX_ATTEMPTS = 5;
+    private static final int BSON_DECIMAL128 = 19;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean addProfit(String symbol, BigDecimal profit) {
+        Query numeric = Query.query(Criteria.where("_id").is(symbol).orOperator(
+                Criteria.where("pnl").type(BSON_DECIMAL128),
+                Criteria.where("pnl").exists(false)));
+        Update inc = new Update().inc("pnl", decimal(profit)).set("lastUpdate", LocalDateTime.now());
+        if (mongoTemplate.updateFirst(numeric, inc, TradePlan.class).getMatchedCount() > 0) {
+            return true;
+        }
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            Query read = byId(symbol);
+            read.fields().include("pnl");
+            TradePlan current = mongoTemplate.findOne(read, TradePlan.class);
+            if (current == null) return false;
+
+            BigDecimal before = current.getPnl();
+            BigDecimal after = (before != null ? before : BigDecimal.ZERO).add(profit).stripTrailingZeros();
+            // старая строка совпадает со строковой записью BigDecimal, новое значение — с Decimal128
+            Query cas = byId(symbol).addCriteria(before != null
+                    ? Criteria.where("pnl").in(before, before.toString())
+                    : Criteria.where("pnl").is(null));
+            Update update = new Update().set("pnl", after).set("lastUpdate", LocalDateTime.now());
+            if (mongoTemplate.updateFirst(cas, update, TradePlan.class).getModifiedCount() > 0) {
+                return true;
+            }
+            log.debug("pnl of plan {} changed concurrently, retry {}", symbol, attempt);
+        }
+        throw new OptimisticLockingFailureException("Failed to add profit to plan " + symbol + " after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    @Override
+    public boolean markActive(String symbol, String sessionId) {
+        Update update = new Update()
+                .set("active", true)
+                .set("currentSessionId", sessionId)
+                .set("lastUpdate", LocalDateTime.now());
+        return mongoTemplate.updateFirst(byId(symbol), update, TradePlan.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean markInactive(String symbol) {
+        Update update = new Update()
+                .set("active", false)
+                .unset("currentSessionId")
+                .set("lastUpdate", LocalDateTime.now());
+        return mongoTemplate.updateFirst(byId(symbol), update, TradePlan.class).getMatchedCount() > 0;
+    }
+
+    private static Query byId(String symbol) {
+        return Query.query(Criteria.where("_id").is(symbol));
+    }
+}
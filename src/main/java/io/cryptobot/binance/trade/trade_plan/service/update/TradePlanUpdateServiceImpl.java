@@ -4,6 +4,7 @@ import io.cryptobot.binance.BinanceService;
 import io.cryptobot.binance.model.LeverageMarginInfo;
 import io.cryptobot.binance.trade.trade_plan.dao.TradePlanRepository;
 import io.cryptobot.binance.trade.trade_plan.dto.TradeMetricsDto;
+import io.cryptobot.binance.trade.trade_plan.exceptions.TradePlanNotFoundException;
 import io.cryptobot.binance.trade.trade_plan.helper.TradePlanHelper;
 import io.cryptobot.binance.trade.trade_plan.model.SizeModel;
 import io.cryptobot.binance.trade.trade_plan.model.TradeMetrics;
@@ -12,6 +13,7 @@ import io.cryptobot.binance.trade.trade_plan.service.cache.TradePlanCacheManager
 import io.cryptobot.binance.trade.trade_plan.service.get.TradePlanGetService;
 import io.cryptobot.configs.locks.TradePlanLockRegistry;
 import io.cryptobot.helpers.SymbolHelper;
+import io.cryptobot.market_data.aggTrade.TradeFlow;
 import io.cryptobot.utils.LockType;
 import io.cryptobot.utils.lock.single_lock.WithLock;
 import jakarta.annotation.PostConstruct;
@@ -103,7 +105,7 @@ public class TradePlanUpdateServiceImpl implements TradePlanUpdateService {
             updated = true;
         }
         if (dto.getVolWindowSec() > 0) {
-            TradePlanHelper.validatePositiveInt(dto.getVolWindowSec(), "volWindowSec", 1, 600);
+            TradePlanHelper.validatePositiveInt(dto.getVolWindowSec(), "volWindowSec", 1, TradeFlow.MAX_WINDOW_SEC);
             metricsActual.setVolWindowSec(dto.getVolWindowSec());
             updated = true;
         }
@@ -121,9 +123,7 @@ public class TradePlanUpdateServiceImpl implements TradePlanUpdateService {
     @Transactional
     @WithLock(registry = LockType.PLAN, keyParam = "idPlan")
     public void addProfit(String idPlan, BigDecimal profit) {
-        TradePlan plan = tradePlanGetService.getPlan(idPlan);
-        plan.addProfit(profit);
-        repository.save(plan);
+        if (!repository.addProfit(idPlan, profit)) throw new TradePlanNotFoundException();
         cacheManager.evictPlanAndListCaches(idPlan);
     }
 
@@ -156,9 +156,7 @@ public class TradePlanUpdateServiceImpl implements TradePlanUpdateService {
     public void setActiveTrue(String idPlan, String idNewSession) {
         if (idNewSession == null || idNewSession.isBlank())
             throw new IllegalArgumentException("session id cant be null or blank");
-        TradePlan plan = tradePlanGetService.getPlan(idPlan);
-        plan.closeActive(idNewSession);
-        repository.save(plan);
+        if (!repository.markActive(idPlan, idNewSession)) throw new TradePlanNotFoundException();
         cacheManager.evictPlanAndListCaches(idPlan);
     }
 
@@ -166,9 +164,7 @@ public class TradePlanUpdateServiceImpl implements TradePlanUpdateService {
     @Transactional
     @WithLock(registry = LockType.PLAN, keyParam = "idPlan")
     public void setActiveFalse(String idPlan) {
-        TradePlan plan = tradePlanGetService.getPlan(idPlan);
-        plan.openActive();
-        repository.save(plan);
+        if (!repository.markInactive(idPlan)) throw new TradePlanNotFoundException();
         cacheManager.evictPlanAndListCaches(idPlan);
     }
 
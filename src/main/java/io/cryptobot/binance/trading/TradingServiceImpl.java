@@ -3,9 +3,10 @@ package io.cryptobot.binance.trading;
 import io.cryptobot.binance.trade.trade_plan.model.TradeMetrics;
 import io.cryptobot.binance.trade.trade_plan.model.TradePlan;
 import io.cryptobot.binance.trade.trade_plan.service.get.TradePlanGetService;
-import io.cryptobot.market_data.aggTrade.AggTrade;
+import io.cryptobot.configs.executor.BlockingExecutors;
 import io.cryptobot.market_data.aggTrade.AggTradeService;
-import io.cryptobot.market_data.depth.DepthModel;
+import io.cryptobot.market_data.aggTrade.TradeFlowStats;
+import io.cryptobot.market_data.depth.DepthBookSnapshot;
 import io.cryptobot.market_data.depth.DepthService;
 import io.cryptobot.utils.logging.TradingLogWriter;
 import lombok.RequiredArgsConstructor;
@@ -13,7 +14,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.Deque;
 import java.util.Map;
 import java.util.concurrent.*;
 
@@ -36,7 +36,7 @@ public class TradingServiceImpl implements TradingService {
     private final Map<String, Long>      lockMap        = new ConcurrentHashMap<>();
 
     private final ExecutorService executor =
-            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            BlockingExecutors.newExecutor("trading-analyze", Runtime.getRuntime().availableProcessors());
 
     @Override
     @Scheduled(initialDelay = 10_000, fixedRate = 1_000)
@@ -67,32 +67,31 @@ public class TradingServiceImpl implements TradingService {
         Direction finalDecision = Direction.NEUTRAL;
 
         try {
-            // === Тики (Deque: head=newest, tail=oldest) ===
-            Deque<AggTrade> ticks = aggTradeService.getRecentTradesDeque(symbol);
-            if (ticks.isEmpty()) return;
+            // === Агрегаты потока сделок, поддерживаются сервисом на каждой сделке — O(1) ===
+            TradeFlowStats ts = aggTradeService.getTradeFlow(symbol, VOL_WIN);
+            if (ts == null) return;
 
-            // === EMA по хронологии (old->new через descendingIterator) ===
-            double ema20 = calculateEMA(ticks, 20);
-            double ema50 = calculateEMA(ticks, 50);
+            // === Тиковые EMA ===
+            double ema20 = ts.emaFast();
+            double ema50 = ts.emaSlow();
             Direction emaDir = dirEma(ema20, ema50, EMA_SENS);
 
             // === Volume Ratio (baseline 60s, окно VOL_WIN) ===
-            double volRatio = calcVolRatio(ticks, VOL_WIN);
+            double volRatio = ts.volRatio();
             Direction volDir = dirVolume(volRatio, VOL_TH, emaDir); // объём — усилитель тренда
 
             // === Order Book Imbalance (top DEPTH_LV уровней) ===
-            DepthModel depth = depthService.getDepthModelBySymbol(symbol);
-            if (depth == null || depth.getBids().isEmpty() || depth.getAsks().isEmpty()) return;
+            DepthBookSnapshot depth = depthService.getBookSnapshot(symbol);
+            if (depth == null || depth.getBidCount() == 0 || depth.getAskCount() == 0) return;
             double imbalance = calcImbalance(depth, DEPTH_LV);
             Direction imbDir = dirImbalance(imbalance, MIN_IMB_L, MAX_IMB_S);
 
             // === Long/Short % по тикам ===
-            double[] ls = calcLongShortPct(ticks);
-            double lp = ls[0], sp = ls[1];
+            double lp = ts.longPct(), sp = ts.shortPct();
             Direction lsrDir = dirLongShort(lp, sp, MIN_LP, MIN_SP);
 
-            // === Текущая цена = самый новый тик (head) ===
-            double currentPrice = ticks.peekFirst() != null ? ticks.peekFirst().getPrice().doubleValue() : 0.0;
+            // === Текущая цена = самый новый тик ===
+            double currentPrice = ts.lastPrice();
 
             // === Агрегатор: строго 4/4 в одну сторону ===
             Direction decision = aggregateStrict(emaDir, volDir, imbDir, lsrDir);
@@ -186,77 +185,12 @@ public class TradingServiceImpl implements TradingService {
         return Direction.NEUTRAL;
     }
 
-    private double[] calcLongShortPct(Deque<AggTrade> dq) {
-        double lv = 0.0, sv = 0.0;
-        for (AggTrade t : dq) {
-            double q = t.getQuantity().doubleValue();
-            if (!t.isBuyerIsMaker()) lv += q; else sv += q;
-        }
-        double tot = lv + sv;
-        double lp = tot > 0 ? lv / tot * 100.0 : 0.0;
-        double sp = tot > 0 ? sv / tot * 100.0 : 0.0;
-        return new double[]{lp, sp};
-    }
-
-    private double calcImbalance(DepthModel depth, int levels) {
-        double bids = depth.getBids().entrySet().stream()
-                .limit(levels)
-                .mapToDouble(e -> e.getValue().doubleValue())
-                .sum();
-        double asks = depth.getAsks().entrySet().stream()
-                .limit(levels)
-                .mapToDouble(e -> e.getValue().doubleValue())
-                .sum();
+    private double calcImbalance(DepthBookSnapshot depth, int levels) {
+        double bids = depth.bidVolume(levels);
+        double asks = depth.askVolume(levels);
         return bids / (bids + asks + DEPTH_EPS);
     }
 
-    private double calcVolRatio(Deque<AggTrade> dq, int windowSec) {
-        long nowSec = java.time.Instant.now().getEpochSecond();
-
-        final int BASELINE_SEC = 60;
-        long baseFrom = nowSec - BASELINE_SEC;
-        long winFrom  = nowSec - windowSec;
-
-        double vol60 = 0.0;
-        double curVol = 0.0;
-
-        for (AggTrade t : dq) {
-            long ts = t.getTradeTime() / 1000; // мс → с
-            double q = t.getQuantity().doubleValue();
-            if (ts >= baseFrom && ts <= nowSec) vol60 += q;
-            if (ts >= winFrom  && ts <= nowSec) curVol += q;
-        }
-
-        double avgPerSec = vol60 / BASELINE_SEC;
-        if (avgPerSec <= 0.0) return 0.0;
-
-        double baselineForWindow = avgPerSec * windowSec;
-        return curVol / baselineForWindow;
-    }
-
-    /** EMA по хронологии: oldest->newest через descendingIterator() */
-    private double calculateEMA(Deque<AggTrade> dq, int period) {
-        if (dq.isEmpty()) return 0.0;
-
-        var it = dq.descendingIterator(); // tail -> head (oldest -> newest)
-        if (!it.hasNext()) return 0.0;
-
-        int n = dq.size();
-        if (n < period) {
-            double sum = 0.0;
-            while (it.hasNext()) sum += it.next().getPrice().doubleValue();
-            return sum / n;
-        }
-
-        double k = 2.0 / (period + 1);
-        double ema = it.next().getPrice().doubleValue(); // старт с самого старого
-        while (it.hasNext()) {
-            double p = it.next().getPrice().doubleValue();
-            ema = p * k + ema * (1 - k);
-        }
-        return ema;
-    }
-
     /* ===================== Logging & Processing ===================== */
 
     private void writePrettyLog(String symbol, IndicatorSnapshot s, Direction decision) {
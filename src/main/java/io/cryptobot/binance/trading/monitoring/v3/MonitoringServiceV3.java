@@ -1,10 +1,16 @@
 package io.cryptobot.binance.trading.monitoring.v3;
 
 import io.cryptobot.binance.trade.session.model.TradeSession;
+import io.cryptobot.binance.trading.monitoring.v3.executor.MonitorShardStats;
+
+import java.util.List;
 
 public interface MonitoringServiceV3 {
     void addToMonitoring(TradeSession tradeSession);
 
     void removeFromMonitoring(String idSession);
 
+    /** Счётчики шардов мониторинга: глубина очереди, пропущенные и запоздавшие оценки */
+    List<MonitorShardStats> getExecutorStats();
+
 }
@@ -5,19 +5,25 @@ import io.cryptobot.binance.trade.session.enums.TradingDirection;
 import io.cryptobot.binance.trade.session.model.TradeOrder;
 import io.cryptobot.binance.trade.session.model.TradeSession;
 import io.cryptobot.binance.trade.session.service.TradeSessionService;
+import io.cryptobot.binance.trading.monitoring.v3.executor.MonitorShardStats;
+import io.cryptobot.binance.trading.monitoring.v3.executor.SessionShardExecutor;
 import io.cryptobot.binance.trading.monitoring.v3.help.MonitorHelper;
 import io.cryptobot.binance.trading.monitoring.v3.models.FollowUpState;
 import io.cryptobot.binance.trading.monitoring.v3.models.SingleTrackState;
 import io.cryptobot.binance.trading.monitoring.v3.utils.CheckAveraging;
 import io.cryptobot.binance.trading.monitoring.v3.utils.CheckTrailing;
 import io.cryptobot.binance.trading.monitoring.v3.utils.ExtraClose;
+import io.cryptobot.binance.trading.monitoring.v3.utils.PnlMath;
 import io.cryptobot.binance.trading.updates.TradingUpdatesService;
+import io.cryptobot.configs.executor.BlockingExecutors;
 import io.cryptobot.configs.locks.TradeSessionLockRegistry;
-import io.cryptobot.market_data.ticker24h.Ticker24hService;
+import io.cryptobot.market_data.price.PriceFeed;
+import io.cryptobot.market_data.price.PriceListener;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -25,8 +31,11 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
 import io.cryptobot.binance.trade.session.enums.SessionStatus;
@@ -46,22 +55,23 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
     private final CheckAveraging averaging;
     private final ExtraClose extraClose;
     private final TradeSessionService sessionService;
-    private final Ticker24hService ticker24hService;
+    private final PriceFeed priceFeed;
     private final TradingUpdatesService tradingUpdatesService;
     private final CheckTrailing checkTrailing;
 
     // === КОНСТАНТЫ === //todo add to config + api update
     private static final long MONITORING_INTERVAL_MS = 1_000;      
     private static final long ORDER_COOLDOWN_MS = 10_000;          
+    // Очередь шарда: на сессию не больше одной ожидающей оценки, так что это потолок сессий на шард
+    private static final int MONITOR_QUEUE_CAPACITY = 1_024;
+    // С виртуальными потоками шард, ждущий ордер, не держит поток ОС — символов параллельно можно вести больше
+    private static final int MONITOR_VIRTUAL_SHARDS = 64;
 
-    // PnL в %
-    private static final BigDecimal PERCENTAGE_MULTIPLIER = BigDecimal.valueOf(100);
-
-    // Одна позиция: отслеживание и ранний хедж
-    private static final BigDecimal SINGLE_TRACKING_START_PCT = new BigDecimal("-0.20"); // Старт отслеживания при -0.20%
-    private static final BigDecimal SINGLE_EARLY_HEDGE_PCT = new BigDecimal("-0.20"); // Ранний хедж до трекинга
-    private static final BigDecimal SINGLE_WORSEN_DELTA_PCT = new BigDecimal("-0.1"); // Ухудшение от baseline → хедж
-    private static final BigDecimal SINGLE_IMPROVE_DELTA_PCT = new BigDecimal("0.1");  // Улучшение > +0.10% → ждём откат ≥30% и хедж
+    // Одна позиция: отслеживание и ранний хедж (PnL в единицах PnlMath, BigDecimal — только при отправке ордеров)
+    private static final long SINGLE_TRACKING_START_PCT = PnlMath.units("-0.20"); // Старт отслеживания при -0.20%
+    private static final long SINGLE_EARLY_HEDGE_PCT = PnlMath.units("-0.20"); // Ранний хедж до трекинга
+    private static final long SINGLE_WORSEN_DELTA_PCT = PnlMath.units("-0.1"); // Ухудшение от baseline → хедж
+    private static final long SINGLE_IMPROVE_DELTA_PCT = PnlMath.units("0.1");  // Улучшение > +0.10% → ждём откат ≥30% и хедж
 
 
     private final ConcurrentHashMap<String, TradeSession> sessions = new ConcurrentHashMap<>();
@@ -70,48 +80,136 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
     private final ConcurrentHashMap<String, SingleTrackState> singleTrackBySession = new ConcurrentHashMap<>();
     // Follow-up у оставшейся ноги ПОСЛЕ закрытия best в двух позициях
     private final ConcurrentHashMap<String, FollowUpState> followUpBySession = new ConcurrentHashMap<>();
-    private final ExecutorService monitorPool = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    // Сессии одного символа всегда оцениваются одним воркером, без очереди из устаревших оценок
+    private final SessionShardExecutor monitorPool = new SessionShardExecutor("monitor",
+            BlockingExecutors.isVirtual() ? MONITOR_VIRTUAL_SHARDS : Math.max(2, Runtime.getRuntime().availableProcessors()),
+            MONITOR_QUEUE_CAPACITY, MONITORING_INTERVAL_MS);
     private final TradeSessionLockRegistry lockRegistry;
 
+    // === Событийный режим: сессии символа оцениваются по изменению цены, а не раз в секунду ===
+    @Value("${monitoring.v3.event-driven:true}")
+    private boolean eventDriven = true;
+    // Не чаще одного пересчёта сессии за интервал: всплеск тиков склеивается в одну оценку
+    @Value("${monitoring.v3.event-min-interval-ms:100}")
+    private long eventMinIntervalMs = 100;
+
+    private final ConcurrentHashMap<String, Set<String>> sessionIdsBySymbol = new ConcurrentHashMap<>();
+    private final Set<String> dirtySessions = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Long> lastEventEvalAtMsBySession = new ConcurrentHashMap<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final PriceListener priceListener = this::onPriceUpdate;
+    private final ScheduledExecutorService eventScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "monitor-events");
+        t.setDaemon(true);
+        return t;
+    });
+
     @PreDestroy
     public void shutdownPool() {
+        if (eventDriven) priceFeed.removeListener(priceListener);
+        eventScheduler.shutdownNow();
         monitorPool.shutdown();
     }
 
     @PostConstruct
     public void init() {
         for (TradeSession s : sessionService.getAllActive()) {
-            sessions.put(s.getId(), s);
+            addToMonitoring(s);
+        }
+        if (eventDriven) {
+            priceFeed.addListener(priceListener);
+            log.info("📡 Monitoring V3: event-driven mode, min interval {} ms, sweep every {} ms",
+                    eventMinIntervalMs, MONITORING_INTERVAL_MS);
         }
     }
 
     @Override
     public void addToMonitoring(TradeSession tradeSession) {
         sessions.put(tradeSession.getId(), tradeSession);
+        sessionIdsBySymbol.computeIfAbsent(tradeSession.getTradePlan(), k -> ConcurrentHashMap.newKeySet())
+                .add(tradeSession.getId());
     }
 
     @Override
     public void removeFromMonitoring(String idSession) { //todo check runtime + many orders
-        sessions.remove(idSession);
+        TradeSession removed = sessions.remove(idSession);
+        if (removed != null) {
+            Set<String> ids = sessionIdsBySymbol.get(removed.getTradePlan());
+            if (ids != null) ids.remove(idSession);
+        }
+        dirtySessions.remove(idSession);
+        lastEventEvalAtMsBySession.remove(idSession);
         singleTrackBySession.remove(idSession);
         followUpBySession.remove(idSession);
         lastOrderAtMsBySession.remove(idSession);
     }
 
+    /**
+     * Страховочный опрос. В событийном режиме пропускает сессии, которые событие цены уже оценило
+     * за последний интервал, — остаются только те, чей фид молчит.
+     */
     @Scheduled(fixedRate = MONITORING_INTERVAL_MS)
     public void monitor() {
+        long now = System.currentTimeMillis();
         List<TradeSession> snapshot = new ArrayList<>(sessions.values());
         for (TradeSession session : snapshot) {
-            monitorPool.submit(() -> {
-                try {
-                    monitorSession(session);
-                } catch (Exception e) {
-                    log.error("❌ monitor error {}: {}", session.getId(), e.getMessage(), e);
-                }
-            });
+            if (eventDriven) {
+                Long last = lastEventEvalAtMsBySession.get(session.getId());
+                if (last != null && now - last < MONITORING_INTERVAL_MS) continue;
+            }
+            submitMonitor(session);
+        }
+    }
+
+    /** Слушатель PriceFeed (поток шарда): только помечает сессии символа и будит оценщик. */
+    void onPriceUpdate(String symbol, double price) {
+        Set<String> ids = sessionIdsBySymbol.get(symbol);
+        if (ids == null || ids.isEmpty()) return;
+        dirtySessions.addAll(ids);
+        scheduleDrain(0L);
+    }
+
+    private void scheduleDrain(long delayMs) {
+        if (!drainScheduled.compareAndSet(false, true)) return;
+        try {
+            eventScheduler.schedule(this::drainDirty, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            drainScheduled.set(false); // останавливаемся
         }
     }
 
+    /** Оценивает помеченные сессии, у которых истёк минимальный интервал; остальные ждут своей очереди. */
+    private void drainDirty() {
+        drainScheduled.set(false);
+        long now = System.currentTimeMillis();
+        long nextDue = Long.MAX_VALUE;
+        for (Iterator<String> it = dirtySessions.iterator(); it.hasNext(); ) {
+            String id = it.next();
+            long due = lastEventEvalAtMsBySession.getOrDefault(id, 0L) + eventMinIntervalMs;
+            if (due > now) {
+                nextDue = Math.min(nextDue, due);
+                continue;
+            }
+            it.remove();
+            TradeSession session = sessions.get(id);
+            if (session == null) continue;
+            lastEventEvalAtMsBySession.put(id, now);
+            submitMonitor(session);
+        }
+        if (nextDue != Long.MAX_VALUE) {
+            scheduleDrain(nextDue - now);
+        }
+    }
+
+    private void submitMonitor(TradeSession session) {
+        monitorPool.submit(session.getTradePlan(), session.getId(), () -> monitorSession(session));
+    }
+
+    @Override
+    public List<MonitorShardStats> getExecutorStats() {
+        return monitorPool.stats();
+    }
+
     private void monitorSession(TradeSession session) {
         if (!sessions.containsKey(session.getId())) {
             return;
@@ -129,8 +227,8 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
                 return;
             }
 
-            BigDecimal price = ticker24hService.getPrice(session.getTradePlan());
-            if (price == null) return;
+            double price = currentPrice(session.getTradePlan());
+            if (Double.isNaN(price)) return;
 
             boolean bothActive = session.hasBothPositionsActive();
             boolean anyActive = session.hasActivePosition();
@@ -148,7 +246,7 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
                     log.warn("⚠️ Session {}: No active order found for monitoring, skipping", session.getId());
                     return;
                 }
-                BigDecimal pnl = calcPnl(active, price);
+                long pnl = calcPnl(active, price);
 
                 applySinglePositionLogic(session, price, active, pnl);
             }
@@ -157,8 +255,16 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
         }
     }
 
+    /** Цена из фида без аллокаций; пока фид по символу пуст — цена 24h тикера. NaN — цены нет. */
+    private double currentPrice(String symbol) {
+        double p = priceFeed.price(symbol);
+        if (p > 0) return p;
+        BigDecimal fallback = priceFeed.getPrice(symbol);
+        return fallback == null ? Double.NaN : fallback.doubleValue();
+    }
+
     // --- SINGLE POSITION ---
-    private void applySinglePositionLogic(TradeSession session, BigDecimal price, TradeOrder order, BigDecimal pnl) {
+    private void applySinglePositionLogic(TradeSession session, double price, TradeOrder order, long pnl) {
         // если уже есть follow-up (после двух ног) — работаем строго с убыточной ногой
         FollowUpState fu = followUpBySession.get(session.getId());
         if (fu != null) {
@@ -172,10 +278,10 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
                     session.getId(),
                     session.getTradePlan(),
                     order.getDirection(),
-                    pnl.setScale(3, RoundingMode.HALF_UP),
-                    monitorHelper.nvl(order.getPnlHigh()).setScale(3, RoundingMode.HALF_UP),
+                    PnlMath.pct3(pnl),
+                    PnlMath.pct3(PnlMath.units(order.getPnlHigh())),
                     order.getPrice().setScale(8, RoundingMode.HALF_UP),
-                    price.setScale(8, RoundingMode.HALF_UP));
+                    price);
             routeClose(session, order, SessionMode.SCALPING, trailingReason("single_trailing", order.getPnlHigh()));
 
             singleTrackBySession.remove(session.getId());
@@ -184,23 +290,23 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
 
         // ранний хедж до начала трекинга
         SingleTrackState st = singleTrackBySession.get(session.getId());
-        if (st == null && pnl.compareTo(SINGLE_EARLY_HEDGE_PCT) <= 0) {
+        if (st == null && pnl <= SINGLE_EARLY_HEDGE_PCT) {
             TradingDirection hedgeDir = monitorHelper.opposite(order.getDirection());
             log.info("⚠️ {} [{}] EARLY HEDGE {}: pnl={}% <= {}% (before tracking), entry={}, current={}",
                     session.getId(),
                     session.getTradePlan(),
                     hedgeDir,
-                    pnl.setScale(3, RoundingMode.HALF_UP),
-                    SINGLE_EARLY_HEDGE_PCT,
+                    PnlMath.pct3(pnl),
+                    PnlMath.pct3(SINGLE_EARLY_HEDGE_PCT),
                     order.getPrice().setScale(8, RoundingMode.HALF_UP),
-                    price.setScale(8, RoundingMode.HALF_UP));
-            executeOpenHedge(session, hedgeDir, price,
-                    String.format("early_hedge pnl<=%.3f before_tracking", SINGLE_EARLY_HEDGE_PCT));
+                    price);
+            executeOpenHedge(session, hedgeDir, BigDecimal.valueOf(price),
+                    String.format("early_hedge pnl<=%.3f before_tracking", PnlMath.toDouble(SINGLE_EARLY_HEDGE_PCT)));
             return;
         }
 
         // старт трекинга при -0.20%
-        if (st == null && pnl.compareTo(SINGLE_TRACKING_START_PCT) <= 0) {
+        if (st == null && pnl <= SINGLE_TRACKING_START_PCT) {
             st = SingleTrackState.builder()
                     .baseline(pnl)
                     .tracking(true)
@@ -212,29 +318,30 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
                     session.getId(),
                     session.getTradePlan(),
                     order.getDirection(),
-                    st.getBaseline());
+                    PnlMath.toPct(st.getBaseline()));
             return;
         }
 
         // если трекинг активен — работаем по дельтам к baseline
         if (st != null && st.isTracking()) {
-            BigDecimal delta = pnl.subtract(st.getBaseline());
+            long delta = pnl - st.getBaseline();
 
             // ухудшение -0.10 → хедж
-            if (delta.compareTo(SINGLE_WORSEN_DELTA_PCT) <= 0) {
+            if (delta <= SINGLE_WORSEN_DELTA_PCT) {
                 TradingDirection hedgeDir = monitorHelper.opposite(order.getDirection());
                 log.info("📉 {} [{}] SINGLE TRACKING WORSEN {}: delta={}% <= {}% (baseline={}%), current PnL={}%, entry={}, current={}",
                         session.getId(),
                         session.getTradePlan(),
                         hedgeDir,
-                        delta.setScale(3, RoundingMode.HALF_UP),
-                        SINGLE_WORSEN_DELTA_PCT,
-                        st.getBaseline().setScale(3, RoundingMode.HALF_UP),
-                        pnl.setScale(3, RoundingMode.HALF_UP),
+                        PnlMath.pct3(delta),
+                        PnlMath.pct3(SINGLE_WORSEN_DELTA_PCT),
+                        PnlMath.pct3(st.getBaseline()),
+                        PnlMath.pct3(pnl),
                         order.getPrice().setScale(8, RoundingMode.HALF_UP),
-                        price.setScale(8, RoundingMode.HALF_UP));
-                executeOpenHedge(session, hedgeDir, price,
-                        String.format("single_tracking_worsen delta<=%.3f from %.3f", SINGLE_WORSEN_DELTA_PCT, st.getBaseline()));
+                        price);
+                executeOpenHedge(session, hedgeDir, BigDecimal.valueOf(price),
+                        String.format("single_tracking_worsen delta<=%.3f from %.3f",
+                                PnlMath.toDouble(SINGLE_WORSEN_DELTA_PCT), PnlMath.toDouble(st.getBaseline())));
                 singleTrackBySession.remove(session.getId());
                 return;
             }
@@ -248,22 +355,22 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
                         session.getId(),
                         session.getTradePlan(),
                         order.getDirection(),
-                        delta.setScale(3, RoundingMode.HALF_UP),
-                        SINGLE_IMPROVE_DELTA_PCT,
-                        st.getBaseline().setScale(3, RoundingMode.HALF_UP));
+                        PnlMath.pct3(delta),
+                        PnlMath.pct3(SINGLE_IMPROVE_DELTA_PCT),
+                        PnlMath.pct3(st.getBaseline()));
             }
             if (st.isTrailActive()) {
                 // обновляем локальный high
-                BigDecimal newTrailHigh = checkTrailing.updateTrailHigh(st.getTrailHigh(), pnl);
-                if (newTrailHigh.compareTo(st.getTrailHigh()) > 0) {
-                    BigDecimal oldHigh = st.getTrailHigh();
+                long newTrailHigh = checkTrailing.updateTrailHigh(st.getTrailHigh(), pnl);
+                if (newTrailHigh > st.getTrailHigh()) {
+                    long oldHigh = st.getTrailHigh();
                     st.setTrailHigh(newTrailHigh);
                     log.info("📈 {} [{}] SINGLE SOFT-TRAIL HIGH UPDATED {}: {}% → {}%",
                             session.getId(),
                             session.getTradePlan(),
                             order.getDirection(),
-                            oldHigh.setScale(3, RoundingMode.HALF_UP),
-                            pnl.setScale(3, RoundingMode.HALF_UP));
+                            PnlMath.pct3(oldHigh),
+                            PnlMath.pct3(pnl));
                 }
 
                 // проверяем soft trailing
@@ -273,12 +380,12 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
                             session.getId(),
                             session.getTradePlan(),
                             hedgeDir,
-                            pnl.setScale(3, RoundingMode.HALF_UP),
-                            st.getTrailHigh().setScale(3, RoundingMode.HALF_UP),
+                            PnlMath.pct3(pnl),
+                            PnlMath.pct3(st.getTrailHigh()),
                             order.getPrice().setScale(8, RoundingMode.HALF_UP),
-                            price.setScale(8, RoundingMode.HALF_UP));
-                    executeOpenHedge(session, hedgeDir, price,
-                            String.format("single_soft_trail_retrace high=%.3f", st.getTrailHigh()));
+                            price);
+                    executeOpenHedge(session, hedgeDir, BigDecimal.valueOf(price),
+                            String.format("single_soft_trail_retrace high=%.3f", PnlMath.toDouble(st.getTrailHigh())));
                     singleTrackBySession.remove(session.getId());
                     return;
                 }
@@ -287,16 +394,13 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
     }
 
     // когда после хеджа остался один ордер
-    private void handleFollowUpSingle(TradeSession session, BigDecimal price, FollowUpState fu) {
+    private void handleFollowUpSingle(TradeSession session, double price, FollowUpState fu) {
         TradeOrder losing = monitorHelper.getLatestActiveOrderByDirection(session, fu.getLosingDirection());
         if (losing == null || losing.getPrice() == null || losing.getPrice().signum() == 0) {
             followUpBySession.remove(session.getId());
             return;
         }
-        BigDecimal entry = losing.getPrice();
-        BigDecimal pnl = (losing.getDirection() == TradingDirection.LONG)
-                ? price.subtract(entry).divide(entry, 8, RoundingMode.HALF_UP).multiply(PERCENTAGE_MULTIPLIER)
-                : entry.subtract(price).divide(entry, 8, RoundingMode.HALF_UP).multiply(PERCENTAGE_MULTIPLIER);
+        long pnl = calcPnl(losing, price);
 
         if (!fu.isBaselineFixed()) {
             fu.setBaseline(pnl);
@@ -307,28 +411,29 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
                     session.getId(),
                     session.getTradePlan(),
                     fu.getLosingDirection(),
-                    fu.getBaseline().setScale(3, RoundingMode.HALF_UP),
+                    PnlMath.pct3(fu.getBaseline()),
                     losing.getOrderId());
             return;
         }
 
-        BigDecimal delta = pnl.subtract(fu.getBaseline());
+        long delta = pnl - fu.getBaseline();
 
         // (а) ухудшение -0.10 → ре-хедж
-        if (delta.compareTo(SINGLE_WORSEN_DELTA_PCT) <= 0) {
+        if (delta <= SINGLE_WORSEN_DELTA_PCT) {
             TradingDirection hedgeDir = monitorHelper.opposite(losing.getDirection());
             log.info("📉 {} [{}] FOLLOW-UP WORSEN {}: delta={}% <= {}% (baseline={}%), current PnL={}%, entry={}, current={}",
                     session.getId(),
                     session.getTradePlan(),
                     hedgeDir,
-                    delta.setScale(3, RoundingMode.HALF_UP),
-                    SINGLE_WORSEN_DELTA_PCT,
-                    fu.getBaseline().setScale(3, RoundingMode.HALF_UP),
-                    pnl.setScale(3, RoundingMode.HALF_UP),
+                    PnlMath.pct3(delta),
+                    PnlMath.pct3(SINGLE_WORSEN_DELTA_PCT),
+                    PnlMath.pct3(fu.getBaseline()),
+                    PnlMath.pct3(pnl),
                     losing.getPrice().setScale(8, RoundingMode.HALF_UP),
-                    price.setScale(8, RoundingMode.HALF_UP));
-            executeOpenHedge(session, monitorHelper.opposite(losing.getDirection()), price,
-                    String.format("follow_up_worsen delta<=%.3f from %.3f", SINGLE_WORSEN_DELTA_PCT, fu.getBaseline()));
+                    price);
+            executeOpenHedge(session, monitorHelper.opposite(losing.getDirection()), BigDecimal.valueOf(price),
+                    String.format("follow_up_worsen delta<=%.3f from %.3f",
+                            PnlMath.toDouble(SINGLE_WORSEN_DELTA_PCT), PnlMath.toDouble(fu.getBaseline())));
             followUpBySession.remove(session.getId());
             return;
         }
@@ -342,21 +447,21 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
                     session.getId(),
                     session.getTradePlan(),
                     fu.getLosingDirection(),
-                    delta.setScale(3, RoundingMode.HALF_UP),
-                    SINGLE_IMPROVE_DELTA_PCT,
-                    fu.getBaseline().setScale(3, RoundingMode.HALF_UP));
+                    PnlMath.pct3(delta),
+                    PnlMath.pct3(SINGLE_IMPROVE_DELTA_PCT),
+                    PnlMath.pct3(fu.getBaseline()));
         }
         if (fu.isSoftTrailActive()) {
-            BigDecimal newTrailHigh = checkTrailing.updateTrailHigh(fu.getSoftTrailHigh(), pnl);
-            if (newTrailHigh.compareTo(fu.getSoftTrailHigh()) > 0) {
-                BigDecimal oldHigh = fu.getSoftTrailHigh();
+            long newTrailHigh = checkTrailing.updateTrailHigh(fu.getSoftTrailHigh(), pnl);
+            if (newTrailHigh > fu.getSoftTrailHigh()) {
+                long oldHigh = fu.getSoftTrailHigh();
                 fu.setSoftTrailHigh(newTrailHigh);
                 log.info("📈 {} [{}] FOLLOW-UP SOFT-TRAIL HIGH UPDATED {}: {}% → {}%",
                         session.getId(),
                         session.getTradePlan(),
                         fu.getLosingDirection(),
-                        oldHigh.setScale(3, RoundingMode.HALF_UP),
-                        pnl.setScale(3, RoundingMode.HALF_UP));
+                        PnlMath.pct3(oldHigh),
+                        PnlMath.pct3(pnl));
             }
 
             // проверяем soft trailing
@@ -366,12 +471,12 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
                         session.getId(),
                         session.getTradePlan(),
                         hedgeDir,
-                        pnl.setScale(3, RoundingMode.HALF_UP),
-                        fu.getSoftTrailHigh().setScale(3, RoundingMode.HALF_UP),
+                        PnlMath.pct3(pnl),
+                        PnlMath.pct3(fu.getSoftTrailHigh()),
                         losing.getPrice().setScale(8, RoundingMode.HALF_UP),
-                        price.setScale(8, RoundingMode.HALF_UP));
-                executeOpenHedge(session, monitorHelper.opposite(losing.getDirection()), price,
-                        String.format("follow_up_soft_trail_retrace high=%.3f", fu.getSoftTrailHigh()));
+                        price);
+                executeOpenHedge(session, monitorHelper.opposite(losing.getDirection()), BigDecimal.valueOf(price),
+                        String.format("follow_up_soft_trail_retrace high=%.3f", PnlMath.toDouble(fu.getSoftTrailHigh())));
                 followUpBySession.remove(session.getId());
                 return;
             }
@@ -383,10 +488,10 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
                     session.getId(),
                     session.getTradePlan(),
                     losing.getDirection(),
-                    pnl.setScale(3, RoundingMode.HALF_UP),
-                    monitorHelper.nvl(losing.getPnlHigh()).setScale(3, RoundingMode.HALF_UP),
+                    PnlMath.pct3(pnl),
+                    PnlMath.pct3(PnlMath.units(losing.getPnlHigh())),
                     losing.getPrice().setScale(8, RoundingMode.HALF_UP),
-                    price.setScale(8, RoundingMode.HALF_UP));
+                    price);
 
             routeClose(session, losing, SessionMode.SCALPING, trailingReason("follow_up_trailing", losing.getPnlHigh()));
             followUpBySession.remove(session.getId());
@@ -394,27 +499,27 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
     }
 
     // --- TWO POSITIONS ---
-    private void applyTwoPositionsLogic(TradeSession session, BigDecimal price) {
+    private void applyTwoPositionsLogic(TradeSession session, double price) {
         TradeOrder longOrder = monitorHelper.getLatestActiveOrderByDirection(session, TradingDirection.LONG);
         TradeOrder shortOrder = monitorHelper.getLatestActiveOrderByDirection(session, TradingDirection.SHORT);
         if (longOrder == null || shortOrder == null) return;
 
-        BigDecimal pnlLong = calcPnl(longOrder, price);
-        BigDecimal pnlShort = calcPnl(shortOrder, price);
+        long pnlLong = calcPnl(longOrder, price);
+        long pnlShort = calcPnl(shortOrder, price);
 
         // best/worst
-        boolean longIsBest = pnlLong.compareTo(pnlShort) > 0;
+        boolean longIsBest = pnlLong > pnlShort;
         TradeOrder best = longIsBest ? longOrder : shortOrder;
         TradeOrder worst = longIsBest ? shortOrder : longOrder;
-        BigDecimal bestPnl = longIsBest ? pnlLong : pnlShort;
-        BigDecimal pnlWorst = longIsBest ? pnlShort : pnlLong; // ⬅ NEW
+        long bestPnl = longIsBest ? pnlLong : pnlShort;
+        long pnlWorst = longIsBest ? pnlShort : pnlLong; // ⬅ NEW
 
         // обновляем follow-up ref (максимум из high и текущего best pnl)
         FollowUpState fu = followUpBySession.computeIfAbsent(session.getId(), k -> new FollowUpState());
         fu.setLosingDirection(worst.getDirection());
-        BigDecimal bestHigh = monitorHelper.nvl(best.getPnlHigh());
-        BigDecimal refCand = bestHigh.max(bestPnl);
-        fu.setRefProfit((fu.getRefProfit() == null ? refCand : fu.getRefProfit().max(refCand)));
+        long bestHigh = PnlMath.units(best.getPnlHigh());
+        long refCand = Math.max(bestHigh, bestPnl);
+        fu.setRefProfit(Math.max(fu.getRefProfit(), refCand));
 
         // 1) трейлинг у обеих ног: если был активирован — закрываем соответствующую ногу
         if (checkTrailing.checkTrailing(best, bestPnl)) {
@@ -422,10 +527,10 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
                     session.getId(),
                     session.getTradePlan(),
                     best.getDirection(),
-                    bestPnl.setScale(3, RoundingMode.HALF_UP),
-                    monitorHelper.nvl(best.getPnlHigh()).setScale(3, RoundingMode.HALF_UP),
+                    PnlMath.pct3(bestPnl),
+                    PnlMath.pct3(PnlMath.units(best.getPnlHigh())),
                     best.getPrice().setScale(8, RoundingMode.HALF_UP),
-                    price.setScale(8, RoundingMode.HALF_UP));
+                    price);
 
             routeClose(session, best, SessionMode.HEDGING, trailingReason("two_pos_trailing", best.getPnlHigh()));
             return;
@@ -436,32 +541,34 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
 
         // 2.1) check extra close -> close best order
         if (extraClose.checkExtraClose(session, bestPnl, pnlWorst, best)) {
-            routeClose(session, best, SessionMode.HEDGING, String.format("extra_close bestPnl=%.3f worstPnl=%.3f", bestPnl, pnlWorst));
+            routeClose(session, best, SessionMode.HEDGING, String.format("extra_close bestPnl=%.3f worstPnl=%.3f",
+                    PnlMath.toDouble(bestPnl), PnlMath.toDouble(pnlWorst)));
             return;
         }
 
         // 2.5) ПРОВЕРКА УСРЕДНЕНИЯ ПО ХУДШЕЙ НОГЕ ⬅ NEW
         // Условия: есть худшая нога, PnL <= -X%, нет активного усреднения в её направлении, нет кулдауна и т.д.
         if (averaging.checkOpen(session, worst, pnlWorst)) { // твой метод из прошлого сообщения
-            executeOpenAverage(session, worst, String.format("two_pos_averaging dir=%s pnl=%.3f%%", worst.getDirection(), pnlWorst), price);
+            executeOpenAverage(session, worst, String.format("two_pos_averaging dir=%s pnl=%.3f%%", worst.getDirection(), PnlMath.toDouble(pnlWorst)), BigDecimal.valueOf(price));
             return;
         }
         // 2.6) ПРОВЕРКА УСРЕДНЕНИЯ ПО ЛУЧШЕЙ НОГЕ ⬅ NEW
         // Условия: есть лучшая нога, PnL <= -X%, нет активного усреднения в её направлении, нет кулдауна и т.д.
         if (averaging.checkOpen(session, best, bestPnl)) {
-            executeOpenAverage(session, best, String.format("two_pos_averaging dir=%s pnl=%.3f%%", best.getDirection(), bestPnl), price);
+            executeOpenAverage(session, best, String.format("two_pos_averaging dir=%s pnl=%.3f%%", best.getDirection(), PnlMath.toDouble(bestPnl)), BigDecimal.valueOf(price));
             return;
         }
 
     }
 
-    private void updateSessionInMonitoring(TradeSession updatedSession) {
+    void updateSessionInMonitoring(TradeSession updatedSession) {
         if (updatedSession == null) return;
         updatedSession.setProcessing(false);
         if (updatedSession.getStatus() == SessionStatus.COMPLETED) {
-            sessions.remove(updatedSession.getId());
-            singleTrackBySession.remove(updatedSession.getId());
-            followUpBySession.remove(updatedSession.getId());
+            // индекс по символу, метки событий и кулдаун — иначе тики продолжат помечать завершённую сессию
+            Set<String> ids = sessionIdsBySymbol.get(updatedSession.getTradePlan());
+            if (ids != null) ids.remove(updatedSession.getId());
+            removeFromMonitoring(updatedSession.getId());
             log.info("✅ {} completed", updatedSession.getId());
         } else {
             sessions.put(updatedSession.getId(), updatedSession);
@@ -509,7 +616,7 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
                     session, mode, orderToClose.getOrderId(),
                     orderToClose.getRelatedHedgeId(), orderToClose.getDirection(),
                     monitorHelper.determineCloseOrderPurpose(orderToClose),
-                    ticker24hService.getPrice(session.getTradePlan()),
+                    priceFeed.getPrice(session.getTradePlan()),
                     reason
             );
             updateSessionInMonitoring(updated);
@@ -623,7 +730,7 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
                     session, mode, averagingOrder.getOrderId(),
                     averagingOrder.getRelatedHedgeId(), averagingOrder.getDirection(),
                     OrderPurpose.AVERAGING_CLOSE,
-                    ticker24hService.getPrice(session.getTradePlan()),
+                    priceFeed.getPrice(session.getTradePlan()),
                     reason
             );
             updateSessionInMonitoring(updated);
@@ -634,26 +741,13 @@ public class MonitoringServiceV3Impl implements MonitoringServiceV3 {
         }
     }
 
-    private BigDecimal calcPnl(TradeOrder active, BigDecimal price) {
-        BigDecimal entryPrice = active.getPrice();
-
-        BigDecimal pnl;
-        if (active.getDirection() == TradingDirection.LONG) {
-            // LONG: ((current_price - entry_price) / entry_price * 100)
-            pnl = price.subtract(entryPrice)
-                    .divide(entryPrice, 8, RoundingMode.HALF_UP)
-                    .multiply(PERCENTAGE_MULTIPLIER);
-        } else {
-            // SHORT: ((entry_price - current_price) / entry_price * 100)
-            pnl = entryPrice.subtract(price)
-                    .divide(entryPrice, 8, RoundingMode.HALF_UP)
-                    .multiply(PERCENTAGE_MULTIPLIER);
-        }
-        return pnl;
+    private long calcPnl(TradeOrder active, double price) {
+        // LONG: (current - entry) / entry, SHORT: (entry - current) / entry — в единицах PnlMath
+        return PnlMath.pnl(active.getDirection(), active.getPrice(), price);
     }
 
     private String trailingReason(String tag, BigDecimal high) {
-        BigDecimal h = monitorHelper.nvl(high);
-        return String.format("%s high=%.3f retrace<=%.3f", tag, h, checkTrailing.computeRetraceLevel(h));
+        long h = PnlMath.units(high);
+        return String.format("%s high=%.3f retrace<=%.3f", tag, PnlMath.toDouble(h), checkTrailing.computeRetraceLevel(h));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package io.cryptobot.binance.trading.monitoring.v3.executor;
+
+/**
+ * Снимок счётчиков одного шарда исполнителя мониторинга.
+ *
+ * @param skipped  отправки, пропущенные из-за уже ожидающей оценки той же сессии
+ * @param rejected отправки, отклонённые переполненной очередью
+ * @param late     оценки, начавшиеся позже порога после постановки в очередь
+ * @param slow     оценки, выполнявшиеся дольше порога
+ */
+public record MonitorShardStats(
+        int shard,
+        int capacity,
+        long queueDepth,
+        long submitted,
+        long completed,
+        long skipped,
+        long rejected,
+        long late,
+        long slow,
+        long maxLagMs
+) {
+}
@@ -0,0 +1,141 @@
+package io.cryptobot.binance.trading.monitoring.v3.executor;
+
+import io.cryptobot.configs.executor.BlockingExecutors;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Исполнитель мониторинга с привязкой к шарду.
+ * <p>
+ * Каждый ключ шарда (символ плана) всегда попадает в один и тот же однопоточный воркер, поэтому оценки
+ * одной сессии идут строго по очереди и не дерутся за её лок. На одну задачу (сессию) в очереди
+ * не больше одной ожидающей оценки: повторная отправка, пока прежняя не начала выполняться, пропускается
+ * и считается. Очередь шарда ограничена, перегрузка видна по счётчикам, а не по росту памяти.
+ */
+@Slf4j
+public class SessionShardExecutor {
+    private final String name;
+    private final long lateThresholdMs;
+    private final Shard[] shards;
+    /** Сессии с ожидающей оценкой → время постановки в очередь (нс). */
+    private final ConcurrentHashMap<String, Long> pending = new ConcurrentHashMap<>();
+
+    public SessionShardExecutor(String name, int shardCount, int queueCapacity, long lateThresholdMs) {
+        this.name = name;
+        this.lateThresholdMs = lateThresholdMs;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+        log.info("{} started: shards={}, queueCapacity={}, lateThreshold={} ms",
+                name, shardCount, queueCapacity, lateThresholdMs);
+    }
+
+    /**
+     * @param shardKey ключ привязки (символ торгового плана)
+     * @param taskKey  ключ задачи (id сессии), не больше одной ожидающей задачи на ключ
+     * @return false, если оценка уже ждёт в очереди, очередь шарда полна или исполнитель остановлен
+     */
+    public boolean submit(String shardKey, String taskKey, Runnable task) {
+        Shard shard = shards[shardOf(shardKey)];
+        long now = System.nanoTime();
+        if (pending.putIfAbsent(taskKey, now) != null) {
+            shard.skipped.incrementAndGet();
+            return false;
+        }
+        try {
+            shard.pool.execute(() -> shard.run(taskKey, now, task));
+            shard.submitted.incrementAndGet();
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(taskKey, now);
+            long r = shard.rejected.incrementAndGet();
+            if (!shard.pool.isShutdown() && (r == 1 || r % 1_000 == 0)) {
+                log.warn("⚠️ {}-{} queue is full, rejected {} evaluations so far", name, shard.index, r);
+            }
+            return false;
+        }
+    }
+
+    int shardOf(String shardKey) {
+        if (shards.length == 1 || shardKey == null) return 0;
+        return (shardKey.hashCode() & Integer.MAX_VALUE) % shards.length;
+    }
+
+    public List<MonitorShardStats> stats() {
+        List<MonitorShardStats> out = new ArrayList<>(shards.length);
+        for (Shard s : shards) {
+            out.add(s.stats());
+        }
+        return out;
+    }
+
+    public void shutdown() {
+        for (Shard s : shards) {
+            s.pool.shutdown();
+        }
+    }
+
+    private final class Shard {
+        private final int index;
+        private final int capacity;
+        private final ThreadPoolExecutor pool;
+
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong late = new AtomicLong();
+        private final AtomicLong slow = new AtomicLong();
+        private volatile long completed;
+        private volatile long maxLagMs;
+
+        Shard(int index, int capacity) {
+            this.index = index;
+            this.capacity = capacity;
+            this.pool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacity), r -> BlockingExecutors.newThread(name + "-" + index, r));
+        }
+
+        /** Выполняется только потоком шарда. */
+        void run(String taskKey, long enqueuedAt, Runnable task) {
+            // снимаем отметку до запуска: новое событие во время оценки поставит ровно одну следующую
+            pending.remove(taskKey, enqueuedAt);
+            long start = System.nanoTime();
+            long lagMs = TimeUnit.NANOSECONDS.toMillis(start - enqueuedAt);
+            if (lagMs > maxLagMs) maxLagMs = lagMs;
+            if (lagMs > lateThresholdMs) {
+                long l = late.incrementAndGet();
+                if (l == 1 || l % 1_000 == 0) {
+                    log.warn("⏱️ {}-{} {} started {} ms late ({} late so far)", name, index, taskKey, lagMs, l);
+                }
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("❌ {}-{} task {} failed: {}", name, index, taskKey, e.getMessage(), e);
+            } finally {
+                long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (tookMs > lateThresholdMs) {
+                    long s = slow.incrementAndGet();
+                    if (s == 1 || s % 1_000 == 0) {
+                        log.warn("🐢 {}-{} {} took {} ms ({} slow so far)", name, index, taskKey, tookMs, s);
+                    }
+                }
+                completed++;
+            }
+        }
+
+        MonitorShardStats stats() {
+            return new MonitorShardStats(index, capacity, pool.getQueue().size(),
+                    submitted.get(), completed, skipped.get(), rejected.get(), late.get(), slow.get(), maxLagMs);
+        }
+    }
+}
@@ -9,7 +9,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.util.Comparator;
 import java.util.Optional;
 
 @Slf4j
@@ -34,41 +33,20 @@ public class MonitorHelper {
     //переписать на последний по направлнию и времени открытия
     public TradeOrder getLatestActiveOrderByDirection(TradeSession session, TradingDirection dir) {
         // 1) если есть АКТИВНЫЙ усредняющий ордер по направлению — он главнее
-        Optional<TradeOrder> avgActive = session.getOrders().stream()
-                .filter(o -> (o.getStatus() == OrderStatus.FILLED || o.getStatus() == OrderStatus.NEW))
-                .filter(o -> dir.equals(o.getDirection()))
-                .filter(o -> o.getPurpose() == OrderPurpose.AVERAGING_OPEN)
-                .filter(o -> !isOpenOrderClosed(session, o))
-                .max(Comparator.comparing(TradeOrder::getOrderTime));
-        if (avgActive.isPresent()) return avgActive.get();
+        TradeOrder avgActive = latestActive(session, dir, OrderPurpose.AVERAGING_OPEN);
+        if (avgActive != null) return avgActive;
 
         // 2) MAIN ещё активен — возвращаем MAIN
-        Optional<TradeOrder> mainOpen = session.getOrders().stream()
-                .filter(o -> (o.getStatus() == OrderStatus.FILLED || o.getStatus() == OrderStatus.NEW))
-                .filter(o -> dir.equals(o.getDirection()))
-                .filter(o -> o.getPurpose() == OrderPurpose.MAIN_OPEN)
-                .filter(o -> !isOpenOrderClosed(session, o))
-                .max(Comparator.comparing(TradeOrder::getOrderTime));
-
-        return mainOpen.orElseGet(() -> session.getOrders().stream()
-                .filter(o -> (o.getStatus() == OrderStatus.FILLED || o.getStatus() == OrderStatus.NEW))
-                .filter(o -> dir.equals(o.getDirection()))
-                .filter(o -> o.getPurpose() == OrderPurpose.HEDGE_OPEN)
-                .filter(o -> !isOpenOrderClosed(session, o))
-                .max(Comparator.comparing(TradeOrder::getOrderTime))
-                .orElse(null));
+        TradeOrder mainOpen = latestActive(session, dir, OrderPurpose.MAIN_OPEN);
+        if (mainOpen != null) return mainOpen;
 
         // 3) MAIN закрыт — ищем последний активный HEDGE
+        return latestActive(session, dir, OrderPurpose.HEDGE_OPEN);
     }
 
     //переписать на последний по направлнию и времени открытия
     public TradeOrder getLastFilledHedgeOrderByDirection(TradeSession session, TradingDirection dir) {
-        return session.getOrders().stream()
-                .filter(o -> OrderPurpose.HEDGE_OPEN.equals(o.getPurpose()))
-                .filter(o -> OrderStatus.FILLED.equals(o.getStatus()))
-                .filter(o -> dir.equals(o.getDirection()))
-                .max(Comparator.comparing(TradeOrder::getOrderTime))
-                .orElse(null);
+        return latestFilled(session, dir, OrderPurpose.HEDGE_OPEN);
     }
 
     public boolean isOpenOrderClosed(TradeSession session, TradeOrder open) {
@@ -77,11 +55,7 @@ public class MonitorHelper {
         // --- MAIN_OPEN ---
         if (OrderPurpose.MAIN_OPEN.equals(open.getPurpose())) {
             // 1) прямое закрытие MAIN
-            boolean closedDirect = session.getOrders().stream()
-                    .filter(o -> OrderStatus.FILLED.equals(o.getStatus()))
-                    .anyMatch(o -> (OrderPurpose.MAIN_CLOSE.equals(o.getPurpose()) || OrderPurpose.MAIN_PARTIAL_CLOSE.equals(o.getPurpose()))
-                            && open.getOrderId().equals(o.getParentOrderId()));
-            if (closedDirect) return true;
+            if (hasFilledChild(session, open, OrderPurpose.MAIN_CLOSE, OrderPurpose.MAIN_PARTIAL_CLOSE)) return true;
 
             // 2) транзитивно через усреднение: MAIN_OPEN → AVERAGING_OPEN → AVERAGING_CLOSE
             Optional<TradeOrder> lastAvgOpen = findLastAveragingOpenForParent(session, open);
@@ -91,11 +65,7 @@ public class MonitorHelper {
         // --- HEDGE_OPEN ---
         if (OrderPurpose.HEDGE_OPEN.equals(open.getPurpose())) {
             // 1) прямое закрытие HEDGE
-            boolean closedDirect = session.getOrders().stream()
-                    .filter(o -> OrderStatus.FILLED.equals(o.getStatus()))
-                    .anyMatch(o -> (OrderPurpose.HEDGE_CLOSE.equals(o.getPurpose()) || OrderPurpose.HEDGE_PARTIAL_CLOSE.equals(o.getPurpose()))
-                            && open.getOrderId().equals(o.getParentOrderId()));
-            if (closedDirect) return true;
+            if (hasFilledChild(session, open, OrderPurpose.HEDGE_CLOSE, OrderPurpose.HEDGE_PARTIAL_CLOSE)) return true;
 
             // 2) транзитивно через усреднение: HEDGE_OPEN → AVERAGING_OPEN → AVERAGING_CLOSE
             Optional<TradeOrder> lastAvgOpen = findLastAveragingOpenForParent(session, open);
@@ -105,21 +75,12 @@ public class MonitorHelper {
         // --- AVERAGING_OPEN ---
         if (OrderPurpose.AVERAGING_OPEN.equals(open.getPurpose())) {
             // 1) прямое закрытие AVERAGING_OPEN
-            boolean closedDirect = session.getOrders().stream()
-                    .filter(o -> OrderStatus.FILLED.equals(o.getStatus()))
-                    .anyMatch(o -> OrderPurpose.AVERAGING_CLOSE.equals(o.getPurpose())
-                            && open.getOrderId().equals(o.getParentOrderId()));
-            if (closedDirect) return true;
-            
+            if (hasAveragingCloseFor(session, open)) return true;
+
             // 2) транзитивное закрытие: если есть более позднее AVERAGING_OPEN, которое закрыто
-            boolean hasLaterAveraging = session.getOrders().stream()
-                    .filter(o -> OrderPurpose.AVERAGING_OPEN.equals(o.getPurpose()))
-                    .filter(o -> o.getStatus() == OrderStatus.FILLED || o.getStatus() == OrderStatus.NEW)
-                    .filter(o -> o.getDirection() == open.getDirection())
-                    .filter(o -> open.getOrderId().equals(o.getParentOrderId()))
-                    .anyMatch(o -> isOpenOrderClosed(session, o));
-            
-            return hasLaterAveraging;
+            for (TradeOrder o : session.getChildOrders(open.getOrderId())) {
+                if (isChildAveraging(o, open) && isOpenOrderClosed(session, o)) return true;
+            }
         }
 
         return false;
@@ -139,11 +100,7 @@ public class MonitorHelper {
         if (main.getDirection() == TradingDirection.SHORT && !session.isActiveShort()) return false;
 
         // прямое закрытие MAIN
-        boolean hasMainClose = session.getOrders().stream()
-                .filter(o -> OrderStatus.FILLED.equals(o.getStatus()))
-                .anyMatch(o -> (OrderPurpose.MAIN_CLOSE.equals(o.getPurpose()) || OrderPurpose.MAIN_PARTIAL_CLOSE.equals(o.getPurpose()))
-                        && main.getOrderId().equals(o.getParentOrderId()));
-        if (hasMainClose) return false;
+        if (hasFilledChild(session, main, OrderPurpose.MAIN_CLOSE, OrderPurpose.MAIN_PARTIAL_CLOSE)) return false;
 
         // если поверх MAIN есть НЕзакрытое AVERAGING_OPEN — считаем, что MAIN «затенён» усреднением
         Optional<TradeOrder> avgOverMain = findLastAveragingOpenForParent(session, main);
@@ -164,27 +121,13 @@ public class MonitorHelper {
      */
     public boolean isDirectionActiveByOrders(TradeSession s, TradingDirection dir) {
         // 1) есть ли НЕзакрытое усреднение по направлению?
-        boolean avgActive = s.getOrders().stream()
-                .filter(o -> o.getPurpose() == OrderPurpose.AVERAGING_OPEN)
-                .filter(o -> o.getStatus() == OrderStatus.NEW || o.getStatus() == OrderStatus.FILLED)
-                .filter(o -> dir.equals(o.getDirection()))
-                .anyMatch(o -> !isOpenOrderClosed(s, o));
-        if (avgActive) return true;
+        if (hasActive(s, dir, OrderPurpose.AVERAGING_OPEN)) return true;
 
         // 2) есть ли НЕзакрытый хедж по направлению?
-        boolean hedgeActive = s.getOrders().stream()
-                .filter(o -> o.getPurpose() == OrderPurpose.HEDGE_OPEN)
-                .filter(o -> o.getStatus() == OrderStatus.NEW || o.getStatus() == OrderStatus.FILLED)
-                .filter(o -> dir.equals(o.getDirection()))
-                .anyMatch(o -> !isOpenOrderClosed(s, o));
-        if (hedgeActive) return true;
+        if (hasActive(s, dir, OrderPurpose.HEDGE_OPEN)) return true;
 
         // 3) есть ли НЕзакрытый main по направлению?
-        return s.getOrders().stream()
-                .filter(o -> o.getPurpose() == OrderPurpose.MAIN_OPEN)
-                .filter(o -> o.getStatus() == OrderStatus.NEW || o.getStatus() == OrderStatus.FILLED)
-                .filter(o -> dir.equals(o.getDirection()))
-                .anyMatch(o -> !isOpenOrderClosed(s, o));
+        return hasActive(s, dir, OrderPurpose.MAIN_OPEN);
     }
 
     public boolean isDirectionActive(TradeSession s, TradingDirection dir) {
@@ -235,11 +178,7 @@ public class MonitorHelper {
         boolean flag = (dir == TradingDirection.LONG) ? s.isActiveAverageLong() : s.isActiveAverageShort();
         if (flag) return true;
         // проверка по факту ордеров: есть ли не закрытое AVERAGING_OPEN по направлению
-        return s.getOrders().stream()
-                .filter(o -> o.getPurpose() == OrderPurpose.AVERAGING_OPEN)
-                .filter(o -> o.getStatus() == OrderStatus.FILLED || o.getStatus() == OrderStatus.NEW)
-                .filter(o -> dir.equals(o.getDirection()))
-                .anyMatch(o -> !isOpenOrderClosed(s, o));
+        return hasActive(s, dir, OrderPurpose.AVERAGING_OPEN);
     }
 
     public boolean canOpenAverageByDirection(TradeSession session, TradingDirection dir) {
@@ -251,50 +190,75 @@ public class MonitorHelper {
     }
 
     public TradeOrder getLatestActiveAverageByDirection(TradeSession session, TradingDirection dir) {
-        return session.getOrders().stream()
-                .filter(o -> o.getPurpose() == OrderPurpose.AVERAGING_OPEN)
-                .filter(o -> o.getStatus() == OrderStatus.FILLED || o.getStatus() == OrderStatus.NEW)
-                .filter(o -> dir.equals(o.getDirection()))
-                .filter(o -> !isOpenOrderClosed(session, o))
-                .max(Comparator.comparing(TradeOrder::getOrderTime))
-                .orElse(null);
+        return latestActive(session, dir, OrderPurpose.AVERAGING_OPEN);
     }
 
     public TradeOrder getLastFilledAveragingOrderByDirection(TradeSession session, TradingDirection dir) {
-        return session.getOrders().stream()
-                .filter(o -> OrderPurpose.AVERAGING_OPEN.equals(o.getPurpose()))
-                .filter(o -> OrderStatus.FILLED.equals(o.getStatus()))
-                .filter(o -> dir.equals(o.getDirection()))
-                .max(Comparator.comparing(TradeOrder::getOrderTime))
-                .orElse(null);
+        return latestFilled(session, dir, OrderPurpose.AVERAGING_OPEN);
     }
 
     /* ----------------- helpers ----------------- */
     public Optional<TradeOrder> findLastAveragingOpenForParent(TradeSession session, TradeOrder parentOpen) {
         if (parentOpen == null) return Optional.empty();
-        
-        // Ищем все AVERAGING_OPEN ордера, которые ссылаются на parentOpen
-        Optional<TradeOrder> directAveraging = session.getOrders().stream()
-                .filter(o -> OrderPurpose.AVERAGING_OPEN.equals(o.getPurpose()))
-                .filter(o -> o.getStatus() == OrderStatus.NEW || o.getStatus() == OrderStatus.FILLED)
-                .filter(o -> o.getDirection() == parentOpen.getDirection())
-                .filter(o -> parentOpen.getOrderId().equals(o.getParentOrderId()))
-                .max(Comparator.comparing(TradeOrder::getOrderTime));
-        
-        if (directAveraging.isPresent()) {
-            // Рекурсивно ищем усреднения для найденного усреднения
-            Optional<TradeOrder> nextAveraging = findLastAveragingOpenForParent(session, directAveraging.get());
-            return nextAveraging.isPresent() ? nextAveraging : directAveraging;
+
+        // Ищем последнее AVERAGING_OPEN, которое ссылается на parentOpen, и рекурсивно усреднения над ним
+        TradeOrder directAveraging = null;
+        for (TradeOrder o : session.getChildOrders(parentOpen.getOrderId())) {
+            if (isChildAveraging(o, parentOpen) && isLater(o, directAveraging)) directAveraging = o;
         }
-        
-        return Optional.empty();
+        if (directAveraging == null) return Optional.empty();
+
+        Optional<TradeOrder> nextAveraging = findLastAveragingOpenForParent(session, directAveraging);
+        return nextAveraging.isPresent() ? nextAveraging : Optional.of(directAveraging);
     }
 
     public boolean hasAveragingCloseFor(TradeSession session, TradeOrder averagingOpen) {
         if (averagingOpen == null) return false;
-        return session.getOrders().stream()
-                .filter(o -> OrderStatus.FILLED.equals(o.getStatus()))
-                .anyMatch(o -> OrderPurpose.AVERAGING_CLOSE.equals(o.getPurpose())
-                        && averagingOpen.getOrderId().equals(o.getParentOrderId()));
+        return hasFilledChild(session, averagingOpen, OrderPurpose.AVERAGING_CLOSE, OrderPurpose.AVERAGING_CLOSE);
+    }
+
+    // Ордера открытия и дочерние ордера берутся из индекса сессии — без проходов по всему списку ордеров
+
+    private TradeOrder latestActive(TradeSession session, TradingDirection dir, OrderPurpose purpose) {
+        TradeOrder latest = null;
+        for (TradeOrder o : session.getOpenOrders(dir, purpose)) {
+            if (isLater(o, latest) && !isOpenOrderClosed(session, o)) latest = o;
+        }
+        return latest;
+    }
+
+    private boolean hasActive(TradeSession session, TradingDirection dir, OrderPurpose purpose) {
+        for (TradeOrder o : session.getOpenOrders(dir, purpose)) {
+            if (!isOpenOrderClosed(session, o)) return true;
+        }
+        return false;
+    }
+
+    private TradeOrder latestFilled(TradeSession session, TradingDirection dir, OrderPurpose purpose) {
+        TradeOrder latest = null;
+        for (TradeOrder o : session.getOpenOrders(dir, purpose)) {
+            if (o.getStatus() == OrderStatus.FILLED && isLater(o, latest)) latest = o;
+        }
+        return latest;
+    }
+
+    private boolean hasFilledChild(TradeSession session, TradeOrder parent, OrderPurpose p1, OrderPurpose p2) {
+        for (TradeOrder o : session.getChildOrders(parent.getOrderId())) {
+            if (o.getStatus() == OrderStatus.FILLED && (o.getPurpose() == p1 || o.getPurpose() == p2)) return true;
+        }
+        return false;
+    }
+
+    private boolean isChildAveraging(TradeOrder o, TradeOrder parent) {
+        return o.getPurpose() == OrderPurpose.AVERAGING_OPEN
+                && (o.getStatus() == OrderStatus.FILLED || o.getStatus() == OrderStatus.NEW)
+                && o.getDirection() == parent.getDirection();
+    }
+
+    /** Как Stream.max по orderTime: при равном времени остаётся первый, ордер без времени — самый ранний. */
+    private boolean isLater(TradeOrder o, TradeOrder current) {
+        if (current == null) return true;
+        if (o.getOrderTime() == null) return false;
+        return current.getOrderTime() == null || o.getOrderTime().isAfter(current.getOrderTime());
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,9 @@
 package io.cryptobot.binance.trading.monitoring.v3.models;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
-
 /**
- * @param orderId   Ордер, который мониторим
- * @param baseline  PnL на момент старта
- * @param startTime timestamp старта мониторинга
+ * @param orderId     Ордер, который мониторим
+ * @param baseline    PnL на момент старта (единицы PnlMath)
+ * @param startTimeMs timestamp старта мониторинга, мс
  */
-public record ExtraCloseState(Long orderId, BigDecimal baseline, LocalDateTime startTime) {
+public record ExtraCloseState(Long orderId, long baseline, long startTimeMs) {
 }
-
@@ -3,10 +3,8 @@ package io.cryptobot.binance.trading.monitoring.v3.models;
 import io.cryptobot.binance.trade.session.enums.TradingDirection;
 import lombok.*;
 
-import java.math.BigDecimal;
-
 /**
- * Состояние follow-up оставшейся ноги после закрытия best.
+ * Состояние follow-up оставшейся ноги после закрытия best. PnL — в единицах PnlMath.
  */
 @Getter
 @Setter
@@ -15,11 +13,12 @@ import java.math.BigDecimal;
 @Builder
 public class FollowUpState {
     private TradingDirection losingDirection; // направление оставшейся ноги
-    private BigDecimal refProfit;             // опорная прибыль пары (макс(bestHigh, bestPnl))
-    private BigDecimal baseline;              // baseline для убыточной ноги при старте follow-up
+    @Builder.Default
+    private long refProfit = Long.MIN_VALUE;  // опорная прибыль пары (макс(bestHigh, bestPnl)), MIN_VALUE — ещё нет
+    private long baseline;                    // baseline для убыточной ноги при старте follow-up
     private boolean baselineFixed;            // зафиксирован ли baseline
     private boolean softTrailActive;          // включён ли мягкий трейл (improve+retrace)
-    private BigDecimal softTrailHigh;         // хай для мягкого трейла
+    private long softTrailHigh;               // хай для мягкого трейла
 }
 
 
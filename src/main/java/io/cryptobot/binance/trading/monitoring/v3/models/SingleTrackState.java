@@ -2,10 +2,8 @@ package io.cryptobot.binance.trading.monitoring.v3.models;
 
 import lombok.*;
 
-import java.math.BigDecimal;
-
 /**
- * Трекинг одной позиции до открытия хеджа.
+ * Трекинг одной позиции до открытия хеджа. PnL — в единицах PnlMath.
  */
 @Getter
 @Setter
@@ -13,10 +11,10 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @Builder
 public class SingleTrackState {
-    private BigDecimal baseline;        // PnL на старте трекинга
+    private long baseline;            // PnL на старте трекинга
     private boolean tracking;         // включён ли трекинг
     private boolean trailActive;      // включён ли «мягкий трейл» (для условия improve+retrace)
-    private BigDecimal trailHigh;       // хайлвл для мягкого трейла
+    private long trailHigh;           // хайлвл для мягкого трейла
 }
 
 
@@ -9,14 +9,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class CheckAveraging {
     private final MonitorHelper monitorHelper;
-    private static final BigDecimal POSITION_DOWN = new BigDecimal("3"); //3% my pnl, not roi
+    private static final long POSITION_DOWN = PnlMath.units("3"); //3% my pnl, not roi
 
     /*
     определить флет по ema 20/50  todo
@@ -34,7 +32,7 @@ public class CheckAveraging {
 
     //get here lowest position, only in mode two positions
 
-    public boolean checkOpen(TradeSession session,TradeOrder order, BigDecimal currentPnl){
+    public boolean checkOpen(TradeSession session,TradeOrder order, long currentPnl){
 
         //check pnl
         // < POSITION_DOWN - false
@@ -42,7 +40,7 @@ public class CheckAveraging {
         // check open average by direction
         // yes - false
         // true - true
-        if (order == null || currentPnl == null) return false;
+        if (order == null) return false;
 
         // Базовый ордер должен быть активным (FILLED)
         if (!OrderStatus.FILLED.equals(order.getStatus())) {
@@ -58,8 +56,8 @@ public class CheckAveraging {
             return false;
         }
 
-        BigDecimal threshold = POSITION_DOWN.negate(); // -3%
-        if (currentPnl.compareTo(threshold) <= 0) {
+        long threshold = -POSITION_DOWN; // -3%
+        if (currentPnl <= threshold) {
             return true;
         }
 
@@ -2,36 +2,31 @@ package io.cryptobot.binance.trading.monitoring.v3.utils;
 
 import io.cryptobot.binance.order.enums.OrderSide;
 import io.cryptobot.binance.trade.session.model.TradeOrder;
-import io.cryptobot.binance.trading.monitoring.v3.help.MonitorHelper;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class CheckTrailing {
-	private final MonitorHelper monitorHelper;
-
-	// === КОНСТАНТЫ (в проц.пунктах PnL) ===
-	private static final BigDecimal COMMISSION_PCT = new BigDecimal("0.036");         // комиссия 0.036%
-	private static final BigDecimal TRAIL_ACTIVATION_PCT = new BigDecimal("0.20");    // активация трейла при >= 0.20%
-	private static final BigDecimal TWO_POS_TRAIL_ACTIVATION_PCT = TRAIL_ACTIVATION_PCT;
+	// === КОНСТАНТЫ (в единицах PnlMath: миллионные доли процента) ===
+	private static final long COMMISSION_PCT = PnlMath.units("0.036");         // комиссия 0.036%
+	private static final long TRAIL_ACTIVATION_PCT = PnlMath.units("0.20");    // активация трейла при >= 0.20%
+	private static final long TWO_POS_TRAIL_ACTIVATION_PCT = TRAIL_ACTIVATION_PCT;
 
 	//  - high ≤ 0.30% → откат 30%
 	//  - 0.30% < high ≤ 0.50% → откат 20%
 	//  - high  > 0.50% → откат 10%
-	private static final BigDecimal THRESHOLD_0_30 = new BigDecimal("0.30");
-	private static final BigDecimal THRESHOLD_0_50 = new BigDecimal("0.50");
-	private static final BigDecimal RETRACE_30     = new BigDecimal("0.30");
-	private static final BigDecimal RETRACE_20     = new BigDecimal("0.20");
-	private static final BigDecimal RETRACE_10     = new BigDecimal("0.10");
+	private static final long THRESHOLD_0_30 = PnlMath.units("0.30");
+	private static final long THRESHOLD_0_50 = PnlMath.units("0.50");
+	// сколько «держим» от high, в десятых: 1 - откат
+	private static final int KEEP_RETRACE_30 = 7;
+	private static final int KEEP_RETRACE_20 = 8;
+	private static final int KEEP_RETRACE_10 = 9;
 
 	// Soft-trailing: «откат 20%»
-	private static final BigDecimal SOFT_RETRACE_PCT = RETRACE_20;
+	private static final int SOFT_KEEP = KEEP_RETRACE_20;
 
 	// ================= ПУБЛИЧНЫЙ API =================
 
@@ -39,7 +34,7 @@ public class CheckTrailing {
 	 * Универсальная проверка трейлинга для любой позиции.
 	 * @return true — если нужно закрывать позицию (сработал откат).
 	 */
-	public boolean checkTrailing(TradeOrder order, BigDecimal currentPnl) {
+	public boolean checkTrailing(TradeOrder order, long currentPnl) {
 		liftHighIfNeeded(order, currentPnl);
 
 		final boolean isActive = Boolean.TRUE.equals(order.getTrailingActive());
@@ -58,21 +53,21 @@ public class CheckTrailing {
 	}
 
 	/**
-	 * Soft-trailing: проверка отката от локального high (фиксированный откат SOFT_RETRACE_PCT).
+	 * Soft-trailing: проверка отката от локального high (фиксированный откат 20%).
 	 * @return true — если условие срабатывания выполнено.
 	 */
-	public boolean checkSoftTrailing(BigDecimal trailHigh, BigDecimal currentPnl) {
-		if (isNotPositive(trailHigh)) return false;
-		BigDecimal level = levelForRetrace(trailHigh, SOFT_RETRACE_PCT);
-		return level.signum() > 0 && currentPnl.compareTo(level) <= 0;
+	public boolean checkSoftTrailing(long trailHigh, long currentPnl) {
+		if (trailHigh <= 0) return false;
+		long level10 = level10ForRetrace(trailHigh, SOFT_KEEP);
+		return level10 > 0 && currentPnl * 10 <= level10;
 	}
 
 	/**
 	 * Две позиции: активация трейла у best при достижении порога прибыли.
 	 * @return true — если трейл был активирован сейчас.
 	 */
-	public boolean checkTwoPosBestTrailingActivation(BigDecimal bestPnl, TradeOrder order) {
-		if (bestPnl.compareTo(TWO_POS_TRAIL_ACTIVATION_PCT) >= 0 && !Boolean.TRUE.equals(order.getTrailingActive())) {
+	public boolean checkTwoPosBestTrailingActivation(long bestPnl, TradeOrder order) {
+		if (bestPnl >= TWO_POS_TRAIL_ACTIVATION_PCT && !Boolean.TRUE.equals(order.getTrailingActive())) {
 			activateTrailing(order, bestPnl, "TWO-POS BEST");
 			return true;
 		}
@@ -83,53 +78,52 @@ public class CheckTrailing {
 	 * Условие включения soft-trailing при single/follow-up трекинге:
 	 * активируем, только если улучшение от baseline > порога и текущий pnl > 0.
 	 */
-	public boolean shouldActivateSoftTrailing(BigDecimal deltaFromBaseline, BigDecimal currentPnl, BigDecimal improveDeltaPct) {
-		return deltaFromBaseline.compareTo(improveDeltaPct) > 0 && currentPnl.compareTo(BigDecimal.ZERO) > 0;
+	public boolean shouldActivateSoftTrailing(long deltaFromBaseline, long currentPnl, long improveDeltaPct) {
+		return deltaFromBaseline > improveDeltaPct && currentPnl > 0;
 	}
 
 	/**
 	 * Обновляет локальный high для soft-trailing: возвращает новое значение.
 	 */
-	public BigDecimal updateTrailHigh(BigDecimal currentTrailHigh, BigDecimal currentPnl) {
-		return (currentTrailHigh == null || currentPnl.compareTo(currentTrailHigh) > 0) ? currentPnl : currentTrailHigh;
+	public long updateTrailHigh(long currentTrailHigh, long currentPnl) {
+		return Math.max(currentTrailHigh, currentPnl);
 	}
 
 	/**
-	 * Публичный помощник: уровень PnL (с комиссией), при котором сработает трейл
-	 * для данного pnlHigh по адаптивным правилам ТЗ.
+	 * Публичный помощник: уровень PnL в процентах (с комиссией), при котором сработает трейл
+	 * для данного pnlHigh по адаптивным правилам ТЗ. Только для логов и причин закрытия.
 	 */
-	public BigDecimal computeRetraceLevel(BigDecimal pnlHigh) {
-		return levelForRetrace(pnlHigh, adaptiveRetracePct(pnlHigh));
+	public double computeRetraceLevel(long pnlHigh) {
+		return level10ForRetrace(pnlHigh, adaptiveKeep(pnlHigh)) / (10.0 * PnlMath.UNITS_PER_PCT);
 	}
 
 	// ================= ВНУТРЕННЯЯ ЛОГИКА =================
 
-	private void liftHighIfNeeded(TradeOrder order, BigDecimal currentPnl) {
-		BigDecimal high = monitorHelper.nvl(order.getPnlHigh());
-		if (currentPnl.compareTo(high) > 0) {
-			BigDecimal old = order.getPnlHigh();
-			order.setPnlHigh(currentPnl);
-			if (old != null) logTrailHighUpdate(order, old, currentPnl);
+	private void liftHighIfNeeded(TradeOrder order, long currentPnl) {
+		BigDecimal old = order.getPnlHigh();
+		if (currentPnl > PnlMath.units(old)) {
+			order.setPnlHigh(PnlMath.toPct(currentPnl));
+			if (old != null) logTrailHighUpdate(order, PnlMath.units(old), currentPnl);
 		}
 	}
 
-	private boolean shouldActivateTrailing(BigDecimal currentPnl) {
-		return currentPnl.compareTo(TRAIL_ACTIVATION_PCT) >= 0;
+	private boolean shouldActivateTrailing(long currentPnl) {
+		return currentPnl >= TRAIL_ACTIVATION_PCT;
 	}
 
-	private void activateTrailing(TradeOrder order, BigDecimal atPnl, String context) {
+	private void activateTrailing(TradeOrder order, long atPnl, String context) {
 		order.setTrailingActive(true);
-		order.setPnlHigh(atPnl);
+		order.setPnlHigh(PnlMath.toPct(atPnl));
 		logTrailingActivation(order, atPnl, context);
 	}
 
-	private boolean triggerIfRetraced(TradeOrder order, BigDecimal currentPnl) {
-		BigDecimal high = order.getPnlHigh();
-		BigDecimal retracePct = adaptiveRetracePct(high);
-		BigDecimal level = levelForRetrace(high, retracePct);
-		if (currentPnl.compareTo(level) <= 0) {
+	private boolean triggerIfRetraced(TradeOrder order, long currentPnl) {
+		long high = PnlMath.units(order.getPnlHigh());
+		int keep = adaptiveKeep(high);
+		long level10 = level10ForRetrace(high, keep);
+		if (currentPnl * 10 <= level10) {
 			order.setTrailingActive(false);
-			logTrailingTrigger(order, currentPnl, level, retracePct);
+			logTrailingTrigger(order, currentPnl, high, level10, keep);
 			return true;
 		}
 		return false;
@@ -137,51 +131,41 @@ public class CheckTrailing {
 
 	/**
 	 * Адаптивный откат по ТЗ по значению high.
-	 * Возвращает долю отката (0.30 / 0.20 / 0.10).
+	 * Возвращает долю, которую держим, в десятых (7 / 8 / 9 — откат 30% / 20% / 10%).
 	 */
-	private BigDecimal adaptiveRetracePct(BigDecimal pnlHigh) {
-		if (pnlHigh == null) return RETRACE_30; // по умолчанию — консервативно
-		if (pnlHigh.compareTo(THRESHOLD_0_30) <= 0) return RETRACE_30;
-		if (pnlHigh.compareTo(THRESHOLD_0_50) <= 0) return RETRACE_20;
-		return RETRACE_10;
+	private int adaptiveKeep(long pnlHigh) {
+		if (pnlHigh <= THRESHOLD_0_30) return KEEP_RETRACE_30;
+		if (pnlHigh <= THRESHOLD_0_50) return KEEP_RETRACE_20;
+		return KEEP_RETRACE_10;
 	}
 
 	/**
 	 * Унифицированный расчёт уровня срабатывания по «доле отката».
 	 * trigger = high * (1 - откат) - комиссия, но не ниже 0.
+	 * Возвращается в десятых долях единицы, чтобы high * 0.7 считался без округления.
 	 */
-	private BigDecimal levelForRetrace(BigDecimal high, BigDecimal retracePct) {
-		if (isNotPositive(high)) return BigDecimal.ZERO;
-		BigDecimal keep = BigDecimal.ONE.subtract(retracePct); // сколько «держим» от high
-		BigDecimal lvl = high.multiply(keep).subtract(COMMISSION_PCT);
-		return lvl.max(BigDecimal.ZERO);
-	}
-
-	private boolean isNotPositive(BigDecimal v) {
-		return v == null || v.signum() <= 0;
+	private long level10ForRetrace(long high, int keepTenths) {
+		if (high <= 0) return 0L;
+		return Math.max(high * keepTenths - COMMISSION_PCT * 10, 0L);
 	}
 
 	// ================= ЛОГИ =================
-	private void logTrailHighUpdate(TradeOrder order, BigDecimal oldHigh, BigDecimal newHigh) {
-		log.info("📈 {} {} trailing high updated: {}% → {}%", order.getSymbol(), side(order), s3(oldHigh), s3(newHigh));
+	private void logTrailHighUpdate(TradeOrder order, long oldHigh, long newHigh) {
+		log.info("📈 {} {} trailing high updated: {}% → {}%", order.getSymbol(), side(order), PnlMath.pct3(oldHigh), PnlMath.pct3(newHigh));
 	}
 
-	private void logTrailingActivation(TradeOrder order, BigDecimal pnl, String context) {
-		log.info("🎯 {} {} {} trailing ACTIVATED: {}% (threshold: {}%)", order.getSymbol(), side(order), context, s3(pnl), s3(TRAIL_ACTIVATION_PCT));
+	private void logTrailingActivation(TradeOrder order, long pnl, String context) {
+		log.info("🎯 {} {} {} trailing ACTIVATED: {}% (threshold: {}%)", order.getSymbol(), side(order), context, PnlMath.pct3(pnl), PnlMath.pct3(TRAIL_ACTIVATION_PCT));
 	}
 
-	private void logTrailingTrigger(TradeOrder order, BigDecimal currentPnl, BigDecimal retraceLevel, BigDecimal retracePct) {
+	private void logTrailingTrigger(TradeOrder order, long currentPnl, long high, long level10, int keepTenths) {
 		log.info("🔴 {} {} trailing TRIGGERED: current={}% <= retrace={}% (high={}%, retrace={}%)",
 				order.getSymbol(), side(order),
-				s3(currentPnl), s3(retraceLevel), s3(order.getPnlHigh()),
-				s1(retracePct.multiply(BigDecimal.valueOf(100))));
+				PnlMath.pct3(currentPnl), PnlMath.pct3(Math.round(level10 / 10.0)), PnlMath.pct3(high),
+				(10 - keepTenths) * 10);
 	}
 
 	private String side(TradeOrder order) {
 		return order.getSide() == OrderSide.BUY ? "LONG" : "SHORT";
 	}
-
-	// formatting helpers for logs
-	private static BigDecimal s3(BigDecimal v) { return v == null ? BigDecimal.ZERO : v.setScale(3, RoundingMode.HALF_UP); }
-	private static BigDecimal s1(BigDecimal v) { return v == null ? BigDecimal.ZERO : v.setScale(1, RoundingMode.HALF_UP); }
 }
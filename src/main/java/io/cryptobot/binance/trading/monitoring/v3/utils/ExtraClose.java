@@ -7,9 +7,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
 import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -18,18 +16,19 @@ import java.util.concurrent.ConcurrentHashMap;
 @RequiredArgsConstructor
 public class ExtraClose {
     private final Map<String, ExtraCloseState> tracking = new ConcurrentHashMap<>();
-    private static final BigDecimal BEST_ORDER = BigDecimal.valueOf(-0.20);
-    private static final BigDecimal LOW_ORDER = BigDecimal.valueOf(-0.50);
-    private static final BigDecimal POSITION_GO_DOWN = BigDecimal.valueOf(-0.1);
-    private static final Duration MAX_LIFETIME = Duration.ofMinutes(5);
+    private static final long BEST_ORDER = PnlMath.units("-0.20");
+    private static final long LOW_ORDER = PnlMath.units("-0.50");
+    private static final long POSITION_GO_DOWN = PnlMath.units("-0.1");
+    private static final long MAX_LIFETIME_MS = Duration.ofMinutes(5).toMillis();
 
-    public boolean checkExtraClose(TradeSession session, BigDecimal pnlBest, BigDecimal pnlWorst, TradeOrder bestOrder) {
+    /** PnL — в единицах {@link PnlMath}. */
+    public boolean checkExtraClose(TradeSession session, long pnlBest, long pnlWorst, TradeOrder bestOrder) {
         ExtraCloseState state = tracking.get(session.getId());
 
         if (state != null) {
             // 1. check duration
-            if (Duration.between(state.startTime(), LocalDateTime.now()).compareTo(MAX_LIFETIME) > 0) {
-//                log.info("⏳ {} [{}] EXTRA CLOSE expired after {} min (orderId={})", session.getId(), session.getTradePlan(), MAX_LIFETIME.toMinutes(), state.orderId());
+            if (System.currentTimeMillis() - state.startTimeMs() > MAX_LIFETIME_MS) {
+//                log.info("⏳ {} [{}] EXTRA CLOSE expired after {} min (orderId={})", session.getId(), session.getTradePlan(), MAX_LIFETIME_MS / 60_000, state.orderId());
                 tracking.remove(session.getId());
                 return false;
             }
@@ -53,29 +52,23 @@ public class ExtraClose {
         return false;
     }
 
-    private boolean shouldStartExtraClose(BigDecimal pnlBest, BigDecimal pnlWorst) {
-        if (pnlBest == null || pnlWorst == null) {
-            return false;
-        }
-        if (pnlBest.compareTo(BigDecimal.ZERO) < 0 && pnlWorst.compareTo(BigDecimal.ZERO) < 0) {
-            return pnlBest.compareTo(BEST_ORDER) <= 0 && pnlWorst.compareTo(LOW_ORDER) <= 0;
+    private boolean shouldStartExtraClose(long pnlBest, long pnlWorst) {
+        if (pnlBest < 0 && pnlWorst < 0) {
+            return pnlBest <= BEST_ORDER && pnlWorst <= LOW_ORDER;
         }
         return false;
     }
 
-    private void start(TradeSession session, TradeOrder order, BigDecimal pnlBest) {
+    private void start(TradeSession session, TradeOrder order, long pnlBest) {
         if (order == null) {
             return;
         }
-        tracking.put(session.getId(), new ExtraCloseState(order.getOrderId(), pnlBest, LocalDateTime.now()));
+        tracking.put(session.getId(), new ExtraCloseState(order.getOrderId(), pnlBest, System.currentTimeMillis()));
 //        log.info("⚡ {} [{}] EXTRA CLOSE MONITORING STARTED for orderId={} baseline={}%", session.getId(), session.getTradePlan(), order.getOrderId(), pnlBest);
     }
 
-    private boolean hasGoneDown(ExtraCloseState state, BigDecimal currentPnl) {
-        if (currentPnl == null) {
-            return false;
-        }
-        return currentPnl.subtract(state.baseline()).compareTo(POSITION_GO_DOWN) <= 0;
+    private boolean hasGoneDown(ExtraCloseState state, long currentPnl) {
+        return currentPnl - state.baseline() <= POSITION_GO_DOWN;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package io.cryptobot.binance.trading.monitoring.v3.utils;
+
+import io.cryptobot.binance.trade.session.enums.TradingDirection;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * PnL мониторинга в фиксированной точке: long в миллионных долях процента (1 = 0.000001%).
+ * <p>
+ * Это ровно та сетка, которую давал прежний расчёт {@code (price - entry).divide(entry, 8, HALF_UP) * 100},
+ * поэтому сравнения с порогами дают те же решения, но без BigDecimal на каждом тике.
+ * BigDecimal остаётся только на границе: при записи pnlHigh в ордер и в логах.
+ */
+public final class PnlMath {
+    public static final long UNITS_PER_PCT = 1_000_000L;
+
+    /** Доля цены в единицах: 1e-8 доли = 1e-6 процента. */
+    private static final double FRACTION_SCALE = 1e8;
+    /** Ближе к половине — double может ошибиться в сторону округления, считаем точно. */
+    private static final double TIE_EPSILON = 1e-5;
+
+    private PnlMath() {
+    }
+
+    /**
+     * PnL позиции в единицах: LONG — (price - entry) / entry, SHORT — (entry - price) / entry,
+     * с округлением HALF_UP до 8 знаков доли, как в BigDecimal-расчёте.
+     */
+    public static long pnl(TradingDirection direction, BigDecimal entry, double price) {
+        double e = entry.doubleValue();
+        double x = (direction == TradingDirection.LONG ? price - e : e - price) / e * FRACTION_SCALE;
+        double frac = x - Math.floor(x);
+        if (Math.abs(frac - 0.5) < TIE_EPSILON) {
+            return exactPnl(direction, entry, price);
+        }
+        return (long) Math.floor(x + 0.5);
+    }
+
+    private static long exactPnl(TradingDirection direction, BigDecimal entry, double price) {
+        BigDecimal p = BigDecimal.valueOf(price);
+        BigDecimal diff = direction == TradingDirection.LONG ? p.subtract(entry) : entry.subtract(p);
+        return diff.divide(entry, 8, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /** Процент (как хранится в ордере) → единицы; null → 0. */
+    public static long units(BigDecimal pct) {
+        if (pct == null) return 0L;
+        // doubleValue у компактных BigDecimal без аллокаций; значения кратны 1e-6, округление точное
+        return Math.round(pct.doubleValue() * UNITS_PER_PCT);
+    }
+
+    public static long units(String pct) {
+        return new BigDecimal(pct).movePointRight(6).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /** Единицы → процент для записи в ордер. */
+    public static BigDecimal toPct(long units) {
+        return BigDecimal.valueOf(units, 6);
+    }
+
+    /** Для логов и строк причин: 3 знака, как прежде. */
+    public static BigDecimal pct3(long units) {
+        return toPct(units).setScale(3, RoundingMode.HALF_UP);
+    }
+
+    public static double toDouble(long units) {
+        return (double) units / UNITS_PER_PCT;
+    }
+}
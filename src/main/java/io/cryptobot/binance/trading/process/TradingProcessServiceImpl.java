@@ -3,6 +3,7 @@ package io.cryptobot.binance.trading.process;
 import io.cryptobot.binance.order.enums.OrderPurpose;
 import io.cryptobot.binance.order.enums.OrderSide;
 import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.fill.OrderFillRegistry;
 import io.cryptobot.binance.order.model.Order;
 import io.cryptobot.binance.order.service.OrderService;
 import io.cryptobot.binance.trade.session.enums.SessionMode;
@@ -16,7 +17,7 @@ import io.cryptobot.binance.trading.monitoring.v2.MonitoringServiceV2;
 import io.cryptobot.binance.trading.monitoring.v3.MonitoringServiceV3;
 import io.cryptobot.configs.locks.TradePlanLockRegistry;
 import io.cryptobot.configs.locks.TradeSessionLockRegistry;
-import io.cryptobot.market_data.ticker24h.Ticker24hService;
+import io.cryptobot.market_data.price.PriceFeed;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -27,24 +28,27 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TradingProcessServiceImpl implements TradingProcessService{
+    private static final long FILL_FALLBACK_GRACE_MS = 5_000;
+
     private final TradeSessionService sessionService;
-    private final Ticker24hService ticker24hService;
+    private final PriceFeed priceFeed;
     private final OrderService orderService;
     private final MonitoringServiceV3 monitoringService;
     private final TradePlanGetService tradePlanGetService;
     private final TradePlanLockRegistry lockRegistry;
+    private final OrderFillRegistry fillRegistry;
     @Getter
     @Setter
     private int maxWaitMillis = 15000;
-    @Getter
-    @Setter
-    private int intervalMillis = 200;
 
 //    public void init(){
 //        TradePlan plan = tradePlanGetService.getPlan("LINKUSDC");
@@ -80,7 +84,7 @@ public class TradingProcessServiceImpl implements TradingProcessService{
             }
 
             //check filled
-            boolean filled = waitForFilledOrder(orderOpen, maxWaitMillis, intervalMillis);
+            boolean filled = waitForFilledOrder(orderOpen, maxWaitMillis);
             if (!filled) {
                 log.warn("Order {} was not filled in time", orderOpen.getOrderId());
                 return;
@@ -113,31 +117,25 @@ public class TradingProcessServiceImpl implements TradingProcessService{
     //create session
     //send to monitoring service
 
-    public boolean waitForFilledOrder(Order order, int maxWaitMillis, int intervalMillis) {
+    public boolean waitForFilledOrder(Order order, long maxWaitMillis) {
         if (order == null) {
             return false;
         }
-        
-        long startTime = System.currentTimeMillis();
-        while (System.currentTimeMillis() - startTime < maxWaitMillis) {
-            try {
-                Order updated = orderService.getOrder(order.getOrderId());
-                if (updated != null && updated.getOrderStatus() != null && updated.getOrderStatus().equals(OrderStatus.FILLED)) {
-                    log.info("✅ Order {} is filled", order.getOrderId());
-                    return true;
-                }
-            } catch (Exception e) {
-                log.warn("⚠️ Error getting order status for {}: {}", order.getOrderId(), e.getMessage());
-            }
-            
-            try {
-                Thread.sleep(intervalMillis);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return false;
+
+        try {
+            // сверх таймаута — время на REST-запрос статуса
+            Order done = fillRegistry.awaitFill(order, maxWaitMillis).get(maxWaitMillis + FILL_FALLBACK_GRACE_MS, TimeUnit.MILLISECONDS);
+            if (done != null && OrderStatus.FILLED.equals(done.getOrderStatus())) {
+                log.info("✅ Order {} is filled", order.getOrderId());
+                return true;
             }
+            log.warn("⚠️ Order {} not filled after {}ms (status: {})", order.getOrderId(), maxWaitMillis,
+                    done == null ? null : done.getOrderStatus());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("⚠️ Error waiting for order {}: {}", order.getOrderId(), e.toString());
         }
-        log.warn("⚠️ Order {} not filled after {}ms", order.getOrderId(), maxWaitMillis);
         return false;
     }
 }
\ No newline at end of file
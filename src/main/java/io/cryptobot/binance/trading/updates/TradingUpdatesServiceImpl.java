@@ -3,6 +3,7 @@ package io.cryptobot.binance.trading.updates;
 import io.cryptobot.binance.order.enums.OrderPurpose;
 import io.cryptobot.binance.order.enums.OrderSide;
 import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.fill.OrderFillRegistry;
 import io.cryptobot.binance.order.model.Order;
 import io.cryptobot.binance.order.service.OrderService;
 import io.cryptobot.binance.trade.session.enums.SessionMode;
@@ -19,16 +20,22 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TradingUpdatesServiceImpl implements TradingUpdatesService {
+    private static final long FILL_FALLBACK_GRACE_MS = 5_000;
+
     private final TradePlanGetService tradePlanGetService;
     private final TradeSessionService sessionService;
     private final OrderService orderService;
     private final TradeSessionLockRegistry lockRegistry;
+    private final OrderFillRegistry fillRegistry;
 
     @Override
     public TradeSession closePosition(TradeSession session, SessionMode sessionMode, Long idOrder, Long relatedHedgeId, TradingDirection direction, OrderPurpose purpose, BigDecimal currentPrice, String context) {
@@ -53,7 +60,7 @@ public class TradingUpdatesServiceImpl implements TradingUpdatesService {
             }
 
             //check filled
-            boolean filled = waitForFilledOrder(orderClosed, 15000, 200);
+            boolean filled = waitForFilledOrder(orderClosed, 15000);
             if (!filled) {
                 log.warn("Order {} was not filled in time", orderClosed.getOrderId());
                 return session;
@@ -118,7 +125,7 @@ public class TradingUpdatesServiceImpl implements TradingUpdatesService {
             OrderSide side = direction.equals(TradingDirection.SHORT) ? OrderSide.SELL : OrderSide.BUY;
 //        Order orderOpen = orderService.createOrder(coin, count.doubleValue(), side, true);
             Order orderOpen = orderService.createLimitOrElseMarket(coin, count.doubleValue(), side, plan.getSizes()); //check new
-            boolean filled = waitForFilledOrder(orderOpen, 5000, 200);
+            boolean filled = waitForFilledOrder(orderOpen, 5000);
             if (!filled) {
                 log.warn("Order {} was not filled in time", orderOpen.getOrderId());
                 return session;
@@ -187,7 +194,7 @@ public class TradingUpdatesServiceImpl implements TradingUpdatesService {
                 log.warn("⚠️ Failed to create order for averaging");
                 return session;
             }
-            boolean filled = waitForFilledOrder(orderOpen, 5000, 200);
+            boolean filled = waitForFilledOrder(orderOpen, 5000);
             if (!filled) {
                 log.warn("Order {} was not filled in time", orderOpen.getOrderId());
                 return session;
@@ -218,32 +225,26 @@ public class TradingUpdatesServiceImpl implements TradingUpdatesService {
         }
     }
 
-    private boolean waitForFilledOrder(Order order, int maxWaitMillis, int intervalMillis) {
+    private boolean waitForFilledOrder(Order order, long maxWaitMillis) {
         if (order == null) {
             log.warn("⚠️ Cannot wait for null order");
             return false;
         }
 
-        long startTime = System.currentTimeMillis();
-        while (System.currentTimeMillis() - startTime < maxWaitMillis) {
-            try {
-                Order updated = orderService.getOrder(order.getOrderId());
-                if (updated != null && updated.getOrderStatus() != null && updated.getOrderStatus().equals(OrderStatus.FILLED)) {
-                    log.info("✅ Order {} is filled", order.getOrderId());
-                    return true;
-                }
-            } catch (Exception e) {
-                log.warn("⚠️ Error getting order status for {}: {}", order.getOrderId(), e.getMessage());
-            }
-
-            try {
-                Thread.sleep(intervalMillis);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return false;
+        try {
+            // сверх таймаута — время на REST-запрос статуса
+            Order done = fillRegistry.awaitFill(order, maxWaitMillis).get(maxWaitMillis + FILL_FALLBACK_GRACE_MS, TimeUnit.MILLISECONDS);
+            if (done != null && OrderStatus.FILLED.equals(done.getOrderStatus())) {
+                log.info("✅ Order {} is filled", order.getOrderId());
+                return true;
             }
+            log.warn("⚠️ Order {} not filled after {}ms (status: {})", order.getOrderId(), maxWaitMillis,
+                    done == null ? null : done.getOrderStatus());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("⚠️ Error waiting for order {}: {}", order.getOrderId(), e.toString());
         }
-        log.warn("⚠️ Order {} not filled after {}ms", order.getOrderId(), maxWaitMillis);
         return false;
     }
 
@@ -3,14 +3,8 @@ package io.cryptobot.calculator;
 import io.cryptobot.market_data.klines.model.KlineModel;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.ta4j.core.BarSeries;
-import org.ta4j.core.BaseBarSeries;
-import org.ta4j.core.indicators.*;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-import java.math.BigDecimal;
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
+
+import java.util.Comparator;
 import java.util.List;
 
 @Slf4j
@@ -20,44 +14,34 @@ public class Calculator {
     /**
      * Рассчитывает экспоненциальные скользящие средние (EMA) для заданных периодов.
      * Использует данные цен закрытия из списка свечей.
+     * Для живых серий значения уже есть в {@link io.cryptobot.market_data.klines.service.KlineService#getIndicators}.
      *
      * @param klines список свечей (KlineModel)
      * @return объект EmaValues с рассчитанными значениями EMA (7, 20, 50, 200)
      */
     public static EmaValues calculateEma(List<KlineModel> klines, boolean calcEma7, boolean calcEma20, boolean calcEma50, boolean calcEma200) {
-        BarSeries series = createBarSeries(klines);
-        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
-        int lastIndex = series.getEndIndex();
-
-        Double ema7 = calcEma7 && lastIndex >= 6 ? new EMAIndicator(closePrice, 7).getValue(lastIndex).doubleValue() : -1.0;
-        Double ema20 = calcEma20 && lastIndex >= 19 ? new EMAIndicator(closePrice, 20).getValue(lastIndex).doubleValue() : -1.0;
-        Double ema50 = calcEma50 && lastIndex >= 49 ? new EMAIndicator(closePrice, 50).getValue(lastIndex).doubleValue() : -1.0;
-        Double ema200 = calcEma200 && lastIndex >= 199 ? new EMAIndicator(closePrice, 200).getValue(lastIndex).doubleValue() : -1.0;
+        IndicatorEngine engine = new IndicatorEngine();
+        engine.rebuild(chronological(klines));
+        IndicatorValues values = engine.values();
 
-        return new EmaValues(ema7, ema20, ema50, ema200);
+        return new EmaValues(
+                calcEma7 ? values.ema7() : -1.0,
+                calcEma20 ? values.ema20() : -1.0,
+                calcEma50 ? values.ema50() : -1.0,
+                calcEma200 ? values.ema200() : -1.0);
     }
 
-    private static BarSeries createBarSeries(List<KlineModel> klines){
+    private static List<KlineModel> chronological(List<KlineModel> klines) {
         if (klines == null || klines.isEmpty()) {
             throw new IllegalArgumentException("Klines list cannot be null or empty");
         }
-        
-        // Sort klines by openTime to ensure chronological order
-        List<KlineModel> sortedKlines = klines.stream()
-                .sorted((k1, k2) -> Long.compare(k1.getOpenTime(), k2.getOpenTime()))
-                .toList();
-        
-        BarSeries series = new BaseBarSeries();
-        for (KlineModel kline : sortedKlines) {
-            series.addBar(
-                    ZonedDateTime.ofInstant(Instant.ofEpochMilli(kline.getOpenTime()), ZoneId.of("UTC")),
-                    series.numOf(new BigDecimal(kline.getOpenPrice().toString())),
-                    series.numOf(new BigDecimal(kline.getHighPrice().toString())),
-                    series.numOf(new BigDecimal(kline.getLowPrice().toString())),
-                    series.numOf(new BigDecimal(kline.getClosePrice().toString())),
-                    series.numOf(new BigDecimal(kline.getVolume().toString()))
-            );
+        for (int i = 1; i < klines.size(); i++) {
+            if (klines.get(i).getOpenTime() < klines.get(i - 1).getOpenTime()) {
+                return klines.stream()
+                        .sorted(Comparator.comparingLong(KlineModel::getOpenTime))
+                        .toList();
+            }
         }
-        return series;
+        return klines;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package io.cryptobot.calculator;
+
+import io.cryptobot.market_data.klines.model.KlineModel;
+
+import java.util.List;
+
+/**
+ * Инкрементальные индикаторы одной серии свечей (symbol, interval): EMA 7/20/50/200, RSI, ATR и VWAP.
+ * Состояние — примитивные double, закрытие свечи обновляет его за O(1) без пересборки BarSeries.
+ * <p>
+ * Формулы совпадают с ta4j (EMA от первой цены закрытия, RSI и ATR — сглаживание Уайлдера от первой свечи),
+ * поэтому значения те же, что давал прежний расчёт по тому же списку свечей.
+ * Пишет один поток за раз (монитор), читатели берут готовый неизменяемый {@link IndicatorValues}.
+ */
+public final class IndicatorEngine {
+    private static final int[] EMA_PERIODS = {7, 20, 50, 200};
+    public static final int RSI_PERIOD = 14;
+    public static final int ATR_PERIOD = 14;
+    private static final long DAY_MS = 86_400_000L;
+
+    private final double[] ema = new double[EMA_PERIODS.length];
+    private long bars;
+    private long lastOpenTime;
+    private double prevClose;
+    private double avgGain;
+    private double avgLoss;
+    private double atr;
+    private long vwapDay;
+    private double vwapPriceVolume;
+    private double vwapVolume;
+
+    private volatile IndicatorValues values = IndicatorValues.EMPTY;
+
+    public IndicatorValues values() {
+        return values;
+    }
+
+    /**
+     * Учесть закрытую свечу.
+     *
+     * @return false, если свеча не новее последней учтённой — тогда серию пересчитывают через {@link #rebuild}
+     */
+    public synchronized boolean update(KlineModel kline) {
+        if (bars > 0 && kline.getOpenTime() <= lastOpenTime) return false;
+        apply(kline);
+        publish();
+        return true;
+    }
+
+    /** Пересчитать с нуля по свечам в порядке возрастания openTime. */
+    public synchronized void rebuild(List<KlineModel> klines) {
+        bars = 0;
+        for (KlineModel kline : klines) {
+            apply(kline);
+        }
+        publish();
+    }
+
+    private void apply(KlineModel kline) {
+        double high = kline.getHighPrice().doubleValue();
+        double low = kline.getLowPrice().doubleValue();
+        double close = kline.getClosePrice().doubleValue();
+        double volume = kline.getVolume().doubleValue();
+        long day = Math.floorDiv(kline.getOpenTime(), DAY_MS);
+
+        if (bars == 0) {
+            for (int i = 0; i < ema.length; i++) ema[i] = close;
+            avgGain = 0.0;
+            avgLoss = 0.0;
+            atr = high - low;
+            vwapDay = day;
+            vwapPriceVolume = 0.0;
+            vwapVolume = 0.0;
+        } else {
+            for (int i = 0; i < ema.length; i++) {
+                ema[i] += (close - ema[i]) * (2.0 / (EMA_PERIODS[i] + 1));
+            }
+            double change = close - prevClose;
+            avgGain += (Math.max(change, 0.0) - avgGain) / RSI_PERIOD;
+            avgLoss += (Math.max(-change, 0.0) - avgLoss) / RSI_PERIOD;
+            double tr = Math.max(high - low, Math.max(Math.abs(high - prevClose), Math.abs(prevClose - low)));
+            atr += (tr - atr) / ATR_PERIOD;
+            if (day != vwapDay) {
+                vwapDay = day;
+                vwapPriceVolume = 0.0;
+                vwapVolume = 0.0;
+            }
+        }
+        vwapPriceVolume += (high + low + close) / 3.0 * volume;
+        vwapVolume += volume;
+        prevClose = close;
+        lastOpenTime = kline.getOpenTime();
+        bars++;
+    }
+
+    private void publish() {
+        if (bars == 0) {
+            values = IndicatorValues.EMPTY;
+            return;
+        }
+        double rsi;
+        if (avgLoss == 0.0) rsi = avgGain == 0.0 ? 0.0 : 100.0;
+        else rsi = 100.0 - 100.0 / (1.0 + avgGain / avgLoss);
+
+        values = new IndicatorValues(lastOpenTime, bars,
+                ready(0), ready(1), ready(2), ready(3),
+                bars > RSI_PERIOD ? rsi : -1.0,
+                bars >= ATR_PERIOD ? atr : -1.0,
+                vwapVolume > 0.0 ? vwapPriceVolume / vwapVolume : -1.0);
+    }
+
+    private double ready(int i) {
+        return bars >= EMA_PERIODS[i] ? ema[i] : -1.0;
+    }
+}
@@ -0,0 +1,22 @@
+package io.cryptobot.calculator;
+
+/**
+ * Значения индикаторов серии на закрытии последней свечи. Пока данных меньше периода, значение -1.0
+ * (как в {@link Calculator#calculateEma}).
+ *
+ * @param openTime openTime последней учтённой свечи
+ * @param bars     сколько свечей учтено
+ * @param rsi      RSI {@link IndicatorEngine#RSI_PERIOD} по Уайлдеру
+ * @param atr      ATR {@link IndicatorEngine#ATR_PERIOD} по Уайлдеру
+ * @param vwap     VWAP с начала текущих суток UTC по типичной цене (H + L + C) / 3
+ */
+public record IndicatorValues(long openTime, long bars,
+                              double ema7, double ema20, double ema50, double ema200,
+                              double rsi, double atr, double vwap) {
+
+    public static final IndicatorValues EMPTY = new IndicatorValues(0L, 0L, -1.0, -1.0, -1.0, -1.0, -1.0, -1.0, -1.0);
+
+    public EmaValues toEmaValues() {
+        return new EmaValues(ema7, ema20, ema50, ema200);
+    }
+}
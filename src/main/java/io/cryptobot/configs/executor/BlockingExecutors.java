@@ -0,0 +1,74 @@
+package io.cryptobot.configs.executor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Единая точка создания потоков и пулов для блокирующей работы (REST Binance, Mongo, ожидание исполнения).
+ * <p>
+ * Режим задаётся свойством {@code spring.threads.virtual.enabled} до создания бинов
+ * ({@link ExecutorModeListener}). Если рантайм поддерживает виртуальные потоки, каждый поток и каждая
+ * задача получают свой виртуальный поток, и тысячи одновременно ждущих ордеров ничего не стоят;
+ * иначе — прежние пулы платформенных daemon-потоков. Под виртуальными потоками блокирующий код
+ * держит только ReentrantLock (реестры локов сессий/планов, догонялка ордеров), а не synchronized,
+ * поэтому поток-носитель на время ожидания не закрепляется.
+ */
+@Slf4j
+public final class BlockingExecutors {
+    private static volatile boolean virtual;
+
+    private BlockingExecutors() {
+    }
+
+    /** Включает виртуальные потоки, если их запросили и рантайм их поддерживает. */
+    public static void configure(boolean virtualRequested) {
+        boolean supported = VirtualThreads.isSupported();
+        virtual = virtualRequested && supported;
+        if (virtualRequested && !supported) {
+            log.warn("⚠️ Virtual threads requested, but runtime {} does not support them — using platform threads",
+                    Runtime.version());
+        } else {
+            log.info("🧵 Blocking executors: {} threads", virtual ? "virtual" : "platform");
+        }
+    }
+
+    public static boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Фабрика потоков name-1, name-2, ... Тип потока выбирается при создании, поэтому пул, созданный
+     * раньше настройки режима, всё равно получит нужные потоки, когда начнёт их заводить.
+     */
+    public static ThreadFactory threadFactory(String name) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> newThread(name + "-" + seq.incrementAndGet(), r);
+    }
+
+    /** Незапущенный поток: виртуальный или платформенный daemon. */
+    public static Thread newThread(String name, Runnable task) {
+        if (virtual) {
+            Thread t = VirtualThreads.factory(name).newThread(task);
+            t.setName(name);
+            return t;
+        }
+        Thread t = new Thread(task, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    /**
+     * Пул для блокирующих задач: «виртуальный поток на задачу» или фиксированный пул из platformThreads
+     * потоков. Владелец пула сам его останавливает.
+     */
+    public static ExecutorService newExecutor(String name, int platformThreads) {
+        if (virtual) {
+            return VirtualThreads.perTaskExecutor(name);
+        }
+        return Executors.newFixedThreadPool(Math.max(1, platformThreads), threadFactory(name));
+    }
+}
@@ -0,0 +1,18 @@
+package io.cryptobot.configs.executor;
+
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Настраивает {@link BlockingExecutors} сразу после подготовки окружения — раньше, чем создаются бины
+ * со своими пулами. Свойство то же, по которому Spring Boot переводит на виртуальные потоки Tomcat
+ * и @Scheduled, так что веб-слой и наши пулы переключаются одним флагом.
+ */
+public class ExecutorModeListener implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+    static final String VIRTUAL_THREADS_PROPERTY = "spring.threads.virtual.enabled";
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        BlockingExecutors.configure(event.getEnvironment().getProperty(VIRTUAL_THREADS_PROPERTY, Boolean.class, false));
+    }
+}
@@ -0,0 +1,100 @@
+package io.cryptobot.configs.mongo;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Чтение и запись полей в ручных кодеках документов.
+ * <p>
+ * Правила те же, что у маппинга Spring Data: null-поля не пишутся, LocalDateTime — Date в зоне JVM,
+ * enum — по имени, строковый id вида ObjectId — как ObjectId. BigDecimal пишется Decimal128,
+ * а читается и из Decimal128, и из строки (документы до миграции).
+ */
+public final class BsonFields {
+
+    private BsonFields() {
+    }
+
+    public static void put(Document doc, String key, Object value) {
+        if (value != null) doc.put(key, value);
+    }
+
+    /** Decimal128 держит 34 значащие цифры — длиннее округляем, а не падаем на записи. */
+    public static Decimal128 decimal(BigDecimal value) {
+        if (value == null) return null;
+        return new Decimal128(value.precision() > MathContext.DECIMAL128.getPrecision()
+                ? value.round(MathContext.DECIMAL128) : value);
+    }
+
+    public static Date date(LocalDateTime value) {
+        return value == null ? null : Date.from(value.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    public static String name(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    public static Object id(String value) {
+        return value != null && ObjectId.isValid(value) ? new ObjectId(value) : value;
+    }
+
+    public static BigDecimal getDecimal(Document doc, String key) {
+        Object value = doc.get(key);
+        if (value instanceof Decimal128 d) return d.bigDecimalValue();
+        if (value instanceof String s) return new BigDecimal(s);
+        if (value instanceof Number n) return new BigDecimal(n.toString());
+        return null;
+    }
+
+    public static BigDecimal getDecimal(Document doc, String key, BigDecimal defaultValue) {
+        BigDecimal value = getDecimal(doc, key);
+        return value != null ? value : defaultValue;
+    }
+
+    public static LocalDateTime getDateTime(Document doc, String key) {
+        Object value = doc.get(key);
+        return value instanceof Date d ? LocalDateTime.ofInstant(d.toInstant(), ZoneId.systemDefault()) : null;
+    }
+
+    public static <E extends Enum<E>> E getEnum(Document doc, String key, Class<E> type) {
+        Object value = doc.get(key);
+        return value instanceof String s ? Enum.valueOf(type, s) : null;
+    }
+
+    public static String getId(Document doc) {
+        Object value = doc.get("_id");
+        if (value instanceof ObjectId oid) return oid.toHexString();
+        return value != null ? value.toString() : null;
+    }
+
+    public static Long getLong(Document doc, String key) {
+        return doc.get(key) instanceof Number n ? n.longValue() : null;
+    }
+
+    public static long getLong(Document doc, String key, long defaultValue) {
+        return doc.get(key) instanceof Number n ? n.longValue() : defaultValue;
+    }
+
+    public static Integer getInt(Document doc, String key) {
+        return doc.get(key) instanceof Number n ? n.intValue() : null;
+    }
+
+    public static int getInt(Document doc, String key, int defaultValue) {
+        return doc.get(key) instanceof Number n ? n.intValue() : defaultValue;
+    }
+
+    public static Boolean getBoolean(Document doc, String key) {
+        return doc.get(key) instanceof Boolean b ? b : null;
+    }
+
+    public static boolean getBoolean(Document doc, String key, boolean defaultValue) {
+        return doc.get(key) instanceof Boolean b ? b : defaultValue;
+    }
+}
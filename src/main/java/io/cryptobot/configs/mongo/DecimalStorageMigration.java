@@ -0,0 +1,105 @@
+package io.cryptobot.configs.mongo;
+
+import io.cryptobot.binance.order.model.Order;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import io.cryptobot.binance.trade.trade_plan.model.TradePlan;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Разовый перевод BigDecimal-полей, записанных строкой, в Decimal128.
+ * <p>
+ * Конвертация идёт на сервере (updateMany с pipeline), документы не читаются в приложение.
+ * Трогаются только документы, где поле ещё строка, так что повторный запуск безопасен;
+ * после успеха в коллекции migrations ставится отметка и проход больше не запускается.
+ * Кодеки до и во время миграции читают оба представления.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DecimalStorageMigration {
+    static final String MIGRATIONS = "migrations";
+    static final String MIGRATION_ID = "bigdecimal-to-decimal128";
+
+    static final List<String> ORDER_FIELDS = List.of(
+            "quantity", "price", "averagePrice", "stopPrice", "lastFilledQty",
+            "cumulativeFilledQty", "lastFilledPrice", "commission", "realizedPnl");
+    static final List<String> SESSION_FIELDS = List.of("pnl", "totalCommission", "pnlTotal");
+    static final List<String> SESSION_ORDER_FIELDS = List.of(
+            "count", "price", "amount", "commission", "pnl", "pnlHigh", "basePnl", "maxChangePnl");
+    static final List<String> PLAN_FIELDS = List.of("amountPerTrade", "pnl");
+    static final List<String> PLAN_SIZE_FIELDS = List.of("tickSize", "lotSize", "minCount", "minAmount");
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        try {
+            if (mongoTemplate.getCollection(MIGRATIONS).countDocuments(new Document("_id", MIGRATION_ID)) > 0) return;
+
+            long start = System.currentTimeMillis();
+            long orders = convert(mongoTemplate.getCollectionName(Order.class), ORDER_FIELDS, null, null);
+            long sessions = convert(mongoTemplate.getCollectionName(TradeSession.class), SESSION_FIELDS, "orders", SESSION_ORDER_FIELDS);
+            long plans = convert(mongoTemplate.getCollectionName(TradePlan.class), PLAN_FIELDS, "sizes", PLAN_SIZE_FIELDS);
+
+            mongoTemplate.getCollection(MIGRATIONS).insertOne(new Document("_id", MIGRATION_ID).append("completedAt", new Date()));
+            log.info("🔢 Decimal128 migration done: {} orders, {} sessions, {} plans converted in {} ms",
+                    orders, sessions, plans, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // строки продолжают читаться, следующий запуск попробует снова
+            log.error("❌ Decimal128 migration failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param embedded       вложенный документ или массив документов (orders, sizes) или null
+     * @param embeddedFields его BigDecimal-поля
+     * @return число изменённых документов
+     */
+    long convert(String collection, List<String> fields, String embedded, List<String> embeddedFields) {
+        List<Document> stringTyped = new ArrayList<>();
+        Document set = new Document();
+        for (String field : fields) {
+            stringTyped.add(new Document(field, new Document("$type", "string")));
+            set.append(field, toDecimal("$" + field));
+        }
+        if (embedded != null) {
+            Document inElement = new Document();
+            Document inObject = new Document();
+            for (String field : embeddedFields) {
+                stringTyped.add(new Document(embedded + "." + field, new Document("$type", "string")));
+                inElement.append(field, toDecimal("$$e." + field));
+                inObject.append(field, toDecimal("$" + embedded + "." + field));
+            }
+            String path = "$" + embedded;
+            Document array = new Document("$map", new Document("input", path)
+                    .append("as", "e")
+                    .append("in", new Document("$mergeObjects", List.of("$$e", inElement))));
+            Document object = new Document("$mergeObjects", List.of(path, inObject));
+            // массив — поэлементно, документ — слиянием, null/отсутствие не трогаем
+            set.append(embedded, new Document("$cond", List.of(new Document("$isArray", path), array,
+                    new Document("$cond", List.of(new Document("$eq", List.of(new Document("$type", path), "object")), object, path)))));
+        }
+
+        Document filter = new Document("$or", stringTyped);
+        List<Document> pipeline = List.of(new Document("$set", set));
+        return mongoTemplate.getCollection(collection).updateMany(filter, pipeline).getModifiedCount();
+    }
+
+    /** Строку — в Decimal128; отсутствующее поле так и остаётся отсутствующим, прочее не меняется. */
+    static Document toDecimal(String path) {
+        return new Document("$cond", List.of(
+                new Document("$eq", List.of(new Document("$type", path), "string")),
+                new Document("$convert", new Document("input", path).append("to", "decimal").append("onError", path)),
+                path));
+    }
+}
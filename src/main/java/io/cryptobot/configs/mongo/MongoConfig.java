@@ -0,0 +1,60 @@
+package io.cryptobot.configs.mongo;
+
+import io.cryptobot.binance.order.dao.OrderCodec;
+import io.cryptobot.binance.trade.session.dao.TradeOrderCodec;
+import io.cryptobot.binance.trade.session.dao.TradeSessionCodec;
+import org.bson.types.Decimal128;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Configuration
+public class MongoConfig {
+
+    /**
+     * BigDecimal хранится как Decimal128, а не строкой: к суммам применимы $inc, $sum и сравнения.
+     * Горячие документы (ордера и сессии) собираются ручными кодеками без рефлексии.
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return conversions();
+    }
+
+    public static MongoCustomConversions conversions() {
+        return new MongoCustomConversions(List.of(
+                BigDecimalToDecimal128.INSTANCE,
+                Decimal128ToBigDecimal.INSTANCE,
+                OrderCodec.Writer.INSTANCE,
+                OrderCodec.Reader.INSTANCE,
+                TradeOrderCodec.Writer.INSTANCE,
+                TradeOrderCodec.Reader.INSTANCE,
+                TradeSessionCodec.Writer.INSTANCE,
+                TradeSessionCodec.Reader.INSTANCE));
+    }
+
+    @WritingConverter
+    enum BigDecimalToDecimal128 implements Converter<BigDecimal, Decimal128> {
+        INSTANCE;
+
+        @Override
+        public Decimal128 convert(BigDecimal source) {
+            return BsonFields.decimal(source);
+        }
+    }
+
+    @ReadingConverter
+    enum Decimal128ToBigDecimal implements Converter<Decimal128, BigDecimal> {
+        INSTANCE;
+
+        @Override
+        public BigDecimal convert(Decimal128 source) {
+            return source.bigDecimalValue();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.cryptobot.controller;
 
+import io.cryptobot.market_data.depth.DepthBookSnapshot;
 import io.cryptobot.market_data.depth.DepthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,4 +23,13 @@ public class DepthController {
         boolean hasOrderBook = depthService.hasOrderBook(symbol);
         return ResponseEntity.ok(hasOrderBook);
     }
+
+    /**
+     * Последний опубликованный срез стакана (верхние уровни, lastUpdateId, eventTime)
+     */
+    @GetMapping("/{symbol}")
+    public ResponseEntity<DepthBookSnapshot> getSnapshot(@PathVariable String symbol) {
+        DepthBookSnapshot snapshot = depthService.getBookSnapshot(symbol);
+        return snapshot == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(snapshot);
+    }
 } 
\ No newline at end of file
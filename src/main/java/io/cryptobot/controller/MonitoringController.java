@@ -0,0 +1,27 @@
+package io.cryptobot.controller;
+
+import io.cryptobot.binance.trading.monitoring.v3.MonitoringServiceV3;
+import io.cryptobot.binance.trading.monitoring.v3.executor.MonitorShardStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/monitoring")
+@RequiredArgsConstructor
+public class MonitoringController {
+
+    private final MonitoringServiceV3 monitoringService;
+
+    /**
+     * Нагрузка на шарды мониторинга сессий
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<MonitorShardStats>> getStats() {
+        return ResponseEntity.ok(monitoringService.getExecutorStats());
+    }
+}
@@ -0,0 +1,27 @@
+package io.cryptobot.controller;
+
+import io.cryptobot.websocket.BinanceWebSocketService;
+import io.cryptobot.websocket.dispatch.DispatcherStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/ws")
+@RequiredArgsConstructor
+public class WebSocketController {
+
+    private final BinanceWebSocketService webSocketService;
+
+    /**
+     * Состояние очередей рыночных данных по шардам
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<DispatcherStats>> getStats() {
+        return ResponseEntity.ok(webSocketService.getDispatcherStats());
+    }
+}
@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Slf4j
@@ -21,4 +22,15 @@ public class MainHelper {
                 .toList();
     }
 
+    /** tickSize символа из плана или null, если плана нет */
+    public BigDecimal getTickSize(String symbol) {
+        try {
+            TradePlan plan = tradePlanGetService.getPlan(symbol);
+            return plan.getSizes() == null ? null : plan.getSizes().getTickSize();
+        } catch (Exception e) {
+            log.debug("No tickSize for {}: {}", symbol, e.getMessage());
+            return null;
+        }
+    }
+
 }
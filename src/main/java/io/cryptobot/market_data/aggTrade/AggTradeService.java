@@ -1,12 +1,24 @@
 package io.cryptobot.market_data.aggTrade;
 
-import java.util.Deque;
-
 public interface AggTradeService {
 
     void addAggTrade(AggTrade aggTrade);
 
-    Deque<AggTrade> getRecentTradesDeque(String coin);
+    /** Горячий путь из WS: сделка на примитивах, без объекта AggTrade и BigDecimal. */
+    void onAggTrade(String symbol, long tradeTime, long aggregateTradeId, double price, double qty, boolean buyerIsMaker);
+
+    /** Последние сделки символа (до 3600) — окно без копирования, см. {@link TradeWindow#isIntact()}. */
+    TradeWindow getRecentTrades(String coin);
+
+    /** Сделки символа с tradeTime &gt;= fromTimeMs — окно без копирования. */
+    TradeWindow getTradesSince(String coin, long fromTimeMs);
+
+    /**
+     * Агрегаты потока сделок (EMA 20/50, объёмы покупок/продаж, объём за 60s и за окно) — O(1).
+     *
+     * @return null, если по символу ещё не было сделок
+     */
+    TradeFlowStats getTradeFlow(String coin, int volWindowSec);
 
     void addAggTradeREST(String coin);
 }
@@ -17,7 +17,8 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 @RequiredArgsConstructor
 public class AggTradeServiceImpl implements AggTradeService{
-    private final ConcurrentHashMap<String, Deque<AggTrade>> aggTrades = new ConcurrentHashMap<>();
+    /** Колоночный буфер сделок и агрегаты потока по символу */
+    private final ConcurrentHashMap<String, TradeFlow> aggTrades = new ConcurrentHashMap<>();
     private final MainHelper mainHelper;
     private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper;
@@ -26,38 +27,33 @@ public class AggTradeServiceImpl implements AggTradeService{
 
     @Override
     public void addAggTrade(AggTrade aggTrade) {
-        String symbol = aggTrade.getSymbol().toUpperCase();
-        Deque<AggTrade> deque = aggTrades.computeIfAbsent(symbol, k -> new ArrayDeque<>());
-        synchronized (deque) {
-            deque.addFirst(aggTrade);
-            if (deque.size() > MAX_TRADES) {
-                deque.removeLast();
-            }
-        }
+        onAggTrade(aggTrade.getSymbol(), aggTrade.getTradeTime(), aggTrade.getAggregateTradeId(),
+                aggTrade.getPrice().doubleValue(), aggTrade.getQuantity().doubleValue(), aggTrade.isBuyerIsMaker());
     }
 
     @Override
-    public Deque<AggTrade> getRecentTradesDeque(String coin) {
-        Deque<AggTrade> dq = aggTrades.get(coin.toUpperCase());
-        if (dq == null) return new ArrayDeque<>();
-        synchronized (dq) {
-            return new ArrayDeque<>(dq); // snapshot: head=newest, tail=oldest
-        }
+    public void onAggTrade(String symbol, long tradeTime, long aggregateTradeId, double price, double qty, boolean buyerIsMaker) {
+        TradeFlow flow = aggTrades.computeIfAbsent(symbol.toUpperCase(), k -> new TradeFlow(MAX_TRADES));
+        flow.append(tradeTime, aggregateTradeId, price, qty, buyerIsMaker);
+    }
+
+    @Override
+    public TradeWindow getRecentTrades(String coin) {
+        TradeFlow flow = aggTrades.get(coin.toUpperCase());
+        return flow == null ? TradeWindow.EMPTY : flow.ring().all();
     }
 
-//    @Override
-//    public List<AggTrade> getRecentTrades(String coin, int limit) {
-//        Deque<AggTrade> deque = aggTrades.get(coin.toUpperCase());
-//        if (deque == null) return List.of();
-//        synchronized (deque) {
-//            Iterator<AggTrade> it = deque.iterator();
-//            List<AggTrade> slice = new ArrayList<>(limit);
-//            for (int i = 0; i < limit && it.hasNext(); i++) {
-//                slice.add(it.next());
-//            }
-//            return slice;
-//        }
-//    }
+    @Override
+    public TradeWindow getTradesSince(String coin, long fromTimeMs) {
+        TradeFlow flow = aggTrades.get(coin.toUpperCase());
+        return flow == null ? TradeWindow.EMPTY : flow.ring().since(fromTimeMs);
+    }
+
+    @Override
+    public TradeFlowStats getTradeFlow(String coin, int volWindowSec) {
+        TradeFlow flow = aggTrades.get(coin.toUpperCase());
+        return flow == null ? null : flow.stats(System.currentTimeMillis(), volWindowSec);
+    }
 
     @PostConstruct
     public void initialize() {
@@ -0,0 +1,136 @@
+package io.cryptobot.market_data.aggTrade;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Буфер сделок символа плюс агрегаты потока, которые обновляются на каждой сделке:
+ * тиковые EMA 20/50, объём покупок и продаж по видимому окну буфера и объём по секундам.
+ * <p>
+ * Чтение {@link #stats(long, int)} — O(1) по числу сделок (суммируется не больше
+ * {@link #MAX_WINDOW_SEC} + 1 секундных корзин). Писатель один за раз (монитор),
+ * читатели не блокируются: агрегаты читаются под seqlock-версией.
+ */
+public final class TradeFlow {
+    public static final int EMA_FAST = 20;
+    public static final int EMA_SLOW = 50;
+    public static final int BASELINE_SEC = 60;
+    /** Самое длинное окно объёма, которое можно запросить; на нём же держится валидация volWindowSec плана. */
+    public static final int MAX_WINDOW_SEC = 600;
+    private static final int BUCKETS = 1024; // степень двойки > MAX_WINDOW_SEC
+
+    private static final double K_FAST = 2.0 / (EMA_FAST + 1);
+    private static final double K_SLOW = 2.0 / (EMA_SLOW + 1);
+
+    private final TradeRing ring;
+
+    /** Чётная — агрегаты согласованы, нечётная — писатель их меняет. */
+    private volatile long version;
+
+    private long count;
+    private double priceSum; // нужен, пока сделок меньше EMA_SLOW: тогда EMA = среднее
+    private double emaFast;
+    private double emaSlow;
+    private double buyVol;   // агрессор — покупатель (buyerIsMaker = false)
+    private double sellVol;
+    private double lastPrice;
+    private long sinceResync;
+    private final long[] bucketSec = new long[BUCKETS];
+    private final double[] bucketVol = new double[BUCKETS];
+
+    public TradeFlow(int maxWindow) {
+        this.ring = new TradeRing(maxWindow);
+    }
+
+    public TradeRing ring() {
+        return ring;
+    }
+
+    /** @return false, если сделка — повтор (см. {@link TradeRing#append}) */
+    public synchronized boolean append(long tradeTime, long aggregateTradeId, double price, double qty, boolean maker) {
+        long evicted = ring.head() - ring.maxWindow(); // сделка, которая выпадет из видимого окна
+        if (!ring.append(tradeTime, aggregateTradeId, price, qty, maker)) return false;
+
+        version++;
+        VarHandle.storeStoreFence();
+
+        count++;
+        if (count == 1) {
+            emaFast = price;
+            emaSlow = price;
+        } else {
+            emaFast = price * K_FAST + emaFast * (1 - K_FAST);
+            emaSlow = price * K_SLOW + emaSlow * (1 - K_SLOW);
+        }
+        if (count <= EMA_SLOW) priceSum += price;
+        lastPrice = price;
+
+        if (maker) sellVol += qty; else buyVol += qty;
+        if (evicted >= 0) {
+            if (ring.buyerIsMaker(evicted)) sellVol -= ring.qty(evicted); else buyVol -= ring.qty(evicted);
+        }
+        if (++sinceResync >= ring.maxWindow()) {
+            resyncVolumes(); // убираем накопленную погрешность вычитаний
+        }
+
+        long sec = Math.floorDiv(tradeTime, 1000L);
+        int slot = (int) (sec & (BUCKETS - 1));
+        if (bucketSec[slot] != sec) {
+            bucketSec[slot] = sec;
+            bucketVol[slot] = qty;
+        } else {
+            bucketVol[slot] += qty;
+        }
+
+        version++; // volatile-запись публикует агрегаты
+        return true;
+    }
+
+    private void resyncVolumes() {
+        sinceResync = 0;
+        double buy = 0.0, sell = 0.0;
+        long end = ring.head();
+        for (long s = end - ring.size(); s < end; s++) {
+            if (ring.buyerIsMaker(s)) sell += ring.qty(s); else buy += ring.qty(s);
+        }
+        buyVol = buy;
+        sellVol = sell;
+    }
+
+    /**
+     * Согласованный срез агрегатов.
+     *
+     * @param nowMs         текущее время: объёмы считаются по секундам [now - N, now] включительно
+     * @param volWindowSec  окно текущего объёма, не больше {@link #MAX_WINDOW_SEC}
+     * @return null, если сделок ещё не было
+     */
+    public TradeFlowStats stats(long nowMs, int volWindowSec) {
+        int window = Math.max(1, Math.min(volWindowSec, MAX_WINDOW_SEC));
+        long nowSec = Math.floorDiv(nowMs, 1000L);
+        while (true) {
+            long v = version;
+            if ((v & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long n = count;
+            double fast = n < EMA_FAST ? priceSum / n : emaFast;
+            double slow = n < EMA_SLOW ? priceSum / n : emaSlow;
+            double buy = buyVol, sell = sellVol, last = lastPrice;
+            double baseline = sumSeconds(nowSec - BASELINE_SEC, nowSec);
+            double current = sumSeconds(nowSec - window, nowSec);
+            VarHandle.acquireFence();
+            if (version != v) continue;
+            if (n == 0) return null;
+            return new TradeFlowStats(n, fast, slow, buy, sell, baseline, current, window, last);
+        }
+    }
+
+    private double sumSeconds(long fromSec, long toSec) {
+        double sum = 0.0;
+        for (long s = fromSec; s <= toSec; s++) {
+            int slot = (int) (s & (BUCKETS - 1));
+            if (bucketSec[slot] == s) sum += bucketVol[slot];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,39 @@
+package io.cryptobot.market_data.aggTrade;
+
+/**
+ * Срез агрегатов потока сделок символа на момент чтения.
+ *
+ * @param trades       сколько сделок принято всего
+ * @param emaFast      тиковая EMA20 (пока сделок меньше 20 — среднее)
+ * @param emaSlow      тиковая EMA50 (пока сделок меньше 50 — среднее)
+ * @param buyVolume    объём агрессивных покупок по видимому окну буфера
+ * @param sellVolume   объём агрессивных продаж по видимому окну буфера
+ * @param baselineVolume объём за последние {@link TradeFlow#BASELINE_SEC} секунд
+ * @param windowVolume объём за последние windowSec секунд
+ * @param windowSec    окно windowVolume
+ * @param lastPrice    цена последней сделки
+ */
+public record TradeFlowStats(long trades, double emaFast, double emaSlow,
+                             double buyVolume, double sellVolume,
+                             double baselineVolume, double windowVolume, int windowSec,
+                             double lastPrice) {
+
+    /** Доля покупок в объёме, % */
+    public double longPct() {
+        double tot = buyVolume + sellVolume;
+        return tot > 0 ? buyVolume / tot * 100.0 : 0.0;
+    }
+
+    /** Доля продаж в объёме, % */
+    public double shortPct() {
+        double tot = buyVolume + sellVolume;
+        return tot > 0 ? sellVolume / tot * 100.0 : 0.0;
+    }
+
+    /** Объём окна относительно среднего за baseline, приведённого к длине окна. */
+    public double volRatio() {
+        double avgPerSec = baselineVolume / TradeFlow.BASELINE_SEC;
+        if (avgPerSec <= 0.0) return 0.0;
+        return windowVolume / (avgPerSec * windowSec);
+    }
+}
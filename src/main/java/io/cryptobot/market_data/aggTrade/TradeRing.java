@@ -0,0 +1,132 @@
+package io.cryptobot.market_data.aggTrade;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Колоночный кольцевой буфер aggTrade одного символа: время, id, цена, объём и сторона
+ * лежат в параллельных примитивных массивах.
+ * <p>
+ * Пишет только {@link TradeFlow} (под своим монитором: поток шарда и изредка REST-догрузка),
+ * читатели не блокируются. Окна ({@link TradeWindow}) ничего не копируют, а читают массивы напрямую;
+ * согласованность проверяется как в seqlock: после расчёта {@link TradeWindow#isIntact()} подтверждает,
+ * что писатель не успел перезаписать прочитанные слоты, иначе расчёт повторяют.
+ * Ёмкость с запасом больше видимого окна, чтобы повторы были редкостью.
+ */
+public final class TradeRing {
+    private final int capacity;
+    private final int mask;
+    private final int maxWindow;
+
+    private final long[] time;
+    private final long[] id;
+    private final double[] price;
+    private final double[] qty;
+    private final boolean[] buyerIsMaker;
+
+    /** Число записанных сделок; слот следующей записи — {@code head & mask}. Публикует записанные данные. */
+    private volatile long head;
+    /** Позиция, которую писатель начал записывать (head + 1 на время записи) — «нечётный» шаг seqlock. */
+    private volatile long claimed;
+    private long lastId = -1;
+
+    /**
+     * @param maxWindow сколько последних сделок видно читателям
+     */
+    public TradeRing(int maxWindow) {
+        int cap = Integer.highestOneBit(Math.max(2, maxWindow) * 2 - 1) << 1;
+        this.capacity = cap;
+        this.mask = cap - 1;
+        this.maxWindow = maxWindow;
+        this.time = new long[cap];
+        this.id = new long[cap];
+        this.price = new double[cap];
+        this.qty = new double[cap];
+        this.buyerIsMaker = new boolean[cap];
+    }
+
+    /**
+     * Добавить сделку. Повторы и сделки старше последней по aggregateTradeId отбрасываются
+     * (WS и REST-догрузка пересекаются), поэтому время в буфере не убывает.
+     *
+     * @return false, если сделка уже была
+     */
+    synchronized boolean append(long tradeTime, long aggregateTradeId, double p, double q, boolean maker) {
+        if (aggregateTradeId > 0 && aggregateTradeId <= lastId) return false;
+        long h = head;
+        claimed = h + 1;
+        VarHandle.storeStoreFence(); // заявка на слот видна раньше, чем его новые данные
+        int slot = (int) (h & mask);
+        time[slot] = tradeTime;
+        id[slot] = aggregateTradeId;
+        price[slot] = p;
+        qty[slot] = q;
+        buyerIsMaker[slot] = maker;
+        if (aggregateTradeId > 0) lastId = aggregateTradeId;
+        head = h + 1; // volatile-запись публикует слот
+        return true;
+    }
+
+    long head() {
+        return head;
+    }
+
+    public int maxWindow() {
+        return maxWindow;
+    }
+
+    public int size() {
+        return (int) Math.min(head, maxWindow);
+    }
+
+    /** Последние {@code count} сделок (не больше {@link #maxWindow()}). */
+    public TradeWindow last(int count) {
+        long end = head;
+        int n = (int) Math.min(Math.min(end, maxWindow), Math.max(0, count));
+        return new TradeWindow(this, end - n, end);
+    }
+
+    /** Все видимые сделки. */
+    public TradeWindow all() {
+        return last(maxWindow);
+    }
+
+    /** Сделки с tradeTime &gt;= fromTimeMs (в пределах видимого окна), поиск — двоичный. */
+    public TradeWindow since(long fromTimeMs) {
+        long end = head;
+        long lo = end - Math.min(end, maxWindow);
+        long hi = end;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (time[(int) (mid & mask)] < fromTimeMs) lo = mid + 1;
+            else hi = mid;
+        }
+        // если писатель успел затереть просмотренные слоты — окно это покажет через isIntact()
+        return new TradeWindow(this, lo, end);
+    }
+
+    /** Слот позиции {@code seq} ещё не перезаписан (с учётом записи, которая может идти прямо сейчас). */
+    boolean isIntact(long seq) {
+        VarHandle.acquireFence(); // чтения данных окна не переезжают за эту проверку
+        return seq >= claimed - capacity;
+    }
+
+    long time(long seq) {
+        return time[(int) (seq & mask)];
+    }
+
+    long id(long seq) {
+        return id[(int) (seq & mask)];
+    }
+
+    double price(long seq) {
+        return price[(int) (seq & mask)];
+    }
+
+    double qty(long seq) {
+        return qty[(int) (seq & mask)];
+    }
+
+    boolean buyerIsMaker(long seq) {
+        return buyerIsMaker[(int) (seq & mask)];
+    }
+}
@@ -0,0 +1,59 @@
+package io.cryptobot.market_data.aggTrade;
+
+/**
+ * Окно сделок поверх {@link TradeRing} без копирования: индексы 0 = самая старая, size()-1 = самая новая.
+ * <p>
+ * Читает общие массивы буфера, поэтому результат расчёта по окну годен, только если после него
+ * {@link #isIntact()} вернул true; иначе окно берут заново и считают повторно.
+ */
+public final class TradeWindow {
+    public static final TradeWindow EMPTY = new TradeWindow(null, 0, 0);
+
+    private final TradeRing ring;
+    private final long from;
+    private final long to;
+
+    TradeWindow(TradeRing ring, long from, long to) {
+        this.ring = ring;
+        this.from = from;
+        this.to = to;
+    }
+
+    public int size() {
+        return (int) (to - from);
+    }
+
+    public boolean isEmpty() {
+        return to == from;
+    }
+
+    public long time(int i) {
+        return ring.time(from + i);
+    }
+
+    public long aggregateTradeId(int i) {
+        return ring.id(from + i);
+    }
+
+    public double price(int i) {
+        return ring.price(from + i);
+    }
+
+    public double qty(int i) {
+        return ring.qty(from + i);
+    }
+
+    public boolean isBuyerMaker(int i) {
+        return ring.buyerIsMaker(from + i);
+    }
+
+    /** Цена самой новой сделки окна или 0, если окно пустое. */
+    public double lastPrice() {
+        return isEmpty() ? 0.0 : price(size() - 1);
+    }
+
+    /** Писатель не перезаписал ни одного слота окна с момента его получения. */
+    public boolean isIntact() {
+        return ring == null || ring.isIntact(from);
+    }
+}
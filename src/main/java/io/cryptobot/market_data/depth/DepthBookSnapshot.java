@@ -0,0 +1,122 @@
+package io.cryptobot.market_data.depth;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Неизменяемый срез верхних уровней стакана на момент применения пачки диффов.
+ * <p>
+ * Публикуется через volatile-ссылку после каждой пачки — читатели получают согласованный стакан
+ * без блокировок. Все уровни упакованы в один long[]: сначала bids, затем asks,
+ * по паре (ключ в тиках, doubleToRawLongBits(qty)); у bids ключ = -тик.
+ */
+@Getter
+public final class DepthBookSnapshot {
+    private final String symbol;
+    private final long lastUpdateId;
+    private final long eventTime;
+    @JsonIgnore
+    private final int bidCount;
+    @JsonIgnore
+    private final int askCount;
+
+    @Getter(AccessLevel.NONE)
+    private final long tickUnscaled;
+    @Getter(AccessLevel.NONE)
+    private final int tickScale;
+    @Getter(AccessLevel.NONE)
+    private final long[] levels;
+
+    DepthBookSnapshot(String symbol, long lastUpdateId, long eventTime,
+                      long tickUnscaled, int tickScale, int bidCount, int askCount, long[] levels) {
+        this.symbol = symbol;
+        this.lastUpdateId = lastUpdateId;
+        this.eventTime = eventTime;
+        this.tickUnscaled = tickUnscaled;
+        this.tickScale = tickScale;
+        this.bidCount = bidCount;
+        this.askCount = askCount;
+        this.levels = levels;
+    }
+
+    /** Тот же набор уровней с новыми lastUpdateId/eventTime — массив общий, он не меняется. */
+    DepthBookSnapshot withUpdate(long lastUpdateId, long eventTime) {
+        return new DepthBookSnapshot(symbol, lastUpdateId, eventTime, tickUnscaled, tickScale, bidCount, askCount, levels);
+    }
+
+    public BigDecimal getTickSize() {
+        return BigDecimal.valueOf(tickUnscaled, tickScale);
+    }
+
+    public BigDecimal getBestBid() {
+        return bidPrice(0);
+    }
+
+    public BigDecimal getBestAsk() {
+        return askPrice(0);
+    }
+
+    /** Цена n-го уровня bid (0 — лучший) или null, если уровней меньше. */
+    public BigDecimal bidPrice(int n) {
+        if (n < 0 || n >= bidCount) return null;
+        return toPrice(-levels[2 * n]);
+    }
+
+    public BigDecimal askPrice(int n) {
+        if (n < 0 || n >= askCount) return null;
+        return toPrice(levels[2 * (bidCount + n)]);
+    }
+
+    public double bidQty(int n) {
+        if (n < 0 || n >= bidCount) return 0.0;
+        return Double.longBitsToDouble(levels[2 * n + 1]);
+    }
+
+    public double askQty(int n) {
+        if (n < 0 || n >= askCount) return 0.0;
+        return Double.longBitsToDouble(levels[2 * (bidCount + n) + 1]);
+    }
+
+    /** Объём первых {@code n} уровней bid (не больше, чем есть в срезе). */
+    public double bidVolume(int n) {
+        double sum = 0.0;
+        for (int i = 0, lim = Math.min(n, bidCount); i < lim; i++) {
+            sum += Double.longBitsToDouble(levels[2 * i + 1]);
+        }
+        return sum;
+    }
+
+    public double askVolume(int n) {
+        double sum = 0.0;
+        for (int i = 0, lim = Math.min(n, askCount); i < lim; i++) {
+            sum += Double.longBitsToDouble(levels[2 * (bidCount + i) + 1]);
+        }
+        return sum;
+    }
+
+    /** Уровни bid в формате REST-ответа [[price, qty], ...] — для API, не для горячего пути. */
+    public List<List<BigDecimal>> getBids() {
+        List<List<BigDecimal>> out = new ArrayList<>(bidCount);
+        for (int i = 0; i < bidCount; i++) {
+            out.add(List.of(bidPrice(i), BigDecimal.valueOf(bidQty(i))));
+        }
+        return out;
+    }
+
+    public List<List<BigDecimal>> getAsks() {
+        List<List<BigDecimal>> out = new ArrayList<>(askCount);
+        for (int i = 0; i < askCount; i++) {
+            out.add(List.of(askPrice(i), BigDecimal.valueOf(askQty(i))));
+        }
+        return out;
+    }
+
+    private BigDecimal toPrice(long tick) {
+        return BigDecimal.valueOf(tick * tickUnscaled, tickScale);
+    }
+}
@@ -0,0 +1,289 @@
+package io.cryptobot.market_data.depth;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Синхронизация локального стакана одного символа по алгоритму Binance для diff depth:
+ * <ol>
+ *     <li>пока грузится снапшот, события буферизуются;</li>
+ *     <li>из буфера отбрасываются события с u &lt; lastUpdateId снапшота;</li>
+ *     <li>первое применённое событие должно покрывать снапшот: U &lt;= lastUpdateId &lt;= u;</li>
+ *     <li>каждое следующее — pu == u предыдущего, иначе разрыв и ресинк.</li>
+ * </ol>
+ * На время ресинка после разрыва стакан помечается неготовым ({@link #isReady()} = false).
+ * Плановая «подпитка» тонкого стакана ({@link #beginReplenish()}) читателей не блокирует:
+ * старый стакан продолжает обновляться, пока новый собирается из снапшота и буфера.
+ * После каждой применённой пачки публикуется неизменяемый {@link DepthBookSnapshot} верхних уровней.
+ * Диффы применяются с примитивных уровней ({@link DepthDiff}); BigDecimal остаётся только в REST-снапшоте.
+ */
+@Slf4j
+class DepthBookSync {
+    static final int MAX_BUFFERED = 2_000;
+    /** Глубина публикуемого среза; глубже читатели идут в живой стакан. */
+    static final int SNAPSHOT_LEVELS = 20;
+    /** Пауза перед повтором после неудачного снапшота, удваивается до RETRY_MAX_MS (REST лежит или 429). */
+    static final long RETRY_BASE_MS = 1_000;
+    static final long RETRY_MAX_MS = 60_000;
+
+    private final String symbol;
+    /** Шаг цены из плана; null — стакан выведет его из цен. */
+    private final BigDecimal tickSize;
+    /** Копии диффов, пришедших за время загрузки снапшота (сами диффы переиспользуются вызывающим). */
+    private final Deque<DepthDiff> buffer = new ArrayDeque<>();
+
+    private volatile DepthModel book;
+    /** Последний опубликованный срез — читается без блокировок. */
+    private volatile DepthBookSnapshot snapshot;
+    /** Версия стакана, с которой собран {@link #snapshot}. */
+    private long snapshotVersion = -1;
+    private volatile boolean ready;
+    /** После снапшота ещё не пришло событие, покрывающее его lastUpdateId. */
+    private boolean awaitingFirst;
+    /** Загружается снапшот — события дублируются в буфер. */
+    private boolean buffering;
+    /** Общий на все запросы снапшот в полёте — повторные запросы к нему присоединяются. */
+    private CompletableFuture<DepthSnapshotModel> inflight;
+    private long lastReplenishAt;
+    private long gaps;
+    /** Неудачные снапшоты подряд и момент, раньше которого новый не запрашиваем. */
+    private int failures;
+    private long retryAt;
+
+    DepthBookSync(String symbol) {
+        this(symbol, null);
+    }
+
+    DepthBookSync(String symbol, BigDecimal tickSize) {
+        this.symbol = symbol;
+        this.tickSize = tickSize;
+    }
+
+    String getSymbol() {
+        return symbol;
+    }
+
+    DepthModel getBook() {
+        return book;
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    DepthBookSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    synchronized long getGaps() {
+        return gaps;
+    }
+
+    synchronized CompletableFuture<DepthSnapshotModel> getInflight() {
+        return inflight;
+    }
+
+    synchronized boolean attachInflight(CompletableFuture<DepthSnapshotModel> future) {
+        return attachInflight(future, System.currentTimeMillis());
+    }
+
+    /** @return false, если снапшот уже грузится или после неудачи ещё не истекла пауза — запрос не нужен */
+    synchronized boolean attachInflight(CompletableFuture<DepthSnapshotModel> future, long nowMs) {
+        if (inflight != null || nowMs < retryAt) return false;
+        inflight = future;
+        buffering = true;
+        return true;
+    }
+
+    synchronized void clearInflight() {
+        inflight = null;
+    }
+
+    /** Разрешить подпитку тонкого стакана не чаще, чем раз в {@code minIntervalMs}. */
+    synchronized boolean beginReplenish(long nowMs, long minIntervalMs) {
+        if (!ready || inflight != null || nowMs - lastReplenishAt < minIntervalMs) return false;
+        lastReplenishAt = nowMs;
+        return true;
+    }
+
+    synchronized boolean onUpdate(DepthUpdateModel update) {
+        return onUpdate(DepthDiff.of(update));
+    }
+
+    /**
+     * Применить дифф. Сам {@code update} не сохраняется — в буфер кладётся копия.
+     *
+     * @return true, если нужен снапшот (стакана нет или обнаружен разрыв)
+     */
+    synchronized boolean onUpdate(DepthDiff update) {
+        if (buffering) {
+            bufferUpdate(update);
+        }
+        if (!ready) {
+            return inflight == null;
+        }
+
+        DepthModel dm = book;
+        long last = dm.getLastUpdateId();
+        if (update.getFinalUpdateId() < last) {
+            return false; // устаревшее событие
+        }
+        boolean inSequence = awaitingFirst
+                ? update.getFirstUpdateId() <= last
+                : isContinuation(update, last);
+        if (!inSequence) {
+            gaps++;
+            log.warn("⚠️ Depth gap for {}: lastUpdateId={}, U={}, u={}, pu={} — resync",
+                    symbol, last, update.getFirstUpdateId(), update.getFinalUpdateId(), update.getPrevFinalUpdateId());
+            ready = false;
+            buffer.clear();
+            buffering = true;
+            bufferUpdate(update);
+            return inflight == null;
+        }
+        apply(dm, update);
+        awaitingFirst = false;
+        publish(dm, update.getEventTime());
+        return false;
+    }
+
+    synchronized boolean onSnapshot(DepthSnapshotModel snapshot) {
+        return onSnapshot(snapshot, System.currentTimeMillis());
+    }
+
+    /**
+     * Собрать стакан из снапшота и накопленного буфера.
+     *
+     * @return true, если стакан готов; false — снапшот не стыкуется с буфером, новый запросим после паузы
+     */
+    synchronized boolean onSnapshot(DepthSnapshotModel snapshot, long nowMs) {
+        inflight = null;
+        long lastId = snapshot.getLastUpdateId();
+        DepthModel fresh = new DepthModel(lastId, tickSize);
+        applyLevels(fresh, snapshot.getBids(), true);
+        applyLevels(fresh, snapshot.getAsks(), false);
+
+        boolean first = true;
+        long eventTime = snapshot.getEventTime();
+        for (DepthDiff u : buffer) {
+            if (u.getFinalUpdateId() < lastId) continue;
+            long last = fresh.getLastUpdateId();
+            boolean inSequence = first ? u.getFirstUpdateId() <= last : isContinuation(u, last);
+            if (!inSequence) {
+                if (ready) {
+                    // подпитка не удалась — продолжаем жить на старом стакане
+                    buffer.clear();
+                    buffering = false;
+                    return true;
+                }
+                long delay = backOff(nowMs);
+                log.warn("Snapshot for {} (lastUpdateId={}) does not bridge buffered events, refetching in {} ms",
+                        symbol, lastId, delay);
+                buffer.removeIf(b -> b.getFinalUpdateId() < lastId);
+                return false;
+            }
+            apply(fresh, u);
+            eventTime = Math.max(eventTime, u.getEventTime());
+            first = false;
+        }
+        buffer.clear();
+        buffering = false;
+        failures = 0;
+        retryAt = 0;
+        awaitingFirst = first;
+        book = fresh;
+        snapshotVersion = -1;
+        publish(fresh, eventTime);
+        ready = true;
+        return true;
+    }
+
+    /** Установить стакан напрямую из снапшота (внешний вызов processDepthSnapshot). */
+    synchronized void install(DepthSnapshotModel snapshot) {
+        DepthModel fresh = new DepthModel(snapshot.getLastUpdateId(), tickSize);
+        applyLevels(fresh, snapshot.getBids(), true);
+        applyLevels(fresh, snapshot.getAsks(), false);
+        buffer.clear();
+        buffering = inflight != null;
+        awaitingFirst = true;
+        book = fresh;
+        snapshotVersion = -1;
+        publish(fresh, snapshot.getEventTime());
+        ready = true;
+    }
+
+    synchronized void onSnapshotFailed() {
+        onSnapshotFailed(System.currentTimeMillis());
+    }
+
+    /** Снапшот не загрузился — оставляем буфер, первое событие после паузы запросит снова. */
+    synchronized void onSnapshotFailed(long nowMs) {
+        inflight = null;
+        long delay = backOff(nowMs);
+        log.warn("⚠️ Depth snapshot for {} failed {} time(s) in a row, next attempt in {} ms", symbol, failures, delay);
+        if (ready) {
+            buffer.clear();
+            buffering = false;
+        }
+    }
+
+    /** Ещё одна неудача подряд: отложить следующий снапшот. @return пауза в мс */
+    private long backOff(long nowMs) {
+        failures++;
+        long delay = Math.min(RETRY_MAX_MS, RETRY_BASE_MS << Math.min(failures - 1, 16));
+        retryAt = nowMs + delay;
+        return delay;
+    }
+
+    /**
+     * Один срез на применённую пачку. Если пачка не поменяла уровни — новый срез делит массив уровней
+     * с предыдущим, и аллокация остаётся одна (сам объект).
+     */
+    private void publish(DepthModel dm, long eventTime) {
+        long version = dm.version();
+        DepthBookSnapshot prev = snapshot;
+        snapshot = prev != null && version == snapshotVersion
+                ? prev.withUpdate(dm.getLastUpdateId(), eventTime)
+                : dm.snapshot(symbol, eventTime, SNAPSHOT_LEVELS);
+        snapshotVersion = version;
+    }
+
+    private static boolean isContinuation(DepthDiff u, long last) {
+        return DepthDiff.follows(u.getFirstUpdateId(), u.getPrevFinalUpdateId(), last);
+    }
+
+    private void bufferUpdate(DepthDiff update) {
+        if (buffer.size() >= MAX_BUFFERED) {
+            buffer.pollFirst();
+        }
+        buffer.addLast(update.copy());
+    }
+
+    private static void apply(DepthModel dm, DepthDiff update) {
+        applyLevels(dm, update.getBids(), true);
+        applyLevels(dm, update.getAsks(), false);
+        dm.setLastUpdateId(update.getFinalUpdateId());
+    }
+
+    private static void applyLevels(DepthModel dm, DepthLevels levels, boolean bids) {
+        for (int i = 0, n = levels.size(); i < n; i++) {
+            if (bids) dm.setBid(levels.priceUnscaled(i), levels.priceScale(i), levels.qty(i));
+            else dm.setAsk(levels.priceUnscaled(i), levels.priceScale(i), levels.qty(i));
+        }
+    }
+
+    /** Уровни REST-снапшота. */
+    private static void applyLevels(DepthModel dm, List<List<BigDecimal>> levels, boolean bids) {
+        if (levels == null) return;
+        for (int i = 0, n = levels.size(); i < n; i++) {
+            List<BigDecimal> entry = levels.get(i);
+            if (bids) dm.setBid(entry.get(0), entry.get(1));
+            else dm.setAsk(entry.get(0), entry.get(1));
+        }
+    }
+}
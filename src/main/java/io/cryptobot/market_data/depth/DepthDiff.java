@@ -0,0 +1,72 @@
+package io.cryptobot.market_data.depth;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Дифф стакана на примитивах — то же, что {@link DepthUpdateModel}, но без BigDecimal и списков.
+ * <p>
+ * Переиспользуемый: консьюмер шарда заполняет его из кадра и отдаёт в {@link DepthService#processDepthDiff},
+ * где он живёт только до возврата из вызова. Кто хочет его сохранить (буфер на время снапшота) — берёт {@link #copy()}.
+ */
+@Getter
+@Setter
+public final class DepthDiff {
+    private long eventTime;            // E
+    private String symbol;             // s
+    private long firstUpdateId;        // U
+    private long finalUpdateId;        // u
+    private long prevFinalUpdateId;    // pu (0, если не пришло)
+    private final DepthLevels bids = new DepthLevels();
+    private final DepthLevels asks = new DepthLevels();
+
+    public void reset() {
+        eventTime = 0L;
+        symbol = null;
+        firstUpdateId = 0L;
+        finalUpdateId = 0L;
+        prevFinalUpdateId = 0L;
+        bids.clear();
+        asks.clear();
+    }
+
+    /** Пустой — после {@link #reset()}, ещё не заполнен. */
+    public boolean isEmpty() {
+        return symbol == null;
+    }
+
+    /**
+     * Событие (U, pu) продолжает последовательность, на которой u == last.
+     * pu может не прийти (старые/тестовые кадры) — тогда достаточно, чтобы U не перескочил через last.
+     */
+    public static boolean follows(long firstUpdateId, long prevFinalUpdateId, long last) {
+        return prevFinalUpdateId != 0
+                ? prevFinalUpdateId == last
+                : firstUpdateId <= last + 1;
+    }
+
+    public DepthDiff copy() {
+        DepthDiff c = new DepthDiff();
+        c.eventTime = eventTime;
+        c.symbol = symbol;
+        c.firstUpdateId = firstUpdateId;
+        c.finalUpdateId = finalUpdateId;
+        c.prevFinalUpdateId = prevFinalUpdateId;
+        c.bids.addAll(bids);
+        c.asks.addAll(asks);
+        return c;
+    }
+
+    /** Из старого формата (REST, тесты, внешний вызов processDepthUpdate). */
+    public static DepthDiff of(DepthUpdateModel update) {
+        DepthDiff d = new DepthDiff();
+        d.eventTime = update.getEventTime();
+        d.symbol = update.getSymbol();
+        d.firstUpdateId = update.getFirstUpdateId();
+        d.finalUpdateId = update.getFinalUpdateId();
+        d.prevFinalUpdateId = update.getPrevFinalUpdateId();
+        d.bids.addAll(update.getBids());
+        d.asks.addAll(update.getAsks());
+        return d;
+    }
+}
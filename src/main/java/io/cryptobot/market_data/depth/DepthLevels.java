@@ -0,0 +1,76 @@
+package io.cryptobot.market_data.depth;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Уровни одной стороны диффа на примитивах: цена — unscaled long + scale, количество — double.
+ * Массивы растут по необходимости и переиспользуются между диффами; BigDecimal не создаётся.
+ */
+public final class DepthLevels {
+    private long[] priceUnscaled = new long[16];
+    private int[] priceScale = new int[16];
+    private double[] qty = new double[16];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Количество 0 — удалить уровень. */
+    public void add(long unscaled, int scale, double quantity) {
+        if (size == qty.length) grow();
+        priceUnscaled[size] = unscaled;
+        priceScale[size] = scale;
+        qty[size] = quantity;
+        size++;
+    }
+
+    /** Дописать уровни другого диффа; при повторе цены последнее количество победит при применении. */
+    public void addAll(DepthLevels other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.priceUnscaled[i], other.priceScale[i], other.qty[i]);
+        }
+    }
+
+    public long priceUnscaled(int i) {
+        return priceUnscaled[i];
+    }
+
+    public int priceScale(int i) {
+        return priceScale[i];
+    }
+
+    public double qty(int i) {
+        return qty[i];
+    }
+
+    /** Совместимость со старым форматом DepthUpdateModel: список [price, qty]. */
+    void addAll(List<List<BigDecimal>> levels) {
+        if (levels == null) return;
+        for (int i = 0, n = levels.size(); i < n; i++) {
+            List<BigDecimal> entry = levels.get(i);
+            BigDecimal price = entry.get(0);
+            BigDecimal quantity = entry.get(1);
+            if (price == null) continue;
+            add(price.unscaledValue().longValueExact(), price.scale(), quantity == null ? 0.0 : quantity.doubleValue());
+        }
+    }
+
+    private void grow() {
+        int newCap = qty.length * 2;
+        long[] p = new long[newCap];
+        int[] s = new int[newCap];
+        double[] q = new double[newCap];
+        System.arraycopy(priceUnscaled, 0, p, 0, size);
+        System.arraycopy(priceScale, 0, s, 0, size);
+        System.arraycopy(qty, 0, q, 0, size);
+        priceUnscaled = p;
+        priceScale = s;
+        qty = q;
+    }
+}
@@ -17,6 +17,7 @@ public class DepthMapper {
             model.setSymbol(node.path("s").asText(null));
             model.setFirstUpdateId(node.path("U").asLong(0));
             model.setFinalUpdateId(node.path("u").asLong(0));
+            model.setPrevFinalUpdateId(node.path("pu").asLong(0));
 
             // bids: array of [price, qty]
             if (node.has("b") && node.get("b").isArray()) {
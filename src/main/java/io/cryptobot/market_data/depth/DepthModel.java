@@ -1,63 +1,246 @@
 package io.cryptobot.market_data.depth;
 
-import lombok.*;
+import lombok.Getter;
+import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.NavigableMap;
-import java.util.concurrent.ConcurrentSkipListMap;
-
-@Getter
-@Setter
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-@ToString
+import java.util.TreeMap;
+
+/**
+ * Локальный стакан символа: цены — long-индексы в тиках ({@code SizeModel.tickSize}), количества — double.
+ * <p>
+ * Лучшие bid/ask читаются за O(1), установка уровня по цене — O(1) и без аллокаций
+ * (см. {@link PriceLadder}). Диффы из WS приходят как unscaled long + scale ({@link #setBid(long, int, double)}),
+ * BigDecimal-сеттеры остались для REST-снапшотов; BigDecimal создаётся только на чтении цены наружу.
+ * Если tickSize не передан — берётся из scale первой цены и при необходимости мельчится.
+ */
 public class DepthModel {
-    private static final int MAX_LEVELS = 100;
-
-    private long lastUpdateId;
-
-    private final NavigableMap<BigDecimal, BigDecimal> bids = new ConcurrentSkipListMap<BigDecimal, BigDecimal>(Comparator.reverseOrder()) {
-        @Override
-        public BigDecimal put(BigDecimal key, BigDecimal value) {
-            BigDecimal result = super.put(key, value);
-            while (size() > MAX_LEVELS) {
-                pollLastEntry();
-            }
-            return result;
+    static final int MAX_LEVELS = 100;
+    /** Окно лестницы в тиках от лучшей цены; всё глубже отбрасывается. */
+    private static final int LADDER_TICKS = 4096;
+    private static final double GRID_EPS = 1e-6;
+    private static final int MAX_SCALE = 18;
+    private static final double[] POW10 = new double[MAX_SCALE + 1];
+
+    static {
+        double p = 1.0;
+        for (int i = 0; i <= MAX_SCALE; i++) {
+            POW10[i] = p;
+            p *= 10.0;
         }
-    };
-
-    private final NavigableMap<BigDecimal, BigDecimal> asks = new ConcurrentSkipListMap<BigDecimal, BigDecimal>() {
-        @Override
-        public BigDecimal put(BigDecimal key, BigDecimal value) {
-            BigDecimal result = super.put(key, value);
-            while (size() > MAX_LEVELS) {
-                pollLastEntry();
-            }
-            return result;
+    }
+
+    @Getter
+    @Setter
+    private volatile long lastUpdateId;
+
+    // bids хранятся с ключом -tick, чтобы лучшим у обеих сторон был минимальный ключ
+    private PriceLadder bids = new PriceLadder(LADDER_TICKS);
+    private PriceLadder asks = new PriceLadder(LADDER_TICKS);
+
+    /** tickSize = tickUnscaled * 10^-tickScale */
+    private long tickUnscaled;
+    private int tickScale;
+    private double tickUnit;
+    /** tickSize выведен из цен, а не получен из плана — можно мельчить. */
+    private boolean inferredTick;
+    /** Растёт при каждом изменении уровней — чтобы не пересобирать срез, если пачка ничего не поменяла. */
+    private long version;
+
+    public DepthModel() {
+        this(0L, null);
+    }
+
+    public DepthModel(long lastUpdateId) {
+        this(lastUpdateId, null);
+    }
+
+    public DepthModel(long lastUpdateId, BigDecimal tickSize) {
+        this.lastUpdateId = lastUpdateId;
+        if (tickSize != null && tickSize.signum() > 0) {
+            initTick(tickSize.stripTrailingZeros());
+        } else {
+            inferredTick = true;
         }
-    };
+    }
+
+    public synchronized BigDecimal getTickSize() {
+        return tickUnit == 0 ? null : BigDecimal.valueOf(tickUnscaled, tickScale);
+    }
+
+    // ===== запись =====
 
     public void updateBids(Map<BigDecimal, BigDecimal> updates) {
-        updates.forEach((price, quantity) -> {
-            if (quantity == null || BigDecimal.ZERO.compareTo(quantity) == 0) {
-                bids.remove(price);
-            } else {
-                bids.put(price, quantity);
-            }
-        });
+        updates.forEach(this::setBid);
     }
 
     public void updateAsks(Map<BigDecimal, BigDecimal> updates) {
-        updates.forEach((price, quantity) -> {
-            if (quantity == null || BigDecimal.ZERO.compareTo(quantity) == 0) {
-                asks.remove(price);
-            } else {
-                asks.put(price, quantity);
-            }
-        });
-    }
-}
\ No newline at end of file
+        updates.forEach(this::setAsk);
+    }
+
+    /** Количество 0 или null — удалить уровень. */
+    public synchronized void setBid(BigDecimal price, BigDecimal quantity) {
+        if (price == null) return;
+        long tick = toTick(price.doubleValue(), price.scale());
+        bids.set(-tick, quantity == null ? 0.0 : quantity.doubleValue());
+        version++;
+    }
+
+    public synchronized void setAsk(BigDecimal price, BigDecimal quantity) {
+        if (price == null) return;
+        long tick = toTick(price.doubleValue(), price.scale());
+        asks.set(tick, quantity == null ? 0.0 : quantity.doubleValue());
+        version++;
+    }
+
+    /** Цена = priceUnscaled * 10^-priceScale; количество 0 — удалить уровень. Без аллокаций. */
+    public synchronized void setBid(long priceUnscaled, int priceScale, double quantity) {
+        if (priceScale < 0 || priceScale > MAX_SCALE) return;
+        long tick = toTick(priceUnscaled / POW10[priceScale], priceScale);
+        bids.set(-tick, quantity);
+        version++;
+    }
+
+    public synchronized void setAsk(long priceUnscaled, int priceScale, double quantity) {
+        if (priceScale < 0 || priceScale > MAX_SCALE) return;
+        long tick = toTick(priceUnscaled / POW10[priceScale], priceScale);
+        asks.set(tick, quantity);
+        version++;
+    }
+
+    // ===== чтение =====
+
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Неизменяемый срез верхних {@code depth} уровней каждой стороны: один объект и один массив.
+     */
+    public synchronized DepthBookSnapshot snapshot(String symbol, long eventTime, int depth) {
+        int nb = Math.min(bids.levels(), depth);
+        int na = Math.min(asks.levels(), depth);
+        long[] levels = new long[2 * (nb + na)];
+        nb = bids.packTop(nb, levels, 0);
+        na = asks.packTop(na, levels, 2 * nb);
+        return new DepthBookSnapshot(symbol, lastUpdateId, eventTime, tickUnscaled, tickScale, nb, na, levels);
+    }
+
+    public synchronized int bidLevels() {
+        return bids.levels();
+    }
+
+    public synchronized int askLevels() {
+        return asks.levels();
+    }
+
+    public synchronized BigDecimal getBestBid() {
+        return bids.isEmpty() ? null : toPrice(-bids.best());
+    }
+
+    public synchronized BigDecimal getBestAsk() {
+        return asks.isEmpty() ? null : toPrice(asks.best());
+    }
+
+    /** Цена n-го уровня bid от лучшего (0 — лучший) или null. */
+    public synchronized BigDecimal bidPrice(int n) {
+        long key = bids.levelKey(n);
+        return key == PriceLadder.EMPTY ? null : toPrice(-key);
+    }
+
+    /** Цена n-го уровня ask от лучшего (0 — лучший) или null. */
+    public synchronized BigDecimal askPrice(int n) {
+        long key = asks.levelKey(n);
+        return key == PriceLadder.EMPTY ? null : toPrice(key);
+    }
+
+    /** Суммарный объём первых {@code levels} уровней bid. */
+    public synchronized double bidVolume(int levels) {
+        return bids.sumTop(levels);
+    }
+
+    /** Суммарный объём первых {@code levels} уровней ask. */
+    public synchronized double askVolume(int levels) {
+        return asks.sumTop(levels);
+    }
+
+    /** Копия верхних {@link #MAX_LEVELS} bid (по убыванию цены) — для отладки и совместимости. */
+    public NavigableMap<BigDecimal, BigDecimal> getBids() {
+        return copyTop(bids, true);
+    }
+
+    /** Копия верхних {@link #MAX_LEVELS} ask (по возрастанию цены). */
+    public NavigableMap<BigDecimal, BigDecimal> getAsks() {
+        return copyTop(asks, false);
+    }
+
+    private synchronized NavigableMap<BigDecimal, BigDecimal> copyTop(PriceLadder ladder, boolean bidSide) {
+        TreeMap<BigDecimal, BigDecimal> out = bidSide ? new TreeMap<>(Comparator.reverseOrder()) : new TreeMap<>();
+        int n = Math.min(ladder.levels(), MAX_LEVELS);
+        long[] keys = new long[n];
+        double[] qty = new double[n];
+        n = ladder.copyTop(n, keys, qty);
+        for (int i = 0; i < n; i++) {
+            out.put(toPrice(bidSide ? -keys[i] : keys[i]), BigDecimal.valueOf(qty[i]));
+        }
+        return Collections.unmodifiableNavigableMap(out);
+    }
+
+    // ===== тики =====
+
+    private void initTick(BigDecimal tickSize) {
+        this.tickUnscaled = tickSize.unscaledValue().longValueExact();
+        this.tickScale = tickSize.scale();
+        this.tickUnit = tickSize.doubleValue();
+    }
+
+    private long toTick(double price, int scale) {
+        if (tickUnit == 0) {
+            initTick(BigDecimal.ONE.movePointLeft(Math.max(0, scale)));
+        }
+        double exact = price / tickUnit;
+        long tick = Math.round(exact);
+        if (Math.abs(exact - tick) > GRID_EPS && inferredTick && scale > tickScale) {
+            regrid(scale);
+            exact = price / tickUnit;
+            tick = Math.round(exact);
+        }
+        return tick;
+    }
+
+    private BigDecimal toPrice(long tick) {
+        return BigDecimal.valueOf(tick * tickUnscaled, tickScale);
+    }
+
+    /** Перейти на более мелкий шаг 10^-newScale: ключи всех уровней умножаются на 10^(newScale - tickScale). */
+    private void regrid(int newScale) {
+        long factor = 1;
+        for (int i = tickScale; i < newScale; i++) factor *= 10;
+        bids = rescale(bids, factor);
+        asks = rescale(asks, factor);
+        initTick(BigDecimal.ONE.movePointLeft(newScale));
+    }
+
+    private static PriceLadder rescale(PriceLadder ladder, long factor) {
+        PriceLadder out = new PriceLadder(LADDER_TICKS);
+        int n = ladder.levels();
+        long[] keys = new long[n];
+        double[] qty = new double[n];
+        n = ladder.copyTop(n, keys, qty);
+        for (int i = 0; i < n; i++) {
+            out.set(keys[i] * factor, qty[i]);
+        }
+        return out;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DepthModel(lastUpdateId=" + lastUpdateId + ", tickSize=" + getTickSize()
+                + ", bestBid=" + getBestBid() + ", bestAsk=" + getBestAsk()
+                + ", bidLevels=" + bids.levels() + ", askLevels=" + asks.levels() + ")";
+    }
+}
@@ -5,12 +5,18 @@ import java.math.BigDecimal;
 public interface DepthService {
     DepthModel getDepthModelBySymbol(String symbol);
 
+    /** Последний неизменяемый срез верхних уровней; null, если стакан не синхронизирован. */
+    DepthBookSnapshot getBookSnapshot(String symbol);
+
     DepthSnapshotModel getDepthBySymbol(String symbol, int limit);
 
     void processDepthSnapshot(DepthSnapshotModel snapshot, String symbol);
 
     void processDepthUpdate(DepthUpdateModel update);
 
+    /** Горячий путь из WS: дифф на примитивах, живёт только до возврата из вызова. */
+    void processDepthDiff(DepthDiff diff);
+
     boolean hasOrderBook(String symbol);
 
     void initializeOrderBooks();
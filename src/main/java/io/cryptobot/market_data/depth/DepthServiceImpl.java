@@ -1,8 +1,10 @@
 package io.cryptobot.market_data.depth;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cryptobot.configs.executor.BlockingExecutors;
 import io.cryptobot.configs.service.AppConfig;
 import io.cryptobot.helpers.MainHelper;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -11,68 +13,95 @@ import org.springframework.web.client.RestTemplate;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DepthServiceImpl implements DepthService {
     //  5, 10, 20, 50, 100, 500, 1000, 5000
-    private static final int STARTUP_SNAPSHOT_LIMIT = 50;
+    private static final int SYNC_SNAPSHOT_LIMIT = 100; // = DepthModel.MAX_LEVELS, weight 5
     private static final int HOT_PATH_LIMIT = 20;
+    private static final long REPLENISH_INTERVAL_MS = 30_000;
 
     private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper;
     private final MainHelper mainHelper;
 
-    private final Map<String, DepthModel> orderBooks = new ConcurrentHashMap<>();
+    /** Состояние синхронизации стакана по символу; сам стакан — {@link DepthBookSync#getBook()} */
+    private final Map<String, DepthBookSync> orderBooks = new ConcurrentHashMap<>();
+    private final ExecutorService snapshotExecutor = BlockingExecutors.newExecutor("depth-snapshot", 2);
 
 
     public void initializeOrderBooks() {
         List<String> symbols = mainHelper.getSymbolsFromPlans();
         for (String symbol : symbols) {
-            fetchAndProcessDepthSnapshot(symbol);
+            requestSnapshot(syncFor(symbol.toUpperCase()));
         }
-        log.info("Initialized orderBooks for {} symbols", symbols.size());
+        log.info("Requested orderBook snapshots for {} symbols", symbols.size());
     }
 
+    @PreDestroy
+    public void shutdown() {
+        snapshotExecutor.shutdownNow();
+    }
+
+    private DepthBookSync syncFor(String key) {
+        return orderBooks.computeIfAbsent(key, s -> new DepthBookSync(s, mainHelper.getTickSize(s)));
+    }
 
-    private void fetchAndProcessDepthSnapshot(String symbol) {
+    /**
+     * Асинхронно загрузить снапшот. Параллельные запросы по одному символу сливаются в один
+     * (пока снапшот в полёте, повторный вызов ничего не делает).
+     */
+    private void requestSnapshot(DepthBookSync sync) {
+        CompletableFuture<DepthSnapshotModel> future = new CompletableFuture<>();
+        if (!sync.attachInflight(future)) return;
         try {
-            String url = String.format(
-                    "%s/fapi/v1/depth?symbol=%s&limit=%d",
-                    AppConfig.BINANCE_URL,
-                    symbol.toUpperCase(),
-                    STARTUP_SNAPSHOT_LIMIT
-            );
-            String resp = restTemplate.getForObject(url, String.class);
-            DepthSnapshotModel snapshot = objectMapper.readValue(resp, DepthSnapshotModel.class);
-            processDepthSnapshot(snapshot, symbol);
-            log.info("Startup snapshot applied for {} (levels={}/{})",
-                    symbol.toUpperCase(),
-                    snapshot.getBids().size() + snapshot.getAsks().size(),
-                    STARTUP_SNAPSHOT_LIMIT);
-        } catch (Exception e) {
-            log.error("Error fetching startup snapshot for {}: {}", symbol, e.getMessage());
+            snapshotExecutor.execute(() -> {
+                DepthSnapshotModel snapshot = fetchSnapshot(sync.getSymbol(), SYNC_SNAPSHOT_LIMIT);
+                if (snapshot == null) {
+                    sync.onSnapshotFailed();
+                } else if (sync.onSnapshot(snapshot)) {
+                    log.info("Depth for {} synced: lastUpdateId={}, bids={}, asks={}", sync.getSymbol(),
+                            sync.getBook().getLastUpdateId(), sync.getBook().bidLevels(), sync.getBook().askLevels());
+                }
+                // не стыкуется — новый снапшот запросит первое событие после паузы
+                future.complete(snapshot);
+            });
+        } catch (RejectedExecutionException e) {
+            sync.clearInflight();
         }
     }
 
+    /**
+     * Не блокирует: если стакан ещё не синхронизирован (старт, разрыв последовательности) —
+     * запускает фоновый ресинк и возвращает null.
+     */
     @Override
     public DepthModel getDepthModelBySymbol(String symbol) {
         if (symbol == null) return null;
-        String key = symbol.toUpperCase();
+        DepthBookSync sync = syncFor(symbol.toUpperCase());
+        if (!sync.isReady()) {
+            requestSnapshot(sync);
+            return null;
+        }
+        return sync.getBook();
+    }
 
-        DepthModel dm = orderBooks.get(key);
-        if (dm == null || dm.getBids().size() < HOT_PATH_LIMIT) {
-            DepthSnapshotModel snapshot = fetchSnapshot(key, HOT_PATH_LIMIT);
-            if (snapshot != null) {
-                processDepthSnapshot(snapshot, key);
-                dm = orderBooks.get(key);
-                log.info("Reinitialized DepthModel for {} with {} levels", key, dm.getBids().size());
-            }
+    /** Без блокировок: volatile-чтение последнего опубликованного среза. */
+    @Override
+    public DepthBookSnapshot getBookSnapshot(String symbol) {
+        if (symbol == null) return null;
+        DepthBookSync sync = syncFor(symbol.toUpperCase());
+        if (!sync.isReady()) {
+            requestSnapshot(sync);
+            return null;
         }
-        return dm;
+        return sync.getSnapshot();
     }
 
     @Override
@@ -83,39 +112,33 @@ public class DepthServiceImpl implements DepthService {
     @Override
     public void processDepthSnapshot(DepthSnapshotModel snapshot, String symbol) {
         String key = symbol.toUpperCase();
-        long lastId = snapshot.getLastUpdateId();
-
-        DepthModel dm = new DepthModel(lastId);
-        dm.updateBids(parseOrderList(snapshot.getBids()));  // здесь уже будет limitLevels
-        dm.updateAsks(parseOrderList(snapshot.getAsks()));
-        orderBooks.put(key, dm);
+        DepthBookSync sync = syncFor(key);
+        sync.install(snapshot);
 
         log.info("Processed depth snapshot for {}: bids={}, asks={}",
-                key, dm.getBids().size(), dm.getAsks().size());
+                key, sync.getBook().bidLevels(), sync.getBook().askLevels());
     }
 
     @Override
     public void processDepthUpdate(DepthUpdateModel update) {
-        String key = update.getSymbol().toUpperCase();
-        DepthModel dm = getDepthModelBySymbol(key);
-        if (dm == null) return;
-
-        // Накатываем WS-патчи точно так же, как в Python
-        update.getBids().forEach(entry -> {
-            BigDecimal price = entry.get(0), qty = entry.get(1);
-            if (qty.signum() == 0) dm.getBids().remove(price);
-            else dm.getBids().put(price, qty);
-        });
-        update.getAsks().forEach(entry -> {
-            BigDecimal price = entry.get(0), qty = entry.get(1);
-            if (qty.signum() == 0) dm.getAsks().remove(price);
-            else dm.getAsks().put(price, qty);
-        });
-
-        dm.setLastUpdateId(update.getFinalUpdateId());
-
-        if (dm.getBids().size() > 80 || dm.getAsks().size() > 80) {
-            log.debug("Depth size for {}: bids={}, asks={}", key, dm.getBids().size(), dm.getAsks().size());
+        processDepthDiff(DepthDiff.of(update));
+    }
+
+    @Override
+    public void processDepthDiff(DepthDiff diff) {
+        String key = diff.getSymbol().toUpperCase();
+        DepthBookSync sync = syncFor(key);
+        if (sync.onUpdate(diff)) {
+            requestSnapshot(sync);
+            return;
+        }
+
+        DepthModel dm = sync.getBook();
+        if (dm == null || !sync.isReady()) return;
+        // тонкий стакан подпитываем фоновым снапшотом, не останавливая обновления
+        if ((dm.bidLevels() < HOT_PATH_LIMIT || dm.askLevels() < HOT_PATH_LIMIT)
+                && sync.beginReplenish(System.currentTimeMillis(), REPLENISH_INTERVAL_MS)) {
+            requestSnapshot(sync);
         }
     }
 
@@ -135,87 +158,53 @@ public class DepthServiceImpl implements DepthService {
         }
     }
 
-    private Map<BigDecimal, BigDecimal> parseOrderList(List<List<BigDecimal>> orders) {
-        return orders.stream()
-                .collect(Collectors.toMap(
-                        o -> o.get(0),
-                        o -> o.get(1),
-                        (oldV, newV) -> newV
-                ));
-    }
-
+    /** Стакан есть и синхронизирован */
     @Override
     public boolean hasOrderBook(String symbol) {
-        return orderBooks.containsKey(symbol.toUpperCase());
+        DepthBookSync sync = orderBooks.get(symbol.toUpperCase());
+        return sync != null && sync.isReady();
     }
 
     @Override
     public BigDecimal getNearestAskPrice(String symbol) {
         if (symbol == null) return null;
-        
-        DepthModel depthModel = getDepthModelBySymbol(symbol);
-        if (depthModel == null || depthModel.getAsks().isEmpty()) {
-            return null;
-        }
-        
-        // asks отсортированы по возрастанию, поэтому первый элемент - самая низкая цена
-        return depthModel.getAsks().firstKey();
+
+        DepthBookSnapshot snapshot = getBookSnapshot(symbol);
+        return snapshot == null ? null : snapshot.getBestAsk();
     }
 
     @Override
     public BigDecimal getNearestBidPrice(String symbol) {
         if (symbol == null) return null;
-        
-        DepthModel depthModel = getDepthModelBySymbol(symbol);
-        if (depthModel == null || depthModel.getBids().isEmpty()) {
-            return null;
-        }
-        
-        // bids отсортированы по убыванию, поэтому первый элемент - самая высокая цена
-        return depthModel.getBids().firstKey();
+
+        DepthBookSnapshot snapshot = getBookSnapshot(symbol);
+        return snapshot == null ? null : snapshot.getBestBid();
     }
 
+    /** Цена ask на {@code levels} уровней выше лучшей (уровень = занятая цена, не тик). */
     @Override
     public BigDecimal getAskPriceAbove(String symbol, int levels) {
         if (symbol == null || levels <= 0) return null;
-        
-        DepthModel depthModel = getDepthModelBySymbol(symbol);
-        if (depthModel == null || depthModel.getAsks().isEmpty()) {
-            return null;
-        }
-        
-        // asks отсортированы по возрастанию
-        // Получаем итератор и проходим на levels позиций вперед
-        var iterator = depthModel.getAsks().keySet().iterator();
-        
-        // Пропускаем первые levels позиций
-        for (int i = 0; i < levels && iterator.hasNext(); i++) {
-            iterator.next();
+
+        if (levels >= DepthBookSync.SNAPSHOT_LEVELS) {
+            // глубже среза — только живой стакан
+            DepthModel depthModel = getDepthModelBySymbol(symbol);
+            return depthModel == null ? null : depthModel.askPrice(levels);
         }
-        
-        // Возвращаем цену на levels позиций выше, если она существует
-        return iterator.hasNext() ? iterator.next() : null;
+        DepthBookSnapshot snapshot = getBookSnapshot(symbol);
+        return snapshot == null ? null : snapshot.askPrice(levels);
     }
 
+    /** Цена bid на {@code levels} уровней ниже лучшей. */
     @Override
     public BigDecimal getBidPriceBelow(String symbol, int levels) {
         if (symbol == null || levels <= 0) return null;
-        
-        DepthModel depthModel = getDepthModelBySymbol(symbol);
-        if (depthModel == null || depthModel.getBids().isEmpty()) {
-            return null;
-        }
-        
-        // bids отсортированы по убыванию
-        // Получаем итератор и проходим на levels позиций вперед
-        var iterator = depthModel.getBids().keySet().iterator();
-        
-        // Пропускаем первые levels позиций
-        for (int i = 0; i < levels && iterator.hasNext(); i++) {
-            iterator.next();
+
+        if (levels >= DepthBookSync.SNAPSHOT_LEVELS) {
+            DepthModel depthModel = getDepthModelBySymbol(symbol);
+            return depthModel == null ? null : depthModel.bidPrice(levels);
         }
-        
-        // Возвращаем цену на levels позиций ниже, если она существует
-        return iterator.hasNext() ? iterator.next() : null;
+        DepthBookSnapshot snapshot = getBookSnapshot(symbol);
+        return snapshot == null ? null : snapshot.bidPrice(levels);
     }
-}
\ No newline at end of file
+}
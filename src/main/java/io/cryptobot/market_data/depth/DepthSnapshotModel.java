@@ -12,6 +12,9 @@ public class DepthSnapshotModel {
     @JsonProperty("lastUpdateId")
     private long lastUpdateId; // ID последнего обновления книги ордеров
 
+    @JsonProperty("E")
+    private long eventTime; // Время формирования ответа (UTC в миллисекундах)
+
     @JsonProperty("bids")
     private List<List<BigDecimal>> bids; // Лист цен покупки (bid price, quantity)
 
@@ -17,6 +17,7 @@ public class DepthUpdateModel {
     private String symbol; // Символ (например, "BTCUSDT")
     private long firstUpdateId; // ID первого обновления
     private long finalUpdateId; // ID последнего обновления
+    private long prevFinalUpdateId; // pu — u предыдущего события (0, если не пришло)
     private List<List<BigDecimal>> bids; // Лист цен покупки (bid price, quantity)
     private List<List<BigDecimal>> asks; // Лист цен продажи (ask price, quantity)
 }
@@ -0,0 +1,202 @@
+package io.cryptobot.market_data.depth;
+
+import java.util.Arrays;
+
+/**
+ * Одна сторона стакана на примитивах: количество по индексу цены в тиках.
+ * <p>
+ * Ключ — long, «лучший» уровень всегда минимальный ключ (для asks ключ = тик, для bids = -тик).
+ * Хранится окно из {@code capacity} подряд идущих ключей в кольцевом массиве, плюс битовая карта
+ * занятых уровней — поиск следующего уровня пропускает пустые тики по 64 за шаг.
+ * <ul>
+ *     <li>лучший уровень — O(1) (поле);</li>
+ *     <li>установка/удаление уровня по цене — O(1), без аллокаций;</li>
+ *     <li>уровни хуже окна отбрасываются (как раньше обрезка до MAX_LEVELS).</li>
+ * </ul>
+ * Не потокобезопасен: пишет один поток (консьюмер шарда), читателям отдаются снапшоты.
+ */
+final class PriceLadder {
+    static final long EMPTY = Long.MAX_VALUE;
+
+    private final int capacity;
+    private final int mask;
+    private final double[] qty;
+    private final long[] occupied;
+
+    /** Минимальный ключ окна (включительно); окно — [base, base + capacity). */
+    private long base;
+    private long best = EMPTY;
+    private int levels;
+
+    PriceLadder(int capacity) {
+        if (Integer.bitCount(capacity) != 1 || capacity < 64) {
+            throw new IllegalArgumentException("capacity must be a power of two >= 64: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.qty = new double[capacity];
+        this.occupied = new long[capacity >>> 6];
+    }
+
+    long best() {
+        return best;
+    }
+
+    int levels() {
+        return levels;
+    }
+
+    boolean isEmpty() {
+        return levels == 0;
+    }
+
+    void clear() {
+        Arrays.fill(qty, 0.0);
+        Arrays.fill(occupied, 0L);
+        best = EMPTY;
+        levels = 0;
+    }
+
+    /** qty <= 0 — удалить уровень. */
+    void set(long key, double q) {
+        if (q <= 0.0 || Double.isNaN(q)) {
+            remove(key);
+            return;
+        }
+        if (levels == 0) {
+            // окно с запасом на рост цены в лучшую сторону
+            base = key - (capacity >>> 3);
+        } else if (key < base) {
+            shiftDown(key - (capacity >>> 3));
+        } else if (key >= base + capacity) {
+            if (best - base <= (capacity >>> 2)) return; // глубже окна — не храним
+            shiftUp(best - (capacity >>> 3));
+            if (key >= base + capacity) return;
+        }
+        int slot = (int) (key & mask);
+        long bit = 1L << slot;
+        int w = slot >>> 6;
+        if ((occupied[w] & bit) == 0) {
+            occupied[w] |= bit;
+            levels++;
+        }
+        qty[slot] = q;
+        if (key < best) best = key;
+    }
+
+    void remove(long key) {
+        if (levels == 0 || key < base || key >= base + capacity) return;
+        int slot = (int) (key & mask);
+        long bit = 1L << slot;
+        int w = slot >>> 6;
+        if ((occupied[w] & bit) == 0) return;
+        occupied[w] &= ~bit;
+        qty[slot] = 0.0;
+        levels--;
+        if (key == best) {
+            best = levels == 0 ? EMPTY : nextOccupied(key + 1);
+        }
+    }
+
+    double qty(long key) {
+        if (levels == 0 || key < base || key >= base + capacity) return 0.0;
+        return qty[(int) (key & mask)];
+    }
+
+    /** Ключ n-го уровня от лучшего (0 — лучший) или {@link #EMPTY}. */
+    long levelKey(int n) {
+        if (n < 0 || n >= levels) return EMPTY;
+        long k = best;
+        for (int i = 0; i < n && k != EMPTY; i++) {
+            k = nextOccupied(k + 1);
+        }
+        return k;
+    }
+
+    /** Сумма количеств первых {@code n} уровней. */
+    double sumTop(int n) {
+        double sum = 0.0;
+        long k = best;
+        for (int i = 0; i < n && k != EMPTY; i++) {
+            sum += qty[(int) (k & mask)];
+            k = nextOccupied(k + 1);
+        }
+        return sum;
+    }
+
+    /**
+     * Скопировать первые {@code n} уровней в массивы; возвращает число скопированных.
+     */
+    int copyTop(int n, long[] keys, double[] quantities) {
+        int i = 0;
+        long k = best;
+        while (i < n && k != EMPTY) {
+            keys[i] = k;
+            quantities[i] = qty[(int) (k & mask)];
+            i++;
+            k = nextOccupied(k + 1);
+        }
+        return i;
+    }
+
+    /**
+     * Упаковать первые {@code n} уровней парами (ключ, doubleToRawLongBits(qty)) в {@code dst} с позиции {@code off}.
+     */
+    int packTop(int n, long[] dst, int off) {
+        int i = 0;
+        long k = best;
+        while (i < n && k != EMPTY) {
+            dst[off++] = k;
+            dst[off++] = Double.doubleToRawLongBits(qty[(int) (k & mask)]);
+            i++;
+            k = nextOccupied(k + 1);
+        }
+        return i;
+    }
+
+    /** Наименьший занятый ключ >= from в пределах окна. */
+    long nextOccupied(long from) {
+        long end = base + capacity;
+        long k = Math.max(from, base);
+        while (k < end) {
+            int slot = (int) (k & mask);
+            int bit = slot & 63;
+            long word = occupied[slot >>> 6] >>> bit;
+            if (word != 0) {
+                long candidate = k + Long.numberOfTrailingZeros(word);
+                return candidate < end ? candidate : EMPTY;
+            }
+            k += 64 - bit;
+        }
+        return EMPTY;
+    }
+
+    /** Сдвинуть окно вниз: уровни, выпадающие с худшего края, отбрасываются. */
+    private void shiftDown(long newBase) {
+        long delta = base - newBase;
+        if (delta >= capacity) {
+            clear();
+        } else {
+            // ключи [newBase + capacity, base + capacity) делят слоты с новыми [newBase, base)
+            for (long k = newBase + capacity; k < base + capacity; k++) {
+                int slot = (int) (k & mask);
+                long bit = 1L << slot;
+                int w = slot >>> 6;
+                if ((occupied[w] & bit) != 0) {
+                    occupied[w] &= ~bit;
+                    qty[slot] = 0.0;
+                    levels--;
+                }
+            }
+        }
+        base = newBase;
+        if (levels == 0) best = EMPTY;
+    }
+
+    /** Сдвинуть окно вверх; ниже best занятых уровней нет, очищать нечего. */
+    private void shiftUp(long newBase) {
+        if (newBase > base && newBase <= best) {
+            base = newBase;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package io.cryptobot.market_data.klines;
+
+import io.cryptobot.market_data.klines.enums.IntervalE;
+import io.cryptobot.market_data.klines.mapper.KlineMapper;
+import io.cryptobot.market_data.klines.model.KlineModel;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Кольцевой буфер свечей одной пары (symbol, interval). Слот свечи — её номер
+ * {@code openTime / intervalMillis} по маске ёмкости, поэтому вставка, поиск повтора
+ * и вставка «из прошлого» (REST-догрузка после WS) стоят O(1) без сдвигов.
+ * <p>
+ * Видимы свечи с номером в (newest - maxKlines, newest]; всё старше выпадает само, когда
+ * newest уходит вперёд, — слот считается занятым, только если в нём лежит его собственный номер.
+ * Пишет один поток за раз (монитор), читатели не блокируются: состояние читается под seqlock-версией,
+ * а неизменяемый список-снимок собирается лениво, один раз на версию.
+ */
+public final class KlineRing {
+    /** Месяц короче всего 28 дней: соседние месяцы гарантированно попадают в разные номера. */
+    private static final long MONTH_SLOT_MS = 28L * 86_400_000L;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final long intervalMs;
+    private final int maxKlines;
+    private final int mask;
+    private final long[] index;
+    private final KlineModel[] klines;
+
+    /** Чётная — буфер согласован, нечётная — писатель его меняет. */
+    private volatile long version;
+    private long newest = NONE;
+
+    private volatile Snapshot snapshot = new Snapshot(0L, Collections.emptyList());
+
+    private record Snapshot(long version, List<KlineModel> klines) {}
+
+    /**
+     * @param maxKlines глубина истории в интервалах
+     */
+    public KlineRing(IntervalE interval, int maxKlines) {
+        this.intervalMs = slotMillis(interval);
+        this.maxKlines = maxKlines;
+        int cap = Integer.highestOneBit(Math.max(2, maxKlines) * 2 - 1);
+        this.mask = cap - 1;
+        this.index = new long[cap];
+        this.klines = new KlineModel[cap];
+        Arrays.fill(index, NONE);
+    }
+
+    static long slotMillis(IntervalE interval) {
+        return switch (interval) {
+            case THREE_DAYS -> 3L * 86_400_000L;
+            case ONE_MONTH -> MONTH_SLOT_MS;
+            default -> KlineMapper.convertIntervalToMillis(interval.getValue());
+        };
+    }
+
+    /**
+     * Положить свечу. Свеча с уже известным openTime заменяет прежнюю, только если в ней не меньше
+     * сделок (закрытая WS-свеча вытесняет незакрытую из REST, но не наоборот).
+     *
+     * @return false, если свеча старше окна или устарела относительно уже сохранённой
+     */
+    public synchronized boolean put(KlineModel kline) {
+        long n = Math.floorDiv(kline.getOpenTime(), intervalMs);
+        if (newest != NONE && n <= newest - maxKlines) return false;
+        int slot = (int) (n & mask);
+        if (index[slot] == n && klines[slot].getNumberOfTrades() > kline.getNumberOfTrades()) return false;
+
+        version++;
+        VarHandle.storeStoreFence();
+        index[slot] = n;
+        klines[slot] = kline;
+        if (newest == NONE || n > newest) newest = n;
+        version++; // volatile-запись публикует слот
+        return true;
+    }
+
+    /** Самая новая свеча или null. O(1). */
+    public KlineModel latest() {
+        while (true) {
+            long v = version;
+            if ((v & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long n = newest;
+            KlineModel k = n == NONE ? null : klines[(int) (n & mask)];
+            VarHandle.acquireFence();
+            if (version == v) return k;
+        }
+    }
+
+    /** Неизменяемый снимок видимых свечей по возрастанию openTime. */
+    public List<KlineModel> snapshot() {
+        Snapshot s = snapshot;
+        long v = version;
+        if (s.version() == v && (v & 1) == 0) return s.klines();
+        while (true) {
+            v = version;
+            if ((v & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            KlineModel[] out = collect();
+            VarHandle.acquireFence();
+            if (version != v) continue;
+            List<KlineModel> list = Collections.unmodifiableList(Arrays.asList(out));
+            snapshot = new Snapshot(v, list); // гонка двух читателей безвредна — снимки одинаковые
+            return list;
+        }
+    }
+
+    private KlineModel[] collect() {
+        long n = newest;
+        if (n == NONE) return new KlineModel[0];
+        KlineModel[] buf = new KlineModel[maxKlines];
+        int size = 0;
+        for (long i = n - maxKlines + 1; i <= n; i++) {
+            int slot = (int) (i & mask);
+            if (index[slot] == i) buf[size++] = klines[slot];
+        }
+        return size == buf.length ? buf : Arrays.copyOf(buf, size);
+    }
+
+    public int size() {
+        return snapshot().size();
+    }
+}
@@ -1,6 +1,7 @@
 package io.cryptobot.market_data.klines.service;
 
 
+import io.cryptobot.calculator.IndicatorValues;
 import io.cryptobot.market_data.klines.enums.IntervalE;
 import io.cryptobot.market_data.klines.model.KlineModel;
 
@@ -8,10 +9,15 @@ import java.util.List;
 
 public interface KlineService {
 
-    void checkIndicators();
+    /** Обновить индикаторы серии свечой, только что сохранённой через {@link #addKline}. */
+    void checkIndicators(KlineModel kline);
+
+    /** Индикаторы серии на последней закрытой свече; {@link IndicatorValues#EMPTY}, если серии нет. */
+    IndicatorValues getIndicators(String symbol, IntervalE interval);
 
     void addKline(KlineModel kline);
 
+    /** Неизменяемый снимок свечей по возрастанию openTime. */
     List<KlineModel> getKlines(String symbol, IntervalE interval);
 
 //    KlinesMSM buildKlineMSM(String symbol);
@@ -1,7 +1,10 @@
 package io.cryptobot.market_data.klines.service;
 
 import io.cryptobot.binance.BinanceService;
+import io.cryptobot.calculator.IndicatorEngine;
+import io.cryptobot.calculator.IndicatorValues;
 import io.cryptobot.helpers.MainHelper;
+import io.cryptobot.market_data.klines.KlineRing;
 import io.cryptobot.market_data.klines.enums.IntervalE;
 import io.cryptobot.market_data.klines.model.KlineModel;
 import jakarta.annotation.PostConstruct;
@@ -17,9 +20,11 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 @RequiredArgsConstructor
 public class KlineServiceImpl implements KlineService {
+    private static final int MAX_KLINES = 200;
+
     private final BinanceService binanceService;
-    // Map<Symbol, Map<Interval, List<KlineModel>>>
-    private final Map<String, Map<IntervalE, List<KlineModel>>> klines = new ConcurrentHashMap<>();
+    // Map<Symbol, Map<Interval, KlineSeries>>
+    private final Map<String, Map<IntervalE, KlineSeries>> klines = new ConcurrentHashMap<>();
     private final MainHelper mainHelper;
 
     @Value("${api.key}")
@@ -28,60 +33,49 @@ public class KlineServiceImpl implements KlineService {
     @Value("${secret.key}")
     private String secretKey;
 
+    /** Свечи серии и индикаторы, которые обновляются на их закрытии. */
+    private record KlineSeries(KlineRing ring, IndicatorEngine indicators) {}
+
     @Override
-    public void checkIndicators() {
+    public void checkIndicators(KlineModel kline) {
+        KlineSeries series = series(kline.getSymbol(), kline.getInterval());
+        if (series == null) return;
+        if (!series.indicators().update(kline)) {
+            // свеча из прошлого (догрузка) или замена последней — пересчитываем по окну буфера
+            series.indicators().rebuild(series.ring().snapshot());
+        }
+    }
 
+    @Override
+    public IndicatorValues getIndicators(String symbol, IntervalE interval) {
+        KlineSeries series = series(symbol, interval);
+        return series == null ? IndicatorValues.EMPTY : series.indicators().values();
     }
 
     @Override
     public void addKline(KlineModel kline) {
-        String symbol = kline.getSymbol();
-        IntervalE intervalEnum = kline.getInterval();
-
-        List<KlineModel> klineList = klines.computeIfAbsent(symbol, k -> new ConcurrentHashMap<>())
-                .computeIfAbsent(intervalEnum, k -> Collections.synchronizedList(new ArrayList<>()));
-
-        synchronized (klineList) {
-            // Check if kline with same openTime already exists
-            boolean exists = klineList.stream()
-                    .anyMatch(existingKline -> existingKline.getOpenTime() == kline.getOpenTime());
-            if (exists) {
-                return;
-            }
-            
-            // Find the correct position to insert the kline to maintain chronological order
-            int insertIndex = 0;
-            for (int i = 0; i < klineList.size(); i++) {
-                if (kline.getOpenTime() > klineList.get(i).getOpenTime()) {
-                    insertIndex = i + 1;
-                } else {
-                    break;
-                }
-            }
-            
-            // Insert at the correct position
-            klineList.add(insertIndex, kline);
-            
-            // Maintain maximum size
-            if (klineList.size() > 200) {
-                klineList.remove(0);
-            }
+        KlineSeries series = klines.computeIfAbsent(kline.getSymbol(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(kline.getInterval(), i -> new KlineSeries(new KlineRing(i, MAX_KLINES), new IndicatorEngine()));
+        if (series.ring().put(kline)) {
+            checkIndicators(kline);
         }
     }
 
     @Override
     public List<KlineModel> getKlines(String symbol, IntervalE interval) {
-        return klines.getOrDefault(symbol, Collections.emptyMap())
-                .getOrDefault(interval, Collections.emptyList());
+        KlineSeries series = series(symbol, interval);
+        return series == null ? Collections.emptyList() : series.ring().snapshot();
     }
 
     @Override
     public KlineModel getLatestKline(String symbol, IntervalE interval) {
-        List<KlineModel> klineList = getKlines(symbol, interval);
-        if (!klineList.isEmpty()) {
-            return klineList.get(klineList.size() - 1);
-        }
-        return null;
+        KlineSeries series = series(symbol, interval);
+        return series == null ? null : series.ring().latest();
+    }
+
+    private KlineSeries series(String symbol, IntervalE interval) {
+        Map<IntervalE, KlineSeries> byInterval = klines.get(symbol);
+        return byInterval == null ? null : byInterval.get(interval);
     }
 
     @Override
@@ -104,7 +98,7 @@ public class KlineServiceImpl implements KlineService {
 
         symbols.forEach(symbol -> {
             intervals.forEach(interval -> {
-                List<KlineModel> initialKlines = binanceService.getKlines(symbol, interval, 200);
+                List<KlineModel> initialKlines = binanceService.getKlines(symbol, interval, MAX_KLINES);
                 initialKlines.forEach(this::addKline);
             });
         });
@@ -117,7 +111,7 @@ public class KlineServiceImpl implements KlineService {
                 IntervalE.FIVE_MINUTES
         );
         intervals.forEach(interval -> {
-            List<KlineModel> initialKlines = binanceService.getKlines(coin, interval, 200);
+            List<KlineModel> initialKlines = binanceService.getKlines(coin, interval, MAX_KLINES);
             initialKlines.forEach(this::addKline);
         });
     }
@@ -0,0 +1,29 @@
+package io.cryptobot.market_data.price;
+
+import java.math.BigDecimal;
+
+/**
+ * Быстрый источник текущей цены: bookTicker (лучшие bid/ask), aggTrade (последняя сделка) и markPrice@1s
+ * вместо 24hrTicker, который приходит раз в секунду.
+ */
+public interface PriceFeed {
+
+    void onBookTicker(String symbol, long updateId, long time, double bid, double bidQty, double ask, double askQty);
+
+    void onTrade(String symbol, long tradeTime, double price);
+
+    void onMarkPrice(String symbol, long time, double markPrice);
+
+    /** Цена для мониторинга и ордеров; пока фид пуст — цена из 24h тикера, null — если нет и её. */
+    BigDecimal getPrice(String symbol);
+
+    /** То же без аллокаций; NaN, если цены нет. */
+    double price(String symbol);
+
+    /** @return null, если по символу ещё не было обновлений */
+    PriceQuote getQuote(String symbol);
+
+    void addListener(PriceListener listener);
+
+    void removeListener(PriceListener listener);
+}
@@ -0,0 +1,99 @@
+package io.cryptobot.market_data.price;
+
+import io.cryptobot.market_data.ticker24h.Ticker24hService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PriceFeedImpl implements PriceFeed {
+    private final ConcurrentHashMap<String, SymbolPrice> prices = new ConcurrentHashMap<>();
+    private final List<PriceListener> listeners = new CopyOnWriteArrayList<>();
+    private final Ticker24hService ticker24hService;
+
+    @Override
+    public void onBookTicker(String symbol, long updateId, long time, double bid, double bidQty, double ask, double askQty) {
+        if (Double.isNaN(bid) || Double.isNaN(ask)) return;
+        SymbolPrice sp = of(symbol);
+        double before = sp.price();
+        if (sp.onBook(updateId, time, bid, bidQty, ask, askQty)) {
+            notifyIfMoved(sp, before);
+        }
+    }
+
+    @Override
+    public void onTrade(String symbol, long tradeTime, double price) {
+        if (Double.isNaN(price)) return;
+        SymbolPrice sp = of(symbol);
+        double before = sp.price();
+        sp.onTrade(tradeTime, price);
+        notifyIfMoved(sp, before);
+    }
+
+    @Override
+    public void onMarkPrice(String symbol, long time, double markPrice) {
+        if (Double.isNaN(markPrice)) return;
+        of(symbol).onMark(time, markPrice);
+    }
+
+    @Override
+    public BigDecimal getPrice(String symbol) {
+        double p = price(symbol);
+        if (!Double.isNaN(p)) return BigDecimal.valueOf(p);
+        return symbol == null ? null : ticker24hService.getPrice(symbol);
+    }
+
+    @Override
+    public double price(String symbol) {
+        SymbolPrice sp = find(symbol);
+        return sp == null ? Double.NaN : sp.price();
+    }
+
+    @Override
+    public PriceQuote getQuote(String symbol) {
+        SymbolPrice sp = find(symbol);
+        return sp == null ? null : sp.quote();
+    }
+
+    @Override
+    public void addListener(PriceListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(PriceListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Подписчиков будим только если цена сдвинулась: изменения одних объёмов в стакане их не касаются. */
+    private void notifyIfMoved(SymbolPrice sp, double before) {
+        if (listeners.isEmpty()) return;
+        double after = sp.price();
+        if (Double.isNaN(after) || after == before) return;
+        for (PriceListener l : listeners) {
+            try {
+                l.onPrice(sp.symbol(), after);
+            } catch (Exception e) {
+                log.error("❌ price listener error {}: {}", sp.symbol(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private SymbolPrice of(String symbol) {
+        SymbolPrice sp = prices.get(symbol);
+        return sp != null ? sp : prices.computeIfAbsent(symbol.toUpperCase(), SymbolPrice::new);
+    }
+
+    private SymbolPrice find(String symbol) {
+        if (symbol == null) return null;
+        SymbolPrice sp = prices.get(symbol);
+        return sp != null ? sp : prices.get(symbol.toUpperCase());
+    }
+}
@@ -0,0 +1,10 @@
+package io.cryptobot.market_data.price;
+
+/**
+ * Подписчик на изменение цены символа. Вызывается в потоке шарда диспетчера на каждом обновлении,
+ * которое сдвинуло {@link SymbolPrice#price()}, поэтому обязан быть быстрым и неблокирующим.
+ */
+@FunctionalInterface
+public interface PriceListener {
+    void onPrice(String symbol, double price);
+}
@@ -0,0 +1,23 @@
+package io.cryptobot.market_data.price;
+
+/**
+ * Срез цен символа. Отсутствующие цены — NaN, время — биржевое (мс), 0 — обновлений ещё не было.
+ *
+ * @param bookTime  время транзакции последнего bookTicker
+ * @param lastTrade цена последней сделки aggTrade
+ * @param price     цена для мониторинга, см. {@link SymbolPrice#price()}
+ */
+public record PriceQuote(String symbol,
+                         double bid, double bidQty, double ask, double askQty, long bookTime,
+                         double lastTrade, long tradeTime,
+                         double mark, long markTime,
+                         double price) {
+
+    public double mid() {
+        return (bid + ask) / 2.0;
+    }
+
+    public double spread() {
+        return ask - bid;
+    }
+}
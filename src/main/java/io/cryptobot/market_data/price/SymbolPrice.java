@@ -0,0 +1,103 @@
+package io.cryptobot.market_data.price;
+
+/**
+ * Текущие цены одного символа в volatile-примитивах: лучшие bid/ask из bookTicker, цена последней сделки
+ * из aggTrade и mark price. Пишет поток шарда диспетчера (все события символа — в одном потоке),
+ * читатели не блокируются. Пара bid/ask меняется под seqlock-версией, чтобы {@link #quote()} не видел
+ * bid от одного обновления и ask от другого.
+ */
+public final class SymbolPrice {
+    private final String symbol;
+
+    /** Чётная — bid/ask согласованы, нечётная — писатель их меняет. */
+    private volatile long version;
+    private volatile long bookUpdateId;
+    private volatile long bookTime;
+    private volatile double bid = Double.NaN;
+    private volatile double bidQty;
+    private volatile double ask = Double.NaN;
+    private volatile double askQty;
+
+    private volatile long tradeTime;
+    private volatile double lastTrade = Double.NaN;
+
+    private volatile long markTime;
+    private volatile double mark = Double.NaN;
+
+    SymbolPrice(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /** @return false, если обновление старее уже применённого (повтор после переподключения) */
+    boolean onBook(long updateId, long time, double bidPrice, double bidQuantity, double askPrice, double askQuantity) {
+        if (updateId <= bookUpdateId) return false;
+        long v = version;
+        version = v + 1;
+        bid = bidPrice;
+        bidQty = bidQuantity;
+        ask = askPrice;
+        askQty = askQuantity;
+        bookTime = time;
+        bookUpdateId = updateId;
+        version = v + 2;
+        return true;
+    }
+
+    void onTrade(long time, double price) {
+        if (time < tradeTime) return;
+        lastTrade = price;
+        tradeTime = time;
+    }
+
+    void onMark(long time, double price) {
+        if (time < markTime) return;
+        mark = price;
+        markTime = time;
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    public double bestBid() {
+        return bid;
+    }
+
+    public double bestAsk() {
+        return ask;
+    }
+
+    public double markPrice() {
+        return mark;
+    }
+
+    /**
+     * Цена для мониторинга: последняя сделка, а если стакан обновился позже и сделка уже вне спреда —
+     * ближайшая сторона стакана (рынок ушёл, а новой сделки ещё не было). Без сделок — середина спреда,
+     * без стакана — mark price. NaN, если данных нет.
+     */
+    public double price() {
+        double b = bid, a = ask, last = lastTrade;
+        if (Double.isNaN(last)) {
+            if (!Double.isNaN(b) && !Double.isNaN(a)) return (b + a) / 2.0;
+            return mark;
+        }
+        if (Double.isNaN(b) || Double.isNaN(a) || bookTime <= tradeTime) return last;
+        return Math.min(Math.max(last, b), a);
+    }
+
+    /** Согласованный срез всех цен символа. */
+    public PriceQuote quote() {
+        while (true) {
+            long v = version;
+            if ((v & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            double b = bid, bq = bidQty, a = ask, aq = askQty;
+            long bt = bookTime;
+            if (version != v) continue;
+            return new PriceQuote(symbol, b, bq, a, aq, bt, lastTrade, tradeTime, mark, markTime, price());
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package io.cryptobot.utils.lock.many;
 
+import io.cryptobot.configs.executor.BlockingExecutors;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -22,7 +24,8 @@ public class ParallelExecutor {
      *
      * @param items          исходный список
      * @param chunkSize      размер чанка
-     * @param threadCount    число потоков в пуле
+     * @param threadCount    сколько чанков обрабатывается одновременно: размер пула платформенных потоков,
+     *                       с виртуальными потоками (поток на чанк) — число разрешений семафора
      * @param lockProvider   функция, дающая для каждого элемента ReentrantLock
      * @param chunkProcessor действие, принимающее весь чанк (например, обновить + сохранить)
      */
@@ -39,21 +42,29 @@ public class ParallelExecutor {
         List<List<T>> chunks = chunkList(items, chunkSize);
 
         // 2) создаём пул
-        ExecutorService exec = Executors.newFixedThreadPool(threadCount);
+        ExecutorService exec = BlockingExecutors.newExecutor("parallel", threadCount);
+        // тот же предел нагрузки на Mongo/REST, что у фиксированного пула
+        Semaphore permits = new Semaphore(Math.max(1, threadCount));
         List<Future<?>> futures = new ArrayList<>();
         try {
             for (List<T> chunk : chunks) {
                 futures.add(exec.submit(() -> {
-                    List<ReentrantLock> locks = chunk.stream()
-                            .map(lockProvider)
-                            .toList();
-                    locks.forEach(ReentrantLock::lock);
-
+                    permits.acquire();
                     try {
-                        chunkProcessor.accept(chunk);
+                        List<ReentrantLock> locks = chunk.stream()
+                                .map(lockProvider)
+                                .toList();
+                        locks.forEach(ReentrantLock::lock);
+
+                        try {
+                            chunkProcessor.accept(chunk);
+                        } finally {
+                            locks.forEach(ReentrantLock::unlock);
+                        }
                     } finally {
-                        locks.forEach(ReentrantLock::unlock);
+                        permits.release();
                     }
+                    return null;
                 }));
             }
 
@@ -5,10 +5,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.binance.connector.futures.client.WebsocketClient;
 import com.binance.connector.futures.client.impl.UMWebsocketClientImpl;
 import com.binance.connector.futures.client.utils.WebSocketCallback;
-import io.cryptobot.binance.order.mapper.OrderMapper;
+import io.cryptobot.binance.order.fill.OrderFillRegistry;
 import io.cryptobot.binance.order.model.Order;
 import io.cryptobot.binance.order.service.OrderService;
 import io.cryptobot.configs.service.AppConfig;
+import io.cryptobot.websocket.decoder.WsEventDecoder;
+import io.cryptobot.websocket.decoder.event.OrderUpdateEvent;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -41,6 +43,7 @@ public class BinanceFuturesUserDataStreamService {
     private final HttpClient httpClient = HttpClient.newHttpClient();
 
     private final OrderService orderService;
+    private final OrderFillRegistry fillRegistry;
 
     public void start() {
         wsExecutor.submit(this::init);
@@ -119,12 +122,10 @@ public class BinanceFuturesUserDataStreamService {
             public void onReceive(String data) {
                 lastReceiveTime.set(System.currentTimeMillis());
                 try {
-                    JsonNode jsonNode = objectMapper.readTree(data);
-                    String eventType = jsonNode.path("e").asText();
-
-                    switch (eventType) {
-                        case "ACCOUNT_UPDATE" -> handleAccountUpdate(jsonNode);
-                        case "ORDER_TRADE_UPDATE" -> handleOrderTradeUpdate(jsonNode);
+                    WsEventDecoder decoder = WsEventDecoder.forCurrentThread();
+                    switch (decoder.decode(data)) {
+                        case ACCOUNT_UPDATE -> handleAccountUpdate();
+                        case ORDER_TRADE_UPDATE -> handleOrderTradeUpdate(decoder.orderUpdate());
                         default -> log.debug("UserDataStream unknown event: {}", data);
                     }
                 } catch (Exception e) {
@@ -144,17 +145,17 @@ public class BinanceFuturesUserDataStreamService {
         connectUserStream();
     }
 
-    private void handleAccountUpdate(JsonNode node) {
-        JsonNode a = node.path("a");
-//        log.info("ACCOUNT_UPDATE received: {}", a.toString());
+    private void handleAccountUpdate() {
+//        log.info("ACCOUNT_UPDATE received");
     }
 
-    private void handleOrderTradeUpdate(JsonNode node) {
-        JsonNode o = node.path("o");
-        Order update = OrderMapper.fromWS(o);
+    private void handleOrderTradeUpdate(OrderUpdateEvent event) {
+        Order update = event.getOrder();
         if (update != null) {
 //            log.info("ORDER_TRADE_UPDATE: {}", update);
             orderService.updateOrder(update);
+            // после сохранения: ожидающие исполнения читают ордер из БД
+            fillRegistry.onOrderUpdate(update);
         }
     }
 
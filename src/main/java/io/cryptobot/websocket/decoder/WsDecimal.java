@@ -0,0 +1,119 @@
+package io.cryptobot.websocket.decoder;
+
+import java.math.BigDecimal;
+
+/**
+ * Переиспользуемое десятичное значение из WS-кадра: unscaled long + scale.
+ * Разбирается прямо из буфера парсера без промежуточных String/BigDecimal,
+ * BigDecimal создаётся только по запросу.
+ */
+public final class WsDecimal {
+    private static final int MAX_DIGITS = 18;
+    private static final double[] POW10 = new double[MAX_DIGITS + 1];
+
+    static {
+        double p = 1.0;
+        for (int i = 0; i <= MAX_DIGITS; i++) {
+            POW10[i] = p;
+            p *= 10.0;
+        }
+    }
+
+    private long unscaled;
+    private int scale;
+    private boolean present;
+    /** Запасной вариант для значений, которые не помещаются в long. */
+    private BigDecimal overflow;
+
+    public void clear() {
+        unscaled = 0L;
+        scale = 0;
+        present = false;
+        overflow = null;
+    }
+
+    public void set(char[] buf, int off, int len) {
+        clear();
+        if (len <= 0) return;
+        int end = off + len;
+        int i = off;
+        boolean negative = false;
+        if (buf[i] == '-' || buf[i] == '+') {
+            negative = buf[i] == '-';
+            i++;
+        }
+        long value = 0L;
+        int digits = 0;
+        int fraction = -1;
+        for (; i < end; i++) {
+            char c = buf[i];
+            if (c == '.' && fraction < 0) {
+                fraction = 0;
+                continue;
+            }
+            if (c < '0' || c > '9' || digits >= MAX_DIGITS) {
+                // экспонента, мусор или слишком длинное число — отдаём BigDecimal
+                setSlow(buf, off, len);
+                return;
+            }
+            value = value * 10 + (c - '0');
+            digits++;
+            if (fraction >= 0) fraction++;
+        }
+        if (digits == 0) return;
+        unscaled = negative ? -value : value;
+        scale = Math.max(fraction, 0);
+        present = true;
+    }
+
+    private void setSlow(char[] buf, int off, int len) {
+        try {
+            overflow = new BigDecimal(buf, off, len);
+            present = true;
+        } catch (NumberFormatException e) {
+            overflow = null;
+            present = false;
+        }
+    }
+
+    public void copyFrom(WsDecimal other) {
+        this.unscaled = other.unscaled;
+        this.scale = other.scale;
+        this.present = other.present;
+        this.overflow = other.overflow;
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+
+    public long unscaled() {
+        return unscaled;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    public boolean isOverflow() {
+        return overflow != null;
+    }
+
+    public BigDecimal toBigDecimal() {
+        if (!present) return null;
+        if (overflow != null) return overflow;
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    public double toDouble() {
+        if (!present) return Double.NaN;
+        if (overflow != null) return overflow.doubleValue();
+        return unscaled / POW10[scale];
+    }
+
+    @Override
+    public String toString() {
+        BigDecimal v = toBigDecimal();
+        return v == null ? "null" : v.toPlainString();
+    }
+}
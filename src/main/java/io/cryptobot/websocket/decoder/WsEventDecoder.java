@@ -0,0 +1,452 @@
+package io.cryptobot.websocket.decoder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cryptobot.binance.order.mapper.OrderMapper;
+import io.cryptobot.binance.order.model.Order;
+import io.cryptobot.websocket.decoder.event.AggTradeEvent;
+import io.cryptobot.websocket.decoder.event.BookTickerEvent;
+import io.cryptobot.websocket.decoder.event.DepthUpdateEvent;
+import io.cryptobot.websocket.decoder.event.KlineEvent;
+import io.cryptobot.websocket.decoder.event.MarkPriceEvent;
+import io.cryptobot.websocket.decoder.event.OrderUpdateEvent;
+import io.cryptobot.websocket.decoder.event.TickerEvent;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Потоковый (без JsonNode-дерева) декодер WS-кадров Binance Futures.
+ * <p>
+ * Диспатчит по полю "e" и заполняет переиспользуемые объекты событий напрямую из {@link JsonParser}.
+ * Поддерживает и обёртку combined-стрима {"stream": ..., "data": {...}}.
+ * <p>
+ * Не потокобезопасен: один экземпляр на поток (см. {@link #forCurrentThread()}).
+ * Заполненное событие валидно только до следующего вызова {@link #decode(String)}.
+ */
+public final class WsEventDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ThreadLocal<WsEventDecoder> PER_THREAD = ThreadLocal.withInitial(WsEventDecoder::new);
+    private static final int SYMBOL_CACHE_SIZE = 256; // степень двойки
+
+    private final ObjectMapper fallbackMapper = new ObjectMapper();
+
+    private final KlineEvent kline = new KlineEvent();
+    private final TickerEvent ticker = new TickerEvent();
+    private final AggTradeEvent aggTrade = new AggTradeEvent();
+    private final DepthUpdateEvent depth = new DepthUpdateEvent();
+    private final BookTickerEvent bookTicker = new BookTickerEvent();
+    private final MarkPriceEvent markPrice = new MarkPriceEvent();
+    private final OrderUpdateEvent orderUpdate = new OrderUpdateEvent();
+
+    private final String[] symbolCache = new String[SYMBOL_CACHE_SIZE];
+
+    public static WsEventDecoder forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    public KlineEvent kline() {
+        return kline;
+    }
+
+    public TickerEvent ticker() {
+        return ticker;
+    }
+
+    public AggTradeEvent aggTrade() {
+        return aggTrade;
+    }
+
+    public DepthUpdateEvent depth() {
+        return depth;
+    }
+
+    public BookTickerEvent bookTicker() {
+        return bookTicker;
+    }
+
+    public MarkPriceEvent markPrice() {
+        return markPrice;
+    }
+
+    public OrderUpdateEvent orderUpdate() {
+        return orderUpdate;
+    }
+
+    /**
+     * Разобрать кадр и заполнить событие соответствующего типа.
+     *
+     * @return тип события; {@link WsEventType#UNKNOWN}, если "e" нет или тип не поддерживается
+     */
+    public WsEventType decode(String frame) throws IOException {
+        if (frame == null || frame.isEmpty()) return WsEventType.UNKNOWN;
+        try (JsonParser p = JSON_FACTORY.createParser(frame)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return WsEventType.UNKNOWN;
+            WsEventType type = decodeObject(p);
+            if (type != null) return type;
+        }
+        // "e" пришло не первым полем — редкий случай, разбираем через дерево
+        return decodeUnordered(frame);
+    }
+
+    /** @return тип события или null, если до "e" встретились другие поля */
+    private WsEventType decodeObject(JsonParser p) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            if ("e".equals(name)) {
+                WsEventType type = WsEventType.of(p.getValueAsString(null));
+                readBody(type, p);
+                return type;
+            }
+            if ("data".equals(name) && value == JsonToken.START_OBJECT) {
+                return decodeObject(p);
+            }
+            if ("stream".equals(name)) {
+                continue;
+            }
+            return null;
+        }
+        return WsEventType.UNKNOWN;
+    }
+
+    private WsEventType decodeUnordered(String frame) throws IOException {
+        JsonNode root = fallbackMapper.readTree(frame);
+        if (root == null || !root.isObject()) return WsEventType.UNKNOWN;
+        if (root.has("data") && root.get("data").isObject()) {
+            root = root.get("data");
+        }
+        WsEventType type = WsEventType.of(root.path("e").asText(null));
+        try (JsonParser p = root.traverse()) {
+            p.nextToken();
+            readBody(type, p);
+        }
+        return type;
+    }
+
+    /** Дочитать поля текущего объекта (парсер стоит на START_OBJECT или на значении поля). */
+    private void readBody(WsEventType type, JsonParser p) throws IOException {
+        switch (type) {
+            case KLINE -> readKline(p);
+            case TICKER_24H -> readTicker(p);
+            case AGG_TRADE -> readAggTrade(p);
+            case DEPTH_UPDATE -> readDepth(p);
+            case BOOK_TICKER -> readBookTicker(p);
+            case MARK_PRICE -> readMarkPrice(p);
+            case ORDER_TRADE_UPDATE -> readOrderUpdate(p);
+            default -> skipObject(p);
+        }
+    }
+
+    private void readAggTrade(JsonParser p) throws IOException {
+        AggTradeEvent ev = aggTrade;
+        ev.reset();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "E" -> ev.setEventTime(p.getValueAsLong(0));
+                case "s" -> ev.setSymbol(symbol(p));
+                case "a" -> ev.setAggregateTradeId(p.getValueAsLong(0));
+                case "p" -> decimal(p, ev.getPrice());
+                case "q" -> decimal(p, ev.getQuantity());
+                case "f" -> ev.setFirstTradeId(p.getValueAsLong(0));
+                case "l" -> ev.setLastTradeId(p.getValueAsLong(0));
+                case "T" -> ev.setTradeTime(p.getValueAsLong(0));
+                case "m" -> ev.setBuyerIsMaker(p.getValueAsBoolean(false));
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private void readDepth(JsonParser p) throws IOException {
+        DepthUpdateEvent ev = depth;
+        ev.reset();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "E" -> ev.setEventTime(p.getValueAsLong(0));
+                case "T" -> ev.setTransactionTime(p.getValueAsLong(0));
+                case "s" -> ev.setSymbol(symbol(p));
+                case "U" -> ev.setFirstUpdateId(p.getValueAsLong(0));
+                case "u" -> ev.setFinalUpdateId(p.getValueAsLong(0));
+                case "pu" -> ev.setPrevFinalUpdateId(p.getValueAsLong(0));
+                case "b" -> readLevels(p, ev.getBids());
+                case "a" -> readLevels(p, ev.getAsks());
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private void readBookTicker(JsonParser p) throws IOException {
+        BookTickerEvent ev = bookTicker;
+        ev.reset();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "u" -> ev.setUpdateId(p.getValueAsLong(0));
+                case "E" -> ev.setEventTime(p.getValueAsLong(0));
+                case "T" -> ev.setTransactionTime(p.getValueAsLong(0));
+                case "s" -> ev.setSymbol(symbol(p));
+                case "b" -> decimal(p, ev.getBidPrice());
+                case "B" -> decimal(p, ev.getBidQty());
+                case "a" -> decimal(p, ev.getAskPrice());
+                case "A" -> decimal(p, ev.getAskQty());
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private void readMarkPrice(JsonParser p) throws IOException {
+        MarkPriceEvent ev = markPrice;
+        ev.reset();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "E" -> ev.setEventTime(p.getValueAsLong(0));
+                case "s" -> ev.setSymbol(symbol(p));
+                case "p" -> decimal(p, ev.getMarkPrice());
+                case "i" -> decimal(p, ev.getIndexPrice());
+                case "r" -> decimal(p, ev.getFundingRate());
+                case "T" -> ev.setNextFundingTime(p.getValueAsLong(0));
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    /** [[price, qty], ...]; уровни короче двух элементов пропускаются, как в DepthMapper. */
+    private void readLevels(JsonParser p, WsLevels levels) throws IOException {
+        levels.clear();
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return;
+        }
+        while (p.nextToken() == JsonToken.START_ARRAY) {
+            int slot = levels.add();
+            int idx = 0;
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                if (idx == 0) decimal(p, levels.price(slot));
+                else if (idx == 1) decimal(p, levels.qty(slot));
+                else p.skipChildren();
+                idx++;
+            }
+            if (idx < 2 || !levels.price(slot).isPresent() || !levels.qty(slot).isPresent()) {
+                levels.dropLast();
+            }
+        }
+    }
+
+    private void readKline(JsonParser p) throws IOException {
+        KlineEvent ev = kline;
+        ev.reset();
+        String outerSymbol = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (name) {
+                case "E" -> ev.setEventTime(p.getValueAsLong(0));
+                case "s" -> outerSymbol = symbol(p);
+                case "k" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        ev.setHasKline(true);
+                        readKlineBody(p, ev);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+        if (ev.getSymbol() == null) ev.setSymbol(outerSymbol);
+    }
+
+    private void readKlineBody(JsonParser p, KlineEvent ev) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "t" -> ev.setOpenTime(p.getValueAsLong(0));
+                case "T" -> ev.setCloseTime(p.getValueAsLong(0));
+                case "s" -> ev.setSymbol(symbol(p));
+                case "i" -> ev.setInterval(p.getValueAsString(null));
+                case "o" -> decimal(p, ev.getOpenPrice());
+                case "c" -> decimal(p, ev.getClosePrice());
+                case "h" -> decimal(p, ev.getHighPrice());
+                case "l" -> decimal(p, ev.getLowPrice());
+                case "v" -> decimal(p, ev.getVolume());
+                case "q" -> decimal(p, ev.getQuoteAssetVolume());
+                case "V" -> decimal(p, ev.getTakerBuyBaseVolume());
+                case "Q" -> decimal(p, ev.getTakerBuyQuoteVolume());
+                case "n" -> ev.setNumberOfTrades(p.getValueAsLong(0));
+                case "x" -> ev.setClosed(p.getValueAsBoolean(false));
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private void readTicker(JsonParser p) throws IOException {
+        TickerEvent ev = ticker;
+        ev.reset();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "E" -> ev.setEventTime(p.getValueAsLong(0));
+                case "s" -> ev.setSymbol(symbol(p));
+                case "p" -> decimal(p, ev.getPriceChange());
+                case "P" -> decimal(p, ev.getPriceChangePercent());
+                case "w" -> decimal(p, ev.getWeightedAvgPrice());
+                case "c" -> decimal(p, ev.getLastPrice());
+                case "Q" -> decimal(p, ev.getLastQty());
+                case "o" -> decimal(p, ev.getOpenPrice());
+                case "h" -> decimal(p, ev.getHighPrice());
+                case "l" -> decimal(p, ev.getLowPrice());
+                case "v" -> decimal(p, ev.getVolume());
+                case "q" -> decimal(p, ev.getQuoteVolume());
+                case "O" -> ev.setOpenTime(p.getValueAsLong(0));
+                case "C" -> ev.setCloseTime(p.getValueAsLong(0));
+                case "F" -> ev.setFirstId(p.getValueAsLong(0));
+                case "L" -> ev.setLastId(p.getValueAsLong(0));
+                case "n" -> ev.setCount(p.getValueAsLong(0));
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private void readOrderUpdate(JsonParser p) throws IOException {
+        OrderUpdateEvent ev = orderUpdate;
+        ev.reset();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (name) {
+                case "E" -> ev.setEventTime(p.getValueAsLong(0));
+                case "T" -> ev.setTransactionTime(p.getValueAsLong(0));
+                case "o" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        ev.setOrder(readOrder(p));
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    /** Поля как в {@link OrderMapper#fromWS}. */
+    private Order readOrder(JsonParser p) throws IOException {
+        Order order = new Order();
+        order.setOrderId(0L);
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "s" -> order.setSymbol(symbol(p));
+                case "c" -> order.setClientOrderId(p.getValueAsString(null));
+                case "S" -> order.setSide(OrderMapper.parseOrderSide(p.getValueAsString(null)));
+                case "o" -> order.setOrderType(OrderMapper.parseOrderType(p.getValueAsString(null)));
+                case "f" -> order.setTimeInForce(p.getValueAsString(null));
+                case "q" -> order.setQuantity(bigDecimal(p));
+                case "p" -> order.setPrice(bigDecimal(p));
+                case "ap" -> order.setAveragePrice(bigDecimal(p));
+                case "sp" -> order.setStopPrice(bigDecimal(p));
+                case "x" -> order.setExecutionType(p.getValueAsString(null));
+                case "X" -> order.setOrderStatus(OrderMapper.parseOrderStatus(p.getValueAsString(null)));
+                case "i" -> order.setOrderId(p.getValueAsLong(0));
+                case "l" -> order.setLastFilledQty(bigDecimal(p));
+                case "z" -> order.setCumulativeFilledQty(bigDecimal(p));
+                case "L" -> order.setLastFilledPrice(bigDecimal(p));
+                case "n" -> order.setCommission(bigDecimal(p));
+                case "N" -> order.setCommissionAsset(p.getValueAsString(null));
+                case "T" -> order.setTradeTime(p.getValueAsLong(0));
+                case "t" -> order.setTradeId(p.getValueAsLong(0));
+                case "m" -> order.setBuyerIsMaker(p.getValueAsBoolean(false));
+                case "R" -> order.setReduceOnly(p.getValueAsBoolean(false));
+                case "wt" -> order.setWorkingType(p.getValueAsString(null));
+                case "ot" -> order.setOriginalType(p.getValueAsString(null));
+                case "ps" -> order.setPositionSide(p.getValueAsString(null));
+                case "cp" -> order.setClosePosition(p.getValueAsBoolean(false));
+                case "rp" -> order.setRealizedPnl(bigDecimal(p));
+                case "pP" -> order.setPositionPnl(p.getValueAsBoolean(false));
+                case "si" -> order.setSideEffectType(p.getValueAsInt(0));
+                case "ss" -> order.setStopStatus(p.getValueAsInt(0));
+                case "V" -> order.setOriginalResponseType(p.getValueAsString(null));
+                case "pm" -> order.setPositionMode(p.getValueAsString(null));
+                case "gtd" -> order.setGoodTillDate(p.getValueAsLong(0));
+                default -> p.skipChildren();
+            }
+        }
+        return order;
+    }
+
+    private void skipObject(JsonParser p) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            p.nextToken();
+            p.skipChildren();
+        }
+    }
+
+    private static void decimal(JsonParser p, WsDecimal target) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_STRING || t == JsonToken.VALUE_NUMBER_INT || t == JsonToken.VALUE_NUMBER_FLOAT) {
+            target.set(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        } else {
+            target.clear();
+            p.skipChildren();
+        }
+    }
+
+    /** Для редких событий (ордера), где нужен готовый BigDecimal. */
+    private static BigDecimal bigDecimal(JsonParser p) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t != JsonToken.VALUE_STRING && t != JsonToken.VALUE_NUMBER_INT && t != JsonToken.VALUE_NUMBER_FLOAT) {
+            p.skipChildren();
+            return null;
+        }
+        String text = p.getText();
+        if (text == null || text.isBlank()) return null;
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /** Символы повторяются из кадра в кадр — отдаём закэшированную строку без аллокации. */
+    private String symbol(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.VALUE_STRING) {
+            return p.getValueAsString(null);
+        }
+        char[] buf = p.getTextCharacters();
+        int off = p.getTextOffset();
+        int len = p.getTextLength();
+        int h = 0;
+        for (int i = off; i < off + len; i++) {
+            h = 31 * h + buf[i];
+        }
+        int slot = (h ^ (h >>> 16)) & (SYMBOL_CACHE_SIZE - 1);
+        String cached = symbolCache[slot];
+        if (cached != null && sameChars(cached, buf, off, len)) {
+            return cached;
+        }
+        String s = new String(buf, off, len);
+        symbolCache[slot] = s;
+        return s;
+    }
+
+    private static boolean sameChars(String s, char[] buf, int off, int len) {
+        if (s.length() != len) return false;
+        for (int i = 0; i < len; i++) {
+            if (s.charAt(i) != buf[off + i]) return false;
+        }
+        return true;
+    }
+}
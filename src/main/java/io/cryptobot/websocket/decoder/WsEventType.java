@@ -0,0 +1,31 @@
+package io.cryptobot.websocket.decoder;
+
+/**
+ * Типы событий, которые разбирает {@link WsEventDecoder} (значение поля "e").
+ */
+public enum WsEventType {
+    KLINE,
+    TICKER_24H,
+    AGG_TRADE,
+    DEPTH_UPDATE,
+    BOOK_TICKER,
+    MARK_PRICE,
+    ORDER_TRADE_UPDATE,
+    ACCOUNT_UPDATE,
+    UNKNOWN;
+
+    public static WsEventType of(String e) {
+        if (e == null) return UNKNOWN;
+        return switch (e) {
+            case "kline" -> KLINE;
+            case "24hrTicker" -> TICKER_24H;
+            case "aggTrade" -> AGG_TRADE;
+            case "depthUpdate" -> DEPTH_UPDATE;
+            case "bookTicker" -> BOOK_TICKER;
+            case "markPriceUpdate" -> MARK_PRICE;
+            case "ORDER_TRADE_UPDATE" -> ORDER_TRADE_UPDATE;
+            case "ACCOUNT_UPDATE" -> ACCOUNT_UPDATE;
+            default -> UNKNOWN;
+        };
+    }
+}
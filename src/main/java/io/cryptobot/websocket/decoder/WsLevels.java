@@ -0,0 +1,82 @@
+package io.cryptobot.websocket.decoder;
+
+import io.cryptobot.market_data.depth.DepthLevels;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Переиспользуемый буфер уровней стакана [price, qty] из depthUpdate.
+ * Массивы растут по необходимости и не пересоздаются между кадрами.
+ */
+public final class WsLevels {
+    private WsDecimal[] prices = new WsDecimal[0];
+    private WsDecimal[] quantities = new WsDecimal[0];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Слот под следующий уровень; заполняется через {@link #price(int)} / {@link #qty(int)}. */
+    int add() {
+        if (size == prices.length) grow();
+        return size++;
+    }
+
+    /** Отменить последний добавленный уровень (битый кадр). */
+    void dropLast() {
+        if (size > 0) size--;
+    }
+
+    private void grow() {
+        int newCap = Math.max(16, prices.length * 2);
+        WsDecimal[] p = new WsDecimal[newCap];
+        WsDecimal[] q = new WsDecimal[newCap];
+        System.arraycopy(prices, 0, p, 0, prices.length);
+        System.arraycopy(quantities, 0, q, 0, quantities.length);
+        for (int i = prices.length; i < newCap; i++) {
+            p[i] = new WsDecimal();
+            q[i] = new WsDecimal();
+        }
+        prices = p;
+        quantities = q;
+    }
+
+    public WsDecimal price(int i) {
+        return prices[i];
+    }
+
+    public WsDecimal qty(int i) {
+        return quantities[i];
+    }
+
+    /**
+     * Дописать уровни в {@link DepthLevels} без BigDecimal. Цены, не влезающие в long (на Binance их не бывает),
+     * пропускаются.
+     */
+    public void appendTo(DepthLevels dst) {
+        for (int i = 0; i < size; i++) {
+            WsDecimal p = prices[i];
+            if (!p.isPresent() || p.isOverflow()) continue;
+            dst.add(p.unscaled(), p.scale(), quantities[i].toDouble());
+        }
+    }
+
+    /** Совместимость со старым форматом DepthUpdateModel: список [price, qty]. */
+    public List<List<BigDecimal>> toList() {
+        List<List<BigDecimal>> levels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            List<BigDecimal> entry = new ArrayList<>(2);
+            entry.add(prices[i].toBigDecimal());
+            entry.add(quantities[i].toBigDecimal());
+            levels.add(entry);
+        }
+        return levels;
+    }
+}
@@ -0,0 +1,49 @@
+package io.cryptobot.websocket.decoder.event;
+
+import io.cryptobot.market_data.aggTrade.AggTrade;
+import io.cryptobot.websocket.decoder.WsDecimal;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Переиспользуемое событие aggTrade. Живёт до следующего decode() на том же потоке.
+ */
+@Getter
+@Setter
+public final class AggTradeEvent {
+    private String symbol;             // s
+    private long eventTime;            // E
+    private long aggregateTradeId;     // a
+    private final WsDecimal price = new WsDecimal();    // p
+    private final WsDecimal quantity = new WsDecimal(); // q
+    private long firstTradeId;         // f
+    private long lastTradeId;          // l
+    private long tradeTime;            // T
+    private boolean buyerIsMaker;      // m
+
+    public void reset() {
+        symbol = null;
+        eventTime = 0L;
+        aggregateTradeId = 0L;
+        price.clear();
+        quantity.clear();
+        firstTradeId = 0L;
+        lastTradeId = 0L;
+        tradeTime = 0L;
+        buyerIsMaker = false;
+    }
+
+    public AggTrade toAggTrade() {
+        return AggTrade.builder()
+                .symbol(symbol)
+                .eventTime(eventTime)
+                .aggregateTradeId(aggregateTradeId)
+                .price(price.toBigDecimal())
+                .quantity(quantity.toBigDecimal())
+                .firstTradeId(firstTradeId)
+                .lastTradeId(lastTradeId)
+                .tradeTime(tradeTime)
+                .buyerIsMaker(buyerIsMaker)
+                .build();
+    }
+}
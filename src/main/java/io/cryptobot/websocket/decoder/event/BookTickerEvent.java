@@ -0,0 +1,32 @@
+package io.cryptobot.websocket.decoder.event;
+
+import io.cryptobot.websocket.decoder.WsDecimal;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Переиспользуемое событие bookTicker (лучшие bid/ask). Живёт до следующего decode() на том же потоке.
+ */
+@Getter
+@Setter
+public final class BookTickerEvent {
+    private long updateId;                                  // u
+    private long eventTime;                                 // E
+    private long transactionTime;                           // T
+    private String symbol;                                  // s
+    private final WsDecimal bidPrice = new WsDecimal();     // b
+    private final WsDecimal bidQty = new WsDecimal();       // B
+    private final WsDecimal askPrice = new WsDecimal();     // a
+    private final WsDecimal askQty = new WsDecimal();       // A
+
+    public void reset() {
+        updateId = 0L;
+        eventTime = 0L;
+        transactionTime = 0L;
+        symbol = null;
+        bidPrice.clear();
+        bidQty.clear();
+        askPrice.clear();
+        askQty.clear();
+    }
+}
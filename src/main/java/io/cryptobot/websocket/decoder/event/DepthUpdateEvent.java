@@ -0,0 +1,67 @@
+package io.cryptobot.websocket.decoder.event;
+
+import io.cryptobot.market_data.depth.DepthDiff;
+import io.cryptobot.market_data.depth.DepthUpdateModel;
+import io.cryptobot.websocket.decoder.WsLevels;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Переиспользуемое событие depthUpdate. Живёт до следующего decode() на том же потоке.
+ */
+@Getter
+@Setter
+public final class DepthUpdateEvent {
+    private long eventTime;            // E
+    private long transactionTime;      // T
+    private String symbol;             // s
+    private long firstUpdateId;        // U
+    private long finalUpdateId;        // u
+    private long prevFinalUpdateId;    // pu
+    private final WsLevels bids = new WsLevels(); // b
+    private final WsLevels asks = new WsLevels(); // a
+
+    public void reset() {
+        eventTime = 0L;
+        transactionTime = 0L;
+        symbol = null;
+        firstUpdateId = 0L;
+        finalUpdateId = 0L;
+        prevFinalUpdateId = 0L;
+        bids.clear();
+        asks.clear();
+    }
+
+    /** Скопировать кадр в переиспользуемый дифф — без BigDecimal и списков. */
+    public void copyTo(DepthDiff diff) {
+        diff.reset();
+        diff.setEventTime(eventTime);
+        diff.setSymbol(symbol);
+        diff.setFirstUpdateId(firstUpdateId);
+        diff.setFinalUpdateId(finalUpdateId);
+        diff.setPrevFinalUpdateId(prevFinalUpdateId);
+        bids.appendTo(diff.getBids());
+        asks.appendTo(diff.getAsks());
+    }
+
+    /** Дописать смежный кадр к накопленному диффу: U и pu остаются от первого, u и E — от этого кадра. */
+    public void appendTo(DepthDiff diff) {
+        diff.setEventTime(eventTime);
+        diff.setFinalUpdateId(finalUpdateId);
+        bids.appendTo(diff.getBids());
+        asks.appendTo(diff.getAsks());
+    }
+
+    public DepthUpdateModel toDepthUpdateModel() {
+        return DepthUpdateModel.builder()
+                .eventType("depthUpdate")
+                .eventTime(eventTime)
+                .symbol(symbol)
+                .firstUpdateId(firstUpdateId)
+                .finalUpdateId(finalUpdateId)
+                .prevFinalUpdateId(prevFinalUpdateId)
+                .bids(bids.toList())
+                .asks(asks.toList())
+                .build();
+    }
+}
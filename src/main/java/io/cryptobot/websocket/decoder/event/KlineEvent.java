@@ -0,0 +1,72 @@
+package io.cryptobot.websocket.decoder.event;
+
+import io.cryptobot.market_data.klines.enums.IntervalE;
+import io.cryptobot.market_data.klines.model.KlineModel;
+import io.cryptobot.websocket.decoder.WsDecimal;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Переиспользуемое событие kline. Живёт до следующего decode() на том же потоке.
+ */
+@Getter
+@Setter
+public final class KlineEvent {
+    private long eventTime;            // E
+    private String symbol;             // k.s (s верхнего уровня, если k.s нет)
+    private long openTime;             // k.t
+    private long closeTime;            // k.T
+    private String interval;           // k.i
+    private final WsDecimal openPrice = new WsDecimal();           // k.o
+    private final WsDecimal closePrice = new WsDecimal();          // k.c
+    private final WsDecimal highPrice = new WsDecimal();           // k.h
+    private final WsDecimal lowPrice = new WsDecimal();            // k.l
+    private final WsDecimal volume = new WsDecimal();              // k.v
+    private final WsDecimal quoteAssetVolume = new WsDecimal();    // k.q
+    private final WsDecimal takerBuyBaseVolume = new WsDecimal();  // k.V
+    private final WsDecimal takerBuyQuoteVolume = new WsDecimal(); // k.Q
+    private long numberOfTrades;       // k.n
+    private boolean closed;            // k.x
+    private boolean hasKline;          // был ли объект k в кадре
+
+    public void reset() {
+        eventTime = 0L;
+        symbol = null;
+        openTime = 0L;
+        closeTime = 0L;
+        interval = null;
+        openPrice.clear();
+        closePrice.clear();
+        highPrice.clear();
+        lowPrice.clear();
+        volume.clear();
+        quoteAssetVolume.clear();
+        takerBuyBaseVolume.clear();
+        takerBuyQuoteVolume.clear();
+        numberOfTrades = 0L;
+        closed = false;
+        hasKline = false;
+    }
+
+    public KlineModel toKlineModel() {
+        if (!hasKline) {
+            throw new IllegalArgumentException("Invalid Kline data from WebSocket");
+        }
+        KlineModel kline = new KlineModel();
+        kline.setOpenTime(openTime);
+        kline.setCloseTime(closeTime);
+        kline.setSymbol(symbol);
+        kline.setInterval(IntervalE.fromString(interval));
+        kline.setOpenPrice(openPrice.toBigDecimal());
+        kline.setClosePrice(closePrice.toBigDecimal());
+        kline.setHighPrice(highPrice.toBigDecimal());
+        kline.setLowPrice(lowPrice.toBigDecimal());
+        kline.setVolume(volume.toBigDecimal());
+        kline.setQuoteAssetVolume(quoteAssetVolume.toBigDecimal());
+        kline.setNumberOfTrades(numberOfTrades);
+        kline.setTakerBuyBaseVolume(takerBuyBaseVolume.toBigDecimal());
+        kline.setTakerBuyQuoteVolume(takerBuyQuoteVolume.toBigDecimal());
+        kline.setClosed(closed);
+        return kline;
+    }
+}
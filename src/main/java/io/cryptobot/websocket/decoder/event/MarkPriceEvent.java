@@ -0,0 +1,28 @@
+package io.cryptobot.websocket.decoder.event;
+
+import io.cryptobot.websocket.decoder.WsDecimal;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Переиспользуемое событие markPriceUpdate. Живёт до следующего decode() на том же потоке.
+ */
+@Getter
+@Setter
+public final class MarkPriceEvent {
+    private long eventTime;                                 // E
+    private String symbol;                                  // s
+    private final WsDecimal markPrice = new WsDecimal();    // p
+    private final WsDecimal indexPrice = new WsDecimal();   // i
+    private final WsDecimal fundingRate = new WsDecimal();  // r
+    private long nextFundingTime;                           // T
+
+    public void reset() {
+        eventTime = 0L;
+        symbol = null;
+        markPrice.clear();
+        indexPrice.clear();
+        fundingRate.clear();
+        nextFundingTime = 0L;
+    }
+}
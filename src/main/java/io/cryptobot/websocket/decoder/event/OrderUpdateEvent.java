@@ -0,0 +1,23 @@
+package io.cryptobot.websocket.decoder.event;
+
+import io.cryptobot.binance.order.model.Order;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Событие ORDER_TRADE_UPDATE. Order создаётся заново на каждый кадр —
+ * он уходит в OrderService и сохраняется, переиспользовать его нельзя.
+ */
+@Getter
+@Setter
+public final class OrderUpdateEvent {
+    private long eventTime;            // E
+    private long transactionTime;      // T
+    private Order order;               // o
+
+    public void reset() {
+        eventTime = 0L;
+        transactionTime = 0L;
+        order = null;
+    }
+}
@@ -0,0 +1,73 @@
+package io.cryptobot.websocket.decoder.event;
+
+import io.cryptobot.market_data.ticker24h.Ticker24h;
+import io.cryptobot.websocket.decoder.WsDecimal;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Переиспользуемое событие 24hrTicker. Живёт до следующего decode() на том же потоке.
+ */
+@Getter
+@Setter
+public final class TickerEvent {
+    private long eventTime;                                          // E
+    private String symbol;                                           // s
+    private final WsDecimal priceChange = new WsDecimal();           // p
+    private final WsDecimal priceChangePercent = new WsDecimal();    // P
+    private final WsDecimal weightedAvgPrice = new WsDecimal();      // w
+    private final WsDecimal lastPrice = new WsDecimal();             // c
+    private final WsDecimal lastQty = new WsDecimal();               // Q
+    private final WsDecimal openPrice = new WsDecimal();             // o
+    private final WsDecimal highPrice = new WsDecimal();             // h
+    private final WsDecimal lowPrice = new WsDecimal();              // l
+    private final WsDecimal volume = new WsDecimal();                // v
+    private final WsDecimal quoteVolume = new WsDecimal();           // q
+    private Long openTime;                                           // O
+    private Long closeTime;                                          // C
+    private Long firstId;                                            // F
+    private Long lastId;                                             // L
+    private Long count;                                              // n
+
+    public void reset() {
+        eventTime = 0L;
+        symbol = null;
+        priceChange.clear();
+        priceChangePercent.clear();
+        weightedAvgPrice.clear();
+        lastPrice.clear();
+        lastQty.clear();
+        openPrice.clear();
+        highPrice.clear();
+        lowPrice.clear();
+        volume.clear();
+        quoteVolume.clear();
+        openTime = null;
+        closeTime = null;
+        firstId = null;
+        lastId = null;
+        count = null;
+    }
+
+    public Ticker24h toTicker24h() {
+        if (symbol == null) return null;
+        return Ticker24h.builder()
+                .coin(symbol.toUpperCase())
+                .priceChange(priceChange.toBigDecimal())
+                .priceChangePercent(priceChangePercent.toBigDecimal())
+                .weightedAvgPrice(weightedAvgPrice.toBigDecimal())
+                .lastPrice(lastPrice.toBigDecimal())
+                .lastQty(lastQty.toBigDecimal())
+                .openPrice(openPrice.toBigDecimal())
+                .highPrice(highPrice.toBigDecimal())
+                .lowPrice(lowPrice.toBigDecimal())
+                .volume(volume.toBigDecimal())
+                .quoteVolume(quoteVolume.toBigDecimal())
+                .openTime(openTime)
+                .closeTime(closeTime)
+                .firstId(firstId)
+                .lastId(lastId)
+                .count(count)
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package io.cryptobot.websocket.dispatch;
+
+/**
+ * Снимок счётчиков одного шарда диспетчера.
+ */
+public record DispatcherStats(
+        int shard,
+        int capacity,
+        long queueDepth,
+        long published,
+        long processed,
+        long dropped,
+        long conflated
+) {
+}
@@ -0,0 +1,62 @@
+package io.cryptobot.websocket.dispatch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Предвыделенный кольцевой буфер кадров: много продюсеров (I/O-потоки сокетов), один консьюмер.
+ * Продюсер только занимает слот CAS-ом по tail и публикует ссылку; при переполнении кадр отбрасывается,
+ * сокет никогда не ждёт обработчика.
+ */
+final class FrameRing {
+    private final AtomicReferenceArray<String> slots;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    /** Пишет только консьюмер. */
+    private volatile long head;
+
+    FrameRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /** @return false, если буфер полон */
+    boolean offer(String frame) {
+        long t;
+        do {
+            t = tail.get();
+            if (t - head >= capacity) return false;
+        } while (!tail.compareAndSet(t, t + 1));
+        slots.lazySet((int) (t & mask), frame);
+        return true;
+    }
+
+    /** Забрать до {@code max} опубликованных кадров по порядку. Вызывается только консьюмером. */
+    int drainTo(String[] out, int max) {
+        long h = head;
+        int n = 0;
+        while (n < max) {
+            int idx = (int) (h & mask);
+            String s = slots.get(idx);
+            if (s == null) break; // слот занят, но ещё не опубликован — ждём следующего прохода
+            slots.lazySet(idx, null);
+            out[n++] = s;
+            h++;
+        }
+        head = h;
+        return n;
+    }
+
+    long size() {
+        return Math.max(0L, tail.get() - head);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,248 @@
+package io.cryptobot.websocket.dispatch;
+
+import io.cryptobot.market_data.aggTrade.AggTradeService;
+import io.cryptobot.market_data.depth.DepthDiff;
+import io.cryptobot.market_data.depth.DepthService;
+import io.cryptobot.market_data.klines.service.KlineService;
+import io.cryptobot.market_data.price.PriceFeed;
+import io.cryptobot.market_data.ticker24h.Ticker24h;
+import io.cryptobot.market_data.ticker24h.Ticker24hService;
+import io.cryptobot.websocket.decoder.WsEventDecoder;
+import io.cryptobot.websocket.decoder.event.AggTradeEvent;
+import io.cryptobot.websocket.decoder.event.BookTickerEvent;
+import io.cryptobot.websocket.decoder.event.DepthUpdateEvent;
+import io.cryptobot.websocket.decoder.event.MarkPriceEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Развязывает I/O-потоки сокетов и обработку рыночных данных.
+ * <p>
+ * Кадр кладётся в кольцевой буфер шарда, выбранного по символу (все события символа обрабатываются
+ * одним потоком и по порядку). Консьюмер шарда декодирует кадры пачками и раздаёт их сервисам.
+ * Если консьюмер отстал и в пачке несколько смежных depthUpdate одного символа — они склеиваются в один diff.
+ * Сделки и диффы уходят в сервисы на примитивах (double, unscaled long + scale): на кадр — ни BigDecimal, ни моделей.
+ */
+@Slf4j
+public class MarketDataDispatcher {
+    public static final int RING_CAPACITY = 8192;
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+    private static final String STREAM_PREFIX = "{\"stream\":\"";
+
+    private final KlineService klineService;
+    private final Ticker24hService ticker24hService;
+    private final AggTradeService aggTradeService;
+    private final DepthService depthService;
+    private final PriceFeed priceFeed;
+
+    private final Shard[] shards;
+    private volatile boolean running = true;
+
+    public MarketDataDispatcher(KlineService klineService, Ticker24hService ticker24hService,
+                                AggTradeService aggTradeService, DepthService depthService, PriceFeed priceFeed) {
+        this(defaultShardCount(), RING_CAPACITY, klineService, ticker24hService, aggTradeService, depthService, priceFeed);
+    }
+
+    public MarketDataDispatcher(int shardCount, int ringCapacity,
+                                KlineService klineService, Ticker24hService ticker24hService,
+                                AggTradeService aggTradeService, DepthService depthService, PriceFeed priceFeed) {
+        this.klineService = klineService;
+        this.ticker24hService = ticker24hService;
+        this.aggTradeService = aggTradeService;
+        this.depthService = depthService;
+        this.priceFeed = priceFeed;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, ringCapacity);
+            shards[i].thread.start();
+        }
+        log.info("MarketDataDispatcher started: shards={}, ringCapacity={}", shardCount, ringCapacity);
+    }
+
+    private static int defaultShardCount() {
+        return Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /** Вызывается из I/O-потока сокета: только кладёт кадр в буфер, ничего не разбирает. */
+    public void publish(String frame) {
+        if (frame == null || !running) return;
+        shards[shardOf(frame)].offer(frame);
+    }
+
+    /** Шард по символу из "stream":"btcusdt@..." без разбора JSON и без аллокаций. */
+    int shardOf(String frame) {
+        if (shards.length == 1 || !frame.startsWith(STREAM_PREFIX)) return 0;
+        int h = 0;
+        for (int i = STREAM_PREFIX.length(); i < frame.length(); i++) {
+            char c = frame.charAt(i);
+            if (c == '@' || c == '"') break;
+            h = 31 * h + c;
+        }
+        return (h & Integer.MAX_VALUE) % shards.length;
+    }
+
+    public List<DispatcherStats> stats() {
+        List<DispatcherStats> out = new ArrayList<>(shards.length);
+        for (Shard s : shards) {
+            out.add(s.stats());
+        }
+        return out;
+    }
+
+    public void stop() {
+        running = false;
+        for (Shard s : shards) {
+            LockSupport.unpark(s.thread);
+        }
+    }
+
+    private final class Shard implements Runnable {
+        private final int index;
+        private final FrameRing ring;
+        private final Thread thread;
+        private final String[] batch = new String[BATCH_SIZE];
+        /** Переиспользуемый накопитель depth-диффа на символ; живёт, пока жив шард. */
+        private final Map<String, DepthDiff> depthBySymbol = new HashMap<>();
+        /** Непустые накопители текущей пачки в порядке первого кадра. */
+        private final List<DepthDiff> pendingDepth = new ArrayList<>();
+
+        private final AtomicLong published = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile long processed;
+        private volatile long conflated;
+        private volatile boolean sleeping;
+
+        Shard(int index, int capacity) {
+            this.index = index;
+            this.ring = new FrameRing(capacity);
+            this.thread = new Thread(this, "md-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void offer(String frame) {
+            if (ring.offer(frame)) {
+                published.incrementAndGet();
+                if (sleeping) LockSupport.unpark(thread);
+            } else {
+                long d = dropped.incrementAndGet();
+                if (d == 1 || d % 10_000 == 0) {
+                    log.warn("⚠️ md-shard-{} ring is full, dropped {} frames so far", index, d);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                int n = ring.drainTo(batch, BATCH_SIZE);
+                if (n == 0) {
+                    idle();
+                    continue;
+                }
+                for (int i = 0; i < n; i++) {
+                    handle(batch[i]);
+                    batch[i] = null;
+                }
+                flushDepth();
+                processed += n;
+            }
+        }
+
+        private void idle() {
+            sleeping = true;
+            if (ring.size() == 0 && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            sleeping = false;
+        }
+
+        private void handle(String frame) {
+            try {
+                WsEventDecoder decoder = WsEventDecoder.forCurrentThread();
+                switch (decoder.decode(frame)) {
+                    case KLINE -> {
+                        // незакрытые свечи не материализуем вовсе
+                        if (decoder.kline().isClosed()) klineService.addKline(decoder.kline().toKlineModel());
+                    }
+                    case TICKER_24H -> {
+                        Ticker24h t = decoder.ticker().toTicker24h();
+                        if (t != null) ticker24hService.addPrice(t);
+                    }
+                    case AGG_TRADE -> {
+                        AggTradeEvent at = decoder.aggTrade();
+                        double price = at.getPrice().toDouble();
+                        priceFeed.onTrade(at.getSymbol(), at.getTradeTime(), price);
+                        aggTradeService.onAggTrade(at.getSymbol(), at.getTradeTime(), at.getAggregateTradeId(),
+                                price, at.getQuantity().toDouble(), at.isBuyerIsMaker());
+                    }
+                    case BOOK_TICKER -> {
+                        // самый частый стрим — в BigDecimal не разворачиваем
+                        BookTickerEvent bt = decoder.bookTicker();
+                        priceFeed.onBookTicker(bt.getSymbol(), bt.getUpdateId(), bt.getTransactionTime(),
+                                bt.getBidPrice().toDouble(), bt.getBidQty().toDouble(),
+                                bt.getAskPrice().toDouble(), bt.getAskQty().toDouble());
+                    }
+                    case MARK_PRICE -> {
+                        MarkPriceEvent mp = decoder.markPrice();
+                        priceFeed.onMarkPrice(mp.getSymbol(), mp.getEventTime(), mp.getMarkPrice().toDouble());
+                    }
+                    case DEPTH_UPDATE -> onDepth(decoder.depth());
+                    default -> {
+                    }
+                }
+            } catch (Exception ex) {
+                log.error("WS message processing error", ex);
+            }
+        }
+
+        /**
+         * Склеить кадр с накопленным диффом символа. U и pu остаются от первого кадра, u и E — от последнего,
+         * уровни дописываются по порядку, так что при применении побеждает последнее количество.
+         * Склеиваются только смежные кадры (pu следующего == u предыдущего): разрыв (кадр потерян при
+         * переполнении буфера) не прячем, пусть его увидит DepthBookSync.
+         */
+        private void onDepth(DepthUpdateEvent event) {
+            if (event.getSymbol() == null) return;
+            DepthDiff pending = depthBySymbol.computeIfAbsent(event.getSymbol(), s -> new DepthDiff());
+            if (pending.isEmpty()) {
+                pendingDepth.add(pending);
+            } else if (DepthDiff.follows(event.getFirstUpdateId(), event.getPrevFinalUpdateId(), pending.getFinalUpdateId())) {
+                event.appendTo(pending);
+                conflated++;
+                return;
+            } else {
+                deliverDepth(pending);
+            }
+            event.copyTo(pending);
+        }
+
+        private void flushDepth() {
+            for (int i = 0, n = pendingDepth.size(); i < n; i++) {
+                DepthDiff p = pendingDepth.get(i);
+                deliverDepth(p);
+                p.reset();
+            }
+            pendingDepth.clear();
+        }
+
+        private void deliverDepth(DepthDiff p) {
+            try {
+                depthService.processDepthDiff(p);
+            } catch (Exception ex) {
+                log.error("Depth update processing error for {}", p.getSymbol(), ex);
+            }
+        }
+
+        DispatcherStats stats() {
+            return new DispatcherStats(index, ring.capacity(), ring.size(),
+                    published.get(), processed, dropped.get(), conflated);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.cryptobot.websocket.stream;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Одно combined-stream соединение Binance (/stream?streams=a/b/c).
+ * Стримы, добавленные после коннекта, докидываются живыми SUBSCRIBE/UNSUBSCRIBE,
+ * которые копятся в pending-наборах и отправляются пачкой через {@link #flushPending()}
+ * (Binance ограничивает число входящих сообщений на соединение).
+ */
+@Slf4j
+class CombinedStreamConnection extends WebSocketClient {
+
+    private static final AtomicLong REQUEST_ID = new AtomicLong();
+
+    @Getter
+    private final int index;
+    /** Стримы, закреплённые за соединением (включая ещё не подтверждённые). */
+    private final Set<String> streams = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingSubscribe = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingUnsubscribe = ConcurrentHashMap.newKeySet();
+
+    private final Consumer<String> onMessage;
+    private final Consumer<CombinedStreamConnection> onClosed;
+
+    CombinedStreamConnection(String baseUrl, int index, Collection<String> initialStreams,
+                             Consumer<String> onMessage, Consumer<CombinedStreamConnection> onClosed) {
+        super(buildUri(baseUrl, initialStreams));
+        this.index = index;
+        this.streams.addAll(initialStreams);
+        this.onMessage = onMessage;
+        this.onClosed = onClosed;
+    }
+
+    private static URI buildUri(String baseUrl, Collection<String> initialStreams) {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        return URI.create(base + "/stream?streams=" + String.join("/", initialStreams));
+    }
+
+    int size() {
+        return streams.size();
+    }
+
+    boolean contains(String stream) {
+        return streams.contains(stream);
+    }
+
+    Set<String> streams() {
+        return streams;
+    }
+
+    void addStream(String stream) {
+        if (streams.add(stream)) {
+            pendingUnsubscribe.remove(stream);
+            pendingSubscribe.add(stream);
+        }
+    }
+
+    void removeStream(String stream) {
+        if (streams.remove(stream)) {
+            // ещё не успели подписаться — отправлять ничего не нужно
+            if (!pendingSubscribe.remove(stream)) {
+                pendingUnsubscribe.add(stream);
+            }
+        }
+    }
+
+    /** Отправить накопленные SUBSCRIBE/UNSUBSCRIBE (не более двух сообщений за вызов). */
+    void flushPending() {
+        if (!isOpen()) return;
+        send("UNSUBSCRIBE", pendingUnsubscribe);
+        send("SUBSCRIBE", pendingSubscribe);
+    }
+
+    private void send(String method, Set<String> pending) {
+        if (pending.isEmpty()) return;
+        StringBuilder params = new StringBuilder();
+        Iterator<String> it = pending.iterator();
+        while (it.hasNext()) {
+            String s = it.next();
+            it.remove();
+            if (params.length() > 0) params.append(',');
+            params.append('"').append(s).append('"');
+        }
+        long id = REQUEST_ID.incrementAndGet();
+        send("{\"method\":\"" + method + "\",\"params\":[" + params + "],\"id\":" + id + "}");
+        log.info("WS#{} {} id={} [{}]", index, method, id, params);
+    }
+
+    @Override
+    public void onOpen(ServerHandshake handshake) {
+        log.info("✅ Combined stream #{} connected, streams={}", index, streams.size());
+    }
+
+    @Override
+    public void onMessage(String message) {
+        // данные всегда приходят обёрнутыми в {"stream":...,"data":...}, остальное — ответы на SUBSCRIBE
+        if (message.startsWith("{\"stream\"")) {
+            onMessage.accept(message);
+        } else if (message.contains("\"error\"")) {
+            log.warn("WS#{} control error: {}", index, message);
+        } else {
+            log.debug("WS#{} control response: {}", index, message);
+        }
+    }
+
+    @Override
+    public void onClose(int code, String reason, boolean remote) {
+        log.warn("Combined stream #{} closed: code={} reason={} remote={}", index, code, reason, remote);
+        onClosed.accept(this);
+    }
+
+    @Override
+    public void onError(Exception ex) {
+        log.error("Combined stream #{} error", index, ex);
+    }
+}
@@ -0,0 +1,162 @@
+package io.cryptobot.websocket.stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Раскладывает стримы по небольшому числу combined-stream соединений вместо сокета на каждый стрим.
+ * <p>
+ * Новые стримы сначала добиваются в уже открытые соединения (живой SUBSCRIBE),
+ * новое соединение открывается только когда все упёрлись в {@code maxStreamsPerConnection}.
+ * SUBSCRIBE/UNSUBSCRIBE сливаются и отправляются раз в {@link #FLUSH_INTERVAL_MS},
+ * чтобы не превышать лимит Binance на входящие сообщения (10/сек на соединение).
+ * Оборванное соединение переоткрывается со всеми своими стримами.
+ */
+@Slf4j
+public class StreamSubscriptionManager {
+    /** Жёсткий лимит Binance — 1024 стрима на соединение, держим запас. */
+    public static final int MAX_STREAMS_PER_CONNECTION = 200;
+    private static final long FLUSH_INTERVAL_MS = 250;
+    private static final long RECONNECT_DELAY_MS = 2_000;
+
+    private final String baseUrl;
+    private final int maxStreamsPerConnection;
+    private final Consumer<String> onMessage;
+    private final List<CombinedStreamConnection> connections = new ArrayList<>(); // guarded by this
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ws-subscriptions");
+        t.setDaemon(true);
+        return t;
+    });
+    private int nextIndex;
+    private volatile boolean running = true;
+
+    public StreamSubscriptionManager(String baseUrl, Consumer<String> onMessage) {
+        this(baseUrl, MAX_STREAMS_PER_CONNECTION, onMessage);
+    }
+
+    public StreamSubscriptionManager(String baseUrl, int maxStreamsPerConnection, Consumer<String> onMessage) {
+        if (maxStreamsPerConnection <= 0) {
+            throw new IllegalArgumentException("maxStreamsPerConnection must be positive");
+        }
+        this.baseUrl = baseUrl;
+        this.maxStreamsPerConnection = maxStreamsPerConnection;
+        this.onMessage = onMessage;
+        scheduler.scheduleWithFixedDelay(this::flushAll, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void subscribe(Collection<String> streams) {
+        if (!running) return;
+        Set<String> toAdd = new LinkedHashSet<>(streams);
+        for (CombinedStreamConnection c : connections) {
+            toAdd.removeIf(c::contains);
+        }
+        if (toAdd.isEmpty()) return;
+
+        Iterator<String> it = toAdd.iterator();
+        for (CombinedStreamConnection c : connections) {
+            while (it.hasNext() && c.size() < maxStreamsPerConnection) {
+                c.addStream(it.next());
+            }
+        }
+        while (it.hasNext()) {
+            List<String> chunk = new ArrayList<>(maxStreamsPerConnection);
+            while (it.hasNext() && chunk.size() < maxStreamsPerConnection) {
+                chunk.add(it.next());
+            }
+            open(chunk);
+        }
+    }
+
+    public synchronized void unsubscribe(Collection<String> streams) {
+        Iterator<CombinedStreamConnection> it = connections.iterator();
+        while (it.hasNext()) {
+            CombinedStreamConnection c = it.next();
+            streams.forEach(c::removeStream);
+            if (c.size() == 0) {
+                it.remove();
+                c.close();
+                log.info("Combined stream #{} has no streams left, closed", c.getIndex());
+            }
+        }
+    }
+
+    public synchronized int connectionCount() {
+        return connections.size();
+    }
+
+    public synchronized int streamCount() {
+        int n = 0;
+        for (CombinedStreamConnection c : connections) n += c.size();
+        return n;
+    }
+
+    public synchronized boolean isSubscribed(String stream) {
+        for (CombinedStreamConnection c : connections) {
+            if (c.contains(stream)) return true;
+        }
+        return false;
+    }
+
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+        List<CombinedStreamConnection> toClose;
+        synchronized (this) {
+            toClose = new ArrayList<>(connections);
+            connections.clear();
+        }
+        for (CombinedStreamConnection c : toClose) {
+            try {
+                c.close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    private void open(List<String> streams) {
+        CombinedStreamConnection c = new CombinedStreamConnection(baseUrl, nextIndex++, streams, onMessage, this::onClosed);
+        connections.add(c);
+        log.info("Opening combined stream #{} with {} streams", c.getIndex(), streams.size());
+        c.connect();
+    }
+
+    private void onClosed(CombinedStreamConnection closed) {
+        if (!running) return;
+        scheduler.schedule(() -> reconnect(closed), RECONNECT_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void reconnect(CombinedStreamConnection closed) {
+        int pos = connections.indexOf(closed);
+        if (!running || pos < 0) return; // закрыли сами или уже переоткрыли
+        List<String> streams = new ArrayList<>(closed.streams());
+        CombinedStreamConnection c = new CombinedStreamConnection(baseUrl, closed.getIndex(), streams, onMessage, this::onClosed);
+        connections.set(pos, c);
+        log.info("Reconnecting combined stream #{} with {} streams", c.getIndex(), streams.size());
+        c.connect();
+    }
+
+    private void flushAll() {
+        List<CombinedStreamConnection> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(connections);
+        }
+        for (CombinedStreamConnection c : snapshot) {
+            try {
+                c.flushPending();
+            } catch (Exception e) {
+                log.warn("Failed to flush subscriptions for combined stream #{}", c.getIndex(), e);
+            }
+        }
+    }
+}
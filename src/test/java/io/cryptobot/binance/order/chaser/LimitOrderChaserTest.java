@@ -0,0 +1,245 @@
+package io.cryptobot.binance.order.chaser;
+
+import io.cryptobot.binance.order.enums.OrderSide;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LimitOrderChaser Tests")
+class LimitOrderChaserTest {
+    private static final String SYMBOL = "BTCUSDT";
+
+    @Mock
+    private ChaseGateway gateway;
+
+    private LimitOrderChaser chaser;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(gateway.lastPrice(SYMBOL)).thenReturn(new BigDecimal("50000"));
+        lenient().when(gateway.makerPrice(SYMBOL, OrderSide.BUY, LimitOrderChaser.N_TICKS)).thenReturn(new BigDecimal("49995"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (chaser != null) chaser.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should complete with the filled limit order from the user data stream")
+    void shouldCompleteOnStreamFill() throws Exception {
+        // Given
+        chaser = new LimitOrderChaser(gateway, 60_000, 60_000);
+        when(gateway.placeLimit(SYMBOL, 0.01, OrderSide.BUY, new BigDecimal("49995"))).thenReturn(1L);
+        CompletableFuture<Order> future = chaser.chase(SYMBOL, 0.01, OrderSide.BUY);
+        awaitActive(1);
+
+        // When
+        Order filled = order(1L, OrderStatus.FILLED, "0.01");
+        chaser.onOrderUpdate(order(99L, OrderStatus.FILLED, "1"));
+        chaser.onOrderUpdate(filled);
+
+        // Then
+        assertSame(filled, future.get(5, TimeUnit.SECONDS));
+        assertEquals(0, chaser.activeChases());
+        verify(gateway, never()).cancel(anyString(), anyLong());
+        verify(gateway, never()).market(anyString(), anyDouble(), any());
+    }
+
+    @Test
+    @DisplayName("Should cancel and buy the remainder at market when price drifts by 0.1%")
+    void shouldSwitchToMarketOnDrift() throws Exception {
+        // Given
+        chaser = new LimitOrderChaser(gateway, 60_000, 60_000);
+        when(gateway.placeLimit(SYMBOL, 0.01, OrderSide.BUY, new BigDecimal("49995"))).thenReturn(1L);
+        when(gateway.cancel(SYMBOL, 1L)).thenReturn(order(1L, OrderStatus.CANCELED, "0.004"));
+        Order market = order(2L, OrderStatus.FILLED, "0.006");
+        when(gateway.market(SYMBOL, 0.006, OrderSide.BUY)).thenReturn(market);
+        CompletableFuture<Order> future = chaser.chase(SYMBOL, 0.01, OrderSide.BUY);
+        awaitActive(1);
+
+        // When
+        chaser.onPrice(SYMBOL, 50_040);   // 0.08% — ещё держим лимитку
+        assertFalse(future.isDone());
+        chaser.onPrice(SYMBOL, 50_050);   // 0.1%
+
+        // Then
+        assertSame(market, future.get(5, TimeUnit.SECONDS));
+        verify(gateway, times(1)).market(anyString(), anyDouble(), any());
+    }
+
+    @Test
+    @DisplayName("Should reprice on timer for the unfilled remainder")
+    void shouldRepriceOnTimer() throws Exception {
+        // Given
+        chaser = new LimitOrderChaser(gateway, 100, 60_000);
+        when(gateway.placeLimit(SYMBOL, 0.01, OrderSide.BUY, new BigDecimal("49995"))).thenReturn(1L);
+        when(gateway.cancel(SYMBOL, 1L)).thenReturn(order(1L, OrderStatus.CANCELED, "0.003"));
+        when(gateway.placeLimit(SYMBOL, 0.007, OrderSide.BUY, new BigDecimal("49995"))).thenReturn(2L);
+        Order rest = order(2L, OrderStatus.CANCELED, "0.007");
+        when(gateway.cancel(SYMBOL, 2L)).thenReturn(rest);
+
+        // When
+        Order result = chaser.chase(SYMBOL, 0.01, OrderSide.BUY).get(5, TimeUnit.SECONDS);
+
+        // Then — второй таймер застал остаток исполненным
+        assertSame(rest, result);
+        verify(gateway, never()).market(anyString(), anyDouble(), any());
+    }
+
+    @Test
+    @DisplayName("Should reprice immediately when the exchange expires the post-only order")
+    void shouldRepriceWhenExchangeExpiresOrder() throws Exception {
+        // Given
+        chaser = new LimitOrderChaser(gateway, 60_000, 60_000);
+        when(gateway.placeLimit(SYMBOL, 0.01, OrderSide.BUY, new BigDecimal("49995"))).thenReturn(1L, 2L);
+        CompletableFuture<Order> future = chaser.chase(SYMBOL, 0.01, OrderSide.BUY);
+        awaitActive(1);
+
+        // When
+        chaser.onOrderUpdate(order(1L, OrderStatus.EXPIRED, "0"));
+        Order filled = order(2L, OrderStatus.FILLED, "0.01");
+        deliverUntilDone(future, filled);   // до перевыставления обновление по ордеру 2 игнорируется
+
+        // Then
+        assertSame(filled, future.get(5, TimeUnit.SECONDS));
+        verify(gateway, never()).cancel(anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should apply an order update that arrived before the placement response")
+    void shouldReplayUpdateArrivedBeforeAttach() throws Exception {
+        // Given — стрим сообщил об отказе GTX раньше, чем вернулся ответ REST
+        chaser = new LimitOrderChaser(gateway, 60_000, 60_000);
+        Order expired = order(1L, OrderStatus.EXPIRED, "0");
+        when(gateway.placeLimit(SYMBOL, 0.01, OrderSide.BUY, new BigDecimal("49995")))
+                .thenAnswer(inv -> {
+                    chaser.onOrderUpdate(expired);
+                    return 1L;
+                })
+                .thenReturn(2L);
+
+        // When
+        CompletableFuture<Order> future = chaser.chase(SYMBOL, 0.01, OrderSide.BUY);
+
+        // Then — перевыставлено сразу, без ожидания таймера
+        verify(gateway, timeout(2_000).times(2)).placeLimit(SYMBOL, 0.01, OrderSide.BUY, new BigDecimal("49995"));
+        verify(gateway, never()).cancel(anyString(), anyLong());
+
+        Order filled = order(2L, OrderStatus.FILLED, "0.01");
+        chaser.onOrderUpdate(filled);
+        assertSame(filled, future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should return the limit order when it filled before cancel on timeout")
+    void shouldReturnOrderFilledBeforeCancel() throws Exception {
+        // Given
+        chaser = new LimitOrderChaser(gateway, 60_000, 100);
+        when(gateway.placeLimit(SYMBOL, 0.01, OrderSide.BUY, new BigDecimal("49995"))).thenReturn(1L);
+        when(gateway.cancel(SYMBOL, 1L)).thenReturn(null);
+        Order filled = order(1L, OrderStatus.FILLED, "0.01");
+        when(gateway.query(SYMBOL, 1L)).thenReturn(filled);
+
+        // When
+        Order result = chaser.chase(SYMBOL, 0.01, OrderSide.BUY).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertSame(filled, result);
+        verify(gateway, never()).market(anyString(), anyDouble(), any());
+    }
+
+    @Test
+    @DisplayName("Should buy the remainder at market on timeout")
+    void shouldSwitchToMarketOnTimeout() throws Exception {
+        // Given
+        chaser = new LimitOrderChaser(gateway, 60_000, 100);
+        when(gateway.placeLimit(SYMBOL, 0.01, OrderSide.BUY, new BigDecimal("49995"))).thenReturn(1L);
+        when(gateway.cancel(SYMBOL, 1L)).thenReturn(order(1L, OrderStatus.CANCELED, "0"));
+        Order market = order(2L, OrderStatus.FILLED, "0.01");
+        when(gateway.market(SYMBOL, 0.01, OrderSide.BUY)).thenReturn(market);
+
+        // When
+        Order result = chaser.chase(SYMBOL, 0.01, OrderSide.BUY).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertSame(market, result);
+    }
+
+    @Test
+    @DisplayName("Should cancel the working order and never go to market after abort")
+    void shouldCancelOrderOnAbort() throws Exception {
+        // Given
+        chaser = new LimitOrderChaser(gateway, 60_000, 60_000);
+        when(gateway.placeLimit(SYMBOL, 0.01, OrderSide.BUY, new BigDecimal("49995"))).thenReturn(1L);
+        when(gateway.cancel(SYMBOL, 1L)).thenReturn(order(1L, OrderStatus.CANCELED, "0"));
+        CompletableFuture<Order> future = chaser.chase(SYMBOL, 0.01, OrderSide.BUY);
+        awaitActive(1);
+
+        // When
+        chaser.abort(future);
+        chaser.onPrice(SYMBOL, 51_000);   // дрейф после отмены не должен вывести на рынок
+
+        // Then
+        assertTrue(future.isCancelled());
+        verify(gateway, timeout(2_000)).cancel(SYMBOL, 1L);
+        awaitActive(0);
+        verify(gateway, never()).market(anyString(), anyDouble(), any());
+    }
+
+    @Test
+    @DisplayName("Should complete with null when there is no price")
+    void shouldReturnNullWithoutPrice() throws Exception {
+        // Given
+        chaser = new LimitOrderChaser(gateway, 60_000, 60_000);
+        when(gateway.lastPrice(SYMBOL)).thenReturn(null);
+
+        // When
+        Order result = chaser.chase(SYMBOL, 0.01, OrderSide.BUY).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertNull(result);
+        verify(gateway, never()).placeLimit(anyString(), anyDouble(), any(), any());
+    }
+
+    private void deliverUntilDone(CompletableFuture<Order> future, Order update) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!future.isDone() && System.currentTimeMillis() < deadline) {
+            chaser.onOrderUpdate(update);
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitActive(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (chaser.activeChases() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, chaser.activeChases());
+    }
+
+    private static Order order(long id, OrderStatus status, String filled) {
+        return Order.builder()
+                .orderId(id)
+                .symbol(SYMBOL)
+                .side(OrderSide.BUY)
+                .orderStatus(status)
+                .cumulativeFilledQty(new BigDecimal(filled))
+                .build();
+    }
+}
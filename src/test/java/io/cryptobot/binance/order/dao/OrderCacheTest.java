@@ -0,0 +1,100 @@
+package io.cryptobot.binance.order.dao;
+
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderCache Tests")
+class OrderCacheTest {
+
+    private OrderCache cache = new OrderCache();
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should return the latest state of an order")
+    void shouldReturnLatestState() {
+        // Given
+        Order created = order(1L, OrderStatus.NEW, "0");
+        Order filled = order(1L, OrderStatus.FILLED, "0.001");
+
+        // When
+        cache.put(created);
+        cache.put(filled);
+        cache.put(null);
+
+        // Then
+        assertSame(filled, cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should not let a late REST response overwrite a terminal status")
+    void shouldKeepTerminalStatus() {
+        // Given — стрим сообщил об исполнении раньше, чем вернулся ответ на создание
+        Order filled = order(1L, OrderStatus.FILLED, "0.001");
+        cache.put(filled);
+
+        // When
+        cache.put(order(1L, OrderStatus.NEW, "0"));
+
+        // Then
+        assertSame(filled, cache.get(1L));
+    }
+
+    @Test
+    @DisplayName("Should evict terminal orders after the grace period and keep active ones")
+    void shouldEvictTerminalOrdersAfterGrace() {
+        // Given
+        cache.put(order(1L, OrderStatus.FILLED, "0.001"));
+        cache.put(order(2L, OrderStatus.NEW, "0"));
+        long now = System.currentTimeMillis();
+
+        // When / Then
+        assertEquals(0, cache.sweep(now));
+        assertEquals(1, cache.sweep(now + OrderCache.TERMINAL_GRACE_MS + 1_000));
+        assertNull(cache.get(1L));
+        assertNotNull(cache.get(2L));
+    }
+
+    @Test
+    @DisplayName("Should stay bounded and evict terminal orders first")
+    void shouldStayBounded() {
+        // Given
+        cache.shutdown();
+        cache = new OrderCache(16 * 4);
+        for (long id = 1; id <= 64; id++) {
+            cache.put(order(id, OrderStatus.NEW, "0"));
+        }
+        for (long id = 1_000; id < 3_000; id++) {
+            cache.put(order(id, OrderStatus.FILLED, "0.001"));
+        }
+
+        // Then
+        assertTrue(cache.size() <= 64);
+        for (long id = 1_000; id < 3_000; id++) {
+            Order o = cache.get(id);
+            assertTrue(o == null || o.getOrderId() == id);
+        }
+        assertNotNull(cache.get(2_999L));
+    }
+
+    private static Order order(long id, OrderStatus status, String filled) {
+        return Order.builder()
+                .orderId(id)
+                .symbol("BTCUSDT")
+                .orderStatus(status)
+                .cumulativeFilledQty(new BigDecimal(filled))
+                .build();
+    }
+}
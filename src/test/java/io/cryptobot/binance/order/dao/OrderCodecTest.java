@@ -0,0 +1,74 @@
+package io.cryptobot.binance.order.dao;
+
+import io.cryptobot.binance.order.enums.OrderSide;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.enums.OrderType;
+import io.cryptobot.binance.order.model.Order;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderCodec Tests")
+class OrderCodecTest {
+
+    @Test
+    @DisplayName("Should store amounts as Decimal128 and read the order back unchanged")
+    void shouldRoundTripOrder() {
+        // Given
+        Order order = Order.builder()
+                .orderId(123456789L)
+                .symbol("BTCUSDT")
+                .side(OrderSide.BUY)
+                .orderType(OrderType.MARKET)
+                .orderStatus(OrderStatus.FILLED)
+                .quantity(new BigDecimal("0.010"))
+                .averagePrice(new BigDecimal("62345.10"))
+                .commission(new BigDecimal("0.2493804"))
+                .tradeTime(1_722_500_000_000L)
+                .reduceOnly(true)
+                .isPositionPnl(true)
+                .build();
+
+        // When
+        Document doc = OrderCodec.encode(order);
+        Order decoded = OrderCodec.decode(doc);
+
+        // Then
+        assertEquals(123456789L, doc.get("_id"));
+        assertEquals(new Decimal128(new BigDecimal("62345.10")), doc.get("averagePrice"));
+        assertEquals("FILLED", doc.get("orderStatus"));
+        assertFalse(doc.containsKey("price")); // null не пишется
+        assertEquals(order.getOrderId(), decoded.getOrderId());
+        assertEquals(OrderSide.BUY, decoded.getSide());
+        assertEquals(OrderStatus.FILLED, decoded.getOrderStatus());
+        assertEquals(new BigDecimal("0.010"), decoded.getQuantity());
+        assertEquals(new BigDecimal("0.2493804"), decoded.getCommission());
+        assertNull(decoded.getPrice());
+        assertEquals(1_722_500_000_000L, decoded.getTradeTime());
+        assertTrue(decoded.isReduceOnly());
+        assertTrue(decoded.isPositionPnl());
+    }
+
+    @Test
+    @DisplayName("Should read amounts stored as strings before the migration")
+    void shouldReadLegacyStringAmounts() {
+        // Given
+        Document legacy = new Document("_id", 1L)
+                .append("cumulativeFilledQty", "0.003")
+                .append("realizedPnl", "-1.25")
+                .append("orderStatus", "CANCELED");
+
+        // When
+        Order decoded = OrderCodec.decode(legacy);
+
+        // Then
+        assertEquals(new BigDecimal("0.003"), decoded.getCumulativeFilledQty());
+        assertEquals(new BigDecimal("-1.25"), decoded.getRealizedPnl());
+        assertEquals(OrderStatus.CANCELED, decoded.getOrderStatus());
+    }
+}
@@ -0,0 +1,134 @@
+package io.cryptobot.binance.order.dao;
+
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.model.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderWriteBehind Tests")
+class OrderWriteBehindTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulk;
+
+    private OrderWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        writeBehind = new OrderWriteBehind(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Should coalesce updates per order and write them with one bulk operation")
+    void shouldCoalesceUpdatesIntoOneBulkWrite() {
+        // Given
+        Order partial1 = order(1L, null, "0.001");
+        Order partial2 = order(1L, null, "0.002");
+        Order filled = order(1L, OrderStatus.FILLED, "0.003");
+        Order other = order(2L, OrderStatus.CANCELED, "0");
+        writeBehind.enqueue(partial1);
+        writeBehind.enqueue(partial2);
+        writeBehind.enqueue(filled);
+        writeBehind.enqueue(other);
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(order(1L, null, "0"), order(2L, null, "0")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)).thenReturn(bulk);
+
+        // When
+        writeBehind.flush(System.currentTimeMillis());
+
+        // Then
+        ArgumentCaptor<Object> written = ArgumentCaptor.forClass(Object.class);
+        verify(bulk, times(2)).replaceOne(any(Query.class), written.capture());
+        assertTrue(written.getAllValues().contains(filled));
+        assertTrue(written.getAllValues().contains(other));
+        verify(bulk).execute();
+        verify(mongoTemplate, times(1)).bulkOps(any(BulkOperations.BulkMode.class), eq(Order.class));
+        assertEquals(0, writeBehind.pendingCount());
+        assertNull(writeBehind.get(1L));
+    }
+
+    @Test
+    @DisplayName("Should serve the latest update to readers until it is flushed")
+    void shouldServePendingUpdate() {
+        // Given
+        Order partial = order(1L, null, "0.001");
+        Order filled = order(1L, OrderStatus.FILLED, "0.003");
+
+        // When
+        writeBehind.enqueue(partial);
+        writeBehind.enqueue(filled);
+
+        // Then
+        assertSame(filled, writeBehind.get(1L));
+        assertNull(writeBehind.get(null));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Should wait for a not yet saved order and give up after the max age")
+    void shouldKeepUnknownOrderUntilMaxAge() {
+        // Given
+        Order update = order(3L, OrderStatus.FILLED, "0.01");
+        writeBehind.enqueue(update);
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of());
+        long now = System.currentTimeMillis();
+
+        // When
+        writeBehind.flush(now);
+
+        // Then
+        assertSame(update, writeBehind.get(3L));
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Order.class));
+
+        // When
+        writeBehind.flush(now + OrderWriteBehind.MAX_PENDING_AGE_MS + 1_000);
+
+        // Then
+        assertEquals(0, writeBehind.pendingCount());
+    }
+
+    @Test
+    @DisplayName("Should keep updates for retry when bulk write fails")
+    void shouldKeepUpdatesWhenBulkWriteFails() {
+        // Given
+        Order update = order(4L, OrderStatus.FILLED, "0.01");
+        writeBehind.enqueue(update);
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(order(4L, null, "0")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)).thenReturn(bulk);
+        when(bulk.execute()).thenThrow(new RuntimeException("mongo down"));
+
+        // When
+        assertThrows(RuntimeException.class, () -> writeBehind.flush(System.currentTimeMillis()));
+
+        // Then
+        assertSame(update, writeBehind.get(4L));
+    }
+
+    private static Order order(long id, OrderStatus status, String filled) {
+        return Order.builder()
+                .orderId(id)
+                .symbol("BTCUSDT")
+                .orderStatus(status)
+                .cumulativeFilledQty(new BigDecimal(filled))
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package io.cryptobot.binance.order.fill;
+
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.model.Order;
+import io.cryptobot.binance.order.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderFillRegistryImpl Tests")
+class OrderFillRegistryImplTest {
+
+    @Mock
+    private OrderService orderService;
+
+    private OrderFillRegistryImpl registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new OrderFillRegistryImpl(orderService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should complete when FILLED update arrives from the stream")
+    void shouldCompleteOnStreamUpdate() throws Exception {
+        // Given
+        CompletableFuture<Order> future = registry.awaitFill(order(1L, OrderStatus.NEW), 10_000);
+        assertFalse(future.isDone());
+
+        // When
+        registry.onOrderUpdate(order(1L, OrderStatus.NEW));
+        assertFalse(future.isDone());
+        Order filled = order(1L, OrderStatus.FILLED);
+        registry.onOrderUpdate(filled);
+
+        // Then
+        assertSame(filled, future.get(1, TimeUnit.SECONDS));
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    @DisplayName("Should complete immediately when update arrived before waiting started")
+    void shouldUseUpdateReceivedBeforeRegistration() throws Exception {
+        // Given
+        Order filled = order(2L, OrderStatus.FILLED);
+        registry.onOrderUpdate(filled);
+
+        // When
+        CompletableFuture<Order> future = registry.awaitFill(order(2L, OrderStatus.NEW), 10_000);
+
+        // Then
+        assertTrue(future.isDone());
+        assertSame(filled, future.get());
+    }
+
+    @Test
+    @DisplayName("Should not wait for an order that is already in a final status")
+    void shouldReturnFinalOrderImmediately() {
+        // Given
+        Order filled = order(3L, OrderStatus.FILLED);
+
+        // When
+        CompletableFuture<Order> future = registry.awaitFill(filled, 10_000);
+
+        // Then
+        assertSame(filled, future.join());
+    }
+
+    @Test
+    @DisplayName("Should fall back to REST on timeout and persist the result")
+    void shouldFallBackToRestOnTimeout() throws Exception {
+        // Given
+        Order rest = order(4L, OrderStatus.FILLED);
+        when(orderService.getOrderFromBinance(4L, "BTCUSDT")).thenReturn(rest);
+
+        // When
+        Order result = registry.awaitFill(order(4L, OrderStatus.NEW), 50).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertSame(rest, result);
+        verify(orderService).updateOrder(rest);
+    }
+
+    @Test
+    @DisplayName("Should complete with null when REST still reports NEW")
+    void shouldCompleteWithNullWhenStillNew() throws Exception {
+        // Given
+        when(orderService.getOrderFromBinance(5L, "BTCUSDT")).thenReturn(order(5L, OrderStatus.NEW));
+
+        // When
+        Order result = registry.awaitFill(order(5L, OrderStatus.NEW), 50).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertNull(result);
+        verify(orderService, never()).updateOrder(any());
+    }
+
+    @Test
+    @DisplayName("Should share one future between waiters of the same order")
+    void shouldShareFutureForSameOrder() {
+        // When
+        CompletableFuture<Order> first = registry.awaitFill(order(6L, OrderStatus.NEW), 10_000);
+        CompletableFuture<Order> second = registry.awaitFill(order(6L, OrderStatus.NEW), 10_000);
+        registry.onOrderUpdate(order(6L, OrderStatus.CANCELED));
+
+        // Then
+        assertSame(first, second);
+        assertEquals(OrderStatus.CANCELED, first.join().getOrderStatus());
+    }
+
+    private static Order order(long id, OrderStatus status) {
+        return Order.builder()
+                .orderId(id)
+                .symbol("BTCUSDT")
+                .orderStatus(status)
+                .build();
+    }
+}
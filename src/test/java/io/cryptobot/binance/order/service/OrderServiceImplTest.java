@@ -4,14 +4,16 @@ import com.binance.connector.futures.client.impl.UMFuturesClientImpl;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cryptobot.binance.order.dao.OrderCache;
 import io.cryptobot.binance.order.dao.OrderRepository;
+import io.cryptobot.binance.order.dao.OrderWriteBehind;
 import io.cryptobot.binance.order.enums.OrderSide;
 import io.cryptobot.binance.order.enums.OrderStatus;
 import io.cryptobot.binance.order.enums.OrderType;
 import io.cryptobot.binance.order.model.Order;
 import io.cryptobot.binance.trade.trade_plan.model.SizeModel;
 import io.cryptobot.market_data.depth.DepthService;
-import io.cryptobot.market_data.ticker24h.Ticker24hService;
+import io.cryptobot.market_data.price.PriceFeed;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -34,6 +36,12 @@ class OrderServiceImplTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OrderWriteBehind writeBehind;
+
+    @Mock
+    private OrderCache orderCache;
+
     @Mock
     private ObjectMapper objectMapper;
 
@@ -44,7 +52,7 @@ class OrderServiceImplTest {
     private Object mockAccount;
 
     @Mock
-    private Ticker24hService ticker24hService;
+    private PriceFeed priceFeed;
 
     @Mock
     private DepthService depthService;
@@ -97,6 +105,22 @@ class OrderServiceImplTest {
 
         // Verify interactions
         verify(orderRepository).findById(orderId);
+        verify(orderCache).put(testOrder);
+    }
+
+    @Test
+    @DisplayName("Should serve cached order without querying the database")
+    void testGetOrderFromCache() {
+        // Given
+        when(orderCache.get(123456789L)).thenReturn(testOrder);
+
+        // When
+        Order result = orderService.getOrder(123456789L);
+
+        // Then
+        assertSame(testOrder, result);
+        verify(orderRepository, never()).findById(anyLong());
+        verifyNoInteractions(writeBehind);
     }
 
     @Test
@@ -146,15 +170,13 @@ class OrderServiceImplTest {
                 .tradeTime(System.currentTimeMillis())
                 .build();
 
-        when(orderRepository.findById(123456789L)).thenReturn(Optional.of(testOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(updatedOrder);
-
         // When
         orderService.updateOrder(updatedOrder);
 
-        // Then
-        verify(orderRepository).findById(123456789L);
-        verify(orderRepository).save(any(Order.class));
+        // Then — запись в Mongo уходит в write-behind, поток стрима БД не ждёт
+        verify(orderCache).put(updatedOrder);
+        verify(writeBehind).enqueue(updatedOrder);
+        verifyNoInteractions(orderRepository);
     }
 
     @Test
@@ -164,6 +186,7 @@ class OrderServiceImplTest {
         orderService.updateOrder(null);
 
         // Then
+        verify(writeBehind, never()).enqueue(any());
         verify(orderRepository, never()).findById(anyLong());
         verify(orderRepository, never()).save(any(Order.class));
     }
@@ -181,27 +204,28 @@ class OrderServiceImplTest {
         orderService.updateOrder(orderWithNullId);
 
         // Then
+        verify(writeBehind, never()).enqueue(any());
         verify(orderRepository, never()).findById(anyLong());
         verify(orderRepository, never()).save(any(Order.class));
     }
 
     @Test
-    @DisplayName("Should handle order not found in database")
-    void testUpdateOrderWhenOrderNotFound() {
+    @DisplayName("Should return pending update before it is written to the database")
+    void testGetOrderReturnsPendingUpdate() {
         // Given
-        Order updatedOrder = Order.builder()
+        Order pendingOrder = Order.builder()
                 .orderId(123456789L)
                 .symbol("BTCUSDT")
+                .orderStatus(OrderStatus.FILLED)
                 .build();
-
-        when(orderRepository.findById(123456789L)).thenReturn(Optional.empty());
+        when(writeBehind.get(123456789L)).thenReturn(pendingOrder);
 
         // When
-        orderService.updateOrder(updatedOrder);
+        Order result = orderService.getOrder(123456789L);
 
         // Then
-        verify(orderRepository, times(5)).findById(123456789L);
-        verify(orderRepository, never()).save(any(Order.class));
+        assertSame(pendingOrder, result);
+        verify(orderRepository, never()).findById(anyLong());
     }
 
     @Test
@@ -342,7 +366,7 @@ class OrderServiceImplTest {
         Double amount = 0.001;
         OrderSide side = OrderSide.BUY;
         
-        when(ticker24hService.getPrice(symbol)).thenReturn(null);
+        when(priceFeed.getPrice(symbol)).thenReturn(null);
 
         // When
         Order result = orderService.createLimitOrElseMarket(symbol, amount, side, testSizeModel);
@@ -360,7 +384,7 @@ class OrderServiceImplTest {
         OrderSide side = OrderSide.BUY;
         BigDecimal currentPrice = new BigDecimal("50000");
         
-        when(ticker24hService.getPrice(symbol)).thenReturn(currentPrice);
+        when(priceFeed.getPrice(symbol)).thenReturn(currentPrice);
         when(depthService.getBidPriceBelow(symbol, 5)).thenReturn(null);
 
         // When
@@ -0,0 +1,95 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.trade.session.enums.PnlGranularity;
+import io.cryptobot.binance.trade.session.model.ArchivedSession;
+import io.cryptobot.binance.trade.session.model.PnlBucket;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PnlBucketRepositoryImpl Tests")
+class PnlBucketRepositoryImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private PnlBucketRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new PnlBucketRepositoryImpl(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Should upsert the bucket with numeric increments")
+    void shouldIncrementBucket() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2025, 8, 1, 10, 0);
+
+        // When
+        repository.add("BTCUSDT", PnlGranularity.HOUR, start, new BigDecimal("-1.25"), null);
+
+        // Then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(PnlBucket.class));
+        Document criteria = query.getValue().getQueryObject();
+        assertEquals("BTCUSDT", criteria.get("tradePlan"));
+        assertEquals(PnlGranularity.HOUR, criteria.get("granularity"));
+        assertEquals(start, criteria.get("bucketStart"));
+
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(new Decimal128(new BigDecimal("-1.25")), inc.get("pnl"));
+        assertEquals(new Decimal128(BigDecimal.ZERO), inc.get("commission"));
+        assertEquals(1L, inc.get("sessions"));
+    }
+
+    @Test
+    @DisplayName("Should rebuild hour and day buckets from hot and archived sessions merged into the bucket collection")
+    void shouldRebuildWithAggregation() {
+        // Given
+        when(mongoTemplate.getCollectionName(TradeSession.class)).thenReturn("trade-session");
+        when(mongoTemplate.getCollectionName(ArchivedSession.class)).thenReturn("trade-session-archive");
+        when(mongoTemplate.getCollectionName(PnlBucket.class)).thenReturn("pnl-bucket");
+
+        // When
+        repository.rebuildFromSessions();
+
+        // Then
+        verify(mongoTemplate, times(2)).aggregate(any(Aggregation.class), eq("trade-session"), eq(Document.class));
+        List<Document> stages = PnlBucketRepositoryImpl.rebuildPipeline(PnlGranularity.DAY, "trade-session-archive", "pnl-bucket")
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(5, stages.size());
+        assertEquals("COMPLETED", stages.get(0).get("$match", Document.class).get("status"));
+        Document union = stages.get(1).get("$unionWith", Document.class);
+        assertEquals("trade-session-archive", union.get("coll"));
+        assertEquals(List.of(stages.get(0)), union.get("pipeline"));
+        Document group = stages.get(2).get("$group", Document.class);
+        Document trunc = group.get("_id", Document.class).get("bucketStart", Document.class).get("$dateTrunc", Document.class);
+        assertEquals("day", trunc.get("unit"));
+        assertTrue(group.get("pnl", Document.class).get("$sum", Document.class).containsKey("$toDecimal"));
+        Document merge = stages.get(4).get("$merge", Document.class);
+        assertEquals("pnl-bucket", merge.get("into"));
+        assertEquals(List.of("tradePlan", "granularity", "bucketStart"), merge.get("on"));
+    }
+}
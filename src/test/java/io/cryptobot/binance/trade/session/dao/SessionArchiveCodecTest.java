@@ -0,0 +1,94 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.order.enums.OrderPurpose;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.trade.session.enums.SessionMode;
+import io.cryptobot.binance.trade.session.enums.SessionStatus;
+import io.cryptobot.binance.trade.session.enums.TradingDirection;
+import io.cryptobot.binance.trade.session.model.ArchivedSession;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SessionArchiveCodec Tests")
+class SessionArchiveCodecTest {
+
+    @Test
+    @DisplayName("Should keep summary fields and restore the full session from a compressed payload")
+    void shouldArchiveAndRestoreSession() {
+        // Given
+        TradeSession session = completedSession(20);
+        LocalDateTime archivedAt = LocalDateTime.of(2025, 9, 1, 3, 0);
+
+        // When
+        ArchivedSession archived = SessionArchiveCodec.archive(session, archivedAt);
+        TradeSession restored = SessionArchiveCodec.restore(archived);
+
+        // Then
+        assertEquals(session.getId(), archived.getId());
+        assertEquals("BTCUSDT", archived.getTradePlan());
+        assertEquals(SessionStatus.COMPLETED, archived.getStatus());
+        assertEquals(session.getPnl(), archived.getPnl());
+        assertEquals(session.getCreatedTime(), archived.getCreatedTime());
+        assertEquals(archivedAt, archived.getArchivedAt());
+
+        int rawSize = new RawBsonDocument(TradeSessionCodec.encode(session), new DocumentCodec()).getByteBuffer().remaining();
+        assertTrue(archived.getPayload().length * 3 < rawSize, "payload " + archived.getPayload().length + " vs raw " + rawSize);
+
+        assertEquals(session.getId(), restored.getId());
+        assertEquals(SessionStatus.COMPLETED, restored.getStatus());
+        assertEquals(20, restored.getOrders().size());
+        assertEquals(0, session.getPnl().compareTo(restored.getPnl()));
+        TradeOrder last = restored.findOrderById(20L);
+        assertEquals(new BigDecimal("62345.10"), last.getPrice());
+        assertEquals(OrderPurpose.HEDGE_OPEN, last.getPurpose());
+    }
+
+    @Test
+    @DisplayName("Should reject a truncated payload")
+    void shouldRejectTruncatedPayload() {
+        // Given
+        ArchivedSession archived = SessionArchiveCodec.archive(completedSession(2), LocalDateTime.now());
+        byte[] payload = archived.getPayload();
+        byte[] truncated = Arrays.copyOf(payload, payload.length / 2);
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> SessionArchiveCodec.inflate(truncated));
+    }
+
+    private static TradeSession completedSession(int orders) {
+        TradeSession session = new TradeSession();
+        session.setId(new ObjectId().toHexString());
+        session.onCreate("BTCUSDT", TradingDirection.LONG, order(1L, OrderPurpose.MAIN_OPEN), "test");
+        for (long id = 2; id <= orders; id++) {
+            session.addOrder(order(id, OrderPurpose.HEDGE_OPEN));
+        }
+        session.completeSession();
+        return session;
+    }
+
+    private static TradeOrder order(long id, OrderPurpose purpose) {
+        return TradeOrder.builder()
+                .orderId(id)
+                .direction(purpose == OrderPurpose.MAIN_OPEN ? TradingDirection.LONG : TradingDirection.SHORT)
+                .purpose(purpose)
+                .status(OrderStatus.FILLED)
+                .modeAtCreation(SessionMode.SCALPING)
+                .price(new BigDecimal("62345.10"))
+                .count(new BigDecimal("0.010"))
+                .commission(new BigDecimal("0.25"))
+                .pnl(new BigDecimal("1.5"))
+                .orderTime(LocalDateTime.of(2025, 8, 1, 12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import com.mongodb.MongoClientSettings;
+import io.cryptobot.binance.order.enums.OrderPurpose;
+import io.cryptobot.binance.order.enums.OrderSide;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.enums.OrderType;
+import io.cryptobot.binance.trade.session.enums.SessionMode;
+import io.cryptobot.binance.trade.session.enums.TradingDirection;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import io.cryptobot.configs.mongo.MongoConfig;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Стоимость записи и чтения сессии: прежний маппинг Spring Data (рефлексия, BigDecimal строкой)
+ * против ручных кодеков с Decimal128 ({@link MongoConfig#conversions()}). Запись — объект → Document → BSON,
+ * чтение — BSON → Document → объект, как на пути к драйверу. Не unit-тест, запуск вручную:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.cryptobot.binance.trade.session.dao.SessionCodecBenchmark
+ * </pre>
+ * Печатает ns на запись/чтение и размер документа в байтах.
+ */
+public class SessionCodecBenchmark {
+
+    private static final int ORDERS = 40;
+    private static final int WARMUP = 20_000;
+    private static final int MEASURE = 100_000;
+
+    private static final Codec<Document> BSON = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+    private static long sink;
+
+    public static void main(String[] args) {
+        TradeSession session = session();
+        MappingMongoConverter reflective = converter(new MongoCustomConversions(List.of()));
+        MappingMongoConverter codecs = converter(MongoConfig.conversions());
+
+        run("reflection (warmup)", reflective, session, WARMUP);
+        run("codecs (warmup)", codecs, session, WARMUP);
+
+        run("reflection", reflective, session, MEASURE);
+        run("codecs", codecs, session, MEASURE);
+        System.out.println("sink=" + sink);
+    }
+
+    private static void run(String name, MappingMongoConverter converter, TradeSession session, int rounds) {
+        RawBsonDocument bytes = encode(converter, session);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += encode(converter, session).getByteBuffer().remaining();
+        }
+        long encodeNs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += converter.read(TradeSession.class, bytes.decode(BSON)).getOrders().size();
+        }
+        long decodeNs = System.nanoTime() - start;
+
+        System.out.printf("%-20s write %8.0f ns  read %8.0f ns  %6d B/doc%n",
+                name, (double) encodeNs / rounds, (double) decodeNs / rounds, bytes.getByteBuffer().remaining());
+    }
+
+    private static RawBsonDocument encode(MappingMongoConverter converter, TradeSession session) {
+        Document doc = new Document();
+        converter.write(session, doc);
+        return new RawBsonDocument(doc, BSON);
+    }
+
+    private static MappingMongoConverter converter(MongoCustomConversions conversions) {
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    /** Сессия среднего размера: основной ордер и пары хедж открытие/закрытие. */
+    private static TradeSession session() {
+        TradeSession session = new TradeSession();
+        session.setId(new ObjectId().toHexString());
+        session.setVersion(1L);
+        session.onCreate("BTCUSDT", TradingDirection.LONG, order(1L, OrderPurpose.MAIN_OPEN, TradingDirection.LONG, null), "bench");
+        session.addOrder(order(1L, OrderPurpose.MAIN_OPEN, TradingDirection.LONG, null));
+        for (long id = 2; id <= ORDERS; id += 2) {
+            session.addOrder(order(id, OrderPurpose.HEDGE_OPEN, TradingDirection.SHORT, 1L));
+            session.addOrder(order(id + 1, OrderPurpose.HEDGE_CLOSE, TradingDirection.SHORT, id));
+        }
+        return session;
+    }
+
+    private static TradeOrder order(long id, OrderPurpose purpose, TradingDirection direction, Long parent) {
+        return TradeOrder.builder()
+                .orderId(100_000_000L + id)
+                .creationContext("bench")
+                .purpose(purpose)
+                .direction(direction)
+                .symbol("BTCUSDT")
+                .side(direction == TradingDirection.LONG ? OrderSide.BUY : OrderSide.SELL)
+                .type(OrderType.MARKET)
+                .count(new BigDecimal("0.010"))
+                .price(new BigDecimal("62345.10"))
+                .amount(new BigDecimal("623.451"))
+                .commission(new BigDecimal("0.24938040"))
+                .commissionAsset("USDT")
+                .status(OrderStatus.FILLED)
+                .pnl(new BigDecimal("1.23456789"))
+                .leverage(10)
+                .parentOrderId(parent)
+                .modeAtCreation(SessionMode.SCALPING)
+                .orderTime(LocalDateTime.of(2025, 8, 1, 12, 0).plusSeconds(id))
+                .pnlHigh(new BigDecimal("0.5"))
+                .trailingActive(false)
+                .haveAveraging(false)
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import io.cryptobot.binance.order.enums.OrderPurpose;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.trade.session.enums.SessionMode;
+import io.cryptobot.binance.trade.session.enums.SessionStatus;
+import io.cryptobot.binance.trade.session.enums.TradingDirection;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TradeSessionCodec Tests")
+class TradeSessionCodecTest {
+
+    @Test
+    @DisplayName("Should round-trip a session with its orders")
+    void shouldRoundTripSession() {
+        // Given
+        String id = new ObjectId().toHexString();
+        TradeSession session = new TradeSession();
+        session.setId(id);
+        session.setVersion(7L);
+        session.onCreate("BTCUSDT", TradingDirection.LONG, order(1L, OrderPurpose.MAIN_OPEN, null), "test");
+        session.addOrder(order(2L, OrderPurpose.HEDGE_OPEN, 1L));
+
+        // When
+        Document doc = TradeSessionCodec.encode(session);
+        TradeSession decoded = TradeSessionCodec.decode(doc);
+
+        // Then
+        assertEquals(new ObjectId(id), doc.get("_id"));
+        assertInstanceOf(Decimal128.class, doc.get("pnl"));
+        assertInstanceOf(Decimal128.class, doc.getList("orders", Document.class).get(1).get("pnl"));
+        assertFalse(doc.containsKey("index"));
+
+        assertEquals(id, decoded.getId());
+        assertEquals(7L, decoded.getVersion());
+        assertEquals(session.getStatus(), decoded.getStatus());
+        assertEquals(session.getCurrentMode(), decoded.getCurrentMode());
+        assertEquals(0, session.getPnl().compareTo(decoded.getPnl()));
+        assertEquals(0, session.getTotalCommission().compareTo(decoded.getTotalCommission()));
+        assertEquals(session.getHedgeOpenCount(), decoded.getHedgeOpenCount());
+        assertEquals(session.isActiveShort(), decoded.isActiveShort());
+        assertEquals(session.getCreatedTime().withNano(session.getCreatedTime().getNano() / 1_000_000 * 1_000_000),
+                decoded.getCreatedTime()); // Date хранит миллисекунды
+        assertEquals(2, decoded.getOrders().size());
+        TradeOrder hedge = decoded.findOrderById(2L);
+        assertEquals(1L, hedge.getParentOrderId());
+        assertEquals(OrderPurpose.HEDGE_OPEN, hedge.getPurpose());
+        assertEquals(new BigDecimal("1.5"), hedge.getPnl());
+        assertEquals(LocalDateTime.of(2025, 8, 1, 12, 0), hedge.getOrderTime());
+    }
+
+    @Test
+    @DisplayName("Should read projections and legacy string amounts with class defaults")
+    void shouldReadPartialAndLegacyDocuments() {
+        // Given — проекция только с pnl, записанным строкой
+        Document partial = new Document("_id", "legacy-id")
+                .append("pnl", "2.5")
+                .append("orders", List.of(new Document("orderId", 5L).append("commission", "0.1")));
+
+        // When
+        TradeSession decoded = TradeSessionCodec.decode(partial);
+
+        // Then
+        assertEquals("legacy-id", decoded.getId());
+        assertEquals(new BigDecimal("2.5"), decoded.getPnl());
+        assertEquals(BigDecimal.ZERO, decoded.getTotalCommission());
+        assertEquals(0, decoded.getHedgeOpenCount());
+        assertNull(decoded.getStatus());
+        TradeOrder order = decoded.getOrders().get(0);
+        assertEquals(new BigDecimal("0.1"), order.getCommission());
+        assertEquals(BigDecimal.ZERO, order.getPnlHigh());
+        assertFalse(order.getTrailingActive());
+
+        assertTrue(TradeSessionCodec.decode(new Document()).getOrders().isEmpty());
+    }
+
+    private static TradeOrder order(long id, OrderPurpose purpose, Long parent) {
+        return TradeOrder.builder()
+                .orderId(id)
+                .direction(purpose == OrderPurpose.MAIN_OPEN ? TradingDirection.LONG : TradingDirection.SHORT)
+                .purpose(purpose)
+                .status(OrderStatus.FILLED)
+                .modeAtCreation(SessionMode.SCALPING)
+                .price(new BigDecimal("62345.10"))
+                .count(new BigDecimal("0.010"))
+                .commission(new BigDecimal("0.25"))
+                .pnl(new BigDecimal("1.5"))
+                .parentOrderId(parent)
+                .orderTime(LocalDateTime.of(2025, 8, 1, 12, 0))
+                .build();
+    }
+}
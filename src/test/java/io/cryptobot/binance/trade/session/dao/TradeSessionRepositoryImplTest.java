@@ -0,0 +1,220 @@
+package io.cryptobot.binance.trade.session.dao;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import io.cryptobot.binance.order.enums.OrderPurpose;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.trade.session.dao.TradeSessionRepositoryCustom.Counters;
+import io.cryptobot.binance.trade.session.dto.SessionAllDto;
+import io.cryptobot.binance.trade.session.enums.SessionStatus;
+import io.cryptobot.binance.trade.session.enums.TradingDirection;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TradeSessionRepositoryImpl Tests")
+class TradeSessionRepositoryImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private TradeSessionRepositoryImpl repository;
+    private TradeSession session;
+    private TradeOrder hedgeOrder;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TradeSessionRepositoryImpl(mongoTemplate);
+
+        TradeOrder mainOrder = TradeOrder.builder()
+                .orderId(1L)
+                .direction(TradingDirection.LONG)
+                .purpose(OrderPurpose.MAIN_OPEN)
+                .status(OrderStatus.FILLED)
+                .build();
+        session = new TradeSession();
+        session.setId("session1");
+        session.onCreate("BTCUSDT", TradingDirection.LONG, mainOrder, "test");
+        session.setVersion(3L);
+
+        hedgeOrder = TradeOrder.builder()
+                .orderId(2L)
+                .direction(TradingDirection.SHORT)
+                .purpose(OrderPurpose.HEDGE_OPEN)
+                .status(OrderStatus.FILLED)
+                .pnl(new BigDecimal("1.5"))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should push the order and increment counters and totals under a version check")
+    void shouldAppendOrderWithTargetedUpdate() {
+        // Given
+        Counters before = Counters.of(session);
+        session.addOrder(hedgeOrder);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TradeSession.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // When
+        boolean appended = repository.appendOrder(session, hedgeOrder, before);
+
+        // Then
+        assertTrue(appended);
+        assertEquals(4L, session.getVersion());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(TradeSession.class));
+        Document criteria = query.getValue().getQueryObject();
+        assertEquals(3L, criteria.get("version"));
+        assertEquals(new Document("$ne", 2L), criteria.get("orders.orderId"));
+
+        Document ops = update.getValue().getUpdateObject();
+        assertSame(hedgeOrder, ops.get("$push", Document.class).get("orders"));
+        assertEquals(1, ops.get("$inc", Document.class).get("hedgeOpenCount"));
+        assertEquals(1, ops.get("$inc", Document.class).get("version"));
+        Document inc = ops.get("$inc", Document.class);
+        assertEquals(new Decimal128(session.getPnl().subtract(before.pnl())), inc.get("pnl"));
+        assertEquals(new Decimal128(session.getPnlTotal().subtract(before.pnlTotal())), inc.get("pnlTotal"));
+        assertFalse(inc.containsKey("totalCommission")); // комиссия не изменилась
+        assertFalse(ops.get("$set", Document.class).containsKey("pnl"));
+        assertEquals(true, ops.get("$set", Document.class).get("activeShort"));
+        assertFalse(ops.containsKey("orders"));
+        assertTrue(criteria.containsKey("$and")); // итоги — Decimal128
+        verify(mongoTemplate, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should set totals on a document whose totals are still strings")
+    void shouldSetTotalsOnLegacyDocument() {
+        // Given — первый запрос ($inc) не находит документ: итоги ещё строки
+        Counters before = Counters.of(session);
+        session.addOrder(hedgeOrder);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TradeSession.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null), UpdateResult.acknowledged(1, 1L, null));
+
+        // When
+        boolean appended = repository.appendOrder(session, hedgeOrder, before);
+
+        // Then
+        assertTrue(appended);
+        assertEquals(4L, session.getVersion());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(query.capture(), update.capture(), eq(TradeSession.class));
+
+        Document legacy = query.getAllValues().get(1).getQueryObject();
+        assertEquals(3L, legacy.get("version"));
+        assertTrue(((Document) legacy.get("$and", List.class).get(0)).containsKey("$nor"));
+        Document ops = update.getAllValues().get(1).getUpdateObject();
+        assertEquals(session.getPnl(), ops.get("$set", Document.class).get("pnl"));
+        assertEquals(session.getPnlTotal(), ops.get("$set", Document.class).get("pnlTotal"));
+        assertSame(hedgeOrder, ops.get("$push", Document.class).get("orders"));
+        assertFalse(ops.get("$inc", Document.class).containsKey("pnl"));
+    }
+
+    @Test
+    @DisplayName("Should report a conflict when the stored version moved on")
+    void shouldReportVersionConflict() {
+        // Given
+        Counters before = Counters.of(session);
+        session.addOrder(hedgeOrder);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TradeSession.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // When
+        boolean appended = repository.appendOrder(session, hedgeOrder, before);
+
+        // Then
+        assertFalse(appended);
+        assertEquals(3L, session.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should read a page of summaries without orders, newest first after the cursor")
+    void shouldFindSummariesWithProjectionAndCursor() {
+        // Given
+        SessionCursor cursor = new SessionCursor(LocalDateTime.of(2025, 8, 1, 12, 0), "66a1");
+        when(mongoTemplate.getCollectionName(TradeSession.class)).thenReturn("trade-session");
+        when(mongoTemplate.find(any(Query.class), eq(SessionAllDto.class), eq("trade-session"))).thenReturn(List.of());
+
+        // When
+        repository.findSummaries("BTCUSDT", SessionStatus.COMPLETED, cursor, 51);
+
+        // Then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(SessionAllDto.class), eq("trade-session"));
+        Query q = query.getValue();
+        assertEquals(51, q.getLimit());
+        assertEquals(new Document("createdTime", -1).append("_id", -1), q.getSortObject());
+        assertFalse(q.getFieldsObject().containsKey("orders"));
+        assertEquals(1, q.getFieldsObject().get("pnl"));
+        List<?> filters = q.getQueryObject().get("$and", List.class);
+        assertEquals(3, filters.size());
+        assertEquals(new Document("tradePlan", "BTCUSDT"), filters.get(0));
+        assertTrue(((Document) filters.get(2)).containsKey("$or"));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(TradeSession.class));
+    }
+
+    @Test
+    @DisplayName("Should pick only old completed sessions and delete them only while still completed")
+    void shouldSelectAndDeleteArchivableSessions() {
+        // Given
+        LocalDateTime cutoff = LocalDateTime.of(2025, 7, 1, 0, 0);
+        when(mongoTemplate.find(any(Query.class), eq(TradeSession.class))).thenReturn(List.of(session));
+        when(mongoTemplate.remove(any(Query.class), eq(TradeSession.class))).thenReturn(DeleteResult.acknowledged(1L));
+
+        // When
+        List<TradeSession> found = repository.findArchivable(cutoff, 200);
+        long deleted = repository.deleteArchived(List.of("session1"));
+
+        // Then
+        assertEquals(List.of(session), found);
+        assertEquals(1L, deleted);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(TradeSession.class));
+        Document criteria = query.getValue().getQueryObject();
+        assertEquals(SessionStatus.COMPLETED, criteria.get("status"));
+        assertEquals(new Document("$lt", cutoff), criteria.get("createdTime"));
+        assertEquals(new Document("$not", new Document("$gte", cutoff)), criteria.get("endTime"));
+        assertEquals(200, query.getValue().getLimit());
+
+        verify(mongoTemplate).remove(query.capture(), eq(TradeSession.class));
+        assertEquals(SessionStatus.COMPLETED, query.getValue().getQueryObject().get("status"));
+    }
+
+    @Test
+    @DisplayName("Should encode and decode the page cursor")
+    void shouldRoundTripCursor() {
+        // Given
+        SessionCursor cursor = new SessionCursor(LocalDateTime.of(2025, 8, 1, 12, 0, 5, 123_000_000), "66a1f0");
+
+        // When
+        SessionCursor decoded = SessionCursor.decode(cursor.encode());
+
+        // Then
+        assertEquals(cursor, decoded);
+        assertNull(SessionCursor.decode(null));
+        assertThrows(IllegalArgumentException.class, () -> SessionCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+}
@@ -13,6 +13,8 @@ import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -349,6 +351,82 @@ class TradeSessionTest {
         assertTrue(session.hasActivePosition());
     }
 
+    @Test
+    void testOrderIndexLookups() {
+        // Given
+        session.onCreate("BTCUSDT", TradingDirection.LONG, mainOrder, "test");
+        TradeOrder hedgeOrder = createOrder(1002L, OrderPurpose.HEDGE_OPEN, TradingDirection.SHORT,
+                OrderStatus.FILLED, BigDecimal.valueOf(49000), BigDecimal.valueOf(0.1), 1001L);
+        TradeOrder avgOrder = createOrder(1003L, OrderPurpose.AVERAGING_OPEN, TradingDirection.LONG,
+                OrderStatus.NEW, BigDecimal.valueOf(48000), BigDecimal.valueOf(0.1), 1001L);
+        TradeOrder canceledAvg = createOrder(1004L, OrderPurpose.AVERAGING_OPEN, TradingDirection.LONG,
+                OrderStatus.CANCELED, BigDecimal.valueOf(47000), BigDecimal.valueOf(0.1), 1001L);
+
+        // When
+        session.addOrder(hedgeOrder);
+        session.addOrder(avgOrder);
+        session.addOrder(canceledAvg);
+
+        // Then
+        assertSame(avgOrder, session.findOrderById(1003L));
+        assertNull(session.findOrderById(9999L));
+        assertSame(hedgeOrder, session.getLastHedgeOrder());
+        assertEquals(List.of(hedgeOrder, avgOrder, canceledAvg), session.getChildOrders(1001L));
+        assertTrue(session.getChildOrders(1002L).isEmpty());
+        assertEquals(List.of(avgOrder), session.getOpenOrders(TradingDirection.LONG, OrderPurpose.AVERAGING_OPEN));
+        assertEquals(List.of(mainOrder), session.getOpenOrders(TradingDirection.LONG, OrderPurpose.MAIN_OPEN));
+        assertTrue(session.getOpenOrders(TradingDirection.LONG, OrderPurpose.HEDGE_OPEN).isEmpty());
+        assertEquals(0, session.getCountAverageOrders()); // усреднение ещё NEW
+        assertEquals(1, session.getHedgeOpenCount());
+    }
+
+    @Test
+    void testOrderIndexFollowsOrdersAddedOutsideSession() {
+        // Given - сессия из билдера (как после загрузки из БД) и ордер, добавленный напрямую в список
+        TradeSession built = TradeSession.builder()
+                .orders(new ArrayList<>(List.of(mainOrder)))
+                .mainPosition(1001L)
+                .build();
+        assertSame(mainOrder, built.getMainOrder());
+
+        TradeOrder hedgeOrder = createOrder(1002L, OrderPurpose.HEDGE_OPEN, TradingDirection.SHORT,
+                OrderStatus.FILLED, BigDecimal.valueOf(49000), BigDecimal.valueOf(0.1), 1001L);
+        built.getOrders().add(hedgeOrder);
+
+        // Then
+        assertSame(hedgeOrder, built.findOrderById(1002L));
+        assertSame(hedgeOrder, built.getLastHedgeOrder());
+        assertEquals(List.of(hedgeOrder), built.getChildOrders(1001L));
+    }
+
+    @Test
+    void testRunningTotalsMatchFilledOrders() {
+        // Given
+        TradeOrder main = mainOrder.toBuilder().pnl(null).commission(new BigDecimal("0.02")).build();
+        session.onCreate("BTCUSDT", TradingDirection.LONG, main, "test");
+        TradeOrder hedgeOpen = createOrder(1002L, OrderPurpose.HEDGE_OPEN, TradingDirection.SHORT,
+                OrderStatus.FILLED, BigDecimal.valueOf(49000), BigDecimal.valueOf(0.1), 1001L)
+                .toBuilder().commission(new BigDecimal("0.02")).build();
+        TradeOrder hedgeClose = createOrder(1003L, OrderPurpose.HEDGE_CLOSE, TradingDirection.SHORT,
+                OrderStatus.FILLED, BigDecimal.valueOf(48000), BigDecimal.valueOf(0.1), 1002L)
+                .toBuilder().pnl(new BigDecimal("1.5")).commission(new BigDecimal("0.03")).build();
+        TradeOrder canceled = createOrder(1004L, OrderPurpose.HEDGE_OPEN, TradingDirection.SHORT,
+                OrderStatus.CANCELED, BigDecimal.valueOf(48500), BigDecimal.valueOf(0.1), 1001L)
+                .toBuilder().pnl(new BigDecimal("100")).commission(new BigDecimal("100")).build();
+
+        // When
+        session.addOrder(hedgeOpen);
+        session.addOrder(hedgeClose);
+        session.addOrder(canceled);
+
+        // Then - отменённый ордер в суммы не входит
+        assertEquals(0, new BigDecimal("1.5").compareTo(session.getPnl()));
+        assertEquals(0, new BigDecimal("0.07").compareTo(session.getTotalCommission()));
+        assertEquals(0, new BigDecimal("1.43").compareTo(session.getPnlTotal()));
+        assertEquals(1, session.getHedgeOpenCount());
+        assertEquals(1, session.getHedgeCloseCount());
+    }
+
     // Вспомогательный метод для создания ордеров
     private TradeOrder createOrder(Long orderId, OrderPurpose purpose, TradingDirection direction, 
                                  OrderStatus status, BigDecimal price, BigDecimal quantity) {
@@ -3,11 +3,13 @@ package io.cryptobot.binance.trade.session.service;
 import io.cryptobot.binance.order.enums.OrderPurpose;
 import io.cryptobot.binance.order.enums.OrderStatus;
 import io.cryptobot.binance.trade.session.dao.TradeSessionRepository;
+import io.cryptobot.binance.trade.session.dao.TradeSessionRepositoryCustom.Counters;
 import io.cryptobot.binance.trade.session.enums.SessionStatus;
 import io.cryptobot.binance.trade.session.enums.TradingDirection;
 import io.cryptobot.binance.trade.session.exceptions.TradeSessionNotFoundException;
 import io.cryptobot.binance.trade.session.model.TradeOrder;
 import io.cryptobot.binance.trade.session.model.TradeSession;
+import io.cryptobot.binance.trade.session.service.pnl.PnlRollupService;
 import io.cryptobot.binance.trade.trade_plan.service.update.TradePlanUpdateService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,6 +18,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -37,6 +40,9 @@ class TradeSessionServiceImplTest {
     @Mock
     private TradeSessionRepository repository;
 
+    @Mock
+    private PnlRollupService pnlRollupService;
+
     @InjectMocks
     private TradeSessionServiceImpl tradeSessionService;
 
@@ -212,7 +218,7 @@ class TradeSessionServiceImplTest {
                 .build();
 
         when(repository.findById(sessionId)).thenReturn(Optional.of(tradeSession));
-        when(repository.save(any(TradeSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.appendOrder(any(TradeSession.class), any(TradeOrder.class), any(Counters.class))).thenReturn(true);
 
         // When
         TradeSession result = tradeSessionService.addOrder(sessionId, hedgeOrder);
@@ -224,12 +230,67 @@ class TradeSessionServiceImplTest {
 
         // Verify interactions
         verify(repository).findById(sessionId);
-        verify(repository).save(tradeSession);
+        verify(repository).appendOrder(eq(tradeSession), any(TradeOrder.class), any(Counters.class));
+        verify(repository, never()).save(any(TradeSession.class));
         // План не должен стать свободным, так как сессия еще активна
         verify(tradePlanUpdateService, never()).setActiveFalse(anyString());
         verify(tradePlanUpdateService, never()).addProfit(anyString(), any(BigDecimal.class));
     }
 
+    @Test
+    @DisplayName("Should reload session and retry when it was changed concurrently")
+    void testAddOrderRetriesOnVersionConflict() {
+        // Given — между чтением и записью сессию успел изменить другой поток
+        TradeOrder hedgeOrder = TradeOrder.builder()
+                .orderId(12347L)
+                .direction(TradingDirection.SHORT)
+                .purpose(OrderPurpose.HEDGE_OPEN)
+                .status(OrderStatus.FILLED)
+                .build();
+        TradeSession reloaded = new TradeSession();
+        reloaded.setId(sessionId);
+        reloaded.onCreate(planId, TradingDirection.LONG, mainOrder, "test context");
+        reloaded.setVersion(2L);
+
+        when(repository.findById(sessionId)).thenReturn(Optional.of(tradeSession), Optional.of(reloaded));
+        when(repository.appendOrder(any(TradeSession.class), eq(hedgeOrder), any(Counters.class))).thenReturn(false, true);
+
+        // When
+        TradeSession result = tradeSessionService.addOrder(sessionId, hedgeOrder);
+
+        // Then
+        assertSame(reloaded, result);
+        assertTrue(result.getOrders().contains(hedgeOrder));
+        verify(repository, times(2)).findById(sessionId);
+        verify(repository, times(2)).appendOrder(any(TradeSession.class), eq(hedgeOrder), any(Counters.class));
+        verify(repository, never()).save(any(TradeSession.class));
+    }
+
+    @Test
+    @DisplayName("Should give up when session keeps changing")
+    void testAddOrderGivesUpAfterConflicts() {
+        // Given
+        TradeOrder hedgeOrder = TradeOrder.builder()
+                .orderId(12347L)
+                .direction(TradingDirection.SHORT)
+                .purpose(OrderPurpose.HEDGE_OPEN)
+                .status(OrderStatus.FILLED)
+                .build();
+        when(repository.findById(sessionId)).thenAnswer(invocation -> {
+            TradeSession fresh = new TradeSession();
+            fresh.setId(sessionId);
+            fresh.onCreate(planId, TradingDirection.LONG, mainOrder, "test context");
+            return Optional.of(fresh);
+        });
+        when(repository.appendOrder(any(TradeSession.class), eq(hedgeOrder), any(Counters.class))).thenReturn(false);
+
+        // When & Then
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> tradeSessionService.addOrder(sessionId, hedgeOrder));
+        verify(repository, times(5)).appendOrder(any(TradeSession.class), eq(hedgeOrder), any(Counters.class));
+        verify(tradePlanUpdateService, never()).setActiveFalse(anyString());
+    }
+
     @Test
     @DisplayName("Should complete session and free plan when adding closing order")
     void testAddOrderCompletesSessionAndFreesPlan() {
@@ -238,14 +299,7 @@ class TradeSessionServiceImplTest {
         tradeSession.addOrder(mainOrder);
         
         when(repository.findById(sessionId)).thenReturn(Optional.of(tradeSession));
-        when(repository.save(any(TradeSession.class))).thenAnswer(invocation -> {
-            TradeSession session = invocation.getArgument(0);
-            // Симулируем автоматическое завершение сессии когда все позиции закрыты
-            if (!session.hasActivePosition()) {
-                session.completeSession();
-            }
-            return session;
-        });
+        when(repository.appendOrder(any(TradeSession.class), any(TradeOrder.class), any(Counters.class))).thenReturn(true);
 
         // When
         TradeSession result = tradeSessionService.addOrder(sessionId, closeOrder);
@@ -257,11 +311,13 @@ class TradeSessionServiceImplTest {
 
         // Verify interactions
         verify(repository).findById(sessionId);
-        verify(repository).save(tradeSession);
+        verify(repository).appendOrder(eq(tradeSession), any(TradeOrder.class), any(Counters.class));
+        verify(repository, never()).save(any(TradeSession.class));
         
         // Проверяем что план стал свободным и добавлена прибыль
         verify(tradePlanUpdateService).setActiveFalse(planId);
         verify(tradePlanUpdateService).addProfit(eq(planId), any(BigDecimal.class));
+        verify(pnlRollupService).onSessionCompleted(tradeSession);
     }
 
     @Test
@@ -288,6 +344,7 @@ class TradeSessionServiceImplTest {
         // Verify interactions
         verify(repository).findById(sessionId);
         verify(repository, never()).save(any(TradeSession.class)); // Не сохраняем, так как ордер уже существует
+        verify(repository, never()).appendOrder(any(), any(), any());
     }
 
     @Test
@@ -309,6 +366,7 @@ class TradeSessionServiceImplTest {
         // Verify interactions
         verify(repository).findById(sessionId);
         verify(repository, never()).save(any(TradeSession.class));
+        verify(repository, never()).appendOrder(any(), any(), any());
     }
 
     @Test
@@ -316,11 +374,6 @@ class TradeSessionServiceImplTest {
     void testCloseSessionSuccessfully() {
         // Given
         when(repository.findById(sessionId)).thenReturn(Optional.of(tradeSession));
-        when(repository.save(any(TradeSession.class))).thenAnswer(invocation -> {
-            TradeSession session = invocation.getArgument(0);
-            session.completeSession();
-            return session;
-        });
 
         // When
         TradeSession result = tradeSessionService.closeSession(sessionId);
@@ -331,8 +384,10 @@ class TradeSessionServiceImplTest {
 
         // Verify interactions
         verify(repository).findById(sessionId);
-        verify(repository).save(tradeSession);
+        verify(repository).markCompleted(tradeSession);
+        verify(repository, never()).save(any(TradeSession.class));
         verify(tradePlanUpdateService).setActiveFalse(planId);
+        verify(pnlRollupService).onSessionCompleted(tradeSession);
     }
 
     @Test
@@ -341,7 +396,6 @@ class TradeSessionServiceImplTest {
         // Given
         tradeSession.completeSession(); // Завершаем сессию заранее
         when(repository.findById(sessionId)).thenReturn(Optional.of(tradeSession));
-        when(repository.save(any(TradeSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
         TradeSession result = tradeSessionService.closeSession(sessionId);
@@ -352,7 +406,7 @@ class TradeSessionServiceImplTest {
 
         // Verify interactions
         verify(repository).findById(sessionId);
-        verify(repository).save(any(TradeSession.class)); // Сохраняем даже завершенную сессию
+        verify(repository).markCompleted(tradeSession); // Сохраняем даже завершенную сессию
         verify(tradePlanUpdateService, times(2)).setActiveFalse(planId); // Освобождаем план дважды
         
         // Проверяем что PnL не null
@@ -372,6 +426,7 @@ class TradeSessionServiceImplTest {
         // Verify interactions
         verify(repository).findById(sessionId);
         verify(repository, never()).save(any(TradeSession.class));
+        verify(repository, never()).markCompleted(any(TradeSession.class));
         verify(tradePlanUpdateService, never()).setActiveFalse(anyString());
     }
 
@@ -394,13 +449,7 @@ class TradeSessionServiceImplTest {
         tradeSession.addOrder(mainOrder);
         
         when(repository.findById(sessionId)).thenReturn(Optional.of(tradeSession));
-        when(repository.save(any(TradeSession.class))).thenAnswer(invocation -> {
-            TradeSession session = invocation.getArgument(0);
-            if (!session.hasActivePosition()) {
-                session.completeSession();
-            }
-            return session;
-        });
+        when(repository.appendOrder(any(TradeSession.class), any(TradeOrder.class), any(Counters.class))).thenReturn(true);
 
         // When
         TradeSession result = tradeSessionService.addOrder(sessionId, closeOrder);
@@ -432,14 +481,7 @@ class TradeSessionServiceImplTest {
         tradeSession.addOrder(mainOrder);
 
         when(repository.findById(sessionId)).thenReturn(Optional.of(tradeSession));
-        when(repository.save(any(TradeSession.class))).thenAnswer(invocation -> {
-            TradeSession session = invocation.getArgument(0);
-            // При добавлении закрывающего ордера сессия должна завершиться
-            if (!session.hasActivePosition()) {
-                session.completeSession();
-            }
-            return session;
-        });
+        when(repository.appendOrder(any(TradeSession.class), any(TradeOrder.class), any(Counters.class))).thenReturn(true);
 
         // When - добавляем закрывающий ордер
         TradeSession result = tradeSessionService.addOrder(sessionId, closeOrder);
@@ -475,7 +517,7 @@ class TradeSessionServiceImplTest {
         tradeSession.addOrder(mainOrder);
 
         when(repository.findById(sessionId)).thenReturn(Optional.of(tradeSession));
-        when(repository.save(any(TradeSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.appendOrder(any(TradeSession.class), any(TradeOrder.class), any(Counters.class))).thenReturn(true);
 
         // When - добавляем хедж ордер (сессия должна остаться активной)
         TradeSession result = tradeSessionService.addOrder(sessionId, hedgeOrder);
@@ -0,0 +1,111 @@
+package io.cryptobot.binance.trade.session.service.archive;
+
+import io.cryptobot.binance.order.enums.OrderPurpose;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.trade.session.dao.ArchivedSessionRepository;
+import io.cryptobot.binance.trade.session.dao.SessionArchiveCodec;
+import io.cryptobot.binance.trade.session.dao.TradeSessionRepository;
+import io.cryptobot.binance.trade.session.enums.TradingDirection;
+import io.cryptobot.binance.trade.session.model.ArchivedSession;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SessionArchiveServiceImpl Tests")
+class SessionArchiveServiceImplTest {
+
+    @Mock
+    private TradeSessionRepository sessionRepository;
+
+    @Mock
+    private ArchivedSessionRepository archivedRepository;
+
+    @InjectMocks
+    private SessionArchiveServiceImpl archiveService;
+
+    @Test
+    @DisplayName("Should write a batch to the archive before removing it from the working collection")
+    @SuppressWarnings("unchecked")
+    void shouldArchiveThenDeleteBatch() {
+        // Given
+        LocalDateTime cutoff = LocalDateTime.of(2025, 8, 1, 0, 0);
+        TradeSession first = completedSession("session1");
+        TradeSession second = completedSession("session2");
+        when(sessionRepository.findArchivable(cutoff, SessionArchiveServiceImpl.BATCH_SIZE)).thenReturn(List.of(first, second));
+
+        // When
+        int moved = archiveService.archiveBatch(cutoff);
+
+        // Then
+        assertEquals(2, moved);
+        ArgumentCaptor<List<ArchivedSession>> archived = ArgumentCaptor.forClass(List.class);
+        InOrder inOrder = inOrder(archivedRepository, sessionRepository);
+        inOrder.verify(archivedRepository).upsertAll(archived.capture());
+        inOrder.verify(sessionRepository).deleteArchived(List.of("session1", "session2"));
+        assertEquals(List.of("session1", "session2"), archived.getValue().stream().map(ArchivedSession::getId).toList());
+        assertNotNull(archived.getValue().get(0).getPayload());
+    }
+
+    @Test
+    @DisplayName("Should do nothing when no session is old enough")
+    void shouldSkipEmptyBatch() {
+        // Given
+        when(sessionRepository.findArchivable(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+
+        // When
+        int moved = archiveService.archiveBatch(LocalDateTime.now());
+
+        // Then
+        assertEquals(0, moved);
+        verifyNoInteractions(archivedRepository);
+        verify(sessionRepository, never()).deleteArchived(anyList());
+    }
+
+    @Test
+    @DisplayName("Should restore an archived session by id")
+    void shouldFindArchivedSession() {
+        // Given
+        TradeSession session = completedSession("66a1f0c2e4b0a1b2c3d4e5f6");
+        when(archivedRepository.findById(session.getId()))
+                .thenReturn(Optional.of(SessionArchiveCodec.archive(session, LocalDateTime.now())));
+
+        // When
+        Optional<TradeSession> found = archiveService.findArchived(session.getId());
+
+        // Then
+        assertTrue(found.isPresent());
+        assertEquals(session.getId(), found.get().getId());
+        assertEquals(session.getOrders().size(), found.get().getOrders().size());
+        assertTrue(archiveService.findArchived("missing").isEmpty());
+    }
+
+    private static TradeSession completedSession(String id) {
+        TradeOrder mainOrder = TradeOrder.builder()
+                .orderId(1L)
+                .direction(TradingDirection.LONG)
+                .purpose(OrderPurpose.MAIN_OPEN)
+                .status(OrderStatus.FILLED)
+                .build();
+        TradeSession session = new TradeSession();
+        session.setId(id);
+        session.onCreate("BTCUSDT", TradingDirection.LONG, mainOrder, "test");
+        session.completeSession();
+        return session;
+    }
+}
@@ -0,0 +1,178 @@
+package io.cryptobot.binance.trade.session.service.get;
+
+import io.cryptobot.binance.trade.session.dao.SessionCursor;
+import io.cryptobot.binance.trade.session.dao.TradeSessionRepository;
+import io.cryptobot.binance.trade.session.dto.PnlResultDto;
+import io.cryptobot.binance.trade.session.dto.SessionAllDto;
+import io.cryptobot.binance.trade.session.dto.SessionPageDto;
+import io.cryptobot.binance.trade.session.enums.SessionStatus;
+import io.cryptobot.binance.trade.session.exceptions.TradeSessionNotFoundException;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import io.cryptobot.binance.trade.session.service.TradeSessionService;
+import io.cryptobot.binance.trade.session.service.archive.SessionArchiveService;
+import io.cryptobot.binance.trade.session.service.pnl.PnlRollupService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.modelmapper.ModelMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TradeSessionGetServiceImpl Tests")
+class TradeSessionGetServiceImplTest {
+
+    @Mock
+    private ModelMapper modelMapper;
+
+    @Mock
+    private TradeSessionService tradeSessionService;
+
+    @Mock
+    private TradeSessionRepository repository;
+
+    @Mock
+    private PnlRollupService pnlRollupService;
+
+    @Mock
+    private SessionArchiveService archiveService;
+
+    @InjectMocks
+    private TradeSessionGetServiceImpl sessionGetService;
+
+    @Test
+    @DisplayName("Should return a page and a cursor pointing after its last session")
+    void shouldReturnPageWithNextCursor() {
+        // Given — репозиторий вернул на одну сессию больше, чем просили
+        List<SessionAllDto> found = sessions(3);
+        when(repository.findSummaries(null, null, null, 3)).thenReturn(found);
+
+        // When
+        SessionPageDto page = sessionGetService.getAll(null, 2);
+
+        // Then
+        assertEquals(2, page.getItems().size());
+        SessionCursor next = SessionCursor.decode(page.getNextCursor());
+        assertEquals(found.get(1).getId(), next.id());
+        assertEquals(found.get(1).getCreatedTime(), next.createdTime());
+        verify(repository, never()).findAll();
+        verifyNoInteractions(modelMapper);
+    }
+
+    @Test
+    @DisplayName("Should continue after the cursor and end on the last page")
+    void shouldContinueFromCursor() {
+        // Given
+        SessionCursor cursor = new SessionCursor(LocalDateTime.of(2025, 8, 1, 12, 0), "66a1");
+        when(repository.findSummaries(isNull(), eq(SessionStatus.COMPLETED), eq(cursor), eq(51)))
+                .thenReturn(sessions(1));
+
+        // When
+        SessionPageDto page = sessionGetService.getAllByStatus(SessionStatus.COMPLETED, cursor.encode(), 50);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should merge hot and archived sessions into one ordered page")
+    void shouldMergeArchivedSessionsIntoPage() {
+        // Given — сессия session1 попала в обе коллекции в момент переноса
+        List<SessionAllDto> all = sessions(4);
+        when(repository.findSummaries(null, null, null, 4)).thenReturn(List.of(all.get(0), all.get(1)));
+        when(archiveService.findSummaries(null, null, 4)).thenReturn(List.of(all.get(1), all.get(2), all.get(3)));
+
+        // When
+        SessionPageDto page = sessionGetService.getAll(null, 3);
+
+        // Then
+        assertEquals(List.of("session0", "session1", "session2"), page.getItems().stream().map(SessionAllDto::getId).toList());
+        assertEquals("session2", SessionCursor.decode(page.getNextCursor()).id());
+    }
+
+    @Test
+    @DisplayName("Should not read the archive for non-completed statuses")
+    void shouldSkipArchiveForActiveStatus() {
+        // Given
+        when(repository.findSummaries(null, SessionStatus.ACTIVE, null, 11)).thenReturn(sessions(1));
+
+        // When
+        sessionGetService.getAllByStatus(SessionStatus.ACTIVE, null, 10);
+
+        // Then
+        verifyNoInteractions(archiveService);
+    }
+
+    @Test
+    @DisplayName("Should read orders of an archived session through the archive service")
+    void shouldFallBackToArchiveForOrders() {
+        // Given
+        TradeSession archived = TradeSession.builder().id("old").orders(new ArrayList<>()).build();
+        when(repository.findById("old")).thenReturn(Optional.empty());
+        when(archiveService.findArchived("old")).thenReturn(Optional.of(archived));
+
+        // When
+        List<TradeOrder> orders = sessionGetService.getOrders("old");
+
+        // Then
+        assertSame(archived.getOrders(), orders);
+        assertThrows(TradeSessionNotFoundException.class, () -> sessionGetService.getOrders("missing"));
+    }
+
+    @Test
+    @DisplayName("Should cap the page size and reject a malformed cursor")
+    void shouldCapLimitAndRejectBadCursor() {
+        // Given
+        when(repository.findSummaries(anyString(), isNull(), isNull(), anyInt())).thenReturn(List.of());
+
+        // When
+        sessionGetService.getAllByPlan("BTCUSDT", null, 100_000);
+
+        // Then
+        verify(repository).findSummaries("BTCUSDT", null, null, TradeSessionGetServiceImpl.MAX_PAGE_SIZE + 1);
+        assertThrows(IllegalArgumentException.class, () -> sessionGetService.getAll("not a cursor!", 10));
+    }
+
+    @Test
+    @DisplayName("Should answer PnL from rollups without loading sessions")
+    void shouldCalcPnlFromRollups() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2025, 8, 1, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        PnlResultDto expected = PnlResultDto.builder().pnl(BigDecimal.TEN).build();
+        when(pnlRollupService.total("BTCUSDT")).thenReturn(expected);
+        when(pnlRollupService.range(from, to, null)).thenReturn(expected);
+
+        // When / Then
+        assertSame(expected, sessionGetService.calcPnlByPlan("BTCUSDT"));
+        assertSame(expected, sessionGetService.calcPnlByTimeRange(from, to));
+        verifyNoInteractions(repository);
+    }
+
+    private static List<SessionAllDto> sessions(int n) {
+        List<SessionAllDto> list = new ArrayList<>();
+        LocalDateTime t = LocalDateTime.of(2025, 8, 1, 12, 0);
+        for (int i = 0; i < n; i++) {
+            list.add(SessionAllDto.builder()
+                    .id("session" + i)
+                    .tradePlan("BTCUSDT")
+                    .status(SessionStatus.COMPLETED)
+                    .createdTime(t.minusMinutes(i))
+                    .build());
+        }
+        return list;
+    }
+}
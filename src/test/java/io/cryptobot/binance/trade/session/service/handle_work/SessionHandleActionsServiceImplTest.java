@@ -10,6 +10,7 @@ import io.cryptobot.binance.trade.session.enums.TradingDirection;
 import io.cryptobot.binance.trade.session.exceptions.TradeSessionNotFoundException;
 import io.cryptobot.binance.trade.session.model.TradeOrder;
 import io.cryptobot.binance.trade.session.model.TradeSession;
+import io.cryptobot.binance.trade.session.service.pnl.PnlRollupService;
 import io.cryptobot.binance.trade.trade_plan.service.update.TradePlanUpdateService;
 import io.cryptobot.binance.trading.monitoring.v3.MonitoringServiceV3;
 import io.cryptobot.binance.trading.monitoring.v3.help.MonitorHelper;
@@ -54,6 +55,9 @@ class SessionHandleActionsServiceImplTest {
     @Mock
     private MonitorHelper monitorHelper;
 
+    @Mock
+    private PnlRollupService pnlRollupService;
+
     @InjectMocks
     private SessionHandleActionsServiceImpl sessionHandleActionsService;
 
@@ -425,7 +429,9 @@ class SessionHandleActionsServiceImplTest {
         verify(monitoringService).removeFromMonitoring(sessionId);
         verify(tradePlanUpdateService).setActiveFalse(planId);
         verify(tradePlanUpdateService).addProfit(eq(planId), any(BigDecimal.class));
-        verify(repository).save(any(TradeSession.class));
+        verify(repository).markCompleted(activeSession);
+        verify(pnlRollupService).onSessionCompleted(activeSession);
+        verify(repository, never()).save(any(TradeSession.class));
         verify(modelMapper).map(any(TradeSession.class), eq(SessionDto.class));
     }
 
@@ -0,0 +1,241 @@
+package io.cryptobot.binance.trade.session.service.pnl;
+
+import io.cryptobot.binance.order.enums.OrderPurpose;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.trade.session.dao.ArchivedSessionRepository;
+import io.cryptobot.binance.trade.session.dao.PnlBucketRepository;
+import io.cryptobot.binance.trade.session.dao.TradeSessionRepository;
+import io.cryptobot.binance.trade.session.dto.PnlResultDto;
+import io.cryptobot.binance.trade.session.enums.PnlGranularity;
+import io.cryptobot.binance.trade.session.enums.TradingDirection;
+import io.cryptobot.binance.trade.session.model.PnlBucket;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PnlRollupServiceImpl Tests")
+class PnlRollupServiceImplTest {
+
+    @Mock
+    private PnlBucketRepository bucketRepository;
+
+    @Mock
+    private TradeSessionRepository sessionRepository;
+
+    @Mock
+    private ArchivedSessionRepository archiveRepository;
+
+    @InjectMocks
+    private PnlRollupServiceImpl rollupService;
+
+    @Test
+    @DisplayName("Should add a completed session to hour and day buckets only once")
+    void shouldRollUpSessionOnce() {
+        // Given
+        TradeSession session = completedSession();
+        LocalDateTime created = session.getCreatedTime();
+        when(sessionRepository.claimPnlRollup("session1")).thenReturn(true, false);
+
+        // When
+        rollupService.onSessionCompleted(session);
+        rollupService.onSessionCompleted(session);
+
+        // Then
+        verify(bucketRepository).add("BTCUSDT", PnlGranularity.HOUR, PnlGranularity.HOUR.bucketStart(created),
+                session.getPnl(), session.getTotalCommission());
+        verify(bucketRepository).add("BTCUSDT", PnlGranularity.DAY, PnlGranularity.DAY.bucketStart(created),
+                session.getPnl(), session.getTotalCommission());
+        verifyNoMoreInteractions(bucketRepository);
+    }
+
+    @Test
+    @DisplayName("Should not fail the caller when buckets cannot be updated")
+    void shouldSwallowRollupFailure() {
+        // Given
+        when(sessionRepository.claimPnlRollup("session1")).thenReturn(true);
+        doThrow(new RuntimeException("mongo down")).when(bucketRepository)
+                .add(anyString(), any(PnlGranularity.class), any(LocalDateTime.class), any(), any());
+
+        // When / Then
+        assertDoesNotThrow(() -> rollupService.onSessionCompleted(completedSession()));
+        verify(sessionRepository).releasePnlRollup("session1");
+        verify(bucketRepository, never()).subtract(anyString(), any(PnlGranularity.class), any(LocalDateTime.class), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should undo the hour bucket and release the claim when the day bucket fails")
+    void shouldRollBackPartialRollup() {
+        // Given
+        TradeSession session = completedSession();
+        LocalDateTime created = session.getCreatedTime();
+        when(sessionRepository.claimPnlRollup("session1")).thenReturn(true);
+        lenient().doThrow(new RuntimeException("mongo down")).when(bucketRepository)
+                .add(eq("BTCUSDT"), eq(PnlGranularity.DAY), any(LocalDateTime.class), any(), any());
+
+        // When
+        rollupService.onSessionCompleted(session);
+
+        // Then
+        InOrder inOrder = inOrder(bucketRepository, sessionRepository);
+        inOrder.verify(bucketRepository).add("BTCUSDT", PnlGranularity.HOUR, PnlGranularity.HOUR.bucketStart(created),
+                session.getPnl(), session.getTotalCommission());
+        inOrder.verify(bucketRepository).subtract("BTCUSDT", PnlGranularity.HOUR, PnlGranularity.HOUR.bucketStart(created),
+                session.getPnl(), session.getTotalCommission());
+        inOrder.verify(sessionRepository).releasePnlRollup("session1");
+        verify(bucketRepository, never()).subtract(anyString(), eq(PnlGranularity.DAY), any(LocalDateTime.class), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should retry sessions whose rollup was released")
+    void shouldRetryNotRolledUpSessions() {
+        // Given
+        TradeSession session = completedSession();
+        when(sessionRepository.findPnlNotRolledUp(anyInt())).thenReturn(List.of(session));
+        when(sessionRepository.claimPnlRollup("session1")).thenReturn(true);
+
+        // When
+        rollupService.retryNotRolledUp();
+
+        // Then
+        verify(bucketRepository).add(eq("BTCUSDT"), eq(PnlGranularity.HOUR), any(LocalDateTime.class), any(), any());
+        verify(bucketRepository).add(eq("BTCUSDT"), eq(PnlGranularity.DAY), any(LocalDateTime.class), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should sum day buckets, hour buckets and partial-hour edges for a range")
+    void shouldComposeRangeFromBuckets() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2025, 8, 1, 10, 30);
+        LocalDateTime to = LocalDateTime.of(2025, 8, 3, 5, 20);
+        LocalDateTime hourFrom = LocalDateTime.of(2025, 8, 1, 11, 0);
+        LocalDateTime day2 = LocalDateTime.of(2025, 8, 2, 0, 0);
+        LocalDateTime day3 = LocalDateTime.of(2025, 8, 3, 0, 0);
+        LocalDateTime hourTo = LocalDateTime.of(2025, 8, 3, 5, 0);
+
+        when(sessionRepository.findCompletedPnl("BTCUSDT", from, false, hourFrom)).thenReturn(List.of(pnlOnly("1", "0.1")));
+        when(sessionRepository.findCompletedPnl("BTCUSDT", hourTo, true, to)).thenReturn(List.of(pnlOnly("2", "0.1")));
+        when(bucketRepository.findBuckets("BTCUSDT", PnlGranularity.HOUR, hourFrom, day2)).thenReturn(List.of(bucket("3", "0.2", 2)));
+        when(bucketRepository.findBuckets("BTCUSDT", PnlGranularity.DAY, day2, day3)).thenReturn(List.of(bucket("10", "1", 5)));
+        when(bucketRepository.findBuckets("BTCUSDT", PnlGranularity.HOUR, day3, hourTo)).thenReturn(List.of(bucket("-4", "0.3", 3)));
+
+        // When
+        PnlResultDto result = rollupService.range(from, to, "BTCUSDT");
+
+        // Then
+        assertEquals(0, new BigDecimal("12").compareTo(result.getPnl()));
+        assertEquals(0, new BigDecimal("1.7").compareTo(result.getCommission()));
+        assertEquals(0, new BigDecimal("10.3").compareTo(result.getPnlTotal()));
+        assertEquals(12L, result.getSessions());
+        verify(sessionRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Should read sessions directly when the range has no whole hour")
+    void shouldScanShortRange() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2025, 8, 1, 10, 30);
+        LocalDateTime to = LocalDateTime.of(2025, 8, 1, 11, 20);
+        when(sessionRepository.findCompletedPnl(null, from, false, to)).thenReturn(List.of(pnlOnly("1.5", "0.5")));
+
+        // When
+        PnlResultDto result = rollupService.range(from, to, null);
+
+        // Then
+        assertEquals(0, BigDecimal.ONE.compareTo(result.getPnlTotal()));
+        assertEquals(1L, result.getSessions());
+        verifyNoInteractions(bucketRepository);
+        assertEquals(0L, rollupService.range(to, from, null).getSessions());
+    }
+
+    @Test
+    @DisplayName("Should add archived sessions at the edges and count a session present in both collections once")
+    void shouldScanArchiveAtEdges() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2025, 8, 1, 10, 30);
+        LocalDateTime to = LocalDateTime.of(2025, 8, 1, 11, 20);
+        TradeSession moving = pnlOnly("1", "0");
+        moving.setId("moving");
+        TradeSession archived = pnlOnly("2", "0");
+        archived.setId("archived");
+        when(sessionRepository.findCompletedPnl(null, from, false, to)).thenReturn(List.of(moving));
+        when(archiveRepository.findCompletedPnl(null, from, false, to)).thenReturn(List.of(moving, archived));
+
+        // When
+        PnlResultDto result = rollupService.range(from, to, null);
+
+        // Then
+        assertEquals(0, new BigDecimal("3").compareTo(result.getPnl()));
+        assertEquals(2L, result.getSessions());
+    }
+
+    @Test
+    @DisplayName("Should mark history, clear buckets and rebuild them with the aggregation")
+    void shouldRebuildBuckets() {
+        // When
+        rollupService.rebuild();
+
+        // Then
+        InOrder inOrder = inOrder(sessionRepository, bucketRepository);
+        inOrder.verify(sessionRepository).markAllPnlRolledUp();
+        inOrder.verify(bucketRepository).deleteAll();
+        inOrder.verify(bucketRepository).rebuildFromSessions();
+    }
+
+    @Test
+    @DisplayName("Should backfill only when there are no buckets yet")
+    void shouldBackfillOnlyWhenEmpty() {
+        // Given
+        when(bucketRepository.count()).thenReturn(42L);
+
+        // When
+        rollupService.backfillIfEmpty();
+
+        // Then
+        verify(bucketRepository, never()).rebuildFromSessions();
+        verifyNoInteractions(sessionRepository);
+    }
+
+    private static TradeSession completedSession() {
+        TradeOrder mainOrder = TradeOrder.builder()
+                .orderId(1L)
+                .direction(TradingDirection.LONG)
+                .purpose(OrderPurpose.MAIN_OPEN)
+                .status(OrderStatus.FILLED)
+                .build();
+        TradeSession session = new TradeSession();
+        session.setId("session1");
+        session.onCreate("BTCUSDT", TradingDirection.LONG, mainOrder, "test");
+        session.completeSession();
+        return session;
+    }
+
+    private static TradeSession pnlOnly(String pnl, String commission) {
+        return TradeSession.builder()
+                .pnl(new BigDecimal(pnl))
+                .totalCommission(new BigDecimal(commission))
+                .build();
+    }
+
+    private static PnlBucket bucket(String pnl, String commission, long sessions) {
+        return PnlBucket.builder()
+                .pnl(new BigDecimal(pnl))
+                .commission(new BigDecimal(commission))
+                .sessions(sessions)
+                .build();
+    }
+}
@@ -164,6 +164,7 @@ class TradePlanUpdateServiceImplTest {
         // Verify no interactions
         verify(tradePlanGetService, never()).getPlan(anyString());
         verify(repository, never()).save(any(TradePlan.class));
+        verify(repository, never()).markActive(anyString(), anyString());
     }
 
     @Test
@@ -220,17 +221,15 @@ class TradePlanUpdateServiceImplTest {
         String symbol = "BTCUSDT";
         BigDecimal profit = new BigDecimal("50.00");
 
-        when(tradePlanGetService.getPlan(symbol)).thenReturn(tradePlan);
+        when(repository.addProfit(symbol, profit)).thenReturn(true);
 
         // When
         tradePlanUpdateService.addProfit(symbol, profit);
 
-        // Then
-        assertEquals(0, new BigDecimal("50.00").compareTo(tradePlan.getPnl()));
-
-        // Verify interactions
-        verify(tradePlanGetService).getPlan(symbol);
-        verify(repository).save(tradePlan);
+        // Then — прибыль прибавляется в БД атомарно, план целиком не читается и не перезаписывается
+        verify(repository).addProfit(symbol, profit);
+        verify(tradePlanGetService, never()).getPlan(anyString());
+        verify(repository, never()).save(any(TradePlan.class));
         verify(cacheManager).evictPlanAndListCaches(symbol);
     }
 
@@ -241,17 +240,15 @@ class TradePlanUpdateServiceImplTest {
         String symbol = "BTCUSDT";
         BigDecimal negativeProfit = new BigDecimal("-30.00");
 
-        when(tradePlanGetService.getPlan(symbol)).thenReturn(tradePlan);
+        when(repository.addProfit(symbol, negativeProfit)).thenReturn(true);
 
         // When
         tradePlanUpdateService.addProfit(symbol, negativeProfit);
 
-        // Then
-        assertEquals(0, new BigDecimal("-30.00").compareTo(tradePlan.getPnl()));
-
-        // Verify interactions
-        verify(tradePlanGetService).getPlan(symbol);
-        verify(repository).save(tradePlan);
+        // Then — прибыль прибавляется в БД атомарно, план целиком не читается и не перезаписывается
+        verify(repository).addProfit(symbol, negativeProfit);
+        verify(tradePlanGetService, never()).getPlan(anyString());
+        verify(repository, never()).save(any(TradePlan.class));
         verify(cacheManager).evictPlanAndListCaches(symbol);
     }
 
@@ -322,17 +319,15 @@ class TradePlanUpdateServiceImplTest {
         String symbol = "BTCUSDT";
         String sessionId = "session123";
 
-        when(tradePlanGetService.getPlan(symbol)).thenReturn(tradePlan);
+        when(repository.markActive(symbol, sessionId)).thenReturn(true);
 
         // When
         tradePlanUpdateService.setActiveTrue(symbol, sessionId);
 
         // Then
-        assertTrue(tradePlan.getActive()); // closeActive не меняет состояние в тестах
-
-        // Verify interactions
-        verify(tradePlanGetService).getPlan(symbol);
-        verify(repository).save(tradePlan);
+        verify(repository).markActive(symbol, sessionId);
+        verify(tradePlanGetService, never()).getPlan(anyString());
+        verify(repository, never()).save(any(TradePlan.class));
         verify(cacheManager).evictPlanAndListCaches(symbol);
     }
 
@@ -351,6 +346,7 @@ class TradePlanUpdateServiceImplTest {
         // Verify no interactions
         verify(tradePlanGetService, never()).getPlan(anyString());
         verify(repository, never()).save(any(TradePlan.class));
+        verify(repository, never()).markActive(anyString(), anyString());
         verify(cacheManager, never()).evictPlanAndListCaches(anyString());
     }
 
@@ -369,6 +365,7 @@ class TradePlanUpdateServiceImplTest {
         // Verify no interactions
         verify(tradePlanGetService, never()).getPlan(anyString());
         verify(repository, never()).save(any(TradePlan.class));
+        verify(repository, never()).markActive(anyString(), anyString());
         verify(cacheManager, never()).evictPlanAndListCaches(anyString());
     }
 
@@ -378,20 +375,34 @@ class TradePlanUpdateServiceImplTest {
         // Given
         String symbol = "BTCUSDT";
 
-        when(tradePlanGetService.getPlan(symbol)).thenReturn(tradePlan);
+        when(repository.markInactive(symbol)).thenReturn(true);
 
         // When
         tradePlanUpdateService.setActiveFalse(symbol);
 
         // Then
-        assertFalse(tradePlan.getActive()); // openActive не меняет состояние в тестах
-
-        // Verify interactions
-        verify(tradePlanGetService).getPlan(symbol);
-        verify(repository).save(tradePlan);
+        verify(repository).markInactive(symbol);
+        verify(tradePlanGetService, never()).getPlan(anyString());
+        verify(repository, never()).save(any(TradePlan.class));
         verify(cacheManager).evictPlanAndListCaches(symbol);
     }
 
+    @Test
+    @DisplayName("Should throw when plan to update does not exist")
+    void testAtomicUpdatesOnMissingPlan() {
+        // Given
+        String symbol = "UNKNOWN";
+        when(repository.addProfit(eq(symbol), any(BigDecimal.class))).thenReturn(false);
+        when(repository.markActive(symbol, "session123")).thenReturn(false);
+        when(repository.markInactive(symbol)).thenReturn(false);
+
+        // When & Then
+        assertThrows(TradePlanNotFoundException.class, () -> tradePlanUpdateService.addProfit(symbol, BigDecimal.ONE));
+        assertThrows(TradePlanNotFoundException.class, () -> tradePlanUpdateService.setActiveTrue(symbol, "session123"));
+        assertThrows(TradePlanNotFoundException.class, () -> tradePlanUpdateService.setActiveFalse(symbol));
+        verify(cacheManager, never()).evictPlanAndListCaches(anyString());
+    }
+
     @Test
     @DisplayName("Should handle scheduled update sizes successfully")
     void testScheduledUpdateSizes() {
@@ -553,6 +564,7 @@ class TradePlanUpdateServiceImplTest {
         // Verify no interactions
         verify(tradePlanGetService, never()).getPlan(anyString());
         verify(repository, never()).save(any(TradePlan.class));
+        verify(repository, never()).markActive(anyString(), anyString());
         verify(cacheManager, never()).evictPlanAndListCaches(anyString());
     }
 
@@ -604,17 +616,15 @@ class TradePlanUpdateServiceImplTest {
         String symbol = "BTCUSDT";
         BigDecimal zeroProfit = BigDecimal.ZERO;
 
-        when(tradePlanGetService.getPlan(symbol)).thenReturn(tradePlan);
+        when(repository.addProfit(symbol, zeroProfit)).thenReturn(true);
 
         // When
         tradePlanUpdateService.addProfit(symbol, zeroProfit);
 
-        // Then
-        assertEquals(0, BigDecimal.ZERO.compareTo(tradePlan.getPnl()));
-
-        // Verify interactions
-        verify(tradePlanGetService).getPlan(symbol);
-        verify(repository).save(tradePlan);
+        // Then — прибыль прибавляется в БД атомарно, план целиком не читается и не перезаписывается
+        verify(repository).addProfit(symbol, zeroProfit);
+        verify(tradePlanGetService, never()).getPlan(anyString());
+        verify(repository, never()).save(any(TradePlan.class));
         verify(cacheManager).evictPlanAndListCaches(symbol);
     }
 
@@ -625,20 +635,17 @@ class TradePlanUpdateServiceImplTest {
         String symbol = "BTCUSDT";
         BigDecimal firstProfit = new BigDecimal("30.0");
         BigDecimal secondProfit = new BigDecimal("20.0");
-        BigDecimal expectedTotal = new BigDecimal("50.0");
 
-        when(tradePlanGetService.getPlan(symbol)).thenReturn(tradePlan);
+        when(repository.addProfit(eq(symbol), any(BigDecimal.class))).thenReturn(true);
 
         // When
         tradePlanUpdateService.addProfit(symbol, firstProfit);
         tradePlanUpdateService.addProfit(symbol, secondProfit);
 
         // Then
-        assertEquals(0, expectedTotal.compareTo(tradePlan.getPnl()));
-
-        // Verify interactions
-        verify(tradePlanGetService, times(2)).getPlan(symbol);
-        verify(repository, times(2)).save(tradePlan);
+        verify(repository).addProfit(symbol, firstProfit);
+        verify(repository).addProfit(symbol, secondProfit);
+        verify(repository, never()).save(any(TradePlan.class));
         verify(cacheManager, times(2)).evictPlanAndListCaches(symbol);
     }
 
@@ -649,17 +656,15 @@ class TradePlanUpdateServiceImplTest {
         String symbol = "BTCUSDT";
         BigDecimal largeProfit = new BigDecimal("999999999.999999");
 
-        when(tradePlanGetService.getPlan(symbol)).thenReturn(tradePlan);
+        when(repository.addProfit(symbol, largeProfit)).thenReturn(true);
 
         // When
         tradePlanUpdateService.addProfit(symbol, largeProfit);
 
-        // Then
-        assertEquals(0, largeProfit.compareTo(tradePlan.getPnl()));
-
-        // Verify interactions
-        verify(tradePlanGetService).getPlan(symbol);
-        verify(repository).save(tradePlan);
+        // Then — прибыль прибавляется в БД атомарно, план целиком не читается и не перезаписывается
+        verify(repository).addProfit(symbol, largeProfit);
+        verify(tradePlanGetService, never()).getPlan(anyString());
+        verify(repository, never()).save(any(TradePlan.class));
         verify(cacheManager).evictPlanAndListCaches(symbol);
     }
 
@@ -670,17 +675,15 @@ class TradePlanUpdateServiceImplTest {
         String symbol = "BTCUSDT";
         BigDecimal largeNegativeProfit = new BigDecimal("-999999999.999999");
 
-        when(tradePlanGetService.getPlan(symbol)).thenReturn(tradePlan);
+        when(repository.addProfit(symbol, largeNegativeProfit)).thenReturn(true);
 
         // When
         tradePlanUpdateService.addProfit(symbol, largeNegativeProfit);
 
-        // Then
-        assertEquals(0, largeNegativeProfit.compareTo(tradePlan.getPnl()));
-
-        // Verify interactions
-        verify(tradePlanGetService).getPlan(symbol);
-        verify(repository).save(tradePlan);
+        // Then — прибыль прибавляется в БД атомарно, план целиком не читается и не перезаписывается
+        verify(repository).addProfit(symbol, largeNegativeProfit);
+        verify(tradePlanGetService, never()).getPlan(anyString());
+        verify(repository, never()).save(any(TradePlan.class));
         verify(cacheManager).evictPlanAndListCaches(symbol);
     }
 
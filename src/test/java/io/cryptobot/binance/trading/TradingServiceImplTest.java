@@ -5,6 +5,8 @@ import io.cryptobot.binance.trade.trade_plan.model.TradePlan;
 import io.cryptobot.binance.trade.trade_plan.service.get.TradePlanGetService;
 import io.cryptobot.market_data.aggTrade.AggTrade;
 import io.cryptobot.market_data.aggTrade.AggTradeService;
+import io.cryptobot.market_data.aggTrade.TradeFlow;
+import io.cryptobot.market_data.aggTrade.TradeFlowStats;
 import io.cryptobot.market_data.depth.DepthModel;
 import io.cryptobot.market_data.depth.DepthService;
 import io.cryptobot.utils.logging.TradingLogWriter;
@@ -87,6 +89,16 @@ class TradingServiceImplTest {
         testDepthModel.updateAsks(asks);
     }
 
+    /** Агрегаты потока по списку тиков (old -> new) */
+    private static TradeFlowStats flow(Collection<AggTrade> trades) {
+        TradeFlow flow = new TradeFlow(3600);
+        for (AggTrade t : trades) {
+            flow.append(t.getTradeTime(), t.getAggregateTradeId(),
+                    t.getPrice().doubleValue(), t.getQuantity().doubleValue(), t.isBuyerIsMaker());
+        }
+        return flow.stats(System.currentTimeMillis(), 30);
+    }
+
     @Test
     @DisplayName("Should handle empty active plans list")
     void shouldHandleEmptyActivePlansList_whenNoActivePlans() {
@@ -97,8 +109,8 @@ class TradingServiceImplTest {
         tradingService.startDemo();
 
         // Then
-        verify(aggTradeService, never()).getRecentTradesDeque(anyString());
-        verify(depthService, never()).getDepthModelBySymbol(anyString());
+        verify(aggTradeService, never()).getTradeFlow(anyString(), anyInt());
+        verify(depthService, never()).getBookSnapshot(anyString());
         verify(logWriter, never()).writeTradeLog(anyString(), anyString());
     }
 
@@ -128,8 +140,8 @@ class TradingServiceImplTest {
         tradingService.startDemo();
 
         // Then
-        verify(aggTradeService, never()).getRecentTradesDeque(anyString());
-        verify(depthService, never()).getDepthModelBySymbol(anyString());
+        verify(aggTradeService, never()).getTradeFlow(anyString(), anyInt());
+        verify(depthService, never()).getBookSnapshot(anyString());
     }
 
     @Test
@@ -137,13 +149,13 @@ class TradingServiceImplTest {
     void shouldHandleEmptyTradesData_whenNoRecentTrades() {
         // Given
         when(tradePlanGetService.getAllActiveFalse()).thenReturn(Arrays.asList(testTradePlan));
-        when(aggTradeService.getRecentTradesDeque("BTCUSDT")).thenReturn(new ConcurrentLinkedDeque<>());
+        when(aggTradeService.getTradeFlow(eq("BTCUSDT"), anyInt())).thenReturn(null);
 
         // When
         tradingService.startDemo();
 
         // Then
-        verify(depthService, never()).getDepthModelBySymbol(anyString());
+        verify(depthService, never()).getBookSnapshot(anyString());
         verify(logWriter, never()).writeTradeLog(anyString(), anyString());
     }
 
@@ -165,8 +177,8 @@ class TradingServiceImplTest {
         }
 
         when(tradePlanGetService.getAllActiveFalse()).thenReturn(Arrays.asList(testTradePlan));
-        when(aggTradeService.getRecentTradesDeque("BTCUSDT")).thenReturn(trades);
-        when(depthService.getDepthModelBySymbol("BTCUSDT")).thenReturn(null);
+        when(aggTradeService.getTradeFlow(eq("BTCUSDT"), anyInt())).thenReturn(flow(trades));
+        when(depthService.getBookSnapshot("BTCUSDT")).thenReturn(null);
 
         // When
         tradingService.startDemo();
@@ -203,8 +215,8 @@ class TradingServiceImplTest {
         emptyDepth.updateAsks(new HashMap<>());
 
         when(tradePlanGetService.getAllActiveFalse()).thenReturn(Arrays.asList(testTradePlan));
-        when(aggTradeService.getRecentTradesDeque("BTCUSDT")).thenReturn(trades);
-        when(depthService.getDepthModelBySymbol("BTCUSDT")).thenReturn(emptyDepth);
+        when(aggTradeService.getTradeFlow(eq("BTCUSDT"), anyInt())).thenReturn(flow(trades));
+        when(depthService.getBookSnapshot("BTCUSDT")).thenReturn(emptyDepth.snapshot("BTCUSDT", 0L, 20));
 
         // When
         tradingService.startDemo();
@@ -224,7 +236,7 @@ class TradingServiceImplTest {
     void shouldHandleExceptionDuringAnalysis_whenExceptionOccurs() {
         // Given
         when(tradePlanGetService.getAllActiveFalse()).thenReturn(Arrays.asList(testTradePlan));
-        when(aggTradeService.getRecentTradesDeque("BTCUSDT")).thenThrow(new RuntimeException("Test exception"));
+        when(aggTradeService.getTradeFlow(eq("BTCUSDT"), anyInt())).thenThrow(new RuntimeException("Test exception"));
 
         // When & Then
         assertDoesNotThrow(() -> {
@@ -250,8 +262,8 @@ class TradingServiceImplTest {
         }
 
         when(tradePlanGetService.getAllActiveFalse()).thenReturn(Arrays.asList(testTradePlan));
-        when(aggTradeService.getRecentTradesDeque("BTCUSDT")).thenReturn(trades);
-        when(depthService.getDepthModelBySymbol("BTCUSDT")).thenReturn(testDepthModel);
+        when(aggTradeService.getTradeFlow(eq("BTCUSDT"), anyInt())).thenReturn(flow(trades));
+        when(depthService.getBookSnapshot("BTCUSDT")).thenReturn(testDepthModel.snapshot("BTCUSDT", 0L, 20));
 
         // When
         tradingService.startDemo();
@@ -265,7 +277,7 @@ class TradingServiceImplTest {
         }
         
         // Проверяем что методы были вызваны (может быть несколько раз из-за executor)
-        verify(aggTradeService, atLeastOnce()).getRecentTradesDeque("BTCUSDT");
-        verify(depthService, atLeastOnce()).getDepthModelBySymbol("BTCUSDT");
+        verify(aggTradeService, atLeastOnce()).getTradeFlow(eq("BTCUSDT"), anyInt());
+        verify(depthService, atLeastOnce()).getBookSnapshot("BTCUSDT");
     }
 } 
\ No newline at end of file
@@ -16,7 +16,7 @@ import io.cryptobot.binance.trading.monitoring.v3.utils.CheckTrailing;
 import io.cryptobot.binance.trading.monitoring.v3.utils.ExtraClose;
 import io.cryptobot.binance.trading.updates.TradingUpdatesService;
 import io.cryptobot.configs.locks.TradeSessionLockRegistry;
-import io.cryptobot.market_data.ticker24h.Ticker24hService;
+import io.cryptobot.market_data.price.PriceFeed;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -52,7 +52,7 @@ class MonitoringServiceV3ImplIntegrationTest {
     private TradeSessionService sessionService;
 
     @Mock
-    private Ticker24hService ticker24hService;
+    private PriceFeed priceFeed;
 
     @Mock
     private TradingUpdatesService tradingUpdatesService;
@@ -99,7 +99,7 @@ class MonitoringServiceV3ImplIntegrationTest {
                 .build();
 
         // Базовые моки
-        lenient().when(ticker24hService.getPrice(anyString())).thenReturn(new BigDecimal("100000"));
+        lenient().when(priceFeed.getPrice(anyString())).thenReturn(new BigDecimal("100000"));
         lenient().when(monitorHelper.nvl(any(BigDecimal.class))).thenReturn(BigDecimal.ZERO);
         lenient().when(monitorHelper.nvl(null)).thenReturn(BigDecimal.ZERO);
         lenient().when(monitorHelper.getLatestActiveOrderByDirection(any(), any())).thenReturn(null);
@@ -147,7 +147,7 @@ class MonitoringServiceV3ImplIntegrationTest {
         // Настройка моков для цикла
         when(monitorHelper.getLatestActiveOrderByDirection(eq(testSession), eq(TradingDirection.LONG)))
                 .thenReturn(longOrder);
-        when(checkTrailing.checkTrailing(any(), any())).thenReturn(false, false, true); // t3: триггер
+        when(checkTrailing.checkTrailing(any(), anyLong())).thenReturn(false, false, true); // t3: триггер
         when(tradingUpdatesService.closePosition(any(), any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(testSession);
 
@@ -155,18 +155,18 @@ class MonitoringServiceV3ImplIntegrationTest {
         ReflectionTestUtils.setField(monitoringService, "lastOrderAtMsBySession", new ConcurrentHashMap<>());
 
         // When - t1: цена 100.30 → +0.30% (активируется трейл)
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.30"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.30"));
         monitoringService.addToMonitoring(testSession);
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // When - t2: цена 100.40 → +0.40% (обновить high)
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.40"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.40"));
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // When - t3: цена 100.283 → +0.283% (≤ 0.284% → триггер)
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.283"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.283"));
         monitoringService.monitor();
         waitForAsyncOperations();
 
@@ -175,7 +175,7 @@ class MonitoringServiceV3ImplIntegrationTest {
                 eq(testSession), eq(SessionMode.SCALPING), eq(longOrder.getOrderId()), any(), 
                 eq(TradingDirection.LONG), eq(OrderPurpose.MAIN_CLOSE), any(), anyString()
         );
-        verify(checkTrailing, atLeastOnce()).checkTrailing(any(), any());
+        verify(checkTrailing, atLeastOnce()).checkTrailing(any(), anyLong());
     }
 
     // ==================== ЦИКЛ 2: Single - ранний хедж до трекинга ====================
@@ -199,7 +199,7 @@ class MonitoringServiceV3ImplIntegrationTest {
         ReflectionTestUtils.setField(monitoringService, "lastOrderAtMsBySession", new ConcurrentHashMap<>());
 
         // When - t1: цена 99.80 → -0.20% (≤ SINGLE_EARLY_HEDGE_PCT)
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.80"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.80"));
         monitoringService.addToMonitoring(testSession);
         monitoringService.monitor();
         waitForAsyncOperations();
@@ -232,13 +232,13 @@ class MonitoringServiceV3ImplIntegrationTest {
         ReflectionTestUtils.setField(monitoringService, "lastOrderAtMsBySession", new ConcurrentHashMap<>());
 
         // When - t1: цена 99.78 → -0.22% → старт трекинга
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.78"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.78"));
         monitoringService.addToMonitoring(testSession);
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // When - t2: цена 99.67 → -0.33% → delta = -0.11 ≤ -0.10 → хедж
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.67"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.67"));
         monitoringService.monitor();
         waitForAsyncOperations();
 
@@ -270,23 +270,23 @@ class MonitoringServiceV3ImplIntegrationTest {
         ReflectionTestUtils.setField(monitoringService, "lastOrderAtMsBySession", new ConcurrentHashMap<>());
 
         // When - t1: цена 99.75 → -0.25% → старт трекинга
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.75"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.75"));
         monitoringService.addToMonitoring(testSession);
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // When - t2: цена 100.12 → +0.12% → delta = +0.37 (>0.10) и pnl>0
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.12"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.12"));
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // When - t3: цена 100.25 → +0.25% → обновить trailHigh
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.25"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.25"));
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // When - t4: цена 100.16 → +0.16% ≤ 0.164% → триггер soft-trail
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.16"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.16"));
         monitoringService.monitor();
         waitForAsyncOperations();
 
@@ -319,7 +319,7 @@ class MonitoringServiceV3ImplIntegrationTest {
                 .thenReturn(longOrder);
         when(monitorHelper.getLatestActiveOrderByDirection(eq(testSession), eq(TradingDirection.SHORT)))
                 .thenReturn(shortOrder);
-        when(checkTrailing.checkTrailing(any(), any())).thenReturn(false, false, true); // t3: триггер
+        when(checkTrailing.checkTrailing(any(), anyLong())).thenReturn(false, false, true); // t3: триггер
         when(tradingUpdatesService.closePosition(any(), any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(testSession);
 
@@ -327,18 +327,18 @@ class MonitoringServiceV3ImplIntegrationTest {
         ReflectionTestUtils.setField(monitoringService, "lastOrderAtMsBySession", new ConcurrentHashMap<>());
 
         // When - t1: цена 100.35 → PnL: long=+0.35, short=-0.35
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.35"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.35"));
         monitoringService.addToMonitoring(testSession);
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // When - t2: цена 100.45 → long high=+0.45
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.45"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.45"));
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // When - t3: цена 100.323 → long pnl=+0.323% ≤ 0.324% → триггер
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.323"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.323"));
         monitoringService.monitor();
         waitForAsyncOperations();
 
@@ -364,7 +364,7 @@ class MonitoringServiceV3ImplIntegrationTest {
         // Настройка моков
         when(monitorHelper.getLatestActiveOrderByDirection(eq(testSession), eq(TradingDirection.SHORT)))
                 .thenReturn(shortOrder);
-        when(checkTrailing.checkTrailing(any(), any())).thenReturn(false, false, true); // t6: триггер
+        when(checkTrailing.checkTrailing(any(), anyLong())).thenReturn(false, false, true); // t6: триггер
         when(tradingUpdatesService.closePosition(any(), any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(testSession);
 
@@ -372,18 +372,18 @@ class MonitoringServiceV3ImplIntegrationTest {
         ReflectionTestUtils.setField(monitoringService, "lastOrderAtMsBySession", new ConcurrentHashMap<>());
 
         // When - t4: цена дальше идет в пользу SHORT → pnl SHORT растет
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.80"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.80"));
         monitoringService.addToMonitoring(testSession);
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // When - t5: еще выше → обновить high
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.70"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.70"));
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // When - t6: откат до вычисленного уровня → закрытие SHORT
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.75"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.75"));
         monitoringService.monitor();
         waitForAsyncOperations();
 
@@ -417,19 +417,19 @@ class MonitoringServiceV3ImplIntegrationTest {
         ReflectionTestUtils.setField(monitoringService, "lastOrderAtMsBySession", new ConcurrentHashMap<>());
 
         // When - цена улучшилась >+0.10 и pnl>0 → soft-trail активируется
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.15"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.15"));
         monitoringService.addToMonitoring(testSession);
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // When - откат до soft level → ре-хедж
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.10"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.10"));
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // Then - проверяем что система обрабатывает follow-up логику
         // В данном сценарии система может не вызывать openPosition из-за особенностей follow-up логики
-        verify(ticker24hService, atLeastOnce()).getPrice("BTCUSDT");
+        verify(priceFeed, atLeastOnce()).getPrice("BTCUSDT");
         verify(monitorHelper, atLeastOnce()).getLatestActiveOrderByDirection(any(), any());
     }
 
@@ -455,8 +455,8 @@ class MonitoringServiceV3ImplIntegrationTest {
                 .thenReturn(longOrder);
         when(monitorHelper.getLatestActiveOrderByDirection(eq(testSession), eq(TradingDirection.SHORT)))
                 .thenReturn(shortOrder);
-        when(averaging.checkOpen(eq(testSession), eq(shortOrder), any())).thenReturn(true); // worst=SHORT
-        lenient().when(averaging.checkOpen(eq(testSession), eq(longOrder), any())).thenReturn(false); // best=LONG
+        when(averaging.checkOpen(eq(testSession), eq(shortOrder), anyLong())).thenReturn(true); // worst=SHORT
+        lenient().when(averaging.checkOpen(eq(testSession), eq(longOrder), anyLong())).thenReturn(false); // best=LONG
         lenient().when(tradingUpdatesService.openPosition(any(), any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(testSession);
 
@@ -464,7 +464,7 @@ class MonitoringServiceV3ImplIntegrationTest {
         ReflectionTestUtils.setField(monitoringService, "lastOrderAtMsBySession", new ConcurrentHashMap<>());
 
         // When - цена такая, что SHORT = -0.70%, LONG = +0.10% → worst=SHORT
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.70"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("100.70"));
         monitoringService.addToMonitoring(testSession);
         monitoringService.monitor();
         waitForAsyncOperations();
@@ -490,7 +490,7 @@ class MonitoringServiceV3ImplIntegrationTest {
         when(monitorHelper.getLatestActiveOrderByDirection(eq(testSession), eq(TradingDirection.LONG)))
                 .thenReturn(longOrder);
         // Кулдаун проверяется внутри MonitoringServiceV3Impl, поэтому просто проверяем что нет вызовов
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.80"));
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("99.80"));
         
         // When - условия хеджа выполняются
         monitoringService.addToMonitoring(testSession);
@@ -498,7 +498,7 @@ class MonitoringServiceV3ImplIntegrationTest {
         waitForAsyncOperations();
 
         // Then - проверяем что вызовы происходят (кулдаун не мешает в данном контексте)
-        verify(ticker24hService, atLeastOnce()).getPrice("BTCUSDT");
+        verify(priceFeed, atLeastOnce()).getPrice("BTCUSDT");
     }
 
     // ==================== ДОПОЛНИТЕЛЬНЫЕ ТЕСТЫ ====================
@@ -559,7 +559,7 @@ class MonitoringServiceV3ImplIntegrationTest {
     @DisplayName("shouldHandleNullPrice")
     void shouldHandleNullPrice() {
         // Given
-        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(null);
+        when(priceFeed.getPrice("BTCUSDT")).thenReturn(null);
 
         // When
         monitoringService.addToMonitoring(testSession);
@@ -14,7 +14,7 @@ import io.cryptobot.binance.trading.monitoring.v3.utils.CheckTrailing;
 import io.cryptobot.binance.trading.monitoring.v3.utils.ExtraClose;
 import io.cryptobot.binance.trading.updates.TradingUpdatesService;
 import io.cryptobot.configs.locks.TradeSessionLockRegistry;
-import io.cryptobot.market_data.ticker24h.Ticker24hService;
+import io.cryptobot.market_data.price.PriceFeed;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -22,10 +22,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,7 +51,7 @@ class MonitoringServiceV3ImplTest {
     private TradeSessionService sessionService;
     
     @Mock
-    private Ticker24hService ticker24hService;
+    private PriceFeed priceFeed;
     
     @Mock
     private TradingUpdatesService tradingUpdatesService;
@@ -118,7 +121,7 @@ class MonitoringServiceV3ImplTest {
         testSession.getOrders().add(shortOrder);
 
         // Базовые моки для всех тестов
-        lenient().when(ticker24hService.getPrice(anyString())).thenReturn(new BigDecimal("50000"));
+        lenient().when(priceFeed.getPrice(anyString())).thenReturn(new BigDecimal("50000"));
         lenient().when(monitorHelper.getLatestActiveOrderByDirection(any(), any())).thenReturn(longOrder);
         lenient().when(monitorHelper.nvl(any(BigDecimal.class))).thenReturn(BigDecimal.ZERO);
     }
@@ -166,7 +169,7 @@ class MonitoringServiceV3ImplTest {
 
         // Then
         // Не должно вызывать никаких методов мониторинга
-        verifyNoInteractions(ticker24hService);
+        verifyNoInteractions(priceFeed);
     }
 
     @Test
@@ -181,7 +184,7 @@ class MonitoringServiceV3ImplTest {
 
         // Then
         // Сессия должна быть удалена из мониторинга
-        verifyNoInteractions(ticker24hService);
+        verifyNoInteractions(priceFeed);
     }
 
     @Test
@@ -192,14 +195,14 @@ class MonitoringServiceV3ImplTest {
         testSession.closeShortPosition();
         monitoringService.addToMonitoring(testSession);
 
-        lenient().when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("50000"));
+        lenient().when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("50000"));
 
         // When
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // Then
-        verify(ticker24hService, times(1)).getPrice("BTCUSDT");
+        verify(priceFeed, times(1)).getPrice("BTCUSDT");
         verifyNoInteractions(monitorHelper);
     }
 
@@ -208,23 +211,23 @@ class MonitoringServiceV3ImplTest {
     void shouldHandleTwoPositionsLogic() {
         // Given
         monitoringService.addToMonitoring(testSession);
-        lenient().when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("50000"));
+        lenient().when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("50000"));
         lenient().when(monitorHelper.getLatestActiveOrderByDirection(eq(testSession), eq(TradingDirection.LONG)))
                 .thenReturn(longOrder);
         lenient().when(monitorHelper.getLatestActiveOrderByDirection(eq(testSession), eq(TradingDirection.SHORT)))
                 .thenReturn(shortOrder);
         lenient().when(monitorHelper.nvl(any())).thenReturn(BigDecimal.ZERO);
-        lenient().when(checkTrailing.checkTrailing(any(), any())).thenReturn(false);
-        lenient().when(averaging.checkOpen(any(), any(), any())).thenReturn(false);
-        lenient().when(extraClose.checkExtraClose(any(), any(), any(), any())).thenReturn(false);
+        lenient().when(checkTrailing.checkTrailing(any(), anyLong())).thenReturn(false);
+        lenient().when(averaging.checkOpen(any(), any(), anyLong())).thenReturn(false);
+        lenient().when(extraClose.checkExtraClose(any(), anyLong(), anyLong(), any())).thenReturn(false);
 
         // When
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // Then
-        verify(ticker24hService, times(1)).getPrice("BTCUSDT");
-        verify(extraClose, times(1)).checkExtraClose(any(), any(), any(), any());
+        verify(priceFeed, times(1)).getPrice("BTCUSDT");
+        verify(extraClose, times(1)).checkExtraClose(any(), anyLong(), anyLong(), any());
     }
 
     @Test
@@ -233,7 +236,7 @@ class MonitoringServiceV3ImplTest {
         // Given
         testSession.closeShortPosition(); // Только LONG позиция
         monitoringService.addToMonitoring(testSession);
-        lenient().when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("50000"));
+        lenient().when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("50000"));
         lenient().when(monitorHelper.getLatestActiveOrderByDirection(eq(testSession), eq(TradingDirection.LONG)))
                 .thenReturn(longOrder);
 
@@ -242,7 +245,7 @@ class MonitoringServiceV3ImplTest {
         waitForAsyncOperations();
 
         // Then
-        verify(ticker24hService, times(1)).getPrice("BTCUSDT");
+        verify(priceFeed, times(1)).getPrice("BTCUSDT");
         verify(monitorHelper, times(1)).getLatestActiveOrderByDirection(eq(testSession), eq(TradingDirection.LONG));
     }
 
@@ -251,14 +254,14 @@ class MonitoringServiceV3ImplTest {
     void shouldHandleNullPrice() {
         // Given
         monitoringService.addToMonitoring(testSession);
-        lenient().when(ticker24hService.getPrice("BTCUSDT")).thenReturn(null);
+        lenient().when(priceFeed.getPrice("BTCUSDT")).thenReturn(null);
 
         // When
         monitoringService.monitor();
         waitForAsyncOperations();
 
         // Then
-        verify(ticker24hService, times(1)).getPrice("BTCUSDT");
+        verify(priceFeed, times(1)).getPrice("BTCUSDT");
         verifyNoInteractions(monitorHelper);
     }
 
@@ -273,7 +276,7 @@ class MonitoringServiceV3ImplTest {
         monitoringService.monitor();
 
         // Then
-        verifyNoInteractions(ticker24hService);
+        verifyNoInteractions(priceFeed);
     }
 
     @Test
@@ -281,12 +284,100 @@ class MonitoringServiceV3ImplTest {
     void shouldHandleSessionNotInMonitoring() {
         // Given
         lenient().when(mockLock.tryLock()).thenReturn(true);
-        lenient().when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("50000"));
+        lenient().when(priceFeed.getPrice("BTCUSDT")).thenReturn(new BigDecimal("50000"));
 
         // When
         monitoringService.monitor();
 
         // Then
-        verifyNoInteractions(ticker24hService);
+        verifyNoInteractions(priceFeed);
+    }
+
+    @Test
+    @DisplayName("shouldEvaluateSessionOnPriceEvent")
+    void shouldEvaluateSessionOnPriceEvent() {
+        // Given
+        monitoringService.addToMonitoring(testSession);
+
+        // When
+        monitoringService.onPriceUpdate("BTCUSDT", 50000.0);
+
+        // Then
+        verify(priceFeed, timeout(1000)).getPrice("BTCUSDT");
+    }
+
+    @Test
+    @DisplayName("shouldCoalescePriceEventsWithinMinInterval")
+    void shouldCoalescePriceEventsWithinMinInterval() {
+        // Given
+        ReflectionTestUtils.setField(monitoringService, "eventMinIntervalMs", 10_000L);
+        monitoringService.addToMonitoring(testSession);
+
+        // When — всплеск тиков
+        for (int i = 0; i < 50; i++) {
+            monitoringService.onPriceUpdate("BTCUSDT", 50000.0 + i);
+        }
+        waitForAsyncOperations();
+
+        // Then — одна оценка, остальные ждут интервала
+        verify(priceFeed, times(1)).getPrice("BTCUSDT");
+    }
+
+    @Test
+    @DisplayName("shouldSkipSweepForSessionsFreshlyEvaluatedByEvents")
+    void shouldSkipSweepForSessionsFreshlyEvaluatedByEvents() {
+        // Given
+        monitoringService.addToMonitoring(testSession);
+        monitoringService.onPriceUpdate("BTCUSDT", 50000.0);
+        waitForAsyncOperations();
+
+        // When
+        monitoringService.monitor();
+        waitForAsyncOperations();
+
+        // Then
+        verify(priceFeed, times(1)).getPrice("BTCUSDT");
+    }
+
+    @Test
+    @DisplayName("shouldIgnorePriceEventsOfOtherSymbols")
+    void shouldIgnorePriceEventsOfOtherSymbols() {
+        // Given
+        monitoringService.addToMonitoring(testSession);
+
+        // When
+        monitoringService.onPriceUpdate("ETHUSDT", 3000.0);
+        waitForAsyncOperations();
+
+        // Then
+        verifyNoInteractions(priceFeed);
+    }
+
+    @Test
+    @DisplayName("shouldStopDirtyingCompletedSessionOnLaterTicks")
+    @SuppressWarnings("unchecked")
+    void shouldStopDirtyingCompletedSessionOnLaterTicks() {
+        // Given
+        monitoringService.addToMonitoring(testSession);
+        TradeSession completed = TradeSession.builder()
+                .id("test-session")
+                .tradePlan("BTCUSDT")
+                .status(SessionStatus.COMPLETED)
+                .orders(new ArrayList<>())
+                .build();
+
+        // When
+        monitoringService.updateSessionInMonitoring(completed);
+        monitoringService.onPriceUpdate("BTCUSDT", 50000.0);
+        waitForAsyncOperations();
+
+        // Then
+        Set<String> dirty = (Set<String>) ReflectionTestUtils.getField(monitoringService, "dirtySessions");
+        Map<String, Set<String>> bySymbol = (Map<String, Set<String>>) ReflectionTestUtils.getField(monitoringService, "sessionIdsBySymbol");
+        Map<String, Long> evalAt = (Map<String, Long>) ReflectionTestUtils.getField(monitoringService, "lastEventEvalAtMsBySession");
+        assertTrue(dirty.isEmpty());
+        assertFalse(bySymbol.get("BTCUSDT").contains("test-session"));
+        assertFalse(evalAt.containsKey("test-session"));
+        verifyNoInteractions(priceFeed);
     }
 }
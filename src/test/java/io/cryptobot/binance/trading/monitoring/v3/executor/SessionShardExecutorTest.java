@@ -0,0 +1,149 @@
+package io.cryptobot.binance.trading.monitoring.v3.executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SessionShardExecutor Tests")
+class SessionShardExecutorTest {
+
+    private SessionShardExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should pin a symbol to one shard and never run its sessions concurrently")
+    void shouldSerializeSessionsOfOneSymbol() throws Exception {
+        executor = new SessionShardExecutor("test", 4, 64, 1_000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(20);
+
+        for (int i = 0; i < 20; i++) {
+            executor.submit("BTCUSDT", "s" + i, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(2);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning.get()).isEqualTo(1);
+        assertThat(executor.shardOf("BTCUSDT")).isEqualTo(executor.shardOf("BTCUSDT"));
+        MonitorShardStats stats = executor.stats().get(executor.shardOf("BTCUSDT"));
+        assertThat(stats.submitted()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should keep at most one pending evaluation per session")
+    void shouldSkipDuplicatePendingEvaluation() throws Exception {
+        executor = new SessionShardExecutor("test", 1, 64, 1_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        executor.submit("BTCUSDT", "blocker", () -> {
+            started.countDown();
+            await(release);
+        });
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(executor.submit("BTCUSDT", "s1", runs::incrementAndGet)).isTrue();
+        assertThat(executor.submit("BTCUSDT", "s1", runs::incrementAndGet)).isFalse();
+        assertThat(executor.submit("BTCUSDT", "s1", runs::incrementAndGet)).isFalse();
+        release.countDown();
+
+        waitCompleted(2);
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(executor.stats().get(0).skipped()).isEqualTo(2);
+        // после запуска оценки сессию снова можно поставить в очередь
+        assertThat(executor.submit("BTCUSDT", "s1", runs::incrementAndGet)).isTrue();
+        waitCompleted(3);
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should reject evaluations when the shard queue is full")
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        executor = new SessionShardExecutor("test", 1, 2, 1_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit("BTCUSDT", "blocker", () -> {
+            started.countDown();
+            await(release);
+        });
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(executor.submit("BTCUSDT", "s1", () -> { })).isTrue();
+        assertThat(executor.submit("BTCUSDT", "s2", () -> { })).isTrue();
+        assertThat(executor.submit("BTCUSDT", "s3", () -> { })).isFalse();
+        assertThat(executor.stats().get(0).queueDepth()).isEqualTo(2);
+        assertThat(executor.stats().get(0).rejected()).isEqualTo(1);
+        release.countDown();
+
+        waitCompleted(3);
+        // отклонённая сессия не остаётся помеченной как ожидающая
+        assertThat(executor.submit("BTCUSDT", "s3", () -> { })).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should count late and slow evaluations")
+    void shouldReportLateAndSlowEvaluations() throws Exception {
+        executor = new SessionShardExecutor("test", 1, 16, 20);
+        executor.submit("BTCUSDT", "slow", () -> sleep(50));
+        executor.submit("BTCUSDT", "late", () -> { });
+
+        waitCompleted(2);
+        MonitorShardStats stats = executor.stats().get(0);
+        assertThat(stats.slow()).isEqualTo(1);
+        assertThat(stats.late()).isEqualTo(1);
+        assertThat(stats.maxLagMs()).isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should keep the worker alive after a failing task")
+    void shouldSurviveTaskFailure() throws Exception {
+        executor = new SessionShardExecutor("test", 1, 16, 1_000);
+        CountDownLatch done = new CountDownLatch(1);
+        executor.submit("BTCUSDT", "bad", () -> {
+            throw new IllegalStateException("boom");
+        });
+        executor.submit("BTCUSDT", "good", done::countDown);
+
+        assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private void waitCompleted(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (executor.stats().get(0).completed() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(executor.stats().get(0).completed()).isEqualTo(expected);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package io.cryptobot.binance.trading.monitoring.v3.utils;
+
+import io.cryptobot.binance.trade.session.enums.TradingDirection;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Прежняя BigDecimal-математика мониторинга V3 (до перевода на {@link PnlMath}), без логов.
+ * Эталон для дифференциальных тестов и бенчмарка — менять только вместе с правилами стратегии.
+ */
+final class BigDecimalMonitoringReference {
+    static final BigDecimal PERCENTAGE_MULTIPLIER = BigDecimal.valueOf(100);
+
+    static final BigDecimal COMMISSION_PCT = new BigDecimal("0.036");
+    static final BigDecimal TRAIL_ACTIVATION_PCT = new BigDecimal("0.20");
+    static final BigDecimal THRESHOLD_0_30 = new BigDecimal("0.30");
+    static final BigDecimal THRESHOLD_0_50 = new BigDecimal("0.50");
+    static final BigDecimal RETRACE_30 = new BigDecimal("0.30");
+    static final BigDecimal RETRACE_20 = new BigDecimal("0.20");
+    static final BigDecimal RETRACE_10 = new BigDecimal("0.10");
+
+    static final BigDecimal EXTRA_BEST_ORDER = BigDecimal.valueOf(-0.20);
+    static final BigDecimal EXTRA_LOW_ORDER = BigDecimal.valueOf(-0.50);
+    static final BigDecimal EXTRA_GO_DOWN = BigDecimal.valueOf(-0.1);
+    static final BigDecimal AVERAGING_DOWN = new BigDecimal("3");
+
+    private BigDecimalMonitoringReference() {
+    }
+
+    /** MonitoringServiceV3Impl.calcPnl */
+    static BigDecimal calcPnl(TradingDirection direction, BigDecimal entryPrice, BigDecimal price) {
+        if (direction == TradingDirection.LONG) {
+            return price.subtract(entryPrice)
+                    .divide(entryPrice, 8, RoundingMode.HALF_UP)
+                    .multiply(PERCENTAGE_MULTIPLIER);
+        }
+        return entryPrice.subtract(price)
+                .divide(entryPrice, 8, RoundingMode.HALF_UP)
+                .multiply(PERCENTAGE_MULTIPLIER);
+    }
+
+    /** CheckTrailing.checkTrailing */
+    static boolean checkTrailing(TradeOrder order, BigDecimal currentPnl) {
+        BigDecimal high = order.getPnlHigh() == null ? BigDecimal.ZERO : order.getPnlHigh();
+        if (currentPnl.compareTo(high) > 0) {
+            order.setPnlHigh(currentPnl);
+        }
+        boolean isActive = Boolean.TRUE.equals(order.getTrailingActive());
+        if (!isActive && currentPnl.compareTo(TRAIL_ACTIVATION_PCT) >= 0) {
+            order.setTrailingActive(true);
+            order.setPnlHigh(currentPnl);
+            return false;
+        }
+        if (isActive && order.getPnlHigh() != null) {
+            BigDecimal h = order.getPnlHigh();
+            BigDecimal level = levelForRetrace(h, adaptiveRetracePct(h));
+            if (currentPnl.compareTo(level) <= 0) {
+                order.setTrailingActive(false);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** CheckTrailing.checkTwoPosBestTrailingActivation */
+    static boolean checkTwoPosBestTrailingActivation(BigDecimal bestPnl, TradeOrder order) {
+        if (bestPnl.compareTo(TRAIL_ACTIVATION_PCT) >= 0 && !Boolean.TRUE.equals(order.getTrailingActive())) {
+            order.setTrailingActive(true);
+            order.setPnlHigh(bestPnl);
+            return true;
+        }
+        return false;
+    }
+
+    /** CheckTrailing.checkSoftTrailing */
+    static boolean checkSoftTrailing(BigDecimal trailHigh, BigDecimal currentPnl) {
+        if (trailHigh == null || trailHigh.signum() <= 0) return false;
+        BigDecimal level = levelForRetrace(trailHigh, RETRACE_20);
+        return level.signum() > 0 && currentPnl.compareTo(level) <= 0;
+    }
+
+    /** CheckTrailing.shouldActivateSoftTrailing */
+    static boolean shouldActivateSoftTrailing(BigDecimal delta, BigDecimal currentPnl, BigDecimal improveDeltaPct) {
+        return delta.compareTo(improveDeltaPct) > 0 && currentPnl.compareTo(BigDecimal.ZERO) > 0;
+    }
+
+    /** CheckTrailing.computeRetraceLevel */
+    static BigDecimal computeRetraceLevel(BigDecimal pnlHigh) {
+        return levelForRetrace(pnlHigh, adaptiveRetracePct(pnlHigh));
+    }
+
+    /** ExtraClose.shouldStartExtraClose */
+    static boolean shouldStartExtraClose(BigDecimal pnlBest, BigDecimal pnlWorst) {
+        if (pnlBest.compareTo(BigDecimal.ZERO) < 0 && pnlWorst.compareTo(BigDecimal.ZERO) < 0) {
+            return pnlBest.compareTo(EXTRA_BEST_ORDER) <= 0 && pnlWorst.compareTo(EXTRA_LOW_ORDER) <= 0;
+        }
+        return false;
+    }
+
+    /** ExtraClose.hasGoneDown */
+    static boolean hasGoneDown(BigDecimal baseline, BigDecimal currentPnl) {
+        return currentPnl.subtract(baseline).compareTo(EXTRA_GO_DOWN) <= 0;
+    }
+
+    /** CheckAveraging.checkOpen — порог по PnL */
+    static boolean averagingPnlReached(BigDecimal currentPnl) {
+        return currentPnl.compareTo(AVERAGING_DOWN.negate()) <= 0;
+    }
+
+    private static BigDecimal adaptiveRetracePct(BigDecimal pnlHigh) {
+        if (pnlHigh == null) return RETRACE_30;
+        if (pnlHigh.compareTo(THRESHOLD_0_30) <= 0) return RETRACE_30;
+        if (pnlHigh.compareTo(THRESHOLD_0_50) <= 0) return RETRACE_20;
+        return RETRACE_10;
+    }
+
+    private static BigDecimal levelForRetrace(BigDecimal high, BigDecimal retracePct) {
+        if (high == null || high.signum() <= 0) return BigDecimal.ZERO;
+        BigDecimal keep = BigDecimal.ONE.subtract(retracePct);
+        return high.multiply(keep).subtract(COMMISSION_PCT).max(BigDecimal.ZERO);
+    }
+}
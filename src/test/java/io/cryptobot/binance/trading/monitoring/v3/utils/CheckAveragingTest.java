@@ -46,51 +46,50 @@ class CheckAveragingTest {
     }
 
     @Test
-    @DisplayName("Reject when order is null or pnl null")
+    @DisplayName("Reject when order is null")
     void testNulls() {
-        assertFalse(checkAveraging.checkOpen(session, null, BigDecimal.ZERO));
-        assertFalse(checkAveraging.checkOpen(session, baseLong, null));
+        assertFalse(checkAveraging.checkOpen(session, null, 0L));
     }
 
     @Test
     @DisplayName("Reject when order not FILLED")
     void testNotFilled() {
         TradeOrder pending = baseLong.toBuilder().status(OrderStatus.NEW).build();
-        assertFalse(checkAveraging.checkOpen(session, pending, new BigDecimal("-5")));
+        assertFalse(checkAveraging.checkOpen(session, pending, PnlMath.units("-5")));
     }
 
     @Test
     @DisplayName("Reject when order is already averaging")
     void testIsAveragingOrder() {
         TradeOrder avg = baseLong.toBuilder().purpose(OrderPurpose.AVERAGING_OPEN).build();
-        assertFalse(checkAveraging.checkOpen(session, avg, new BigDecimal("-5")));
+        assertFalse(checkAveraging.checkOpen(session, avg, PnlMath.units("-5")));
     }
 
     @Test
     @DisplayName("Reject when helper blocks opening by direction")
     void testHelperBlocks() {
         when(monitorHelper.canOpenAverageByDirection(eq(session), eq(TradingDirection.LONG))).thenReturn(false);
-        assertFalse(checkAveraging.checkOpen(session, baseLong, new BigDecimal("-5")));
+        assertFalse(checkAveraging.checkOpen(session, baseLong, PnlMath.units("-5")));
     }
 
     @Test
     @DisplayName("Allow when pnl <= -3% and helper allows")
     void testAllowAtThreshold() {
         when(monitorHelper.canOpenAverageByDirection(eq(session), eq(TradingDirection.LONG))).thenReturn(true);
-        assertTrue(checkAveraging.checkOpen(session, baseLong, new BigDecimal("-3")));
+        assertTrue(checkAveraging.checkOpen(session, baseLong, PnlMath.units("-3")));
     }
 
     @Test
     @DisplayName("Allow when pnl << -3% and helper allows")
     void testAllowDeep() {
         when(monitorHelper.canOpenAverageByDirection(eq(session), eq(TradingDirection.LONG))).thenReturn(true);
-        assertTrue(checkAveraging.checkOpen(session, baseLong, new BigDecimal("-7.5")));
+        assertTrue(checkAveraging.checkOpen(session, baseLong, PnlMath.units("-7.5")));
     }
 
     @Test
     @DisplayName("Reject when pnl > -3% even if helper allows")
     void testRejectAboveThreshold() {
         when(monitorHelper.canOpenAverageByDirection(eq(session), eq(TradingDirection.LONG))).thenReturn(true);
-        assertFalse(checkAveraging.checkOpen(session, baseLong, new BigDecimal("-2.99")));
+        assertFalse(checkAveraging.checkOpen(session, baseLong, PnlMath.units("-2.99")));
     }
 }
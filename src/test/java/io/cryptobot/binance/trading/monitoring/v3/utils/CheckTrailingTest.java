@@ -1,23 +1,18 @@
 package io.cryptobot.binance.trading.monitoring.v3.utils;
 
 import io.cryptobot.binance.trade.session.model.TradeOrder;
-import io.cryptobot.binance.trading.monitoring.v3.help.MonitorHelper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
-import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
 
 import io.cryptobot.binance.trade.session.enums.TradingDirection;
 import io.cryptobot.binance.order.enums.OrderPurpose;
@@ -28,9 +23,6 @@ import io.cryptobot.binance.order.enums.OrderStatus;
 @DisplayName("CheckTrailing Tests")
 class CheckTrailingTest {
 
-    @Mock
-    private MonitorHelper monitorHelper;
-
     @InjectMocks
     private CheckTrailing checkTrailing;
 
@@ -43,13 +35,6 @@ class CheckTrailingTest {
                 .pnlHigh(new BigDecimal("0.15"))
                 .trailingActive(false)
                 .build();
-        
-        // Настраиваем мок для monitorHelper.nvl()
-        when(monitorHelper.nvl(any(BigDecimal.class))).thenAnswer(invocation -> {
-            BigDecimal value = invocation.getArgument(0);
-            return value != null ? value : BigDecimal.ZERO;
-        });
-        when(monitorHelper.nvl(null)).thenReturn(BigDecimal.ZERO);
     }
 
     private TradeOrder createOrder(Long id, BigDecimal pnl, BigDecimal pnlHigh, Boolean trailingActive) {
@@ -70,7 +55,7 @@ class CheckTrailingTest {
     @DisplayName("Should activate trailing when PnL reaches threshold")
     void shouldActivateTrailing_whenPnlReachesThreshold() {
         // Given
-        BigDecimal currentPnl = new BigDecimal("0.25"); // 0.25% > 0.20% threshold
+        long currentPnl = PnlMath.units("0.25"); // 0.25% > 0.20% threshold
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -78,14 +63,14 @@ class CheckTrailingTest {
         // Then
         assertFalse(result); // Не закрываем позицию
         assertTrue(order.getTrailingActive()); // Трейлинг активирован
-        assertEquals(currentPnl, order.getPnlHigh()); // Обновлен максимум
+        assertEquals(currentPnl, PnlMath.units(order.getPnlHigh())); // Обновлен максимум
     }
 
     @Test
     @DisplayName("Should not activate trailing when PnL below threshold")
     void shouldNotActivateTrailing_whenPnlBelowThreshold() {
         // Given
-        BigDecimal currentPnl = new BigDecimal("0.15"); // 0.15% < 0.20% threshold
+        long currentPnl = PnlMath.units("0.15"); // 0.15% < 0.20% threshold
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -100,7 +85,7 @@ class CheckTrailingTest {
     @DisplayName("Should update PnL high when current PnL is higher")
     void shouldUpdatePnlHigh_whenCurrentPnlIsHigher() {
         // Given
-        BigDecimal currentPnl = new BigDecimal("0.20"); // 0.20% > 0.15% (текущий максимум)
+        long currentPnl = PnlMath.units("0.20"); // 0.20% > 0.15% (текущий максимум)
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -108,14 +93,14 @@ class CheckTrailingTest {
         // Then
         assertFalse(result); // Не закрываем позицию
         assertTrue(order.getTrailingActive()); // Трейлинг активирован
-        assertEquals(currentPnl, order.getPnlHigh()); // Обновлен максимум
+        assertEquals(currentPnl, PnlMath.units(order.getPnlHigh())); // Обновлен максимум
     }
 
     @Test
     @DisplayName("Should not update PnL high when current PnL is lower")
     void shouldNotUpdatePnlHigh_whenCurrentPnlIsLower() {
         // Given
-        BigDecimal currentPnl = new BigDecimal("0.10"); // 0.10% < 0.15% (текущий максимум)
+        long currentPnl = PnlMath.units("0.10"); // 0.10% < 0.15% (текущий максимум)
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -133,7 +118,7 @@ class CheckTrailingTest {
         order.setTrailingActive(true);
         order.setPnlHigh(new BigDecimal("0.30")); // 0.30% - откат 30%
         // Retrace level = 0.30 * 0.7 - 0.036 = 0.21 - 0.036 = 0.174%
-        BigDecimal currentPnl = new BigDecimal("0.17"); // 0.17% <= 0.174%
+        long currentPnl = PnlMath.units("0.17"); // 0.17% <= 0.174%
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -149,7 +134,7 @@ class CheckTrailingTest {
         // Given
         order.setTrailingActive(true);
         order.setPnlHigh(new BigDecimal("0.30")); // 0.30% - откат 30%
-        BigDecimal currentPnl = new BigDecimal("0.18"); // 0.18% > 0.174% (70% от 0.30% - 0.036%)
+        long currentPnl = PnlMath.units("0.18"); // 0.18% > 0.174% (70% от 0.30% - 0.036%)
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -166,7 +151,7 @@ class CheckTrailingTest {
         order.setTrailingActive(true);
         order.setPnlHigh(new BigDecimal("0.30")); // 0.30% - откат 30%
         // Retrace level = 0.30 * 0.7 - 0.036 = 0.21 - 0.036 = 0.174%
-        BigDecimal currentPnl = new BigDecimal("0.17"); // 0.17% <= 0.174%
+        long currentPnl = PnlMath.units("0.17"); // 0.17% <= 0.174%
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -183,7 +168,7 @@ class CheckTrailingTest {
         order.setTrailingActive(true);
         order.setPnlHigh(new BigDecimal("0.40")); // 0.40% - откат 20%
         // Retrace level = 0.40 * 0.8 - 0.036 = 0.32 - 0.036 = 0.284%
-        BigDecimal currentPnl = new BigDecimal("0.28"); // 0.28% <= 0.284%
+        long currentPnl = PnlMath.units("0.28"); // 0.28% <= 0.284%
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -200,7 +185,7 @@ class CheckTrailingTest {
         order.setTrailingActive(true);
         order.setPnlHigh(new BigDecimal("0.60")); // 0.60% - откат 10%
         // Retrace level = 0.60 * 0.9 - 0.036 = 0.54 - 0.036 = 0.504%
-        BigDecimal currentPnl = new BigDecimal("0.50"); // 0.50% <= 0.504%
+        long currentPnl = PnlMath.units("0.50"); // 0.50% <= 0.504%
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -217,7 +202,7 @@ class CheckTrailingTest {
         order.setTrailingActive(true);
         order.setPnlHigh(new BigDecimal("0.036")); // 0.036% (равно комиссии)
         // Retrace level = 0.036 * 0.7 - 0.036 = 0.0252 - 0.036 = -0.0108, но должно быть 0
-        BigDecimal currentPnl = new BigDecimal("0.01"); // 0.01% > 0%
+        long currentPnl = PnlMath.units("0.01"); // 0.01% > 0%
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -231,7 +216,7 @@ class CheckTrailingTest {
     @DisplayName("Should handle negative current PnL")
     void shouldHandleNegativeCurrentPnl() {
         // Given
-        BigDecimal currentPnl = new BigDecimal("-0.05"); // Отрицательный PnL
+        long currentPnl = PnlMath.units("-0.05"); // Отрицательный PnL
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -247,7 +232,7 @@ class CheckTrailingTest {
     void shouldHandleNullPnlHigh() {
         // Given
         order.setPnlHigh(null);
-        BigDecimal currentPnl = new BigDecimal("0.25");
+        long currentPnl = PnlMath.units("0.25");
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -255,7 +240,7 @@ class CheckTrailingTest {
         // Then
         assertFalse(result); // Не закрываем позицию
         assertTrue(order.getTrailingActive()); // Трейлинг активирован
-        assertEquals(currentPnl, order.getPnlHigh()); // Установлен новый максимум
+        assertEquals(currentPnl, PnlMath.units(order.getPnlHigh())); // Установлен новый максимум
     }
 
     @Test
@@ -264,7 +249,7 @@ class CheckTrailingTest {
         // Given
         order.setTrailingActive(true);
         order.setPnlHigh(new BigDecimal("0.15"));
-        BigDecimal currentPnl = new BigDecimal("0.18"); // Новый максимум
+        long currentPnl = PnlMath.units("0.18"); // Новый максимум
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -272,14 +257,14 @@ class CheckTrailingTest {
         // Then
         assertFalse(result); // Не закрываем позицию
         assertTrue(order.getTrailingActive()); // Трейлинг остается активным
-        assertEquals(currentPnl, order.getPnlHigh()); // Обновлен максимум
+        assertEquals(currentPnl, PnlMath.units(order.getPnlHigh())); // Обновлен максимум
     }
 
     @Test
     @DisplayName("Should handle edge case - exact threshold")
     void shouldHandleEdgeCase_exactThreshold() {
         // Given
-        BigDecimal currentPnl = new BigDecimal("0.20"); // Точно 0.20% (порог активации)
+        long currentPnl = PnlMath.units("0.20"); // Точно 0.20% (порог активации)
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -287,7 +272,7 @@ class CheckTrailingTest {
         // Then
         assertFalse(result); // Не закрываем позицию
         assertTrue(order.getTrailingActive()); // Трейлинг активирован
-        assertEquals(currentPnl, order.getPnlHigh()); // Обновлен максимум
+        assertEquals(currentPnl, PnlMath.units(order.getPnlHigh())); // Обновлен максимум
     }
 
     @Test
@@ -297,7 +282,7 @@ class CheckTrailingTest {
         order.setTrailingActive(true);
         order.setPnlHigh(new BigDecimal("0.30")); // 0.30% - откат 30%
         // Retrace level = 0.30 * 0.7 - 0.036 = 0.21 - 0.036 = 0.174%
-        BigDecimal currentPnl = new BigDecimal("0.174"); // Точно на уровне retrace
+        long currentPnl = PnlMath.units("0.174"); // Точно на уровне retrace
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -314,7 +299,7 @@ class CheckTrailingTest {
         order.setTrailingActive(true);
         order.setPnlHigh(new BigDecimal("5.0")); // 5% - откат 10%
         // Retrace level = 5.0 * 0.9 - 0.036 = 4.5 - 0.036 = 4.464%
-        BigDecimal currentPnl = new BigDecimal("4.4"); // 4.4% <= 4.464%
+        long currentPnl = PnlMath.units("4.4"); // 4.4% <= 4.464%
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -328,7 +313,7 @@ class CheckTrailingTest {
     @DisplayName("Should handle very small PnL values")
     void shouldHandleVerySmallPnlValues() {
         // Given
-        BigDecimal currentPnl = new BigDecimal("0.001"); // 0.001% < 0.20% threshold
+        long currentPnl = PnlMath.units("0.001"); // 0.001% < 0.20% threshold
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -344,7 +329,7 @@ class CheckTrailingTest {
     void shouldHandleTrailingActivationWithNullTrailingActive() {
         // Given
         order.setTrailingActive(null);
-        BigDecimal currentPnl = new BigDecimal("0.25"); // Above threshold
+        long currentPnl = PnlMath.units("0.25"); // Above threshold
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -352,7 +337,7 @@ class CheckTrailingTest {
         // Then
         assertFalse(result); // Не закрываем позицию
         assertTrue(order.getTrailingActive()); // Трейлинг активирован
-        assertEquals(currentPnl, order.getPnlHigh()); // Обновлен максимум
+        assertEquals(currentPnl, PnlMath.units(order.getPnlHigh())); // Обновлен максимум
     }
 
     @Test
@@ -363,18 +348,18 @@ class CheckTrailingTest {
         order.setPnlHigh(new BigDecimal("0.15"));
 
         // First update
-        BigDecimal firstPnl = new BigDecimal("0.18");
+        long firstPnl = PnlMath.units("0.18");
         boolean firstResult = checkTrailing.checkTrailing(order, firstPnl);
 
         // Second update
-        BigDecimal secondPnl = new BigDecimal("0.20");
+        long secondPnl = PnlMath.units("0.20");
         boolean secondResult = checkTrailing.checkTrailing(order, secondPnl);
 
         // Then
         assertFalse(firstResult); // Не закрываем позицию
         assertFalse(secondResult); // Не закрываем позицию
         assertTrue(order.getTrailingActive()); // Трейлинг остается активным
-        assertEquals(secondPnl, order.getPnlHigh()); // Обновлен до последнего максимума
+        assertEquals(secondPnl, PnlMath.units(order.getPnlHigh())); // Обновлен до последнего максимума
     }
 
     @Test
@@ -384,7 +369,7 @@ class CheckTrailingTest {
         order.setTrailingActive(true);
         order.setPnlHigh(new BigDecimal("0.045")); // 0.045% (чуть больше комиссии)
         // Retrace level = 0.045 * 0.7 - 0.036 = 0.0315 - 0.036 = -0.0045, но должно быть 0
-        BigDecimal currentPnl = new BigDecimal("0.001"); // 0.001% > 0%
+        long currentPnl = PnlMath.units("0.001"); // 0.001% > 0%
 
         // When
         boolean result = checkTrailing.checkTrailing(order, currentPnl);
@@ -398,22 +383,22 @@ class CheckTrailingTest {
     @DisplayName("Should compute retrace level correctly")
     void shouldComputeRetraceLevelCorrectly() {
         // Given
-        BigDecimal pnlHigh = new BigDecimal("0.30");
+        long pnlHigh = PnlMath.units("0.30");
 
         // When
-        BigDecimal retraceLevel = checkTrailing.computeRetraceLevel(pnlHigh);
+        double retraceLevel = checkTrailing.computeRetraceLevel(pnlHigh);
 
         // Then
         // 0.30 * 0.7 - 0.036 = 0.21 - 0.036 = 0.174
-        assertEquals(new BigDecimal("0.174"), retraceLevel.setScale(3, RoundingMode.HALF_UP));
+        assertEquals(0.174, retraceLevel, 1e-9);
     }
 
     @Test
     @DisplayName("Should check soft trailing correctly")
     void shouldCheckSoftTrailingCorrectly() {
         // Given
-        BigDecimal trailHigh = new BigDecimal("0.20");
-        BigDecimal currentPnl = new BigDecimal("0.12"); // 0.12% <= 0.20% * 0.8 - 0.036% = 0.124%
+        long trailHigh = PnlMath.units("0.20");
+        long currentPnl = PnlMath.units("0.12"); // 0.12% <= 0.20% * 0.8 - 0.036% = 0.124%
 
         // When
         boolean result = checkTrailing.checkSoftTrailing(trailHigh, currentPnl);
@@ -426,8 +411,8 @@ class CheckTrailingTest {
     @DisplayName("Should not trigger soft trailing when above retrace level")
     void shouldNotTriggerSoftTrailing_whenAboveRetraceLevel() {
         // Given
-        BigDecimal trailHigh = new BigDecimal("0.20");
-        BigDecimal currentPnl = new BigDecimal("0.13"); // 0.13% > 0.20% * 0.8 - 0.036% = 0.124%
+        long trailHigh = PnlMath.units("0.20");
+        long currentPnl = PnlMath.units("0.13"); // 0.13% > 0.20% * 0.8 - 0.036% = 0.124%
 
         // When
         boolean result = checkTrailing.checkSoftTrailing(trailHigh, currentPnl);
@@ -440,11 +425,11 @@ class CheckTrailingTest {
     @DisplayName("Should update trail high correctly")
     void shouldUpdateTrailHighCorrectly() {
         // Given
-        BigDecimal currentTrailHigh = new BigDecimal("0.15");
-        BigDecimal currentPnl = new BigDecimal("0.18");
+        long currentTrailHigh = PnlMath.units("0.15");
+        long currentPnl = PnlMath.units("0.18");
 
         // When
-        BigDecimal newTrailHigh = checkTrailing.updateTrailHigh(currentTrailHigh, currentPnl);
+        long newTrailHigh = checkTrailing.updateTrailHigh(currentTrailHigh, currentPnl);
 
         // Then
         assertEquals(currentPnl, newTrailHigh); // Updated to higher value
@@ -454,11 +439,11 @@ class CheckTrailingTest {
     @DisplayName("Should not update trail high when current PnL is lower")
     void shouldNotUpdateTrailHigh_whenCurrentPnlIsLower() {
         // Given
-        BigDecimal currentTrailHigh = new BigDecimal("0.20");
-        BigDecimal currentPnl = new BigDecimal("0.15");
+        long currentTrailHigh = PnlMath.units("0.20");
+        long currentPnl = PnlMath.units("0.15");
 
         // When
-        BigDecimal newTrailHigh = checkTrailing.updateTrailHigh(currentTrailHigh, currentPnl);
+        long newTrailHigh = checkTrailing.updateTrailHigh(currentTrailHigh, currentPnl);
 
         // Then
         assertEquals(currentTrailHigh, newTrailHigh); // Kept original value
@@ -7,7 +7,6 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -38,8 +37,8 @@ class ExtraCloseTest {
     @DisplayName("shouldStartMonitoring_whenBothPositionsInLoss")
     void shouldStartMonitoring_whenBothPositionsInLoss() {
         // Given
-        BigDecimal pnlBest = new BigDecimal("-0.25"); // <= -0.20
-        BigDecimal pnlWorst = new BigDecimal("-0.60"); // <= -0.50
+        long pnlBest = PnlMath.units("-0.25"); // <= -0.20
+        long pnlWorst = PnlMath.units("-0.60"); // <= -0.50
 
         // When
         boolean result = extraClose.checkExtraClose(session, pnlBest, pnlWorst, order);
@@ -52,8 +51,8 @@ class ExtraCloseTest {
     @DisplayName("shouldNotStartMonitoring_whenBestPositionInProfit")
     void shouldNotStartMonitoring_whenBestPositionInProfit() {
         // Given
-        BigDecimal pnlBest = new BigDecimal("0.10"); // > 0
-        BigDecimal pnlWorst = new BigDecimal("-0.60"); // <= -0.50
+        long pnlBest = PnlMath.units("0.10"); // > 0
+        long pnlWorst = PnlMath.units("-0.60"); // <= -0.50
 
         // When
         boolean result = extraClose.checkExtraClose(session, pnlBest, pnlWorst, order);
@@ -66,8 +65,8 @@ class ExtraCloseTest {
     @DisplayName("shouldNotStartMonitoring_whenWorstPositionNotLowEnough")
     void shouldNotStartMonitoring_whenWorstPositionNotLowEnough() {
         // Given
-        BigDecimal pnlBest = new BigDecimal("-0.25"); // <= -0.20
-        BigDecimal pnlWorst = new BigDecimal("-0.40"); // > -0.50
+        long pnlBest = PnlMath.units("-0.25"); // <= -0.20
+        long pnlWorst = PnlMath.units("-0.40"); // > -0.50
 
         // When
         boolean result = extraClose.checkExtraClose(session, pnlBest, pnlWorst, order);
@@ -80,12 +79,12 @@ class ExtraCloseTest {
     @DisplayName("shouldTriggerExtraClose_whenPositionGoesDownByThreshold")
     void shouldTriggerExtraClose_whenPositionGoesDownByThreshold() {
         // Given - сначала создаем мониторинг с позициями в убытке
-        BigDecimal initialPnlBest = new BigDecimal("-0.25"); // <= -0.20
-        BigDecimal pnlWorst = new BigDecimal("-0.60"); // <= -0.50
+        long initialPnlBest = PnlMath.units("-0.25"); // <= -0.20
+        long pnlWorst = PnlMath.units("-0.60"); // <= -0.50
         extraClose.checkExtraClose(session, initialPnlBest, pnlWorst, order);
 
         // When - позиция ухудшилась на -0.1 или больше
-        BigDecimal worsenedPnlBest = new BigDecimal("-0.40"); // ухудшение на -0.15
+        long worsenedPnlBest = PnlMath.units("-0.40"); // ухудшение на -0.15
         boolean result = extraClose.checkExtraClose(session, worsenedPnlBest, pnlWorst, order);
 
         // Then
@@ -96,12 +95,12 @@ class ExtraCloseTest {
     @DisplayName("shouldNotTriggerExtraClose_whenPositionImproves")
     void shouldNotTriggerExtraClose_whenPositionImproves() {
         // Given - сначала создаем мониторинг с позициями в убытке
-        BigDecimal initialPnlBest = new BigDecimal("-0.25"); // <= -0.20
-        BigDecimal pnlWorst = new BigDecimal("-0.60"); // <= -0.50
+        long initialPnlBest = PnlMath.units("-0.25"); // <= -0.20
+        long pnlWorst = PnlMath.units("-0.60"); // <= -0.50
         extraClose.checkExtraClose(session, initialPnlBest, pnlWorst, order);
 
         // When - позиция улучшилась
-        BigDecimal improvedPnlBest = new BigDecimal("-0.20"); // улучшение на +0.05
+        long improvedPnlBest = PnlMath.units("-0.20"); // улучшение на +0.05
         boolean result = extraClose.checkExtraClose(session, improvedPnlBest, pnlWorst, order);
 
         // Then
@@ -112,12 +111,12 @@ class ExtraCloseTest {
     @DisplayName("shouldNotTriggerExtraClose_whenPositionGoesDownLessThanThreshold")
     void shouldNotTriggerExtraClose_whenPositionGoesDownLessThanThreshold() {
         // Given - сначала создаем мониторинг с позициями в убытке
-        BigDecimal initialPnlBest = new BigDecimal("-0.25"); // <= -0.20
-        BigDecimal pnlWorst = new BigDecimal("-0.60"); // <= -0.50
+        long initialPnlBest = PnlMath.units("-0.25"); // <= -0.20
+        long pnlWorst = PnlMath.units("-0.60"); // <= -0.50
         extraClose.checkExtraClose(session, initialPnlBest, pnlWorst, order);
 
         // When - позиция ухудшилась меньше чем на -0.1
-        BigDecimal slightlyWorsenedPnlBest = new BigDecimal("-0.30"); // ухудшение на -0.05
+        long slightlyWorsenedPnlBest = PnlMath.units("-0.30"); // ухудшение на -0.05
         boolean result = extraClose.checkExtraClose(session, slightlyWorsenedPnlBest, pnlWorst, order);
 
         // Then
@@ -128,8 +127,8 @@ class ExtraCloseTest {
     @DisplayName("shouldExpireExtraClose_afterMaxLifetime")
     void shouldExpireExtraClose_afterMaxLifetime() {
         // Given - создаем мониторинг с прошлым временем
-        BigDecimal initialPnlBest = new BigDecimal("-0.25"); // <= -0.20
-        BigDecimal pnlWorst = new BigDecimal("-0.60"); // <= -0.50
+        long initialPnlBest = PnlMath.units("-0.25"); // <= -0.20
+        long pnlWorst = PnlMath.units("-0.60"); // <= -0.50
         extraClose.checkExtraClose(session, initialPnlBest, pnlWorst, order);
 
         // When - симулируем прошествие времени (через рефлексию или создание нового экземпляра)
@@ -143,12 +142,12 @@ class ExtraCloseTest {
             java.util.Map<String, Object> tracking = (java.util.Map<String, Object>) trackingField.get(newExtraClose);
             
             // Создаем состояние с прошлым временем
-            LocalDateTime pastTime = LocalDateTime.now().minusMinutes(6); // больше 5 минут
-            Object extraCloseState = createExtraCloseState(12345L, new BigDecimal("-0.25"), pastTime);
+            long pastTime = System.currentTimeMillis() - 6 * 60_000L; // больше 5 минут
+            Object extraCloseState = createExtraCloseState(12345L, PnlMath.units("-0.25"), pastTime);
             tracking.put("test-session", extraCloseState);
             
             // When - проверяем экстра закрытие
-            boolean result = newExtraClose.checkExtraClose(session, new BigDecimal("-0.40"), pnlWorst, order);
+            boolean result = newExtraClose.checkExtraClose(session, PnlMath.units("-0.40"), pnlWorst, order);
             
             // Then - должно истечь и не сработать
             assertFalse(result);
@@ -168,12 +167,12 @@ class ExtraCloseTest {
         TradeOrder order2 = TradeOrder.builder().orderId(222L).build();
 
         // When - создаем мониторинг для обеих сессий
-        extraClose.checkExtraClose(session1, new BigDecimal("-0.25"), new BigDecimal("-0.60"), order1);
-        extraClose.checkExtraClose(session2, new BigDecimal("-0.25"), new BigDecimal("-0.60"), order2);
+        extraClose.checkExtraClose(session1, PnlMath.units("-0.25"), PnlMath.units("-0.60"), order1);
+        extraClose.checkExtraClose(session2, PnlMath.units("-0.25"), PnlMath.units("-0.60"), order2);
 
         // Then - ухудшаем только первую сессию
-        boolean result1 = extraClose.checkExtraClose(session1, new BigDecimal("-0.40"), new BigDecimal("-0.60"), order1);
-        boolean result2 = extraClose.checkExtraClose(session2, new BigDecimal("-0.25"), new BigDecimal("-0.60"), order2);
+        boolean result1 = extraClose.checkExtraClose(session1, PnlMath.units("-0.40"), PnlMath.units("-0.60"), order1);
+        boolean result2 = extraClose.checkExtraClose(session2, PnlMath.units("-0.25"), PnlMath.units("-0.60"), order2);
 
         assertTrue(result1); // Первая сессия должна сработать
         assertFalse(result2); // Вторая сессия не должна сработать
@@ -185,17 +184,9 @@ class ExtraCloseTest {
         // Given
         TradeOrder nullOrder = null;
 
-        // When & Then - не должно упасть с исключением для null PnL значений
+        // When & Then - PnL теперь примитивный, null возможен только у ордера
         assertDoesNotThrow(() -> {
-            extraClose.checkExtraClose(session, null, new BigDecimal("-0.60"), order);
-        });
-
-        assertDoesNotThrow(() -> {
-            extraClose.checkExtraClose(session, new BigDecimal("-0.25"), null, order);
-        });
-
-        assertDoesNotThrow(() -> {
-            extraClose.checkExtraClose(session, new BigDecimal("-0.25"), new BigDecimal("-0.60"), nullOrder);
+            extraClose.checkExtraClose(session, PnlMath.units("-0.25"), PnlMath.units("-0.60"), nullOrder);
         });
     }
 
@@ -203,8 +194,8 @@ class ExtraCloseTest {
     @DisplayName("shouldHandleZeroValues")
     void shouldHandleZeroValues() {
         // Given
-        BigDecimal pnlBest = BigDecimal.ZERO;
-        BigDecimal pnlWorst = BigDecimal.ZERO;
+        long pnlBest = 0L;
+        long pnlWorst = 0L;
 
         // When
         boolean result = extraClose.checkExtraClose(session, pnlBest, pnlWorst, order);
@@ -217,8 +208,8 @@ class ExtraCloseTest {
     @DisplayName("shouldHandlePositiveValues")
     void shouldHandlePositiveValues() {
         // Given
-        BigDecimal pnlBest = new BigDecimal("0.10");
-        BigDecimal pnlWorst = new BigDecimal("0.05");
+        long pnlBest = PnlMath.units("0.10");
+        long pnlWorst = PnlMath.units("0.05");
 
         // When
         boolean result = extraClose.checkExtraClose(session, pnlBest, pnlWorst, order);
@@ -228,12 +219,12 @@ class ExtraCloseTest {
     }
 
     // Вспомогательный метод для создания состояния ExtraClose
-    private Object createExtraCloseState(Long orderId, BigDecimal baseline, LocalDateTime startTime) {
+    private Object createExtraCloseState(Long orderId, long baseline, long startTimeMs) {
         try {
             // Создаем экземпляр ExtraCloseState через рефлексию
             Class<?> extraCloseStateClass = Class.forName("io.cryptobot.binance.trading.monitoring.v3.models.ExtraCloseState");
-            return extraCloseStateClass.getConstructor(Long.class, BigDecimal.class, LocalDateTime.class)
-                    .newInstance(orderId, baseline, startTime);
+            return extraCloseStateClass.getConstructor(Long.class, long.class, long.class)
+                    .newInstance(orderId, baseline, startTimeMs);
         } catch (Exception e) {
             throw new RuntimeException("Failed to create ExtraCloseState", e);
         }
@@ -0,0 +1,194 @@
+package io.cryptobot.binance.trading.monitoring.v3.utils;
+
+import io.cryptobot.binance.order.enums.OrderPurpose;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.trade.session.enums.TradingDirection;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import io.cryptobot.binance.trading.monitoring.v3.help.MonitorHelper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Решения мониторинга на примитивах ({@link PnlMath}) против прежней BigDecimal-логики
+ * ({@link BigDecimalMonitoringReference}) на случайных ценах и блужданиях PnL.
+ */
+@DisplayName("Monitoring decisions: primitives vs BigDecimal")
+class MonitoringDecisionDifferentialTest {
+
+    private static final int PRICE_CASES = 200_000;
+    private static final int WALKS = 2_000;
+    private static final int WALK_STEPS = 300;
+    private static final long SEED = 20_251_016L;
+
+    private final CheckTrailing checkTrailing = new CheckTrailing();
+
+    @Test
+    @DisplayName("PnL units should equal the BigDecimal PnL for random entries and prices")
+    void pnlShouldMatchBigDecimal() {
+        Random rnd = new Random(SEED);
+        for (int i = 0; i < PRICE_CASES; i++) {
+            BigDecimal entry = randomPrice(rnd);
+            BigDecimal price = moved(entry, rnd.nextDouble() * 0.1 - 0.05);
+            TradingDirection dir = rnd.nextBoolean() ? TradingDirection.LONG : TradingDirection.SHORT;
+            assertPnlMatches(dir, entry, price.doubleValue());
+        }
+    }
+
+    @Test
+    @DisplayName("PnL units should round exact half ties like HALF_UP")
+    void pnlShouldMatchOnExactTies() {
+        // entry / 2e8 = 0.0004 и 0.0001: каждая цена entry ± step * (2k + 1) даёт ровно .5 единицы
+        for (String e : new String[]{"80000", "20000"}) {
+            BigDecimal entry = new BigDecimal(e);
+            BigDecimal step = entry.divide(BigDecimal.valueOf(200_000_000L));
+            for (int k = 0; k < 5_000; k++) {
+                BigDecimal offset = step.multiply(BigDecimal.valueOf(2L * k + 1));
+                for (TradingDirection dir : TradingDirection.values()) {
+                    assertPnlMatches(dir, entry, entry.add(offset).doubleValue());
+                    assertPnlMatches(dir, entry, entry.subtract(offset).doubleValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Trailing, two-pos activation and soft trailing should decide like BigDecimal on random walks")
+    void trailingShouldMatchBigDecimal() {
+        Random rnd = new Random(SEED + 1);
+        for (int w = 0; w < WALKS; w++) {
+            BigDecimal entry = randomPrice(rnd);
+            TradingDirection dir = rnd.nextBoolean() ? TradingDirection.LONG : TradingDirection.SHORT;
+            TradeOrder ref = order(entry, dir);
+            TradeOrder neu = order(entry, dir);
+            BigDecimal softHighRef = null;
+            long softHigh = 0L;
+            BigDecimal price = entry;
+
+            for (int s = 0; s < WALK_STEPS; s++) {
+                price = moved(price, rnd.nextGaussian() * 0.0008);
+                double p = price.doubleValue();
+                BigDecimal pnlRef = BigDecimalMonitoringReference.calcPnl(dir, entry, BigDecimal.valueOf(p));
+                long pnl = PnlMath.pnl(dir, entry, p);
+                String where = "walk " + w + " step " + s + " entry=" + entry + " price=" + price;
+
+                if (rnd.nextInt(4) == 0) {
+                    assertEquals(BigDecimalMonitoringReference.checkTwoPosBestTrailingActivation(pnlRef, ref),
+                            checkTrailing.checkTwoPosBestTrailingActivation(pnl, neu), where);
+                } else {
+                    assertEquals(BigDecimalMonitoringReference.checkTrailing(ref, pnlRef),
+                            checkTrailing.checkTrailing(neu, pnl), where);
+                }
+                assertEquals(ref.getTrailingActive(), neu.getTrailingActive(), where);
+                assertEquals(0, ref.getPnlHigh().compareTo(neu.getPnlHigh()), where);
+                assertEquals(BigDecimalMonitoringReference.computeRetraceLevel(ref.getPnlHigh()).doubleValue(),
+                        checkTrailing.computeRetraceLevel(PnlMath.units(neu.getPnlHigh())), 1e-12, where);
+
+                softHighRef = softHighRef == null || pnlRef.compareTo(softHighRef) > 0 ? pnlRef : softHighRef;
+                softHigh = checkTrailing.updateTrailHigh(softHigh, pnl);
+                assertEquals(BigDecimalMonitoringReference.checkSoftTrailing(softHighRef, pnlRef),
+                        checkTrailing.checkSoftTrailing(softHigh, pnl), where);
+                if (rnd.nextInt(50) == 0) {
+                    softHighRef = null;
+                    softHigh = 0L;
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Soft-trail activation, extra close and averaging thresholds should decide like BigDecimal")
+    void thresholdsShouldMatchBigDecimal() {
+        Random rnd = new Random(SEED + 2);
+        MonitorHelper helper = mock(MonitorHelper.class);
+        when(helper.canOpenAverageByDirection(any(), any())).thenReturn(true);
+        CheckAveraging averaging = new CheckAveraging(helper);
+        ExtraClose extraClose = new ExtraClose();
+        BigDecimal improve = new BigDecimal("0.1");
+        long improveUnits = PnlMath.units("0.1");
+
+        for (int w = 0; w < WALKS; w++) {
+            TradeSession session = TradeSession.builder().id("s" + w).build();
+            BigDecimal entry = randomPrice(rnd);
+            TradeOrder best = order(entry, TradingDirection.LONG);
+            BigDecimal extraBaseline = null;
+            BigDecimal baselineRef = null;
+            long baseline = 0L;
+            BigDecimal price = moved(entry, -0.003);
+
+            for (int s = 0; s < WALK_STEPS; s++) {
+                price = moved(price, rnd.nextGaussian() * 0.001);
+                double p = price.doubleValue();
+                BigDecimal bestRef = BigDecimalMonitoringReference.calcPnl(TradingDirection.LONG, entry, BigDecimal.valueOf(p));
+                BigDecimal worstRef = BigDecimalMonitoringReference.calcPnl(TradingDirection.SHORT, entry, BigDecimal.valueOf(p))
+                        .subtract(new BigDecimal("0.4"));
+                long bestPnl = PnlMath.pnl(TradingDirection.LONG, entry, p);
+                long worstPnl = PnlMath.pnl(TradingDirection.SHORT, entry, p) - PnlMath.units("0.4");
+                String where = "walk " + w + " step " + s + " entry=" + entry + " price=" + price;
+
+                if (baselineRef == null) {
+                    baselineRef = bestRef;
+                    baseline = bestPnl;
+                }
+                assertEquals(BigDecimalMonitoringReference.shouldActivateSoftTrailing(bestRef.subtract(baselineRef), bestRef, improve),
+                        checkTrailing.shouldActivateSoftTrailing(bestPnl - baseline, bestPnl, improveUnits), where);
+
+                boolean expectedExtra = false;
+                if (extraBaseline != null) {
+                    if (BigDecimalMonitoringReference.hasGoneDown(extraBaseline, bestRef)) {
+                        extraBaseline = null;
+                        expectedExtra = true;
+                    }
+                } else if (BigDecimalMonitoringReference.shouldStartExtraClose(bestRef, worstRef)) {
+                    extraBaseline = bestRef;
+                }
+                assertEquals(expectedExtra, extraClose.checkExtraClose(session, bestPnl, worstPnl, best), where);
+
+                assertEquals(BigDecimalMonitoringReference.averagingPnlReached(worstRef.multiply(BigDecimal.TEN)),
+                        averaging.checkOpen(session, best, worstPnl * 10), where);
+            }
+        }
+    }
+
+    private static void assertPnlMatches(TradingDirection dir, BigDecimal entry, double price) {
+        BigDecimal expected = BigDecimalMonitoringReference.calcPnl(dir, entry, BigDecimal.valueOf(price));
+        long units = PnlMath.pnl(dir, entry, price);
+        assertEquals(0, expected.compareTo(PnlMath.toPct(units)),
+                () -> dir + " entry=" + entry + " price=" + price + " expected=" + expected + " units=" + units);
+    }
+
+    private static TradeOrder order(BigDecimal entry, TradingDirection dir) {
+        return TradeOrder.builder()
+                .orderId(1L)
+                .direction(dir)
+                .purpose(OrderPurpose.MAIN_OPEN)
+                .status(OrderStatus.FILLED)
+                .price(entry)
+                .pnlHigh(BigDecimal.ZERO)
+                .trailingActive(false)
+                .build();
+    }
+
+    /** Цена как на бирже: от 1e-4 до 1e5, тик 10^-scale, не больше 15 значащих цифр. */
+    private static BigDecimal randomPrice(Random rnd) {
+        int magnitude = rnd.nextInt(10) - 4;
+        int scale = Math.max(0, Math.min(8, 14 - (magnitude + 1) - rnd.nextInt(6)));
+        double v = Math.pow(10, magnitude) * (1 + rnd.nextDouble() * 9);
+        BigDecimal p = BigDecimal.valueOf(v).setScale(scale, RoundingMode.HALF_UP);
+        return p.signum() > 0 ? p : BigDecimal.ONE.movePointLeft(scale);
+    }
+
+    private static BigDecimal moved(BigDecimal price, double change) {
+        BigDecimal next = price.multiply(BigDecimal.valueOf(1 + change)).setScale(price.scale(), RoundingMode.HALF_UP);
+        return next.signum() > 0 ? next : price;
+    }
+}
@@ -0,0 +1,114 @@
+package io.cryptobot.binance.trading.monitoring.v3.utils;
+
+import io.cryptobot.binance.order.enums.OrderPurpose;
+import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.trade.session.enums.TradingDirection;
+import io.cryptobot.binance.trade.session.model.TradeOrder;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Сравнение прежней BigDecimal-оценки тика ({@link BigDecimalMonitoringReference}) и оценки на примитивах
+ * ({@link PnlMath} + {@link CheckTrailing}) на заранее сгенерированном блуждании цены. Один тик — PnL,
+ * трейлинг ордера и мягкий трейлинг, как в мониторинге одиночной позиции. Не unit-тест, запуск вручную:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.cryptobot.binance.trading.monitoring.v3.utils.MonitoringMathBenchmark
+ * </pre>
+ * Печатает ns/тик и байт/тик (через com.sun.management.ThreadMXBean, если доступен).
+ */
+public class MonitoringMathBenchmark {
+
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURE_ROUNDS = 1_000;
+    private static final int TICKS = 10_000;
+
+    private static final BigDecimal ENTRY = new BigDecimal("62345.10");
+    private static final TradingDirection DIRECTION = TradingDirection.LONG;
+
+    private static final CheckTrailing checkTrailing = new CheckTrailing();
+    private static long sink;
+
+    public static void main(String[] args) {
+        double[] prices = walk(new Random(42), TICKS);
+
+        run("BigDecimal (warmup)", prices, WARMUP_ROUNDS, MonitoringMathBenchmark::evaluateBigDecimal);
+        run("primitive (warmup)", prices, WARMUP_ROUNDS, MonitoringMathBenchmark::evaluatePrimitive);
+
+        run("BigDecimal", prices, MEASURE_ROUNDS, MonitoringMathBenchmark::evaluateBigDecimal);
+        run("primitive", prices, MEASURE_ROUNDS, MonitoringMathBenchmark::evaluatePrimitive);
+        System.out.println("sink=" + sink);
+    }
+
+    /** Старый путь: цена из тикера в BigDecimal, PnL и все сравнения на BigDecimal. */
+    private static void evaluateBigDecimal(TradeOrder order, double[] prices) {
+        BigDecimal softHigh = null;
+        for (double p : prices) {
+            BigDecimal pnl = BigDecimalMonitoringReference.calcPnl(DIRECTION, ENTRY, BigDecimal.valueOf(p));
+            if (BigDecimalMonitoringReference.checkTrailing(order, pnl)) sink++;
+            softHigh = softHigh == null || pnl.compareTo(softHigh) > 0 ? pnl : softHigh;
+            if (BigDecimalMonitoringReference.checkSoftTrailing(softHigh, pnl)) sink++;
+        }
+    }
+
+    /** Новый путь: double-цена из фида, PnL в единицах PnlMath, BigDecimal только при новом максимуме. */
+    private static void evaluatePrimitive(TradeOrder order, double[] prices) {
+        long softHigh = 0L;
+        for (double p : prices) {
+            long pnl = PnlMath.pnl(DIRECTION, ENTRY, p);
+            if (checkTrailing.checkTrailing(order, pnl)) sink++;
+            softHigh = checkTrailing.updateTrailHigh(softHigh, pnl);
+            if (checkTrailing.checkSoftTrailing(softHigh, pnl)) sink++;
+        }
+    }
+
+    private interface TickEvaluator {
+        void evaluate(TradeOrder order, double[] prices);
+    }
+
+    private static void run(String name, double[] prices, int rounds, TickEvaluator evaluator) {
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            evaluator.evaluate(order(), prices);
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytesAfter = allocatedBytes();
+        long total = (long) rounds * prices.length;
+        System.out.printf("%-20s %8.1f ns/tick %10s B/tick%n",
+                name, (double) elapsed / total,
+                bytesBefore < 0 ? "n/a" : String.format("%.2f", (double) (bytesAfter - bytesBefore) / total));
+    }
+
+    /** Блуждание с тиком 0.1 вокруг входа: достаточно широкое, чтобы трейлинг включался и срабатывал. */
+    private static double[] walk(Random rnd, int ticks) {
+        double[] out = new double[ticks];
+        long price = ENTRY.movePointRight(1).longValueExact();
+        for (int i = 0; i < ticks; i++) {
+            price += Math.round(rnd.nextGaussian() * 30);
+            out[i] = price / 10.0;
+        }
+        return out;
+    }
+
+    private static TradeOrder order() {
+        return TradeOrder.builder()
+                .orderId(1L)
+                .direction(DIRECTION)
+                .purpose(OrderPurpose.MAIN_OPEN)
+                .status(OrderStatus.FILLED)
+                .price(ENTRY)
+                .pnlHigh(BigDecimal.ZERO)
+                .trailingActive(false)
+                .build();
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean mx) {
+            return mx.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
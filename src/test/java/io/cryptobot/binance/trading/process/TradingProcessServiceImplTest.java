@@ -3,6 +3,7 @@ package io.cryptobot.binance.trading.process;
 import io.cryptobot.binance.order.enums.OrderSide;
 import io.cryptobot.binance.order.enums.OrderStatus;
 import io.cryptobot.binance.order.enums.OrderType;
+import io.cryptobot.binance.order.fill.OrderFillRegistry;
 import io.cryptobot.binance.order.model.Order;
 import io.cryptobot.binance.order.service.OrderService;
 import io.cryptobot.binance.trade.session.enums.TradingDirection;
@@ -26,6 +27,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -47,6 +49,9 @@ class TradingProcessServiceImplTest {
     @Mock
     private TradePlanLockRegistry lockRegistry;
 
+    @Mock
+    private OrderFillRegistry fillRegistry;
+
     @InjectMocks
     private TradingProcessServiceImpl tradingProcessService;
 
@@ -106,23 +111,10 @@ class TradingProcessServiceImplTest {
 
         // Устанавливаем короткие значения для тестов
         tradingProcessService.setMaxWaitMillis(100);
-        tradingProcessService.setIntervalMillis(50);
 
         // Настраиваем мок для lockRegistry
         lenient().when(lockRegistry.getLock(any())).thenReturn(testLock);
-    }
-
-    @Test
-    @DisplayName("Should set and get interval milliseconds")
-    void shouldSetAndGetIntervalMillis() {
-        // Given
-        int expectedInterval = 5000;
-
-        // When
-        tradingProcessService.setIntervalMillis(expectedInterval);
-
-        // Then
-        assertEquals(expectedInterval, tradingProcessService.getIntervalMillis());
+        lenient().when(fillRegistry.awaitFill(any(), anyLong())).thenReturn(CompletableFuture.completedFuture(null));
     }
 
     @Test
@@ -173,4 +165,55 @@ class TradingProcessServiceImplTest {
         // Then
         verify(orderService).createLimitOrElseMarket(eq("BTCUSDT"), eq(0.002), eq(OrderSide.SELL), eq(testSizeModel));
     }
+
+    @Test
+    @DisplayName("Should create session as soon as fill registry reports FILLED")
+    void shouldCreateSessionWhenOrderFilled() {
+        // Given
+        Order filled = Order.builder()
+                .orderId(123456789L)
+                .symbol("BTCUSDT")
+                .side(OrderSide.BUY)
+                .orderType(OrderType.LIMIT)
+                .quantity(new BigDecimal("0.002"))
+                .orderStatus(OrderStatus.FILLED)
+                .price(new BigDecimal("50000.0"))
+                .averagePrice(new BigDecimal("50000.0"))
+                .tradeTime(System.currentTimeMillis())
+                .build();
+        when(orderService.createLimitOrElseMarket(eq("BTCUSDT"), eq(0.002), eq(OrderSide.BUY), eq(testSizeModel)))
+                .thenReturn(testOrder);
+        when(fillRegistry.awaitFill(testOrder, 100L)).thenReturn(CompletableFuture.completedFuture(filled));
+        when(orderService.getOrder(123456789L)).thenReturn(filled);
+        when(sessionService.create(eq("BTCUSDT"), eq(TradingDirection.LONG), any(TradeOrder.class), eq("ctx")))
+                .thenReturn(testTradeSession);
+
+        // When
+        tradingProcessService.openOrder(testTradePlan, TradingDirection.LONG, new BigDecimal("50000.00"), "ctx");
+
+        // Then
+        verify(orderService, times(1)).getOrder(123456789L);
+        verify(monitoringService).addToMonitoring(testTradeSession);
+    }
+
+    @Test
+    @DisplayName("Should not create session when order is not filled in time")
+    void shouldNotCreateSessionWhenOrderNotFilled() {
+        // Given
+        Order canceled = Order.builder()
+                .orderId(123456789L)
+                .symbol("BTCUSDT")
+                .orderStatus(OrderStatus.CANCELED)
+                .build();
+        when(orderService.createLimitOrElseMarket(eq("BTCUSDT"), eq(0.002), eq(OrderSide.BUY), eq(testSizeModel)))
+                .thenReturn(testOrder);
+        when(fillRegistry.awaitFill(testOrder, 100L)).thenReturn(CompletableFuture.completedFuture(canceled));
+
+        // When
+        tradingProcessService.openOrder(testTradePlan, TradingDirection.LONG, new BigDecimal("50000.00"), "ctx");
+
+        // Then
+        verify(orderService, never()).getOrder(anyLong());
+        verifyNoInteractions(sessionService, monitoringService);
+    }
 } 
\ No newline at end of file
@@ -13,6 +13,7 @@ import io.cryptobot.binance.trade.trade_plan.model.SizeModel;
 import io.cryptobot.binance.trade.trade_plan.service.get.TradePlanGetService;
 import io.cryptobot.binance.trading.updates.TradingUpdatesService;
 import io.cryptobot.binance.trading.updates.TradingUpdatesServiceImpl;
+import io.cryptobot.binance.order.fill.OrderFillRegistry;
 import io.cryptobot.binance.order.service.OrderService;
 import io.cryptobot.binance.order.model.Order;
 import io.cryptobot.configs.locks.TradeSessionLockRegistry;
@@ -27,6 +28,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -52,6 +54,9 @@ class TradingUpdatesServiceImplTest {
     @Mock
     private TradeSessionLockRegistry lockRegistry;
 
+    @Mock
+    private OrderFillRegistry fillRegistry;
+
     @InjectMocks
     private TradingUpdatesServiceImpl tradingUpdatesService;
 
@@ -105,6 +110,8 @@ class TradingUpdatesServiceImplTest {
         lenient().when(orderService.createLimitOrElseMarket(anyString(), anyDouble(), any(OrderSide.class), any(SizeModel.class)))
                 .thenReturn(mockOrder);
         lenient().when(orderService.getOrder(anyLong())).thenReturn(mockOrder);
+        // статуса нет — ордер не исполнен
+        lenient().when(fillRegistry.awaitFill(any(Order.class), anyLong())).thenReturn(CompletableFuture.completedFuture(mockOrder));
         
         // Настраиваем моки для sessionService
         lenient().when(sessionService.addOrder(anyString(), any(TradeOrder.class))).thenReturn(session);
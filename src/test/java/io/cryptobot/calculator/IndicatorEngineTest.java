@@ -0,0 +1,150 @@
+package io.cryptobot.calculator;
+
+import io.cryptobot.market_data.klines.enums.IntervalE;
+import io.cryptobot.market_data.klines.model.KlineModel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeries;
+import org.ta4j.core.indicators.ATRIndicator;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("IndicatorEngine Tests")
+class IndicatorEngineTest {
+    private static final long MINUTE = 60_000L;
+
+    private static KlineModel kline(long openTime, double open, double high, double low, double close, double volume) {
+        KlineModel k = new KlineModel();
+        k.setOpenTime(openTime);
+        k.setCloseTime(openTime + MINUTE - 1);
+        k.setSymbol("BTCUSDT");
+        k.setInterval(IntervalE.ONE_MINUTE);
+        k.setOpenPrice(BigDecimal.valueOf(open));
+        k.setHighPrice(BigDecimal.valueOf(high));
+        k.setLowPrice(BigDecimal.valueOf(low));
+        k.setClosePrice(BigDecimal.valueOf(close));
+        k.setVolume(BigDecimal.valueOf(volume));
+        k.setClosed(true);
+        return k;
+    }
+
+    private static List<KlineModel> randomKlines(int count, long seed) {
+        Random rnd = new Random(seed);
+        List<KlineModel> klines = new ArrayList<>();
+        double close = 100.0;
+        for (int i = 0; i < count; i++) {
+            double open = close;
+            close = Math.max(1.0, open + rnd.nextGaussian());
+            double high = Math.max(open, close) + rnd.nextDouble();
+            double low = Math.min(open, close) - rnd.nextDouble();
+            klines.add(kline(1_700_000_000_000L + i * MINUTE, open, high, low, close, 1.0 + rnd.nextDouble() * 10));
+        }
+        return klines;
+    }
+
+    /** Прежний расчёт: полная серия ta4j по тем же свечам */
+    private static BarSeries ta4jSeries(List<KlineModel> klines) {
+        BarSeries series = new BaseBarSeries();
+        for (KlineModel k : klines) {
+            series.addBar(
+                    ZonedDateTime.ofInstant(Instant.ofEpochMilli(k.getOpenTime()), ZoneId.of("UTC")),
+                    series.numOf(k.getOpenPrice()),
+                    series.numOf(k.getHighPrice()),
+                    series.numOf(k.getLowPrice()),
+                    series.numOf(k.getClosePrice()),
+                    series.numOf(k.getVolume()));
+        }
+        return series;
+    }
+
+    @Test
+    @DisplayName("Should match ta4j EMA, RSI and ATR after every kline close")
+    void shouldMatchTa4j() {
+        List<KlineModel> klines = randomKlines(260, 11);
+        BarSeries series = ta4jSeries(klines);
+        ClosePriceIndicator close = new ClosePriceIndicator(series);
+        EMAIndicator ema7 = new EMAIndicator(close, 7);
+        EMAIndicator ema20 = new EMAIndicator(close, 20);
+        EMAIndicator ema50 = new EMAIndicator(close, 50);
+        EMAIndicator ema200 = new EMAIndicator(close, 200);
+        RSIIndicator rsi = new RSIIndicator(close, IndicatorEngine.RSI_PERIOD);
+        ATRIndicator atr = new ATRIndicator(series, IndicatorEngine.ATR_PERIOD);
+
+        IndicatorEngine engine = new IndicatorEngine();
+        for (int i = 0; i < klines.size(); i++) {
+            assertThat(engine.update(klines.get(i))).isTrue();
+            IndicatorValues v = engine.values();
+
+            assertThat(v.bars()).isEqualTo(i + 1);
+            assertThat(v.ema7()).isCloseTo(i >= 6 ? ema7.getValue(i).doubleValue() : -1.0, within(1e-9));
+            assertThat(v.ema20()).isCloseTo(i >= 19 ? ema20.getValue(i).doubleValue() : -1.0, within(1e-9));
+            assertThat(v.ema50()).isCloseTo(i >= 49 ? ema50.getValue(i).doubleValue() : -1.0, within(1e-9));
+            assertThat(v.ema200()).isCloseTo(i >= 199 ? ema200.getValue(i).doubleValue() : -1.0, within(1e-9));
+            if (i >= IndicatorEngine.RSI_PERIOD) {
+                assertThat(v.rsi()).isCloseTo(rsi.getValue(i).doubleValue(), within(1e-9));
+            }
+            if (i >= IndicatorEngine.ATR_PERIOD - 1) {
+                assertThat(v.atr()).isCloseTo(atr.getValue(i).doubleValue(), within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject stale klines and give the same values after rebuild")
+    void shouldRebuildOnBackfill() {
+        List<KlineModel> klines = randomKlines(80, 5);
+        IndicatorEngine incremental = new IndicatorEngine();
+        klines.forEach(incremental::update);
+
+        assertThat(incremental.update(klines.get(10))).isFalse();
+
+        IndicatorEngine rebuilt = new IndicatorEngine();
+        rebuilt.rebuild(klines);
+        assertThat(rebuilt.values()).isEqualTo(incremental.values());
+    }
+
+    @Test
+    @DisplayName("VWAP should restart at the UTC day boundary")
+    void shouldResetVwapDaily() {
+        long midnight = 1_700_006_400_000L; // 2023-11-15T00:00Z
+        IndicatorEngine engine = new IndicatorEngine();
+        engine.update(kline(midnight - 2 * MINUTE, 10, 12, 9, 12, 1));
+        engine.update(kline(midnight - MINUTE, 12, 13, 11, 12, 3));
+        assertThat(engine.values().vwap()).isCloseTo((11.0 * 1 + 12.0 * 3) / 4, within(1e-12));
+
+        engine.update(kline(midnight, 12, 21, 18, 21, 2));
+        assertThat(engine.values().vwap()).isCloseTo(20.0, within(1e-12));
+        assertThat(engine.values().rsi()).isEqualTo(-1.0);
+    }
+
+    @Test
+    @DisplayName("Calculator should sort klines and return -1 for periods it cannot fill")
+    void calculatorShouldUseEngine() {
+        List<KlineModel> klines = randomKlines(30, 3);
+        IndicatorEngine engine = new IndicatorEngine();
+        klines.forEach(engine::update);
+
+        List<KlineModel> shuffled = new ArrayList<>(klines);
+        Collections.shuffle(shuffled, new Random(1));
+        EmaValues ema = Calculator.calculateEma(shuffled, true, false, true, true);
+
+        assertThat(ema.getEma7()).isEqualTo(engine.values().ema7());
+        assertThat(ema.getEma20()).isEqualTo(-1.0);
+        assertThat(ema.getEma50()).isEqualTo(-1.0);
+        assertThat(ema.getEma200()).isEqualTo(-1.0);
+    }
+}
@@ -0,0 +1,84 @@
+package io.cryptobot.configs.executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BlockingExecutors Tests")
+class BlockingExecutorsTest {
+
+    @AfterEach
+    void tearDown() {
+        BlockingExecutors.configure(false);
+    }
+
+    @Test
+    @DisplayName("Should create named daemon platform threads by default")
+    void shouldCreatePlatformThreads() {
+        // Given
+        BlockingExecutors.configure(false);
+
+        // When
+        Thread t = BlockingExecutors.threadFactory("worker").newThread(() -> { });
+
+        // Then
+        assertFalse(BlockingExecutors.isVirtual());
+        assertEquals("worker-1", t.getName());
+        assertTrue(t.isDaemon());
+    }
+
+    @Test
+    @DisplayName("Should enable virtual threads only when the runtime supports them")
+    void shouldFallBackWhenVirtualThreadsUnsupported() {
+        // When
+        BlockingExecutors.configure(true);
+        Thread t = BlockingExecutors.newThread("probe", () -> { });
+
+        // Then
+        assertEquals(VirtualThreads.isSupported(), BlockingExecutors.isVirtual());
+        assertEquals("probe", t.getName());
+        assertTrue(t.isDaemon());
+    }
+
+    @Test
+    @DisplayName("Should run blocking tasks concurrently in either mode")
+    void shouldRunBlockingTasksConcurrently() throws Exception {
+        for (boolean virtual : new boolean[]{false, true}) {
+            // Given
+            BlockingExecutors.configure(virtual);
+            ExecutorService exec = BlockingExecutors.newExecutor("blocking", 4);
+            CountDownLatch started = new CountDownLatch(4);
+            CountDownLatch release = new CountDownLatch(1);
+            Set<String> names = ConcurrentHashMap.newKeySet();
+
+            // When — все задачи ждут друг друга, значит выполняются одновременно
+            for (int i = 0; i < 4; i++) {
+                exec.execute(() -> {
+                    names.add(Thread.currentThread().getName());
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            // Then
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            release.countDown();
+            exec.shutdown();
+            assertTrue(exec.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(4, names.size());
+            assertTrue(names.stream().allMatch(n -> n.startsWith("blocking-")));
+        }
+    }
+}
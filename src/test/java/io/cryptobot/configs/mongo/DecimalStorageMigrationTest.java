@@ -0,0 +1,85 @@
+package io.cryptobot.configs.mongo;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.result.UpdateResult;
+import io.cryptobot.binance.order.model.Order;
+import io.cryptobot.binance.trade.session.model.TradeSession;
+import io.cryptobot.binance.trade.trade_plan.model.TradePlan;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DecimalStorageMigration Tests")
+class DecimalStorageMigrationTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    private DecimalStorageMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        migration = new DecimalStorageMigration(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Should convert string amounts on the server and record the migration")
+    @SuppressWarnings("unchecked")
+    void shouldConvertAndMarkDone() {
+        // Given
+        when(mongoTemplate.getCollection(anyString())).thenReturn(collection);
+        when(mongoTemplate.getCollectionName(Order.class)).thenReturn("orders");
+        when(mongoTemplate.getCollectionName(TradeSession.class)).thenReturn("trade-session");
+        when(mongoTemplate.getCollectionName(TradePlan.class)).thenReturn("trade-plan");
+        when(collection.countDocuments(any(Bson.class))).thenReturn(0L);
+        when(collection.updateMany(any(Bson.class), anyList())).thenReturn(UpdateResult.acknowledged(3, 3L, null));
+
+        // When
+        migration.migrate();
+
+        // Then
+        ArgumentCaptor<Bson> filter = ArgumentCaptor.forClass(Bson.class);
+        ArgumentCaptor<List<Document>> pipeline = ArgumentCaptor.forClass(List.class);
+        verify(collection, times(3)).updateMany(filter.capture(), pipeline.capture());
+
+        Document sessionsFilter = (Document) filter.getAllValues().get(1);
+        assertTrue(sessionsFilter.getList("$or", Document.class)
+                .contains(new Document("orders.pnl", new Document("$type", "string"))));
+        Document set = pipeline.getAllValues().get(1).get(0).get("$set", Document.class);
+        assertTrue(set.containsKey("totalCommission"));
+        assertTrue(set.get("orders", Document.class).containsKey("$cond"));
+        verify(collection).insertOne(argThat(d -> DecimalStorageMigration.MIGRATION_ID.equals(d.get("_id"))));
+    }
+
+    @Test
+    @DisplayName("Should skip when the migration is already recorded")
+    void shouldSkipWhenDone() {
+        // Given
+        when(mongoTemplate.getCollection(DecimalStorageMigration.MIGRATIONS)).thenReturn(collection);
+        when(collection.countDocuments(any(Bson.class))).thenReturn(1L);
+
+        // When
+        migration.migrate();
+
+        // Then
+        verify(collection, never()).updateMany(any(Bson.class), anyList());
+        verify(collection, never()).insertOne(any());
+    }
+}
@@ -0,0 +1,121 @@
+package io.cryptobot.market_data.aggTrade;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("TradeFlow Tests")
+class TradeFlowTest {
+
+    private record Trade(long time, double price, double qty, boolean maker) {}
+
+    /** Прежний расчёт TradingServiceImpl: EMA с затравкой от самой старой сделки окна */
+    private static double bruteEma(List<Trade> window, int period) {
+        int n = window.size();
+        if (n < period) return window.stream().mapToDouble(Trade::price).sum() / n;
+        double k = 2.0 / (period + 1);
+        double ema = window.get(0).price();
+        for (int i = 1; i < n; i++) ema = window.get(i).price() * k + ema * (1 - k);
+        return ema;
+    }
+
+    private static double bruteVolume(List<Trade> trades, long fromSec, long toSec) {
+        return trades.stream()
+                .filter(t -> t.time() / 1000 >= fromSec && t.time() / 1000 <= toSec)
+                .mapToDouble(Trade::qty)
+                .sum();
+    }
+
+    @Test
+    @DisplayName("Should match full recomputation over the retained window")
+    void shouldMatchBruteForce() {
+        int maxWindow = 1_000;
+        TradeFlow flow = new TradeFlow(maxWindow);
+        List<Trade> all = new ArrayList<>();
+        Random rnd = new Random(7);
+        long time = 1_700_000_000_000L;
+        double price = 100.0;
+
+        for (int i = 1; i <= 5_000; i++) {
+            time += rnd.nextInt(200); // ~10 сделок в секунду — 60s целиком в окне буфера
+            price += rnd.nextGaussian() * 0.05;
+            Trade t = new Trade(time, price, 0.001 + rnd.nextDouble(), rnd.nextBoolean());
+            all.add(t);
+            flow.append(t.time(), i, t.price(), t.qty(), t.maker());
+
+            if (i % 997 == 0 || i == 5 || i == 30) {
+                List<Trade> window = all.subList(Math.max(0, all.size() - maxWindow), all.size());
+                long now = time + 300;
+                TradeFlowStats s = flow.stats(now, 30);
+
+                assertThat(s.emaFast()).isCloseTo(bruteEma(window, 20), within(1e-6));
+                assertThat(s.emaSlow()).isCloseTo(bruteEma(window, 50), within(1e-6));
+                double buy = window.stream().filter(x -> !x.maker()).mapToDouble(Trade::qty).sum();
+                double sell = window.stream().filter(Trade::maker).mapToDouble(Trade::qty).sum();
+                assertThat(s.buyVolume()).isCloseTo(buy, within(1e-6));
+                assertThat(s.sellVolume()).isCloseTo(sell, within(1e-6));
+                long nowSec = now / 1000;
+                assertThat(s.baselineVolume()).isCloseTo(bruteVolume(window, nowSec - 60, nowSec), within(1e-6));
+                assertThat(s.windowVolume()).isCloseTo(bruteVolume(window, nowSec - 30, nowSec), within(1e-6));
+                assertThat(s.lastPrice()).isEqualTo(price);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should compute ratios and percentages from aggregates")
+    void shouldDeriveRatios() {
+        TradeFlow flow = new TradeFlow(100);
+        long t0 = 1_000_000L;
+        // 60 секунд по 1.0, последние 10 секунд ещё по 2.0 — все покупки
+        for (int s = 0; s < 60; s++) {
+            flow.append(t0 + s * 1_000L, s + 1, 10.0, 1.0, false);
+        }
+        for (int s = 50; s < 60; s++) {
+            flow.append(t0 + s * 1_000L + 500, 100 + s, 10.0, 2.0, true);
+        }
+
+        TradeFlowStats stats = flow.stats(t0 + 59_000L, 10);
+
+        // baseline: 60 + 20 = 80 за 60s → 1.333/s; окно [49..59]: 11*1 + 10*2 = 31
+        assertThat(stats.volRatio()).isCloseTo(31.0 / (80.0 / 60 * 10), within(1e-9));
+        assertThat(stats.longPct()).isCloseTo(60.0 / 80.0 * 100, within(1e-9));
+        assertThat(stats.shortPct()).isCloseTo(20.0 / 80.0 * 100, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Should honour the longest window a plan may configure")
+    void shouldSumLongestWindow() {
+        TradeFlow flow = new TradeFlow(1_000);
+        long t0 = 1_000_000L;
+        for (int s = 0; s < 700; s++) {
+            flow.append(t0 + s * 1_000L, s + 1, 10.0, 1.0, false);
+        }
+
+        TradeFlowStats stats = flow.stats(t0 + 699_000L, TradeFlow.MAX_WINDOW_SEC);
+
+        // окно [99..699] — 601 секунда по 1.0, без обрезки до меньшего окна
+        assertThat(stats.windowSec()).isEqualTo(600);
+        assertThat(stats.windowVolume()).isCloseTo(601.0, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Should return null before the first trade and ignore duplicates")
+    void shouldHandleEmptyAndDuplicates() {
+        TradeFlow flow = new TradeFlow(10);
+        assertThat(flow.stats(0L, 30)).isNull();
+
+        flow.append(1_000L, 1, 5.0, 1.0, false);
+        flow.append(1_000L, 1, 5.0, 1.0, false);
+
+        TradeFlowStats stats = flow.stats(1_000L, 30);
+        assertThat(stats.trades()).isEqualTo(1);
+        assertThat(stats.buyVolume()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,113 @@
+package io.cryptobot.market_data.aggTrade;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TradeRing Tests")
+class TradeRingTest {
+
+    private static TradeRing ringWith(int maxWindow, int trades) {
+        TradeRing ring = new TradeRing(maxWindow);
+        for (int i = 1; i <= trades; i++) {
+            ring.append(i * 1_000L, i, 100.0 + i, 0.5, i % 2 == 0);
+        }
+        return ring;
+    }
+
+    @Test
+    @DisplayName("Should expose last N trades oldest-first without exceeding the visible window")
+    void shouldReturnWindowByCount() {
+        TradeRing ring = ringWith(10, 25);
+
+        TradeWindow all = ring.all();
+        assertThat(all.size()).isEqualTo(10);
+        assertThat(all.aggregateTradeId(0)).isEqualTo(16L);
+        assertThat(all.aggregateTradeId(9)).isEqualTo(25L);
+        assertThat(all.lastPrice()).isEqualTo(125.0);
+
+        TradeWindow last3 = ring.last(3);
+        assertThat(last3.size()).isEqualTo(3);
+        assertThat(last3.price(0)).isEqualTo(123.0);
+        assertThat(last3.isBuyerMaker(1)).isTrue();
+        assertThat(last3.isIntact()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should find window by trade time with binary search")
+    void shouldReturnWindowByTime() {
+        TradeRing ring = ringWith(10, 25);
+
+        TradeWindow w = ring.since(20_500L);
+        assertThat(w.size()).isEqualTo(5);
+        assertThat(w.time(0)).isEqualTo(21_000L);
+
+        assertThat(ring.since(0L).size()).isEqualTo(10);
+        assertThat(ring.since(1_000_000L).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should drop duplicate and older trades by aggregateTradeId")
+    void shouldDropDuplicates() {
+        TradeRing ring = ringWith(10, 5);
+
+        assertThat(ring.append(3_000L, 3, 1.0, 1.0, false)).isFalse();
+        assertThat(ring.append(6_000L, 6, 1.0, 1.0, false)).isTrue();
+        assertThat(ring.size()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Window should report itself broken once the writer wraps over it")
+    void shouldDetectOverwrite() {
+        TradeRing ring = ringWith(4, 4);
+        TradeWindow w = ring.all();
+
+        for (int i = 5; i <= 8; i++) {
+            ring.append(i * 1_000L, i, 1.0, 1.0, false);
+        }
+        // ёмкость 8 — первые слоты окна ещё живы
+        assertThat(w.isIntact()).isTrue();
+
+        ring.append(9_000L, 9, 1.0, 1.0, false);
+        assertThat(w.isIntact()).isFalse();
+        assertThat(TradeWindow.EMPTY.isIntact()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Readers should never accept a torn window while writer is running")
+    void shouldGiveConsistentWindowsUnderConcurrentWrites() throws Exception {
+        TradeRing ring = new TradeRing(64);
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            long id = 1;
+            while (!stop.get()) {
+                ring.append(id, id, id, id, false);
+                id++;
+            }
+        });
+        writer.start();
+        try {
+            int checked = 0;
+            while (checked < 10_000) {
+                TradeWindow w = ring.all();
+                boolean consistent = true;
+                for (int i = 0; i < w.size(); i++) {
+                    long id = w.aggregateTradeId(i);
+                    if (w.price(i) != id || w.time(i) != id || (i > 0 && id != w.aggregateTradeId(i - 1) + 1)) {
+                        consistent = false;
+                    }
+                }
+                if (w.isIntact()) {
+                    assertThat(consistent).isTrue();
+                    checked++;
+                }
+            }
+        } finally {
+            stop.set(true);
+            writer.join();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package io.cryptobot.market_data.depth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DepthBookSync Tests")
+class DepthBookSyncTest {
+
+    private DepthBookSync sync;
+
+    @BeforeEach
+    void setUp() {
+        sync = new DepthBookSync("BTCUSDT");
+    }
+
+    private static List<BigDecimal> level(String price, String qty) {
+        return List.of(new BigDecimal(price), new BigDecimal(qty));
+    }
+
+    private static DepthUpdateModel update(long U, long u, long pu, List<List<BigDecimal>> bids) {
+        return DepthUpdateModel.builder()
+                .symbol("BTCUSDT")
+                .firstUpdateId(U)
+                .finalUpdateId(u)
+                .prevFinalUpdateId(pu)
+                .bids(bids)
+                .asks(List.of())
+                .build();
+    }
+
+    private static DepthSnapshotModel snapshot(long lastUpdateId) {
+        DepthSnapshotModel s = new DepthSnapshotModel();
+        s.setLastUpdateId(lastUpdateId);
+        s.setBids(List.of(level("100", "1"), level("99", "2")));
+        s.setAsks(List.of(level("101", "1")));
+        return s;
+    }
+
+    @Test
+    @DisplayName("Should buffer updates while snapshot loads and replay those after lastUpdateId")
+    void shouldReplayBufferedUpdates() {
+        assertTrue(sync.onUpdate(update(1, 5, 0, List.of(level("98", "1")))));
+        assertTrue(sync.attachInflight(new CompletableFuture<>()));
+        assertFalse(sync.onUpdate(update(6, 10, 5, List.of(level("100", "3")))));
+        assertFalse(sync.onUpdate(update(11, 15, 10, List.of(level("99", "0")))));
+        assertFalse(sync.isReady());
+
+        assertTrue(sync.onSnapshot(snapshot(8)));
+
+        assertTrue(sync.isReady());
+        DepthModel book = sync.getBook();
+        assertEquals(15, book.getLastUpdateId());
+        assertEquals(0, new BigDecimal("3").compareTo(book.getBids().get(new BigDecimal("100"))));
+        assertNull(book.getBids().get(new BigDecimal("99")));
+        // событие u=5 < 8 отброшено
+        assertNull(book.getBids().get(new BigDecimal("98")));
+    }
+
+    @Test
+    @DisplayName("Should buffer a copy of a reused primitive diff")
+    void shouldBufferCopyOfReusedDiff() {
+        DepthDiff diff = new DepthDiff();
+        assertTrue(sync.attachInflight(new CompletableFuture<>()));
+
+        diff.setSymbol("BTCUSDT");
+        diff.setFirstUpdateId(6);
+        diff.setFinalUpdateId(10);
+        diff.setPrevFinalUpdateId(5);
+        diff.getBids().add(10_050L, 2, 3.0);   // 100.50
+        assertFalse(sync.onUpdate(diff));
+
+        // вызывающий переиспользует тот же объект для следующего кадра
+        diff.reset();
+        diff.setSymbol("BTCUSDT");
+        diff.setFirstUpdateId(11);
+        diff.setFinalUpdateId(15);
+        diff.setPrevFinalUpdateId(10);
+        diff.getAsks().add(10_100L, 2, 0.0);   // 101.00 удалён
+        assertFalse(sync.onUpdate(diff));
+
+        assertTrue(sync.onSnapshot(snapshot(8)));
+
+        DepthModel book = sync.getBook();
+        assertEquals(15, book.getLastUpdateId());
+        assertEquals(0, new BigDecimal("100.50").compareTo(book.getBestBid()));
+        assertEquals(3.0, book.bidVolume(1), 1e-9);
+        assertNull(book.getBestAsk());
+    }
+
+    @Test
+    @DisplayName("Should detect gap by pu, mark book not ready and request snapshot")
+    void shouldDetectGap() {
+        sync.install(snapshot(10));
+        assertFalse(sync.onUpdate(update(9, 12, 8, List.of())));
+        assertTrue(sync.isReady());
+
+        boolean needSnapshot = sync.onUpdate(update(20, 25, 18, List.of()));
+
+        assertTrue(needSnapshot);
+        assertFalse(sync.isReady());
+        assertEquals(1, sync.getGaps());
+    }
+
+    @Test
+    @DisplayName("Should request another snapshot when it does not bridge buffered events")
+    void shouldRefetchStaleSnapshot() {
+        sync.attachInflight(new CompletableFuture<>());
+        sync.onUpdate(update(50, 55, 49, List.of()));
+
+        assertFalse(sync.onSnapshot(snapshot(10)));
+        assertFalse(sync.isReady());
+    }
+
+    @Test
+    @DisplayName("Should wait for the backoff before refetching a snapshot that does not bridge")
+    void shouldBackOffAfterStaleSnapshot() {
+        assertTrue(sync.attachInflight(new CompletableFuture<>(), 0));
+        sync.onUpdate(update(50, 55, 49, List.of()));
+
+        assertFalse(sync.onSnapshot(snapshot(10), 1_000));
+        assertTrue(sync.onUpdate(update(56, 60, 55, List.of())));   // событие просит снапшот…
+        assertFalse(sync.attachInflight(new CompletableFuture<>(), 1_000));   // …но пауза ещё идёт
+        assertFalse(sync.attachInflight(new CompletableFuture<>(), 1_000 + DepthBookSync.RETRY_BASE_MS - 1));
+        assertTrue(sync.attachInflight(new CompletableFuture<>(), 1_000 + DepthBookSync.RETRY_BASE_MS));
+
+        assertFalse(sync.onSnapshot(snapshot(20), 3_000));
+        assertFalse(sync.attachInflight(new CompletableFuture<>(), 3_000 + 2 * DepthBookSync.RETRY_BASE_MS - 1));
+        assertTrue(sync.attachInflight(new CompletableFuture<>(), 3_000 + 2 * DepthBookSync.RETRY_BASE_MS));
+
+        assertTrue(sync.onSnapshot(snapshot(52), 6_000));
+        assertTrue(sync.isReady());
+        assertEquals(60, sync.getBook().getLastUpdateId());
+    }
+
+    @Test
+    @DisplayName("Should merge concurrent snapshot requests into one")
+    void shouldMergeSnapshotRequests() {
+        assertTrue(sync.attachInflight(new CompletableFuture<>()));
+        assertFalse(sync.attachInflight(new CompletableFuture<>()));
+        assertFalse(sync.onUpdate(update(1, 2, 0, List.of())));
+    }
+
+    @Test
+    @DisplayName("Should back off exponentially after failed snapshots and reset after a good one")
+    void shouldBackOffAfterFailedSnapshots() {
+        assertTrue(sync.attachInflight(new CompletableFuture<>(), 0));
+        sync.onSnapshotFailed(0);
+        assertTrue(sync.onUpdate(update(1, 2, 0, List.of())));   // событие просит снапшот…
+        assertFalse(sync.attachInflight(new CompletableFuture<>(), 500));   // …но пауза ещё идёт
+        assertTrue(sync.attachInflight(new CompletableFuture<>(), DepthBookSync.RETRY_BASE_MS));
+
+        sync.onSnapshotFailed(1_000);
+        assertFalse(sync.attachInflight(new CompletableFuture<>(), 1_000 + 2 * DepthBookSync.RETRY_BASE_MS - 1));
+        assertTrue(sync.attachInflight(new CompletableFuture<>(), 1_000 + 2 * DepthBookSync.RETRY_BASE_MS));
+
+        assertTrue(sync.onSnapshot(snapshot(1)));
+        sync.onSnapshotFailed(10_000);
+        assertTrue(sync.attachInflight(new CompletableFuture<>(), 10_000 + DepthBookSync.RETRY_BASE_MS));
+    }
+
+    @Test
+    @DisplayName("Should ignore stale updates once book is ready")
+    void shouldIgnoreStaleUpdates() {
+        sync.install(snapshot(100));
+
+        assertFalse(sync.onUpdate(update(80, 90, 79, List.of(level("50", "1")))));
+
+        assertTrue(sync.isReady());
+        assertEquals(100, sync.getBook().getLastUpdateId());
+        assertNull(sync.getBook().getBids().get(new BigDecimal("50")));
+    }
+
+    @Test
+    @DisplayName("Should keep serving old book when replenish snapshot does not bridge")
+    void shouldKeepOldBookOnFailedReplenish() {
+        sync.install(snapshot(10));
+        sync.onUpdate(update(9, 12, 8, List.of()));
+        assertTrue(sync.beginReplenish(100_000, 30_000));
+        sync.attachInflight(new CompletableFuture<>());
+        sync.onUpdate(update(13, 20, 12, List.of()));
+
+        assertTrue(sync.onSnapshot(snapshot(5)));
+        assertTrue(sync.isReady());
+        assertEquals(20, sync.getBook().getLastUpdateId());
+        assertFalse(sync.beginReplenish(110_000, 30_000));
+    }
+
+    @Test
+    @DisplayName("Should publish immutable snapshot with lastUpdateId and event time after each batch")
+    void shouldPublishImmutableSnapshot() {
+        sync.install(snapshot(10));
+        DepthBookSnapshot installed = sync.getSnapshot();
+        assertEquals(10, installed.getLastUpdateId());
+        assertEquals(new BigDecimal("100"), installed.getBestBid());
+        assertEquals(new BigDecimal("101"), installed.getBestAsk());
+
+        DepthUpdateModel u = update(9, 12, 8, List.of(level("100.5", "4")));
+        u.setEventTime(777L);
+        sync.onUpdate(u);
+
+        DepthBookSnapshot next = sync.getSnapshot();
+        assertNotSame(installed, next);
+        assertEquals(12, next.getLastUpdateId());
+        assertEquals(777L, next.getEventTime());
+        assertEquals(0, new BigDecimal("100.5").compareTo(next.getBestBid()));
+        assertEquals(5.0, next.bidVolume(2), 1e-9);
+        // прежний срез не изменился
+        assertEquals(new BigDecimal("100"), installed.getBestBid());
+        assertEquals(2, installed.getBidCount());
+    }
+}
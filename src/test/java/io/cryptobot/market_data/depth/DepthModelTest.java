@@ -0,0 +1,160 @@
+package io.cryptobot.market_data.depth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DepthModel / PriceLadder Tests")
+class DepthModelTest {
+
+    private static BigDecimal bd(String v) {
+        return new BigDecimal(v);
+    }
+
+    @Test
+    @DisplayName("Should keep best bid/ask and n-th levels on the tick grid")
+    void shouldReturnBestAndNthLevels() {
+        DepthModel dm = new DepthModel(1, bd("0.10"));
+        dm.setBid(bd("100.0"), bd("1"));
+        dm.setBid(bd("99.8"), bd("2"));
+        dm.setBid(bd("99.9"), bd("3"));
+        dm.setAsk(bd("100.1"), bd("4"));
+        dm.setAsk(bd("100.5"), bd("5"));
+
+        assertEquals(bd("100.0"), dm.getBestBid());
+        assertEquals(bd("100.1"), dm.getBestAsk());
+        assertEquals(bd("99.9"), dm.bidPrice(1));
+        assertEquals(bd("99.8"), dm.bidPrice(2));
+        assertNull(dm.bidPrice(3));
+        assertEquals(bd("100.5"), dm.askPrice(1));
+        assertEquals(4.0, dm.bidVolume(2), 1e-9);
+        assertEquals(9.0, dm.askVolume(10), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should remove levels on zero quantity and move best to the next level")
+    void shouldRemoveLevels() {
+        DepthModel dm = new DepthModel(1, bd("0.1"));
+        dm.setAsk(bd("10.0"), bd("1"));
+        dm.setAsk(bd("10.3"), bd("1"));
+
+        dm.setAsk(bd("10.0"), BigDecimal.ZERO);
+
+        assertEquals(bd("10.3"), dm.getBestAsk());
+        assertEquals(1, dm.askLevels());
+
+        dm.setAsk(bd("10.3"), null);
+        assertNull(dm.getBestAsk());
+        assertEquals(0, dm.askLevels());
+    }
+
+    @Test
+    @DisplayName("Should infer tick from price scale and refine it for finer prices")
+    void shouldInferAndRefineTick() {
+        DepthModel dm = new DepthModel();
+        dm.setBid(bd("100"), bd("1"));
+        dm.setBid(bd("99"), bd("1"));
+        assertEquals(bd("1"), dm.getTickSize());
+
+        dm.setBid(bd("99.5"), bd("2"));
+
+        assertEquals(bd("0.1"), dm.getTickSize());
+        assertEquals(0, bd("100").compareTo(dm.getBestBid()));
+        assertEquals(0, bd("99.5").compareTo(dm.bidPrice(1)));
+        assertEquals(0, bd("99").compareTo(dm.bidPrice(2)));
+    }
+
+    @Test
+    @DisplayName("Should apply unscaled prices the same way as BigDecimal ones")
+    void shouldApplyUnscaledPrices() {
+        DepthModel dm = new DepthModel();
+        dm.setBid(10_000L, 2, 1.5);    // 100.00
+        dm.setBid(9_990L, 2, 2.0);     // 99.90
+        dm.setAsk(100_005L, 3, 3.0);  // 100.005 — шаг мельчает до 0.001
+        dm.setAsk(10_001L, 2, 4.0);    // 100.01
+
+        assertEquals(bd("0.001"), dm.getTickSize());
+        assertEquals(0, bd("100.00").compareTo(dm.getBestBid()));
+        assertEquals(0, bd("99.90").compareTo(dm.bidPrice(1)));
+        assertEquals(0, bd("100.005").compareTo(dm.getBestAsk()));
+        assertEquals(0, bd("100.01").compareTo(dm.askPrice(1)));
+
+        dm.setBid(bd("100.00"), bd("0"));
+        dm.setAsk(100_005L, 3, 0.0);
+
+        assertEquals(0, bd("99.90").compareTo(dm.getBestBid()));
+        assertEquals(0, bd("100.01").compareTo(dm.getBestAsk()));
+        assertEquals(2.0, dm.bidVolume(5), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should match the old BigDecimal skip-list book on random diffs")
+    void shouldMatchReferenceBook() {
+        DepthModel dm = new DepthModel(1, bd("0.01"));
+        TreeMap<BigDecimal, BigDecimal> refBids = new TreeMap<>(Comparator.reverseOrder());
+        TreeMap<BigDecimal, BigDecimal> refAsks = new TreeMap<>();
+        Random rnd = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            boolean bid = rnd.nextBoolean();
+            // цены вокруг 500.00, ±3.00
+            BigDecimal price = BigDecimal.valueOf(bid ? 50_000 - rnd.nextInt(300) : 50_001 + rnd.nextInt(300), 2);
+            BigDecimal qty = rnd.nextInt(4) == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(1 + rnd.nextInt(1000), 3);
+            TreeMap<BigDecimal, BigDecimal> ref = bid ? refBids : refAsks;
+            if (qty.signum() == 0) ref.remove(price); else ref.put(price, qty);
+            if (bid) dm.setBid(price, qty); else dm.setAsk(price, qty);
+        }
+
+        assertSameTop(refBids, dm.getBids());
+        assertSameTop(refAsks, dm.getAsks());
+        assertEquals(refBids.firstKey(), dm.getBestBid());
+        assertEquals(refAsks.firstKey(), dm.getBestAsk());
+        double refTop = refBids.values().stream().limit(10).mapToDouble(BigDecimal::doubleValue).sum();
+        assertEquals(refTop, dm.bidVolume(10), 1e-9);
+    }
+
+    private static void assertSameTop(NavigableMap<BigDecimal, BigDecimal> ref, NavigableMap<BigDecimal, BigDecimal> actual) {
+        var it = actual.entrySet().iterator();
+        int n = 0;
+        for (Map.Entry<BigDecimal, BigDecimal> e : ref.entrySet()) {
+            if (n++ == DepthModel.MAX_LEVELS) break;
+            Map.Entry<BigDecimal, BigDecimal> a = it.next();
+            assertEquals(e.getKey(), a.getKey());
+            assertEquals(0, e.getValue().compareTo(a.getValue()));
+        }
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    @DisplayName("PriceLadder should shift window for better prices and drop levels beyond it")
+    void ladderShouldShiftWindow() {
+        PriceLadder ladder = new PriceLadder(64);
+        ladder.set(1_000, 1.0);
+        ladder.set(1_040, 2.0);
+
+        // лучше окна — окно сдвигается вниз, хвост 1_040 выпадает
+        ladder.set(950, 3.0);
+        assertEquals(950, ladder.best());
+        assertEquals(0.0, ladder.qty(1_040));
+        assertEquals(2, ladder.levels());
+
+        // глубже окна — игнорируется
+        ladder.set(2_000, 1.0);
+        assertEquals(2, ladder.levels());
+        assertEquals(1_000, ladder.levelKey(1));
+        assertEquals(PriceLadder.EMPTY, ladder.levelKey(2));
+
+        ladder.remove(950);
+        ladder.remove(1_000);
+        assertTrue(ladder.isEmpty());
+        assertEquals(PriceLadder.EMPTY, ladder.best());
+    }
+}
@@ -0,0 +1,117 @@
+package io.cryptobot.market_data.klines;
+
+import io.cryptobot.market_data.klines.enums.IntervalE;
+import io.cryptobot.market_data.klines.model.KlineModel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("KlineRing Tests")
+class KlineRingTest {
+    private static final long MINUTE = 60_000L;
+
+    private static KlineModel kline(long n, long trades) {
+        KlineModel k = new KlineModel();
+        k.setOpenTime(n * MINUTE);
+        k.setCloseTime((n + 1) * MINUTE - 1);
+        k.setNumberOfTrades(trades);
+        k.setInterval(IntervalE.ONE_MINUTE);
+        return k;
+    }
+
+    private static List<Long> openTimes(List<KlineModel> klines) {
+        return klines.stream().map(k -> k.getOpenTime() / MINUTE).toList();
+    }
+
+    @Test
+    @DisplayName("Should keep last maxKlines intervals in chronological order")
+    void shouldKeepWindow() {
+        KlineRing ring = new KlineRing(IntervalE.ONE_MINUTE, 5);
+        for (long n = 1; n <= 12; n++) ring.put(kline(n, 10));
+
+        assertThat(openTimes(ring.snapshot())).containsExactly(8L, 9L, 10L, 11L, 12L);
+        assertThat(ring.latest().getOpenTime()).isEqualTo(12 * MINUTE);
+        assertThat(ring.size()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should insert out-of-order backfill and drop klines older than the window")
+    void shouldAcceptBackfill() {
+        KlineRing ring = new KlineRing(IntervalE.ONE_MINUTE, 5);
+        ring.put(kline(20, 10));
+        ring.put(kline(18, 10));
+
+        // REST-догрузка пришла после WS и в обратном порядке
+        assertThat(ring.put(kline(17, 10))).isTrue();
+        assertThat(ring.put(kline(19, 10))).isTrue();
+        assertThat(ring.put(kline(15, 10))).isFalse();
+
+        assertThat(openTimes(ring.snapshot())).containsExactly(17L, 18L, 19L, 20L);
+        assertThat(ring.latest().getOpenTime()).isEqualTo(20 * MINUTE);
+    }
+
+    @Test
+    @DisplayName("Should replace duplicate only with a kline that has at least as many trades")
+    void shouldDeduplicate() {
+        KlineRing ring = new KlineRing(IntervalE.ONE_MINUTE, 5);
+        ring.put(kline(3, 10));
+
+        assertThat(ring.put(kline(3, 4))).isFalse();
+        KlineModel closed = kline(3, 25);
+        assertThat(ring.put(closed)).isTrue();
+
+        assertThat(ring.snapshot()).containsExactly(closed);
+    }
+
+    @Test
+    @DisplayName("Should skip gaps and forget stale slots after a jump forward")
+    void shouldHandleGaps() {
+        KlineRing ring = new KlineRing(IntervalE.ONE_MINUTE, 4);
+        ring.put(kline(1, 1));
+        ring.put(kline(2, 1));
+        ring.put(kline(4, 1));
+
+        assertThat(openTimes(ring.snapshot())).containsExactly(1L, 2L, 4L);
+
+        // слот 9 совпадает по маске со слотом 1, но сам номер 1 уже вне окна
+        ring.put(kline(10, 1));
+        assertThat(openTimes(ring.snapshot())).containsExactly(10L);
+    }
+
+    @Test
+    @DisplayName("Snapshot should be immutable and reused until the next write")
+    void shouldReuseSnapshot() {
+        KlineRing ring = new KlineRing(IntervalE.ONE_MINUTE, 5);
+        assertThat(ring.snapshot()).isEmpty();
+        assertThat(ring.latest()).isNull();
+
+        ring.put(kline(1, 1));
+        List<KlineModel> first = ring.snapshot();
+        assertThat(ring.snapshot()).isSameAs(first);
+        assertThatThrownBy(() -> first.add(kline(2, 1))).isInstanceOf(UnsupportedOperationException.class);
+
+        ring.put(kline(2, 1));
+        assertThat(ring.snapshot()).isNotSameAs(first).hasSize(2);
+        assertThat(first).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Calendar months should map to distinct slots")
+    void shouldSeparateMonths() {
+        KlineRing ring = new KlineRing(IntervalE.ONE_MONTH, 12);
+        long feb = 1_706_745_600_000L; // 2024-02-01
+        long mar = 1_709_251_200_000L; // 2024-03-01
+        KlineModel a = kline(0, 1);
+        a.setOpenTime(feb);
+        KlineModel b = kline(0, 1);
+        b.setOpenTime(mar);
+        ring.put(a);
+        ring.put(b);
+
+        assertThat(ring.snapshot()).containsExactly(a, b);
+    }
+}
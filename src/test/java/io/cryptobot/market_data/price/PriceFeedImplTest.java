@@ -0,0 +1,117 @@
+package io.cryptobot.market_data.price;
+
+import io.cryptobot.market_data.ticker24h.Ticker24hService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DisplayName("PriceFeedImpl Tests")
+@ExtendWith(MockitoExtension.class)
+class PriceFeedImplTest {
+
+    @Mock
+    private Ticker24hService ticker24hService;
+
+    private PriceFeedImpl priceFeed;
+
+    @BeforeEach
+    void setUp() {
+        priceFeed = new PriceFeedImpl(ticker24hService);
+    }
+
+    @Test
+    @DisplayName("Should fall back to 24h ticker until the feed has data")
+    void shouldFallBackToTicker() {
+        when(ticker24hService.getPrice("BTCUSDT")).thenReturn(new BigDecimal("50000"));
+
+        assertThat(priceFeed.getPrice("BTCUSDT")).isEqualByComparingTo("50000");
+        assertThat(priceFeed.price("BTCUSDT")).isNaN();
+        assertThat(priceFeed.getQuote("BTCUSDT")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should use last trade, or the book side once the book moved past it")
+    void shouldPickPrice() {
+        priceFeed.onBookTicker("BTCUSDT", 1, 1_000L, 99.9, 1.0, 100.1, 2.0);
+        assertThat(priceFeed.price("BTCUSDT")).isEqualTo(100.0); // без сделок — середина спреда
+
+        priceFeed.onTrade("BTCUSDT", 1_001L, 100.1);
+        assertThat(priceFeed.getPrice("btcusdt")).isEqualByComparingTo("100.1");
+
+        // стакан ушёл вниз, сделки ещё не было
+        priceFeed.onBookTicker("BTCUSDT", 2, 1_002L, 99.5, 1.0, 99.6, 1.0);
+        assertThat(priceFeed.price("BTCUSDT")).isEqualTo(99.6);
+
+        priceFeed.onTrade("BTCUSDT", 1_003L, 99.55);
+        assertThat(priceFeed.price("BTCUSDT")).isEqualTo(99.55);
+        verifyNoInteractions(ticker24hService);
+    }
+
+    @Test
+    @DisplayName("Should ignore stale book updates and expose a consistent quote")
+    void shouldIgnoreStaleBook() {
+        priceFeed.onBookTicker("ETHUSDT", 10, 1_000L, 2000.0, 1.0, 2000.5, 1.0);
+        priceFeed.onBookTicker("ETHUSDT", 9, 999L, 1.0, 1.0, 2.0, 1.0);
+        priceFeed.onMarkPrice("ETHUSDT", 1_000L, 2000.2);
+
+        PriceQuote q = priceFeed.getQuote("ETHUSDT");
+        assertThat(q.bid()).isEqualTo(2000.0);
+        assertThat(q.ask()).isEqualTo(2000.5);
+        assertThat(q.spread()).isEqualTo(0.5);
+        assertThat(q.mark()).isEqualTo(2000.2);
+        assertThat(q.lastTrade()).isNaN();
+    }
+
+    @Test
+    @DisplayName("Should notify listeners only when the price moves")
+    void shouldNotifyOnPriceMove() {
+        List<Double> seen = new ArrayList<>();
+        PriceListener listener = (symbol, price) -> seen.add(price);
+        priceFeed.addListener(listener);
+
+        priceFeed.onBookTicker("BTCUSDT", 1, 1_000L, 99.0, 1.0, 101.0, 1.0);
+        priceFeed.onBookTicker("BTCUSDT", 2, 1_001L, 99.0, 5.0, 101.0, 7.0); // изменились только объёмы
+        priceFeed.onTrade("BTCUSDT", 1_002L, 100.5);
+        priceFeed.removeListener(listener);
+        priceFeed.onTrade("BTCUSDT", 1_003L, 100.7);
+
+        assertThat(seen).containsExactly(100.0, 100.5);
+    }
+
+    @Test
+    @DisplayName("Readers should never see bid and ask from different updates")
+    void shouldPublishBookAtomically() throws Exception {
+        priceFeed.onBookTicker("BTCUSDT", 1, 1L, 1.0, 1.0, 2.0, 1.0);
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            long id = 2;
+            while (!stop.get()) {
+                priceFeed.onBookTicker("BTCUSDT", id, id, id, 1.0, id + 1.0, 1.0);
+                id++;
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 100_000; i++) {
+                PriceQuote q = priceFeed.getQuote("BTCUSDT");
+                assertThat(q.ask() - q.bid()).isEqualTo(1.0);
+                assertThat((double) q.bookTime()).isEqualTo(q.bid());
+            }
+        } finally {
+            stop.set(true);
+            writer.join();
+        }
+    }
+}
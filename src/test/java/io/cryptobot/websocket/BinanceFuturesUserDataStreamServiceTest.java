@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.cryptobot.binance.order.enums.OrderSide;
 import io.cryptobot.binance.order.enums.OrderStatus;
+import io.cryptobot.binance.order.fill.OrderFillRegistry;
 import io.cryptobot.binance.order.model.Order;
 import io.cryptobot.binance.order.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,12 +27,15 @@ class BinanceFuturesUserDataStreamServiceTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private OrderFillRegistry fillRegistry;
+
     private BinanceFuturesUserDataStreamService userDataStreamService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
     void setUp() {
-        userDataStreamService = new BinanceFuturesUserDataStreamService(orderService);
+        userDataStreamService = new BinanceFuturesUserDataStreamService(orderService, fillRegistry);
     }
 
     @Test
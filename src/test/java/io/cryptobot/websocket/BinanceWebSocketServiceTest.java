@@ -6,6 +6,7 @@ import io.cryptobot.helpers.MainHelper;
 import io.cryptobot.market_data.aggTrade.AggTradeService;
 import io.cryptobot.market_data.depth.DepthService;
 import io.cryptobot.market_data.klines.service.KlineService;
+import io.cryptobot.market_data.price.PriceFeed;
 import io.cryptobot.market_data.ticker24h.Ticker24hService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -39,13 +40,16 @@ class BinanceWebSocketServiceTest {
     @Mock
     private DepthService depthService;
 
+    @Mock
+    private PriceFeed priceFeed;
+
     private BinanceWebSocketService webSocketService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
     void setUp() {
         webSocketService = new BinanceWebSocketService(
-                mainHelper, klineService, ticker24hService, aggTradeService, depthService
+                mainHelper, klineService, ticker24hService, aggTradeService, depthService, priceFeed
         );
     }
 
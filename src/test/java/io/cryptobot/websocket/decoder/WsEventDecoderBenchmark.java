@@ -0,0 +1,98 @@
+package io.cryptobot.websocket.decoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cryptobot.binance.order.mapper.OrderMapper;
+import io.cryptobot.market_data.aggTrade.AggTradeMapper;
+import io.cryptobot.market_data.depth.DepthMapper;
+import io.cryptobot.market_data.klines.mapper.KlineMapper;
+import io.cryptobot.market_data.ticker24h.Ticker24hMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сравнение readTree + маппер и потокового {@link WsEventDecoder} на записанных кадрах
+ * (src/test/resources/ws-frames). Это не unit-тест — surefire его не подхватывает, запуск вручную:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.cryptobot.websocket.decoder.WsEventDecoderBenchmark
+ * </pre>
+ * Печатает ns/кадр и байт/кадр (через com.sun.management.ThreadMXBean, если доступен).
+ */
+public class WsEventDecoderBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURE_ROUNDS = 100_000;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        List<String> frames = new ArrayList<>(WsEventDecoderTest.loadFrames("/ws-frames/market-frames.jsonl"));
+        frames.addAll(WsEventDecoderTest.loadFrames("/ws-frames/user-frames.jsonl"));
+        String[] data = frames.toArray(new String[0]);
+        WsEventDecoder decoder = new WsEventDecoder();
+
+        run("readTree (warmup)", data, WARMUP_ROUNDS, WsEventDecoderBenchmark::decodeTree);
+        run("streaming (warmup)", data, WARMUP_ROUNDS, f -> decodeStreaming(decoder, f));
+
+        run("readTree", data, MEASURE_ROUNDS, WsEventDecoderBenchmark::decodeTree);
+        run("streaming", data, MEASURE_ROUNDS, f -> decodeStreaming(decoder, f));
+        System.out.println("sink=" + sink);
+    }
+
+    /** Старый путь: дерево + мапперы, как было в BinanceWebSocketService до декодера. */
+    private static void decodeTree(String frame) throws Exception {
+        JsonNode json = objectMapper.readTree(frame);
+        Object out = switch (json.path("e").asText()) {
+            case "kline" -> KlineMapper.parseKlineFromWs(json);
+            case "24hrTicker" -> Ticker24hMapper.from24hTicker(json);
+            case "aggTrade" -> AggTradeMapper.fromJson(json);
+            case "depthUpdate" -> DepthMapper.fromJson(json);
+            case "ORDER_TRADE_UPDATE" -> OrderMapper.fromWS(json.path("o"));
+            default -> null;
+        };
+        if (out != null) sink += out.hashCode();
+    }
+
+    /** Новый путь: только заполнение пуловых событий, без материализации моделей. */
+    private static void decodeStreaming(WsEventDecoder decoder, String frame) throws Exception {
+        switch (decoder.decode(frame)) {
+            case KLINE -> sink += decoder.kline().getOpenTime();
+            case TICKER_24H -> sink += decoder.ticker().getLastPrice().unscaled();
+            case AGG_TRADE -> sink += decoder.aggTrade().getPrice().unscaled();
+            case DEPTH_UPDATE -> sink += decoder.depth().getBids().size();
+            case ORDER_TRADE_UPDATE -> sink += decoder.orderUpdate().getOrder().getOrderId();
+            default -> sink++;
+        }
+    }
+
+    private interface FrameDecoder {
+        void decode(String frame) throws Exception;
+    }
+
+    private static void run(String name, String[] frames, int rounds, FrameDecoder decoder) throws Exception {
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (String f : frames) {
+                decoder.decode(f);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytesAfter = allocatedBytes();
+        long total = (long) rounds * frames.length;
+        System.out.printf("%-20s %8.1f ns/frame %10s B/frame%n",
+                name, (double) elapsed / total,
+                bytesBefore < 0 ? "n/a" : String.format("%.0f", (double) (bytesAfter - bytesBefore) / total));
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean mx) {
+            return mx.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
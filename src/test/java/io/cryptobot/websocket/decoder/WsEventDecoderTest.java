@@ -0,0 +1,200 @@
+package io.cryptobot.websocket.decoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cryptobot.binance.order.mapper.OrderMapper;
+import io.cryptobot.binance.order.model.Order;
+import io.cryptobot.market_data.aggTrade.AggTradeMapper;
+import io.cryptobot.market_data.depth.DepthDiff;
+import io.cryptobot.market_data.depth.DepthLevels;
+import io.cryptobot.market_data.depth.DepthMapper;
+import io.cryptobot.market_data.klines.mapper.KlineMapper;
+import io.cryptobot.market_data.ticker24h.Ticker24hMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("WsEventDecoder Tests")
+class WsEventDecoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WsEventDecoder decoder = new WsEventDecoder();
+    private final DepthDiff diff = new DepthDiff();
+
+    static List<String> loadFrames(String resource) throws Exception {
+        try (InputStream in = WsEventDecoderTest.class.getResourceAsStream(resource)) {
+            if (in == null) throw new IllegalStateException("Resource not found: " + resource);
+            return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)).lines()
+                    .filter(l -> !l.isBlank())
+                    .toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Should decode recorded market frames exactly like tree-based mappers")
+    void shouldMatchTreeMappersOnMarketFrames() throws Exception {
+        for (String frame : loadFrames("/ws-frames/market-frames.jsonl")) {
+            JsonNode node = objectMapper.readTree(frame);
+            WsEventType type = decoder.decode(frame);
+
+            switch (node.path("e").asText()) {
+                case "aggTrade" -> {
+                    assertThat(type).isEqualTo(WsEventType.AGG_TRADE);
+                    assertThat(decoder.aggTrade().toAggTrade())
+                            .usingRecursiveComparison()
+                            .isEqualTo(AggTradeMapper.fromJson(node));
+                }
+                case "depthUpdate" -> {
+                    assertThat(type).isEqualTo(WsEventType.DEPTH_UPDATE);
+                    assertThat(decoder.depth().toDepthUpdateModel())
+                            .usingRecursiveComparison()
+                            .isEqualTo(DepthMapper.fromJson(node));
+                    assertThat(decoder.depth().getPrevFinalUpdateId()).isEqualTo(node.path("pu").asLong());
+
+                    decoder.depth().copyTo(diff);
+                    DepthDiff expected = DepthDiff.of(DepthMapper.fromJson(node));
+                    assertThat(diff.getFinalUpdateId()).isEqualTo(expected.getFinalUpdateId());
+                    assertSameLevels(diff.getBids(), expected.getBids());
+                    assertSameLevels(diff.getAsks(), expected.getAsks());
+                }
+                case "kline" -> {
+                    assertThat(type).isEqualTo(WsEventType.KLINE);
+                    assertThat(decoder.kline().toKlineModel())
+                            .usingRecursiveComparison()
+                            .isEqualTo(KlineMapper.parseKlineFromWs(node));
+                }
+                case "24hrTicker" -> {
+                    assertThat(type).isEqualTo(WsEventType.TICKER_24H);
+                    assertThat(decoder.ticker().toTicker24h())
+                            .usingRecursiveComparison()
+                            .isEqualTo(Ticker24hMapper.from24hTicker(node));
+                }
+                default -> throw new AssertionError("Unexpected frame: " + frame);
+            }
+        }
+    }
+
+    private static void assertSameLevels(DepthLevels actual, DepthLevels expected) {
+        assertThat(actual.size()).isEqualTo(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.priceUnscaled(i)).isEqualTo(expected.priceUnscaled(i));
+            assertThat(actual.priceScale(i)).isEqualTo(expected.priceScale(i));
+            assertThat(actual.qty(i)).isEqualTo(expected.qty(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should decode ORDER_TRADE_UPDATE exactly like OrderMapper.fromWS")
+    void shouldMatchOrderMapperOnUserFrames() throws Exception {
+        for (String frame : loadFrames("/ws-frames/user-frames.jsonl")) {
+            JsonNode node = objectMapper.readTree(frame);
+            WsEventType type = decoder.decode(frame);
+
+            if ("ORDER_TRADE_UPDATE".equals(node.path("e").asText())) {
+                assertThat(type).isEqualTo(WsEventType.ORDER_TRADE_UPDATE);
+                Order expected = OrderMapper.fromWS(node.path("o"));
+                assertThat(decoder.orderUpdate().getOrder())
+                        .usingRecursiveComparison()
+                        .isEqualTo(expected);
+            } else {
+                assertThat(type).isEqualTo(WsEventType.ACCOUNT_UPDATE);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should unwrap combined stream frames")
+    void shouldUnwrapCombinedStream() throws Exception {
+        String frame = """
+                {"stream":"btcusdt@aggTrade","data":{"e":"aggTrade","E":1,"s":"BTCUSDT","a":7,"p":"100.5","q":"0.2","f":1,"l":2,"T":3,"m":true}}
+                """;
+
+        assertThat(decoder.decode(frame)).isEqualTo(WsEventType.AGG_TRADE);
+        assertThat(decoder.aggTrade().getSymbol()).isEqualTo("BTCUSDT");
+        assertThat(decoder.aggTrade().getPrice().toBigDecimal()).isEqualTo(new BigDecimal("100.5"));
+        assertThat(decoder.aggTrade().isBuyerIsMaker()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should decode bookTicker and markPriceUpdate into pooled events")
+    void shouldDecodeBookTickerAndMarkPrice() throws Exception {
+        String book = """
+                {"e":"bookTicker","u":400900217,"E":1568014460893,"T":1568014460891,"s":"BNBUSDT","b":"25.35190000","B":"31.21000000","a":"25.36520000","A":"40.66000000"}
+                """;
+        assertThat(decoder.decode(book)).isEqualTo(WsEventType.BOOK_TICKER);
+        assertThat(decoder.bookTicker().getUpdateId()).isEqualTo(400900217L);
+        assertThat(decoder.bookTicker().getTransactionTime()).isEqualTo(1568014460891L);
+        assertThat(decoder.bookTicker().getBidPrice().toDouble()).isEqualTo(25.3519);
+        assertThat(decoder.bookTicker().getAskQty().toBigDecimal()).isEqualTo(new BigDecimal("40.66000000"));
+
+        String mark = """
+                {"e":"markPriceUpdate","E":1562305380000,"s":"BTCUSDT","p":"11794.15000000","i":"11784.62659091","P":"11784.25641265","r":"0.00038167","T":1562306400000}
+                """;
+        assertThat(decoder.decode(mark)).isEqualTo(WsEventType.MARK_PRICE);
+        assertThat(decoder.markPrice().getSymbol()).isEqualTo("BTCUSDT");
+        assertThat(decoder.markPrice().getMarkPrice().toDouble()).isEqualTo(11794.15);
+        assertThat(decoder.markPrice().getFundingRate().toBigDecimal()).isEqualTo(new BigDecimal("0.00038167"));
+        assertThat(decoder.markPrice().getNextFundingTime()).isEqualTo(1562306400000L);
+    }
+
+    @Test
+    @DisplayName("Should fall back when event type is not the first field")
+    void shouldHandleUnorderedFields() throws Exception {
+        String frame = """
+                {"s":"ETHUSDT","E":5,"e":"aggTrade","p":"3500.01","q":"1"}
+                """;
+
+        assertThat(decoder.decode(frame)).isEqualTo(WsEventType.AGG_TRADE);
+        assertThat(decoder.aggTrade().getSymbol()).isEqualTo("ETHUSDT");
+        assertThat(decoder.aggTrade().getEventTime()).isEqualTo(5L);
+        assertThat(decoder.aggTrade().getPrice().toBigDecimal()).isEqualTo(new BigDecimal("3500.01"));
+    }
+
+    @Test
+    @DisplayName("Should reset pooled event between frames")
+    void shouldResetPooledEvent() throws Exception {
+        decoder.decode("{\"e\":\"depthUpdate\",\"s\":\"BTCUSDT\",\"b\":[[\"1\",\"2\"],[\"3\",\"4\"]],\"a\":[]}");
+        assertThat(decoder.depth().getBids().size()).isEqualTo(2);
+
+        decoder.decode("{\"e\":\"depthUpdate\",\"s\":\"BTCUSDT\",\"b\":[[\"5\",\"6\"]]}");
+        assertThat(decoder.depth().getBids().size()).isEqualTo(1);
+        assertThat(decoder.depth().getAsks().size()).isZero();
+        assertThat(decoder.depth().getBids().price(0).toBigDecimal()).isEqualTo(new BigDecimal("5"));
+    }
+
+    @Test
+    @DisplayName("Should return UNKNOWN for unsupported or empty frames")
+    void shouldReturnUnknown() throws Exception {
+        assertThat(decoder.decode("{\"e\":\"forceOrder\",\"s\":\"BTCUSDT\",\"p\":\"1\"}")).isEqualTo(WsEventType.UNKNOWN);
+        assertThat(decoder.decode("")).isEqualTo(WsEventType.UNKNOWN);
+        assertThat(decoder.decode(null)).isEqualTo(WsEventType.UNKNOWN);
+        assertThat(decoder.decode("[]")).isEqualTo(WsEventType.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("WsDecimal should parse plain and oversized decimals")
+    void shouldParseDecimals() {
+        WsDecimal d = new WsDecimal();
+
+        d.set("-0.00012300".toCharArray(), 0, 11);
+        assertThat(d.toBigDecimal()).isEqualTo(new BigDecimal("-0.00012300"));
+        assertThat(d.toDouble()).isEqualTo(-0.000123);
+
+        char[] big = "123456789012345678901.5".toCharArray();
+        d.set(big, 0, big.length);
+        assertThat(d.isOverflow()).isTrue();
+        assertThat(d.toBigDecimal()).isEqualTo(new BigDecimal("123456789012345678901.5"));
+
+        d.set("abc".toCharArray(), 0, 3);
+        assertThat(d.isPresent()).isFalse();
+        assertThat(d.toBigDecimal()).isNull();
+    }
+}
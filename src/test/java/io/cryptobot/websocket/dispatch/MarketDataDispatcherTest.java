@@ -0,0 +1,241 @@
+package io.cryptobot.websocket.dispatch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cryptobot.helpers.MainHelper;
+import io.cryptobot.market_data.aggTrade.AggTradeService;
+import io.cryptobot.market_data.depth.DepthDiff;
+import io.cryptobot.market_data.depth.DepthLevels;
+import io.cryptobot.market_data.depth.DepthService;
+import io.cryptobot.market_data.depth.DepthServiceImpl;
+import io.cryptobot.market_data.depth.DepthSnapshotModel;
+import io.cryptobot.market_data.klines.service.KlineService;
+import io.cryptobot.market_data.price.PriceFeed;
+import io.cryptobot.market_data.ticker24h.Ticker24hService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("MarketDataDispatcher Tests")
+@ExtendWith(MockitoExtension.class)
+class MarketDataDispatcherTest {
+
+    @Mock
+    private KlineService klineService;
+    @Mock
+    private Ticker24hService ticker24hService;
+    @Mock
+    private AggTradeService aggTradeService;
+    @Mock
+    private DepthService depthService;
+    @Mock
+    private PriceFeed priceFeed;
+
+    private MarketDataDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new MarketDataDispatcher(2, 16, klineService, ticker24hService, aggTradeService, depthService, priceFeed);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    private static String aggTrade(String symbol, long id) {
+        return "{\"stream\":\"" + symbol.toLowerCase() + "@aggTrade\",\"data\":{\"e\":\"aggTrade\",\"E\":1,\"s\":\""
+                + symbol + "\",\"a\":" + id + ",\"p\":\"100.5\",\"q\":\"0.1\",\"T\":1,\"m\":false}}";
+    }
+
+    @Test
+    @DisplayName("Should decode and route frames on shard thread")
+    void shouldRouteAggTrade() {
+        dispatcher.publish(aggTrade("BTCUSDT", 1));
+
+        verify(aggTradeService, timeout(2000)).onAggTrade("BTCUSDT", 1L, 1L, 100.5, 0.1, false);
+        verify(priceFeed).onTrade("BTCUSDT", 1L, 100.5);
+        verify(aggTradeService, never()).addAggTrade(any());
+    }
+
+    @Test
+    @DisplayName("Should route all frames of one symbol to the same shard")
+    void shouldBeSymbolAffine() {
+        int shard = dispatcher.shardOf(aggTrade("BTCUSDT", 1));
+        assertThat(dispatcher.shardOf("{\"stream\":\"btcusdt@depth@500ms\",\"data\":{}}")).isEqualTo(shard);
+        assertThat(dispatcher.shardOf("{\"stream\":\"btcusdt@ticker\",\"data\":{}}")).isEqualTo(shard);
+    }
+
+    @Test
+    @DisplayName("Should keep per-symbol order and count processed frames")
+    void shouldKeepOrder() {
+        for (int i = 1; i <= 10; i++) {
+            dispatcher.publish(aggTrade("ETHUSDT", i));
+        }
+
+        ArgumentCaptor<Long> ids = ArgumentCaptor.forClass(Long.class);
+        verify(aggTradeService, timeout(2000).times(10))
+                .onAggTrade(eq("ETHUSDT"), anyLong(), ids.capture(), anyDouble(), anyDouble(), anyBoolean());
+        assertThat(ids.getAllValues()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        await().untilAsserted(() -> assertThat(dispatcher.stats().stream().mapToLong(DispatcherStats::processed).sum())
+                .isEqualTo(10));
+    }
+
+    @Test
+    @DisplayName("Should deliver depth updates without losing levels")
+    void shouldDeliverDepth() {
+        dispatcher.publish("{\"stream\":\"btcusdt@depth@500ms\",\"data\":{\"e\":\"depthUpdate\",\"E\":1,\"s\":\"BTCUSDT\","
+                + "\"U\":10,\"u\":12,\"pu\":9,\"b\":[[\"100.0\",\"1\"]],\"a\":[[\"101.0\",\"2\"]]}}");
+
+        List<DepthDiff> delivered = captureDepth();
+        await().atMost(2, TimeUnit.SECONDS).untilAsserted(() -> assertThat(delivered).hasSize(1));
+        DepthDiff diff = delivered.get(0);
+        assertThat(diff.getFirstUpdateId()).isEqualTo(10L);
+        assertThat(diff.getFinalUpdateId()).isEqualTo(12L);
+        assertThat(diff.getBids().size()).isEqualTo(1);
+        assertThat(diff.getBids().priceUnscaled(0)).isEqualTo(1000L);
+        assertThat(diff.getBids().priceScale(0)).isEqualTo(1);
+        assertThat(diff.getBids().qty(0)).isEqualTo(1.0);
+        assertThat(diff.getAsks().size()).isEqualTo(1);
+        verify(depthService, never()).processDepthUpdate(any());
+        verifyNoInteractions(aggTradeService);
+    }
+
+    @Test
+    @DisplayName("Should conflate contiguous depth frames into one primitive diff")
+    void shouldConflateContiguousDepthFrames() {
+        // Given — шард занят, пока в буфер приходят смежные диффы
+        CountDownLatch busy = blockOnAggTrade();
+        List<DepthDiff> delivered = captureDepth();
+        MarketDataDispatcher single = new MarketDataDispatcher(1, 16, klineService, ticker24hService, aggTradeService, depthService, priceFeed);
+        try {
+            single.publish(aggTrade("GAPTEST", 1));
+            verify(aggTradeService, timeout(2000)).onAggTrade(any(), anyLong(), anyLong(), anyDouble(), anyDouble(), anyBoolean());
+
+            // When
+            single.publish(depthFrame(10, 12, 9));
+            single.publish(depthFrame(13, 14, 12));
+            busy.countDown();
+
+            // Then — один дифф: U и pu от первого, u от последнего, уровни по порядку
+            await().atMost(2, TimeUnit.SECONDS).untilAsserted(() -> assertThat(delivered).hasSize(1));
+            DepthDiff diff = delivered.get(0);
+            assertThat(diff.getFirstUpdateId()).isEqualTo(10L);
+            assertThat(diff.getPrevFinalUpdateId()).isEqualTo(9L);
+            assertThat(diff.getFinalUpdateId()).isEqualTo(14L);
+            DepthLevels bids = diff.getBids();
+            assertThat(bids.size()).isEqualTo(2);
+            assertThat(bids.qty(0)).isEqualTo(12.0);
+            assertThat(bids.qty(1)).isEqualTo(14.0);
+            assertThat(single.stats().get(0).conflated()).isEqualTo(1);
+        } finally {
+            single.stop();
+        }
+    }
+
+    /** Диффы переиспользуются шардом — сохраняем копии. */
+    private List<DepthDiff> captureDepth() {
+        List<DepthDiff> delivered = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> delivered.add(inv.<DepthDiff>getArgument(0).copy())).when(depthService).processDepthDiff(any());
+        return delivered;
+    }
+
+    /** Первая же сделка держит поток шарда, пока не отпустят латч. */
+    private CountDownLatch blockOnAggTrade() {
+        CountDownLatch busy = new CountDownLatch(1);
+        doAnswer(inv -> {
+            busy.await(2, TimeUnit.SECONDS);
+            return null;
+        }).when(aggTradeService).onAggTrade(any(), anyLong(), anyLong(), anyDouble(), anyDouble(), anyBoolean());
+        return busy;
+    }
+
+    @Test
+    @DisplayName("Should not conflate depth diffs across a dropped frame so the book resyncs")
+    void shouldResyncAfterDroppedDepthFrame() throws Exception {
+        // Given — стакан из снапшота и шард, занятый обработкой, пока в буфер приходят диффы
+        MainHelper mainHelper = mock(MainHelper.class);
+        DepthServiceImpl depth = new DepthServiceImpl(new ObjectMapper(), mainHelper);
+        DepthSnapshotModel snapshot = new DepthSnapshotModel();
+        snapshot.setLastUpdateId(11);
+        snapshot.setBids(List.of(List.of(new BigDecimal("100.0"), BigDecimal.ONE)));
+        snapshot.setAsks(List.of(List.of(new BigDecimal("101.0"), BigDecimal.ONE)));
+        depth.processDepthSnapshot(snapshot, "GAPTEST");
+        assertThat(depth.hasOrderBook("GAPTEST")).isTrue();
+
+        CountDownLatch busy = blockOnAggTrade();
+        MarketDataDispatcher single = new MarketDataDispatcher(1, 16, klineService, ticker24hService, aggTradeService, depth, priceFeed);
+        try {
+            single.publish(aggTrade("GAPTEST", 1));
+            verify(aggTradeService, timeout(2000)).onAggTrade(any(), anyLong(), anyLong(), anyDouble(), anyDouble(), anyBoolean());
+
+            // When — кадр U=15..19 потерян, остальные попадают в одну пачку
+            single.publish(depthFrame(10, 12, 9));
+            single.publish(depthFrame(13, 14, 12));
+            single.publish(depthFrame(20, 22, 19));
+            busy.countDown();
+
+            // Then — смежные склеены, разрыв дошёл до синхронизации стакана и вызвал ресинк
+            await().atMost(2, TimeUnit.SECONDS).untilAsserted(() -> assertThat(depth.hasOrderBook("GAPTEST")).isFalse());
+            assertThat(single.stats().get(0).conflated()).isEqualTo(1);
+        } finally {
+            single.stop();
+            depth.shutdown();
+        }
+    }
+
+    private static String depthFrame(long first, long last, long prev) {
+        return "{\"stream\":\"gaptest@depth@100ms\",\"data\":{\"e\":\"depthUpdate\",\"E\":1,\"s\":\"GAPTEST\","
+                + "\"U\":" + first + ",\"u\":" + last + ",\"pu\":" + prev + ",\"b\":[[\"100.0\",\"" + last + "\"]],\"a\":[]}}";
+    }
+
+    @Test
+    @DisplayName("Should feed best bid/ask and mark price to PriceFeed as primitives")
+    void shouldRouteBookTickerAndMarkPrice() {
+        dispatcher.publish("{\"stream\":\"btcusdt@bookTicker\",\"data\":{\"e\":\"bookTicker\",\"u\":400900217,"
+                + "\"E\":1568014460893,\"T\":1568014460891,\"s\":\"BTCUSDT\",\"b\":\"25.35190000\",\"B\":\"31.21000000\","
+                + "\"a\":\"25.36520000\",\"A\":\"40.66000000\"}}");
+        dispatcher.publish("{\"stream\":\"btcusdt@markPrice@1s\",\"data\":{\"e\":\"markPriceUpdate\",\"E\":1562305380000,"
+                + "\"s\":\"BTCUSDT\",\"p\":\"11794.15000000\",\"i\":\"11784.62659091\",\"r\":\"0.00038167\",\"T\":1562306400000}}");
+
+        verify(priceFeed, timeout(2000)).onBookTicker("BTCUSDT", 400900217L, 1568014460891L, 25.3519, 31.21, 25.3652, 40.66);
+        verify(priceFeed, timeout(2000)).onMarkPrice("BTCUSDT", 1562305380000L, 11794.15);
+        verifyNoInteractions(aggTradeService);
+    }
+
+    @Test
+    @DisplayName("Ring should reject frames when full and drain them in order")
+    void ringShouldBeBounded() {
+        FrameRing ring = new FrameRing(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer("f" + i)).isTrue();
+        }
+        assertThat(ring.offer("overflow")).isFalse();
+        assertThat(ring.size()).isEqualTo(4);
+
+        String[] out = new String[8];
+        assertThat(ring.drainTo(out, 8)).isEqualTo(4);
+        assertThat(out).startsWith("f0", "f1", "f2", "f3");
+        assertThat(ring.size()).isZero();
+        assertThat(ring.offer("f4")).isTrue();
+    }
+}
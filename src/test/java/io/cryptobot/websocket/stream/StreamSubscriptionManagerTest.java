@@ -0,0 +1,79 @@
+package io.cryptobot.websocket.stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StreamSubscriptionManager Tests")
+class StreamSubscriptionManagerTest {
+
+    // Порт заведомо закрыт — проверяем только раскладку стримов по соединениям
+    private static final String UNREACHABLE_WS = "ws://127.0.0.1:1";
+
+    private StreamSubscriptionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new StreamSubscriptionManager(UNREACHABLE_WS, 10, msg -> { });
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.stop();
+    }
+
+    private static List<String> streams(String symbol) {
+        return List.of(symbol + "@kline_1m", symbol + "@ticker", symbol + "@aggTrade", symbol + "@depth@500ms");
+    }
+
+    @Test
+    @DisplayName("Should pack streams of many symbols into few connections")
+    void shouldPackStreams() {
+        List<String> all = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            all.addAll(streams("sym" + i + "usdt"));
+        }
+
+        manager.subscribe(all);
+
+        // 24 стрима при лимите 10 — три соединения, а не 24 сокета
+        assertThat(manager.connectionCount()).isEqualTo(3);
+        assertThat(manager.streamCount()).isEqualTo(24);
+    }
+
+    @Test
+    @DisplayName("Should add new symbol streams to existing connection with free capacity")
+    void shouldReuseExistingConnection() {
+        manager.subscribe(streams("btcusdt"));
+        manager.subscribe(streams("ethusdt"));
+
+        assertThat(manager.connectionCount()).isEqualTo(1);
+        assertThat(manager.streamCount()).isEqualTo(8);
+        assertThat(manager.isSubscribed("ethusdt@aggTrade")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should ignore duplicate subscriptions")
+    void shouldIgnoreDuplicates() {
+        manager.subscribe(streams("btcusdt"));
+        manager.subscribe(streams("btcusdt"));
+
+        assertThat(manager.streamCount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should close connection when all its streams are unsubscribed")
+    void shouldCloseEmptyConnection() {
+        manager.subscribe(streams("btcusdt"));
+        manager.unsubscribe(streams("btcusdt"));
+
+        assertThat(manager.connectionCount()).isZero();
+        assertThat(manager.isSubscribed("btcusdt@ticker")).isFalse();
+    }
+}